@@ -0,0 +1,232 @@
+package com.yellowmoonsoftware.graphql.multipart.benchmark;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>BenchmarkFixtures</h2>
+ * Builders for the operations, maps, parts and raw multipart bodies shared by the benchmarks.
+ */
+public final class BenchmarkFixtures {
+    static final String BOUNDARY = "jmh-multipart-boundary";
+
+    static final String QUERY = "mutation($input: UploadInput!) { upload(input: $input) }";
+
+    private BenchmarkFixtures() { }
+
+    /**
+     * Shape of the variable paths that files are mapped to.
+     */
+    public enum PathShape {
+        /**
+         * `variables.input.files.<i>`
+         */
+        SHALLOW(0),
+        /**
+         * `variables.input.n0.n1...n7.files.<i>`
+         */
+        DEEP(8);
+
+        private final int nesting;
+
+        PathShape(final int nesting) {
+            this.nesting = nesting;
+        }
+
+        String prefix() {
+            final StringBuilder prefix = new StringBuilder("variables.input.");
+            for (int i = 0; i < this.nesting; i++) {
+                prefix.append('n').append(i).append('.');
+            }
+            return prefix.append("files.").toString();
+        }
+    }
+
+    /**
+     * Build a mutable operations map whose `variables` hold a list of `files` null placeholders at the given shape.
+     * @param files number of placeholders
+     * @param shape nesting of the list
+     * @return operations map
+     */
+    static Map<String, Object> operations(final int files, final PathShape shape) {
+        Map<String, Object> container = new LinkedHashMap<>();
+        final Map<String, Object> input = container;
+        for (int i = 0; i < shape.nesting; i++) {
+            final Map<String, Object> child = new LinkedHashMap<>();
+            container.put("n" + i, child);
+            container = child;
+        }
+        container.put("files", new ArrayList<>(Collections.nCopies(files, null)));
+
+        final Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("input", input);
+        final Map<String, Object> operations = new LinkedHashMap<>();
+        operations.put("query", QUERY);
+        operations.put("variables", variables);
+        return operations;
+    }
+
+    /**
+     * Build the `operations` JSON with file placeholders plus `paddingBytes` of extra variable data.
+     * @param files number of file placeholders
+     * @param shape nesting of the list
+     * @param paddingBytes approximate size of additional variable data
+     * @return operations JSON
+     */
+    static String operationsJson(final int files, final PathShape shape, final int paddingBytes) {
+        final StringBuilder json = new StringBuilder(paddingBytes + files * 6 + 256);
+        json.append("{\"query\":\"").append(QUERY).append("\",\"variables\":{\"input\":{");
+        for (int i = 0; i < shape.nesting; i++) {
+            json.append("\"n").append(i).append("\":{");
+        }
+        json.append("\"files\":[");
+        for (int i = 0; i < files; i++) {
+            json.append(i == 0 ? "null" : ",null");
+        }
+        json.append(']');
+        json.append("}".repeat(shape.nesting));
+        json.append("},\"padding\":[");
+        for (int i = 0; json.length() < paddingBytes; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * Build the `map` JSON mapping file key `i` to the i-th placeholder.
+     * @param files number of files
+     * @param shape nesting of the list
+     * @return map JSON
+     */
+    static String mapJson(final int files, final PathShape shape) {
+        final String prefix = shape.prefix();
+        final StringBuilder json = new StringBuilder(files * (prefix.length() + 16));
+        json.append('{');
+        for (int i = 0; i < files; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(i).append("\":[\"").append(prefix).append(i).append("\"]");
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Encode a complete `multipart/form-data` body with {@link #BOUNDARY}.
+     * @param operationsJson `operations` JSON
+     * @param mapJson `map` JSON
+     * @param files number of file parts
+     * @param fileSize size of each file part
+     * @return encoded body
+     */
+    static byte[] multipartBody(final String operationsJson, final String mapJson, final int files, final int fileSize) {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        formField(body, "operations", operationsJson);
+        formField(body, "map", mapJson);
+        final byte[] content = new byte[fileSize];
+        for (int i = 0; i < files; i++) {
+            write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + i + "\"; filename=\"file" + i
+                    + ".bin\"\r\nContent-Type: application/octet-stream\r\n\r\n");
+            body.writeBytes(content);
+            write(body, "\r\n");
+        }
+        write(body, "--" + BOUNDARY + "--\r\n");
+        return body.toByteArray();
+    }
+
+    private static void formField(final ByteArrayOutputStream body, final String name, final String value) {
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name
+                + "\"\r\nContent-Type: application/json\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void write(final ByteArrayOutputStream body, final String value) {
+        body.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build `count` in-memory file parts keyed by their field name.
+     * @param count number of parts
+     * @return parts keyed by name
+     */
+    static Map<String, Part> fileParts(final int count) {
+        final Map<String, Part> parts = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            parts.put(String.valueOf(i), new BytesFilePart(String.valueOf(i), "file" + i + ".bin", new byte[16]));
+        }
+        return parts;
+    }
+
+    /**
+     * In-memory part whose content is re-wrapped on every subscription.
+     * @param name field name
+     * @param headers part headers
+     * @param bytes content
+     */
+    record BytesPart(String name, HttpHeaders headers, byte[] bytes) implements Part {
+        BytesPart(final String name, final String value) {
+            this(name, jsonHeaders(), value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static HttpHeaders jsonHeaders() {
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return headers;
+        }
+
+        @Override
+        public @NonNull Flux<DataBuffer> content() {
+            return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.bytes)));
+        }
+    }
+
+    /**
+     * In-memory file part.
+     * @param name field name
+     * @param filename client file name
+     * @param bytes content
+     */
+    record BytesFilePart(String name, String filename, byte[] bytes) implements FilePart {
+        @Override
+        public @NonNull HttpHeaders headers() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public @NonNull Flux<DataBuffer> content() {
+            return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.bytes)));
+        }
+
+        @Override
+        public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Build the list of mapped paths in {@link PathShape} order.
+     * @param files number of files
+     * @param shape nesting of the list
+     * @return dotted paths
+     */
+    static List<String> paths(final int files, final PathShape shape) {
+        final String prefix = shape.prefix();
+        final List<String> paths = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            paths.add(prefix + i);
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,67 @@
+package com.yellowmoonsoftware.graphql.multipart.benchmark;
+
+import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartPartKey;
+import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>DecodePartBenchmark</h2>
+ * JSON decoding of the `operations` and `map` parts through {@link GraphQlMultipartJsonDecoder#decodeValue}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodePartBenchmark {
+
+    /**
+     * Approximate size of the `operations` part: 1 KB or 4 MB.
+     */
+    @Param({"1024", "4194304"})
+    int operationsBytes;
+
+    @Param({"100", "10000"})
+    int files;
+
+    GraphQlMultipartJsonDecoder decoder;
+
+    BenchmarkFixtures.BytesPart operations;
+
+    BenchmarkFixtures.BytesPart map;
+
+    @Setup
+    public void setup() {
+        this.decoder = new GraphQlMultipartJsonDecoder(new JacksonJsonDecoder());
+        this.operations = new BenchmarkFixtures.BytesPart("operations",
+                BenchmarkFixtures.operationsJson(this.files, BenchmarkFixtures.PathShape.SHALLOW, this.operationsBytes));
+        this.map = new BenchmarkFixtures.BytesPart("map", BenchmarkFixtures.mapJson(this.files, BenchmarkFixtures.PathShape.SHALLOW));
+    }
+
+    @Benchmark
+    public Object decodeOperations() {
+        return this.decoder.<Object>decodeValue(this.operations, GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef()).block();
+    }
+
+    @Benchmark
+    public Map<String, Set<ObjectGraphPath>> decodeMap() {
+        return this.decoder.<Map<String, Set<ObjectGraphPath>>>decodeValue(this.map, GraphQlMultipartPartKey.MAP.getValueTypeRef()).block();
+    }
+}
@@ -0,0 +1,103 @@
+package com.yellowmoonsoftware.graphql.multipart.benchmark;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartBatch;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.util.IterativeMapListGraphTraverser;
+import com.yellowmoonsoftware.graphql.multipart.util.MapListGraphTraverser;
+import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.http.codec.multipart.Part;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>FileInjectionBenchmark</h2>
+ * Joining the decoded `map` to the file parts ({@code MapUtils.joinToStream}) and writing every file into the
+ * operations through the configured traverser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileInjectionBenchmark {
+
+    @Param({"1", "100", "10000"})
+    int files;
+
+    @Param({"SHALLOW", "DEEP"})
+    BenchmarkFixtures.PathShape shape;
+
+    @Param({"iterative", "recursive"})
+    String traverser;
+
+    BindingDecoder decoder;
+
+    Map<String, Object> operations;
+
+    Map<String, Set<ObjectGraphPath>> pathMap;
+
+    Map<String, Part> parts;
+
+    @Setup
+    public void setup() {
+        this.decoder = new BindingDecoder();
+        this.decoder.setLimits(GraphQlMultipartLimits.unlimited());
+        this.decoder.setTraverserFactory("recursive".equals(this.traverser)
+                ? MapListGraphTraverser::wrap
+                : IterativeMapListGraphTraverser::wrap);
+        // Injection overwrites the same slots on every invocation, so the graph can be shared across invocations.
+        this.operations = BenchmarkFixtures.operations(this.files, this.shape);
+        this.parts = BenchmarkFixtures.fileParts(this.files);
+        final List<String> paths = BenchmarkFixtures.paths(this.files, this.shape);
+        this.pathMap = new LinkedHashMap<>();
+        for (int i = 0; i < this.files; i++) {
+            this.pathMap.put(String.valueOf(i), Set.of(ObjectGraphPath.from(paths.get(i))));
+        }
+    }
+
+    @Benchmark
+    public long joinFileMap() {
+        return this.decoder.join(this.pathMap, this.parts);
+    }
+
+    @Benchmark
+    public GraphQlMultipartBatch bindFiles() {
+        return this.decoder.bind(this.operations, this.pathMap, this.parts);
+    }
+
+    /**
+     * Exposes the protected binding steps of the decoder to the benchmark.
+     */
+    static final class BindingDecoder extends GraphQlMultipartJsonDecoder {
+        BindingDecoder() {
+            super(new JacksonJsonDecoder());
+        }
+
+        long join(final Map<String, Set<ObjectGraphPath>> pathMap, final Map<String, Part> parts) {
+            return decodeFileMap(pathMap, parts).count();
+        }
+
+        GraphQlMultipartBatch bind(final Map<String, Object> operations, final Map<String, Set<ObjectGraphPath>> pathMap,
+                                   final Map<String, Part> parts) {
+            return bindFiles(operations, pathMap, parts, List.of());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.yellowmoonsoftware.graphql.multipart.benchmark;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartDecodeMode;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartWebHandler;
+import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.scalars.UploadScalar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>MultipartHandlerBenchmark</h2>
+ * End-to-end {@link GraphQlMultipartWebHandler} throughput: multipart parsing, decoding, file injection, execution
+ * against a real schema whose mutation reads every upload, and response rendering, all against an in-memory
+ * {@link ServerRequest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultipartHandlerBenchmark {
+    private static final String SCHEMA = """
+            scalar Upload
+            input UploadInput { files: [Upload] }
+            type Query { ping: String }
+            type Mutation { upload(input: UploadInput!): Int }
+            """;
+
+    @Param({"1", "100", "10000"})
+    int files;
+
+    @Param({"AGGREGATED", "STREAMING"})
+    GraphQlMultipartDecodeMode decodeMode;
+
+    /**
+     * Size of each uploaded file in bytes.
+     */
+    @Param({"1024"})
+    int fileSize;
+
+    GraphQlMultipartWebHandler handler;
+
+    HandlerStrategies strategies;
+
+    ServerResponse.Context context;
+
+    byte[] body;
+
+    @Setup
+    public void setup() {
+        final GraphQlSource source = GraphQlSource.schemaResourceBuilder()
+                .schemaResources(new ByteArrayResource(SCHEMA.getBytes(StandardCharsets.UTF_8)))
+                .configureRuntimeWiring(wiring -> wiring
+                        .scalar(UploadScalar.INSTANCE)
+                        .type("Mutation", type -> type.dataFetcher("upload", env -> {
+                            final Map<String, Object> input = env.getArgument("input");
+                            @SuppressWarnings("unchecked")
+                            final List<FilePart> uploads = (List<FilePart>) input.get("files");
+                            return Flux.fromIterable(uploads)
+                                    .concatMap(FilePart::content)
+                                    .map(MultipartHandlerBenchmark::release)
+                                    .reduce(0, Integer::sum)
+                                    .toFuture();
+                        })))
+                .build();
+        final WebGraphQlHandler webGraphQlHandler = WebGraphQlHandler.builder(new DefaultExecutionGraphQlService(source)).build();
+
+        final GraphQlMultipartLimits limits = GraphQlMultipartLimits.unlimited();
+        this.handler = new GraphQlMultipartWebHandler(new GraphQlMultipartJsonDecoder(new JacksonJsonDecoder()), webGraphQlHandler);
+        this.handler.setDecodeMode(this.decodeMode);
+        this.handler.setLimits(limits);
+
+        this.strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        this.context = new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return strategies.messageWriters();
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return List.of();
+            }
+        };
+        this.body = BenchmarkFixtures.multipartBody(
+                BenchmarkFixtures.operationsJson(this.files, BenchmarkFixtures.PathShape.SHALLOW, 0),
+                BenchmarkFixtures.mapJson(this.files, BenchmarkFixtures.PathShape.SHALLOW),
+                this.files, this.fileSize);
+    }
+
+    @Benchmark
+    public int handle() {
+        final MockServerHttpRequest request = MockServerHttpRequest.post("/graphql")
+                .contentType(new MediaType(MediaType.MULTIPART_FORM_DATA, Map.of("boundary", BenchmarkFixtures.BOUNDARY)))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentLength(this.body.length)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.body)));
+        final MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        final ServerRequest serverRequest = ServerRequest.create(exchange, this.strategies.messageReaders());
+        this.handler.handleGraphQlMultipartRequest(serverRequest)
+                .flatMap(response -> response.writeTo(exchange, this.context))
+                .block();
+        return exchange.getResponse().getStatusCode().value();
+    }
+
+    private static int release(final DataBuffer buffer) {
+        final int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
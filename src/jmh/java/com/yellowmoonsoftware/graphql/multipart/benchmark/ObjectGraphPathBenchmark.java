@@ -0,0 +1,59 @@
+package com.yellowmoonsoftware.graphql.multipart.benchmark;
+
+import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h2>ObjectGraphPathBenchmark</h2>
+ * Parsing of `map` paths through the shared cache ({@link ObjectGraphPath#from(String)}) versus uncached
+ * ({@link ObjectGraphPath#parse(String)}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectGraphPathBenchmark {
+
+    @Param({"100", "10000"})
+    int paths;
+
+    @Param({"SHALLOW", "DEEP"})
+    BenchmarkFixtures.PathShape shape;
+
+    List<String> dottedPaths;
+
+    @Setup
+    public void setup() {
+        this.dottedPaths = BenchmarkFixtures.paths(this.paths, this.shape);
+    }
+
+    @Benchmark
+    public void fromCached(final Blackhole blackhole) {
+        for (final String path : this.dottedPaths) {
+            blackhole.consume(ObjectGraphPath.from(path));
+        }
+    }
+
+    @Benchmark
+    public void parseUncached(final Blackhole blackhole) {
+        for (final String path : this.dottedPaths) {
+            blackhole.consume(ObjectGraphPath.parse(path));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <h2>BlockingUploadExecutor</h2>
+ * Runs upload-bearing GraphQL operations off the event loop, so resolvers may read uploads through
+ * {@link Upload#inputStream()} and call blocking APIs (JDBC, legacy storage clients) directly.
+ * <ul>
+ * <li>Operations are subscribed on a virtual thread per operation when the JVM provides them (Java 21+), otherwise
+ * on a bounded pool of `maxConcurrency` daemon platform threads.</li>
+ * <li>At most `maxConcurrency` operations are in flight; further operations wait for a permit without holding an
+ * event-loop thread.</li>
+ * </ul>
+ * Only the synchronous part of an operation runs on the executor: resolvers returning reactive types continue on
+ * whichever thread completes them.
+ */
+@Slf4j
+public class BlockingUploadExecutor implements AutoCloseable {
+    /**
+     * Default `maxConcurrency`.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    private static final String THREAD_PREFIX = "graphql-multipart-blocking-";
+
+    /**
+     * Maximum number of operations in flight.
+     */
+    @Getter
+    private final int maxConcurrency;
+
+    /**
+     * Whether operations run on virtual threads.
+     */
+    @Getter
+    private final boolean virtual;
+
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+    private final Semaphore permits;
+
+    /**
+     * Create an executor running operations on virtual threads when available, otherwise on a bounded pool.
+     * @param maxConcurrency maximum number of operations in flight
+     */
+    public BlockingUploadExecutor(final int maxConcurrency) {
+        this(maxConcurrency, virtualThreadExecutor());
+    }
+
+    private BlockingUploadExecutor(final int maxConcurrency, final ExecutorService virtualThreadExecutor) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.virtual = virtualThreadExecutor != null;
+        this.executor = this.virtual ? virtualThreadExecutor : Executors.newFixedThreadPool(maxConcurrency, platformThreadFactory());
+        this.scheduler = Schedulers.fromExecutorService(this.executor, "graphql-multipart-blocking");
+        this.permits = new Semaphore(maxConcurrency);
+        log.debug("Running blocking upload operations on {} threads with a concurrency of {}.", this.virtual ? "virtual" : "platform", maxConcurrency);
+    }
+
+    /**
+     * Run an operation on the executor.
+     * <p>
+     * The operation is assembled and subscribed on an executor thread once a permit is available; the permit is held
+     * until the operation terminates or is cancelled.
+     * @param operation supplier of the operation
+     * @param <T> result type
+     * @return mono emitting the operation's result
+     */
+    public <T> Mono<T> execute(final Supplier<Mono<T>> operation) {
+        return Mono.using(() -> {
+                            this.permits.acquire();
+                            return this.permits;
+                        },
+                        permits -> Mono.defer(operation),
+                        Semaphore::release,
+                        false)
+                .subscribeOn(this.scheduler);
+    }
+
+    /**
+     * Number of operations currently in flight.
+     * @return operations holding a permit
+     */
+    public int getActiveCount() {
+        return this.maxConcurrency - this.permits.availablePermits();
+    }
+
+    /**
+     * Stop accepting operations and interrupt those still running.
+     */
+    @Override
+    public void close() {
+        this.scheduler.dispose();
+        this.executor.shutdownNow();
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            // Thread.ofVirtual().name(THREAD_PREFIX, 0).factory(), looked up reflectively as the baseline is Java 17.
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 0L);
+            final ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (final ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            log.warn("Virtual threads are not available; falling back to platform threads.", e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_PREFIX + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
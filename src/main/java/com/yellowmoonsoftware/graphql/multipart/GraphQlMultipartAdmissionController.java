@@ -0,0 +1,287 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h2>GraphQlMultipartAdmissionController</h2>
+ * Admission control in front of {@link GraphQlMultipartWebHandler}, bounding the multipart requests and the upload
+ * bytes in flight so that bursts queue or fail fast instead of exhausting temp disk and direct memory.
+ * <ul>
+ * <li>Each request holds a {@link Permit} for its declared size (capped at `maxInFlightBytes`) from admission until
+ * its response has been built.  Budgets are taken and returned with compare-and-set, without locks.</li>
+ * <li>Requests that do not fit wait in a FIFO queue of at most `maxQueueSize` entries for at most `maxQueueWait`.</li>
+ * <li>A request finding the queue full is rejected with `429 Too Many Requests`; one whose wait expires with
+ * `503 Service Unavailable`.  Both carry `Retry-After: retryAfter`.</li>
+ * <li>A request of unknown size is charged the most it may send; when that is unknown too while the byte budget is
+ * enabled, it is rejected with `411 Length Required`.</li>
+ * </ul>
+ * A negative maximum disables the respective budget.
+ */
+@Slf4j
+public class GraphQlMultipartAdmissionController {
+    /**
+     * Default `maxQueueSize`.
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 128;
+
+    /**
+     * Rejection reason of requests finding the queue full.
+     */
+    public static final String QUEUE_FULL = "queue-full";
+
+    /**
+     * Rejection reason of requests whose queue wait expired.
+     */
+    public static final String QUEUE_TIMEOUT = "queue-timeout";
+
+    /**
+     * Rejection reason of requests of unknown size while the byte budget is enabled.
+     */
+    public static final String LENGTH_REQUIRED = "length-required";
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    /**
+     * Maximum number of requests in flight; negative for no limit.
+     */
+    @Getter
+    private final int maxConcurrentRequests;
+
+    /**
+     * Maximum number of declared request bytes in flight; negative for no limit.
+     */
+    @Getter
+    private final long maxInFlightBytes;
+
+    /**
+     * Maximum number of requests waiting for admission; `0` rejects requests that do not fit right away.
+     */
+    @Getter
+    @Setter
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+    /**
+     * Maximum time a request waits for admission.
+     */
+    @Getter
+    @Setter
+    private Duration maxQueueWait = Duration.ofSeconds(10);
+
+    /**
+     * Delay advertised through `Retry-After` on rejection.
+     */
+    @Getter
+    @Setter
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainWip = new AtomicInteger();
+    private GraphQlMultipartMetrics metrics = GraphQlMultipartMetrics.NOOP;
+
+    /**
+     * Create a controller with the given budgets.
+     * @param maxConcurrentRequests maximum number of requests in flight; negative for no limit
+     * @param maxInFlightBytes maximum number of declared request bytes in flight; negative for no limit
+     */
+    public GraphQlMultipartAdmissionController(final int maxConcurrentRequests, final long maxInFlightBytes) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * Instrument the controller, publishing its queue depth and budgets in use and counting rejections.
+     * @param metrics multipart instrumentation
+     */
+    public void setMetrics(final GraphQlMultipartMetrics metrics) {
+        this.metrics = metrics;
+        metrics.bindAdmission(this::getQueueDepth, this::getInFlightRequests, this::getInFlightBytes);
+    }
+
+    /**
+     * Number of requests waiting for admission.
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    /**
+     * Number of admitted requests holding a permit.
+     * @return requests in flight
+     */
+    public int getInFlightRequests() {
+        return this.requests.get();
+    }
+
+    /**
+     * Declared bytes held by admitted requests.
+     * @return bytes in flight
+     */
+    public long getInFlightBytes() {
+        return this.bytes.get();
+    }
+
+    /**
+     * Admit a request, waiting in the queue when the budgets are exhausted.
+     * <p>
+     * The returned permit must be {@link Permit#release() released} once the request has been handled.  A permit
+     * emitted after the subscriber cancelled is released automatically.
+     * @param requestBytes declared request size, or the most the request may send, in bytes; negative when unknown,
+     * which is rejected with `411 Length Required` while the byte budget is enabled
+     * @return mono emitting the permit, or a {@link GraphQlMultipartAdmissionRejectedException}
+     */
+    public Mono<Permit> acquire(final long requestBytes) {
+        return Mono.defer(() -> {
+            if (requestBytes < 0 && this.maxInFlightBytes >= 0) {
+                // Charging nothing would let requests of unknown size bypass the byte budget.
+                log.debug("Rejecting multipart request: {}", LENGTH_REQUIRED);
+                this.metrics.recordAdmissionRejected(LENGTH_REQUIRED);
+                return Mono.error(new GraphQlMultipartException(HttpStatus.LENGTH_REQUIRED,
+                        "Multipart requests without a Content-Length require a max-request-size.",
+                        GraphQlMultipartAdmissionRejectedException.ADMISSION_REJECTED));
+            }
+            final long charge = this.maxInFlightBytes < 0 ? 0 : Math.min(Math.max(requestBytes, 0), this.maxInFlightBytes);
+            // Queued requests go first; a request only skips the queue when nobody is waiting.
+            if (this.waiters.isEmpty() && tryReserve(charge)) {
+                return Mono.just(new Permit(charge));
+            }
+            return enqueue(charge);
+        });
+    }
+
+    private Mono<Permit> enqueue(final long charge) {
+        if (this.queueDepth.incrementAndGet() > this.maxQueueSize) {
+            this.queueDepth.decrementAndGet();
+            return reject(HttpStatus.TOO_MANY_REQUESTS, QUEUE_FULL, "Too many multipart requests in flight.");
+        }
+        final Waiter waiter = new Waiter(charge);
+        return Mono.<Permit>create(sink -> {
+                    waiter.sink = sink;
+                    sink.onCancel(() -> cancel(waiter));
+                    this.waiters.add(waiter);
+                    drain();
+                })
+                .timeout(this.maxQueueWait, Mono.defer(() -> reject(HttpStatus.SERVICE_UNAVAILABLE, QUEUE_TIMEOUT,
+                        "Timed out waiting for admission of the multipart request.")))
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private Mono<Permit> reject(final HttpStatus status, final String reason, final String message) {
+        log.debug("Rejecting multipart request: {}", reason);
+        this.metrics.recordAdmissionRejected(reason);
+        return Mono.error(new GraphQlMultipartAdmissionRejectedException(status, message, this.retryAfter));
+    }
+
+    private void cancel(final Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            this.queueDepth.decrementAndGet();
+            this.waiters.remove(waiter);
+            // The cancelled waiter may have been holding back smaller requests behind it.
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (this.drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Waiter head;
+            while ((head = this.waiters.peek()) != null) {
+                if (head.state.get() != WAITING) {
+                    this.waiters.remove(head);
+                    continue;
+                }
+                if (!tryReserve(head.charge)) {
+                    break;
+                }
+                this.waiters.remove(head);
+                if (head.state.compareAndSet(WAITING, GRANTED)) {
+                    this.queueDepth.decrementAndGet();
+                    head.sink.success(new Permit(head.charge));
+                } else {
+                    unreserve(head.charge);
+                }
+            }
+            missed = this.drainWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean tryReserve(final long charge) {
+        int current;
+        do {
+            current = this.requests.get();
+            if (this.maxConcurrentRequests >= 0 && current >= this.maxConcurrentRequests) {
+                return false;
+            }
+        } while (!this.requests.compareAndSet(current, current + 1));
+        long used;
+        do {
+            used = this.bytes.get();
+            if (this.maxInFlightBytes >= 0 && used + charge > this.maxInFlightBytes) {
+                this.requests.decrementAndGet();
+                return false;
+            }
+        } while (!this.bytes.compareAndSet(used, used + charge));
+        return true;
+    }
+
+    private void unreserve(final long charge) {
+        this.bytes.addAndGet(-charge);
+        this.requests.decrementAndGet();
+    }
+
+    /**
+     * <h2>Permit</h2>
+     * Budget held by an admitted request.
+     */
+    public final class Permit {
+        private final long charge;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final long charge) {
+            this.charge = charge;
+        }
+
+        /**
+         * Return the budget and admit queued requests that now fit; later calls do nothing.
+         * @return empty mono, for use as an asynchronous cleanup
+         */
+        public Mono<Void> release() {
+            if (this.released.compareAndSet(false, true)) {
+                unreserve(this.charge);
+                drain();
+            }
+            return Mono.empty();
+        }
+    }
+
+    private static final class Waiter {
+        private final long charge;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private MonoSink<Permit> sink;
+
+        private Waiter(final long charge) {
+            this.charge = charge;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import lombok.Getter;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+
+/**
+ * <h2>GraphQlMultipartAdmissionRejectedException</h2>
+ * Raised by {@link GraphQlMultipartAdmissionController} when a multipart GraphQL request cannot be admitted; rendered
+ * as a `429 Too Many Requests` or `503 Service Unavailable` GraphQL error with a `Retry-After` header.
+ */
+@Getter
+public class GraphQlMultipartAdmissionRejectedException extends GraphQlMultipartException {
+    /**
+     * Error code for requests rejected by admission control.
+     */
+    public static final String ADMISSION_REJECTED = "MULTIPART_ADMISSION_REJECTED";
+
+    /**
+     * Delay after which the client may retry.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Create an exception for a rejected request.
+     * @param status `429` or `503`
+     * @param reason human-readable error message
+     * @param retryAfter delay after which the client may retry, rounded up to whole seconds in `Retry-After`
+     */
+    public GraphQlMultipartAdmissionRejectedException(final HttpStatusCode status, final String reason, final Duration retryAfter) {
+        super(status, reason, ADMISSION_REJECTED);
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public @NonNull HttpHeaders getHeaders() {
+        final HttpHeaders headers = new HttpHeaders();
+        final long seconds = this.retryAfter.toSeconds() + (this.retryAfter.toNanosPart() > 0 ? 1 : 0);
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(0, seconds)));
+        return headers;
+    }
+}
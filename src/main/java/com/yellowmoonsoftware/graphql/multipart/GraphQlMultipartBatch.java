@@ -0,0 +1,60 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.http.codec.multipart.Part;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <h2>GraphQlMultipartBatch</h2>
+ * Decoded multipart `operations`: a single GraphQL request, or one request per element when `operations` is a JSON
+ * array as described by the batching section of the GraphQL multipart request spec.
+ *
+ * @param requests decoded requests in `operations` order
+ * @param batched whether `operations` was a JSON array, in which case the response is an array as well
+ * @param uploads upload parts shared by all requests, released by the handler once every response has been produced
+ */
+public record GraphQlMultipartBatch(List<GraphQlRequest> requests, boolean batched, List<Part> uploads) {
+
+    /**
+     * Canonical constructor taking defensive copies.
+     * @param requests decoded requests in `operations` order
+     * @param batched whether `operations` was a JSON array
+     * @param uploads upload parts shared by all requests
+     */
+    public GraphQlMultipartBatch(final List<GraphQlRequest> requests, final boolean batched, final List<Part> uploads) {
+        this.requests = List.copyOf(requests);
+        this.batched = batched;
+        this.uploads = List.copyOf(uploads);
+    }
+
+    /**
+     * Create a non-batched result holding a single request.
+     * @param request decoded request
+     * @return single-request batch without owned uploads
+     */
+    public static GraphQlMultipartBatch single(final GraphQlRequest request) {
+        return new GraphQlMultipartBatch(List.of(request), false, List.of());
+    }
+
+    /**
+     * Create a non-batched result holding a single request that owns the given uploads.
+     * @param request decoded request
+     * @param uploads upload parts to release once the request has been handled
+     * @return single-request batch
+     */
+    public static GraphQlMultipartBatch single(final GraphQlRequest request, final Collection<? extends Part> uploads) {
+        return new GraphQlMultipartBatch(List.of(request), false, List.copyOf(uploads));
+    }
+
+    /**
+     * Create a batched result.
+     * @param requests decoded requests in `operations` order
+     * @param uploads upload parts to release once every request has been handled
+     * @return batched result
+     */
+    public static GraphQlMultipartBatch batch(final List<GraphQlRequest> requests, final Collection<? extends Part> uploads) {
+        return new GraphQlMultipartBatch(requests, true, List.copyOf(uploads));
+    }
+}
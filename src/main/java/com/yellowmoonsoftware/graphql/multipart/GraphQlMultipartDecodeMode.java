@@ -0,0 +1,29 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+/**
+ * <h2>GraphQlMultipartDecodeMode</h2>
+ * Strategy used by {@link GraphQlMultipartWebHandler} to read the multipart body of a GraphQL upload request.
+ */
+public enum GraphQlMultipartDecodeMode {
+    /**
+     * Aggregate every part via `ServerRequest.multipartData()` before decoding (default).
+     */
+    AGGREGATED,
+    /**
+     * Consume the body as an ordered stream of part events, binding lazily-consumable upload handles into variables
+     * as soon as `operations` and `map` have arrived.
+     */
+    STREAMING,
+    /**
+     * Consume the body as an ordered stream of part events, writing every file part to the configured
+     * {@link com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage} before dispatching; stored uploads are
+     * re-readable and deleted once the GraphQL response has been produced.
+     */
+    STORED,
+    /**
+     * Consume the body as an ordered stream of part events, streaming every file part to the configured
+     * {@link com.yellowmoonsoftware.graphql.multipart.sink.UploadSink} as it arrives and binding a
+     * {@link com.yellowmoonsoftware.graphql.multipart.sink.UploadReference} to the written object into variables.
+     */
+    SINK
+}
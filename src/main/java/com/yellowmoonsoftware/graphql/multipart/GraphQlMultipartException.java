@@ -0,0 +1,142 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * <h2>GraphQlMultipartException</h2>
+ * Request-level failure of a multipart GraphQL request, rendered by {@link GraphQlMultipartWebHandler} as a GraphQL
+ * error response (`{"errors":[{"message": ..., "extensions": {"code": ...}}]}`) with the exception's status code.
+ */
+@Getter
+public class GraphQlMultipartException extends ResponseStatusException {
+    /**
+     * Error code for malformed multipart GraphQL requests.
+     */
+    public static final String INVALID_REQUEST = "MULTIPART_REQUEST_INVALID";
+    /**
+     * Error code for uploads rejected because the upload storage has no capacity left.
+     */
+    public static final String STORAGE_EXHAUSTED = "MULTIPART_STORAGE_EXHAUSTED";
+    /**
+     * Error code for uploads that could not be written to the configured upload sink.
+     */
+    public static final String SINK_FAILED = "MULTIPART_SINK_FAILED";
+    /**
+     * Error code for uploads whose content does not match a digest declared by the client.
+     */
+    public static final String DIGEST_MISMATCH = "MULTIPART_DIGEST_MISMATCH";
+    /**
+     * Error code for parts sent with a `Content-Encoding` the decoder does not support.
+     */
+    public static final String UNSUPPORTED_ENCODING = "MULTIPART_ENCODING_UNSUPPORTED";
+    /**
+     * Error code for automatic persisted queries whose hash is not registered; the client retries with the document.
+     */
+    public static final String PERSISTED_QUERY_NOT_FOUND = "PERSISTED_QUERY_NOT_FOUND";
+    /**
+     * Error code for automatic persisted queries sent to a server that does not support them.
+     */
+    public static final String PERSISTED_QUERY_NOT_SUPPORTED = "PERSISTED_QUERY_NOT_SUPPORTED";
+
+    /**
+     * Machine-readable error code exposed as `extensions.code`.
+     */
+    private final String errorCode;
+
+    /**
+     * Create an exception with the given status, message and error code.
+     * @param status HTTP status of the error response
+     * @param reason human-readable error message
+     * @param errorCode machine-readable error code
+     */
+    public GraphQlMultipartException(final HttpStatusCode status, final String reason, final String errorCode) {
+        super(status, reason);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Create an exception with the given status, message, error code and cause.
+     * @param status HTTP status of the error response
+     * @param reason human-readable error message
+     * @param errorCode machine-readable error code
+     * @param cause underlying failure
+     */
+    public GraphQlMultipartException(final HttpStatusCode status, final String reason, final String errorCode, final Throwable cause) {
+        super(status, reason, cause);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Create a `400 Bad Request` exception for a malformed multipart GraphQL request.
+     * @param reason human-readable error message
+     * @return exception with {@link #INVALID_REQUEST} code
+     */
+    public static GraphQlMultipartException invalidRequest(final String reason) {
+        return new GraphQlMultipartException(HttpStatus.BAD_REQUEST, reason, INVALID_REQUEST);
+    }
+
+    /**
+     * Create a `507 Insufficient Storage` exception for an upload that does not fit the remaining storage capacity.
+     * @param reason human-readable error message
+     * @return exception with {@link #STORAGE_EXHAUSTED} code
+     */
+    public static GraphQlMultipartException storageExhausted(final String reason) {
+        return new GraphQlMultipartException(HttpStatus.INSUFFICIENT_STORAGE, reason, STORAGE_EXHAUSTED);
+    }
+
+    /**
+     * Create a `502 Bad Gateway` exception for an upload whose destination answered with an unexpected response.
+     * @param reason human-readable error message
+     * @return exception with {@link #SINK_FAILED} code
+     */
+    public static GraphQlMultipartException sinkFailed(final String reason) {
+        return new GraphQlMultipartException(HttpStatus.BAD_GATEWAY, reason, SINK_FAILED);
+    }
+
+    /**
+     * Create a `502 Bad Gateway` exception for an upload the upload sink failed to write.
+     * @param reason human-readable error message
+     * @param cause failure reported by the sink's destination
+     * @return exception with {@link #SINK_FAILED} code
+     */
+    public static GraphQlMultipartException sinkFailed(final String reason, final Throwable cause) {
+        return new GraphQlMultipartException(HttpStatus.BAD_GATEWAY, reason, SINK_FAILED, cause);
+    }
+
+    /**
+     * Create a `400 Bad Request` exception for an upload whose content does not match its declared digest.
+     * @param reason human-readable error message
+     * @return exception with {@link #DIGEST_MISMATCH} code
+     */
+    public static GraphQlMultipartException digestMismatch(final String reason) {
+        return new GraphQlMultipartException(HttpStatus.BAD_REQUEST, reason, DIGEST_MISMATCH);
+    }
+
+    /**
+     * Create a `415 Unsupported Media Type` exception for a part sent with an unsupported `Content-Encoding`.
+     * @param reason human-readable error message
+     * @return exception with {@link #UNSUPPORTED_ENCODING} code
+     */
+    public static GraphQlMultipartException unsupportedEncoding(final String reason) {
+        return new GraphQlMultipartException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, reason, UNSUPPORTED_ENCODING);
+    }
+
+    /**
+     * Create the `200 OK` `PersistedQueryNotFound` error asking the client to send the document with its hash.
+     * @return exception with {@link #PERSISTED_QUERY_NOT_FOUND} code
+     */
+    public static GraphQlMultipartException persistedQueryNotFound() {
+        return new GraphQlMultipartException(HttpStatus.OK, "PersistedQueryNotFound", PERSISTED_QUERY_NOT_FOUND);
+    }
+
+    /**
+     * Create the `400 Bad Request` `PersistedQueryNotSupported` error for a persisted query sent without a store.
+     * @return exception with {@link #PERSISTED_QUERY_NOT_SUPPORTED} code
+     */
+    public static GraphQlMultipartException persistedQueryNotSupported() {
+        return new GraphQlMultipartException(HttpStatus.BAD_REQUEST, "PersistedQueryNotSupported", PERSISTED_QUERY_NOT_SUPPORTED);
+    }
+}
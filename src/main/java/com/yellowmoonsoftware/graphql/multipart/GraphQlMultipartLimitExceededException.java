@@ -0,0 +1,38 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * <h2>GraphQlMultipartLimitExceededException</h2>
+ * Raised as soon as a multipart GraphQL request is found to exceed one of the configured
+ * {@link GraphQlMultipartLimits}; rendered as a `413 Content Too Large` GraphQL error.
+ */
+@Getter
+public class GraphQlMultipartLimitExceededException extends GraphQlMultipartException {
+    /**
+     * Error code for requests exceeding a configured limit.
+     */
+    public static final String LIMIT_EXCEEDED = "MULTIPART_LIMIT_EXCEEDED";
+
+    /**
+     * Name of the exceeded limit, matching its configuration property (e.g. `max-file-size`).
+     */
+    private final String limit;
+
+    /**
+     * Configured maximum of the exceeded limit.
+     */
+    private final long maximum;
+
+    /**
+     * Create an exception for the given limit.
+     * @param limit name of the exceeded limit
+     * @param maximum configured maximum
+     */
+    public GraphQlMultipartLimitExceededException(final String limit, final long maximum) {
+        super(HttpStatus.CONTENT_TOO_LARGE, "Multipart request exceeds the " + limit + " limit of " + maximum + ".", LIMIT_EXCEEDED);
+        this.limit = limit;
+        this.maximum = maximum;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * <h2>GraphQlMultipartLimits</h2>
+ * Upper bounds applied to a single multipart GraphQL request.
+ * <p>
+ * Counts and path limits are checked as soon as the `map` part has been decoded, before any file content is read.
+ * Byte limits are enforced incrementally as content arrives when decoding part events; in aggregated mode the request
+ * size is enforced as the body is read and the file size as each file part's content is read.  A negative value
+ * disables a limit; every limit but `maxDecompressionRatio` is disabled by default.
+ */
+@Getter
+@Setter
+public class GraphQlMultipartLimits {
+    /**
+     * Name of the `maxFiles` limit.
+     */
+    public static final String MAX_FILES = "max-files";
+    /**
+     * Name of the `maxFileSize` limit.
+     */
+    public static final String MAX_FILE_SIZE = "max-file-size";
+    /**
+     * Name of the `maxRequestSize` limit.
+     */
+    public static final String MAX_REQUEST_SIZE = "max-request-size";
+    /**
+     * Name of the `maxMapEntries` limit.
+     */
+    public static final String MAX_MAP_ENTRIES = "max-map-entries";
+    /**
+     * Name of the `maxPathsPerFile` limit.
+     */
+    public static final String MAX_PATHS_PER_FILE = "max-paths-per-file";
+    /**
+     * Name of the `maxPathDepth` limit.
+     */
+    public static final String MAX_PATH_DEPTH = "max-path-depth";
+    /**
+     * Name of the `maxOperationsSize` limit.
+     */
+    public static final String MAX_OPERATIONS_SIZE = "max-operations-size";
+    /**
+     * Name of the `maxDecompressionRatio` limit.
+     */
+    public static final String MAX_DECOMPRESSION_RATIO = "max-decompression-ratio";
+
+    /**
+     * Maximum number of file parts in a request.
+     */
+    private int maxFiles = -1;
+
+    /**
+     * Maximum size of a single file part.
+     */
+    private DataSize maxFileSize = DataSize.ofBytes(-1);
+
+    /**
+     * Maximum size of the whole multipart body.
+     */
+    private DataSize maxRequestSize = DataSize.ofBytes(-1);
+
+    /**
+     * Maximum number of entries (file keys) in the `map` part.
+     */
+    private int maxMapEntries = -1;
+
+    /**
+     * Maximum number of variable paths a single `map` entry may bind.
+     */
+    private int maxPathsPerFile = -1;
+
+    /**
+     * Maximum number of segments in a `map` path, including the leaf key.
+     */
+    private int maxPathDepth = -1;
+
+    /**
+     * Maximum size of each of the `operations` and `map` JSON parts.
+     */
+    private DataSize maxOperationsSize = DataSize.ofBytes(-1);
+
+    /**
+     * Maximum ratio of decoded to received bytes of a part sent with a `Content-Encoding`, checked once its decoded
+     * content exceeds the decoder's `ratioThreshold`.
+     */
+    private int maxDecompressionRatio = 100;
+
+    /**
+     * Create limits with every check disabled.  The defaults only differ by `maxDecompressionRatio`, which is disabled
+     * too, so a part sent with a `Content-Encoding` may expand without bound; only use these for trusted clients.
+     * @return unlimited limits
+     */
+    public static GraphQlMultipartLimits unlimited() {
+        final GraphQlMultipartLimits limits = new GraphQlMultipartLimits();
+        limits.setMaxDecompressionRatio(-1);
+        return limits;
+    }
+
+    /**
+     * Fail when a count exceeds its maximum.
+     * @param limit limit name used in the error
+     * @param maximum configured maximum, negative when disabled
+     * @param actual observed value
+     * @throws GraphQlMultipartLimitExceededException when `actual` exceeds an enabled `maximum`
+     */
+    public static void check(final String limit, final long maximum, final long actual) {
+        if (maximum >= 0 && actual > maximum) {
+            throw new GraphQlMultipartLimitExceededException(limit, maximum);
+        }
+    }
+}
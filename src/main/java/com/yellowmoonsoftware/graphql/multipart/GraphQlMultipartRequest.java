@@ -5,14 +5,31 @@ import lombok.Getter;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.graphql.support.DefaultGraphQlRequest;
 
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * <h2>GraphQlMultipartRequest</h2>
  * Wrapper around {@link DefaultGraphQlRequest} built from decoded multipart `operations`.
+ * <p>
+ * An operation may omit its `query` in favour of an automatic persisted query,
+ * `extensions.persistedQuery.sha256Hash`; its document is then empty until resolved with {@link #withDocument(String)}.
  */
 @Getter
 public class GraphQlMultipartRequest extends DefaultGraphQlRequest {
+    /**
+     * Extension carrying an automatic persisted query.
+     */
+    public static final String PERSISTED_QUERY_KEY = "persistedQuery";
+
+    /**
+     * Key of the document hash within the {@link #PERSISTED_QUERY_KEY persisted query} extension.
+     */
+    public static final String SHA_256_HASH_KEY = "sha256Hash";
+
+    private static final String VERSION_KEY = "version";
+    private static final int PERSISTED_QUERY_VERSION = 1;
+
     private final static ParameterizedTypeReference<Map<String, Object>> MAP_TYPE_REF = new ParameterizedTypeReference<>() {};
     private final static ParameterizedTypeReference<String> STRING_TYPE_REF = new ParameterizedTypeReference<>() {};
 
@@ -27,11 +44,44 @@ public class GraphQlMultipartRequest extends DefaultGraphQlRequest {
      */
     public static GraphQlMultipartRequest build(final Map<String, Object> operations) {
         final MapAccessor<String> ops = MapAccessor.wrap(operations);
+        final String query = ops.get(QUERY_KEY, STRING_TYPE_REF);
+        final Map<String, Object> extensions = ops.get(EXTENSIONS_KEY, MAP_TYPE_REF);
         return new GraphQlMultipartRequest(
-                ops.get(QUERY_KEY, STRING_TYPE_REF),
+                query == null && persistedQueryHash(extensions) != null ? "" : query,
                 ops.get(OPERATION_NAME_KEY, STRING_TYPE_REF),
                 ops.get(VARIABLES_KEY, MAP_TYPE_REF),
-                ops.get(EXTENSIONS_KEY, MAP_TYPE_REF)
+                extensions
         );
     }
+
+    /**
+     * Return the hash of the automatic persisted query named by this request.
+     * @return lowercase hex SHA-256 hash, or `null` when the request names no persisted query
+     * @throws GraphQlMultipartException when the persisted query extension is malformed
+     */
+    public String getPersistedQueryHash() {
+        return persistedQueryHash(getExtensions());
+    }
+
+    /**
+     * Copy this request with the given document, e.g. the resolved document of a persisted query.
+     * @param document document text
+     * @return request with the same operation name, variables and extensions
+     */
+    public GraphQlMultipartRequest withDocument(final String document) {
+        return new GraphQlMultipartRequest(document, getOperationName(), getVariables(), getExtensions());
+    }
+
+    private static String persistedQueryHash(final Map<String, Object> extensions) {
+        if (extensions == null || !(extensions.get(PERSISTED_QUERY_KEY) instanceof Map<?, ?> persistedQuery)) {
+            return null;
+        }
+        if (!(persistedQuery.get(VERSION_KEY) instanceof Number version) || version.intValue() != PERSISTED_QUERY_VERSION) {
+            throw GraphQlMultipartException.invalidRequest("Unsupported persisted query version.");
+        }
+        if (!(persistedQuery.get(SHA_256_HASH_KEY) instanceof String hash) || hash.isEmpty()) {
+            throw GraphQlMultipartException.invalidRequest("Persisted query is missing its " + SHA_256_HASH_KEY + ".");
+        }
+        return hash.toLowerCase(Locale.ROOT);
+    }
 }
@@ -1,18 +1,51 @@
 package com.yellowmoonsoftware.graphql.multipart;
 
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartDecoder;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartStage;
+import com.yellowmoonsoftware.graphql.multipart.persisted.PersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressTracker;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStatus;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
+import graphql.ExperimentalApi;
+import graphql.incremental.IncrementalExecutionResult;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.GraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlHandler;
 import org.springframework.graphql.server.WebGraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import static org.springframework.http.MediaType.APPLICATION_GRAPHQL_RESPONSE;
 
@@ -22,7 +55,7 @@ import static org.springframework.http.MediaType.APPLICATION_GRAPHQL_RESPONSE;
  */
     @Slf4j
     @RequiredArgsConstructor
-    public class GraphQlMultipartWebHandler {
+    public class GraphQlMultipartWebHandler implements AutoCloseable {
 
         /**
          * Supported media types for GraphQL responses produced by this handler.
@@ -30,33 +63,452 @@ import static org.springframework.http.MediaType.APPLICATION_GRAPHQL_RESPONSE;
         public static final List<MediaType> SUPPORTED_MEDIA_TYPES =
                 List.of(APPLICATION_GRAPHQL_RESPONSE, MediaType.APPLICATION_JSON);
 
+        /**
+         * Default maximum number of batched operations executed concurrently.
+         */
+        public static final int DEFAULT_BATCH_CONCURRENCY = 4;
+
         private final GraphQlMultipartDecoder graphQlMultipartDecoder;
         private final WebGraphQlHandler webGraphQlHandler;
+        private final SpillingUploadStorage defaultUploadStorage = new SpillingUploadStorage();
+
+        /**
+         * Strategy used to read the multipart body; defaults to {@link GraphQlMultipartDecodeMode#AGGREGATED}.
+         */
+        @Setter
+        private GraphQlMultipartDecodeMode decodeMode = GraphQlMultipartDecodeMode.AGGREGATED;
+
+        /**
+         * Maximum number of operations of a batched request executed concurrently.
+         */
+        @Setter
+        private int batchConcurrency = DEFAULT_BATCH_CONCURRENCY;
+
+        /**
+         * Limits checked before the body is read; the decoder enforces the remaining limits while decoding.
+         */
+        @Getter
+        @Setter
+        private GraphQlMultipartLimits limits = new GraphQlMultipartLimits();
+
+        /**
+         * Instrumentation of the request, parse and execution stages; defaults to {@link GraphQlMultipartMetrics#NOOP}.
+         */
+        @Setter
+        private GraphQlMultipartMetrics metrics = GraphQlMultipartMetrics.NOOP;
+
+        /**
+         * Storage receiving file parts in {@link GraphQlMultipartDecodeMode#STORED} mode; defaults to a
+         * {@link SpillingUploadStorage} with default settings, which is closed with this handler.
+         */
+        @Setter
+        private UploadStorage uploadStorage = this.defaultUploadStorage;
+
+        /**
+         * Sink receiving file parts in {@link GraphQlMultipartDecodeMode#SINK} mode; required by that mode.
+         */
+        @Setter
+        private UploadSink uploadSink;
+
+        /**
+         * Executor running operations off the event loop so resolvers may block on uploads; operations run on the
+         * calling thread when `null` (the default).
+         */
+        @Setter
+        private BlockingUploadExecutor blockingExecutor;
+
+        /**
+         * Admission control bounding the requests and upload bytes in flight; every request is admitted when `null`
+         * (the default).
+         */
+        @Setter
+        private GraphQlMultipartAdmissionController admissionController;
+
+        /**
+         * Store receiving chunks of resumable uploads, i.e. requests carrying an `Upload-Id` header; such requests
+         * are handled as ordinary GraphQL requests when `null` (the default).
+         */
+        @Setter
+        private ResumableUploadStore resumableUploadStore;
+
+        /**
+         * Store resolving automatic persisted queries, i.e. operations naming `extensions.persistedQuery.sha256Hash`
+         * instead of (or along with) their `query`; such operations are rejected as `PersistedQueryNotSupported` when
+         * `null` (the default).
+         */
+        @Setter
+        private PersistedQueryStore persistedQueryStore;
+
+        /**
+         * Writer streaming GraphQL responses into the response buffers as they are serialized; responses are encoded
+         * in one piece by the configured codecs when `null` (the default).
+         */
+        @Setter
+        private StreamingGraphQlResponseWriter responseWriter;
+
+        /**
+         * Writer of `multipart/mixed` incremental responses; when set, single operations of clients accepting
+         * `multipart/mixed` are executed with incremental support, so `@defer`red payloads are sent as they resolve.
+         * Responses are always written in one piece when `null` (the default).
+         */
+        @Setter
+        private IncrementalGraphQlResponseWriter incrementalResponseWriter;
+
+        /**
+         * Registry publishing the progress of requests carrying an `Upload-Progress-Id` header; progress is not
+         * tracked when `null` (the default).
+         */
+        @Setter
+        private UploadProgressRegistry progressRegistry;
 
     /**
-     * Decode multipart data into a GraphQL request, delegate to WebGraphQlHandler, and render the response.
+     * Decode multipart data into GraphQL requests, delegate each to WebGraphQlHandler, and render the response.
+     * <p>
+     * Batched `operations` are executed with at most `batchConcurrency` operations in
+     * flight and rendered as a JSON array in `operations` order.  A {@link GraphQlMultipartException} raised while
+     * decoding (e.g. an exceeded {@link GraphQlMultipartLimits limit}) is rendered as a GraphQL error response.  With a
+     * {@link GraphQlMultipartAdmissionController} the body is only read once the request has been admitted.
+     * <p>
+     * With a {@link ResumableUploadStore}, a request carrying an `Upload-Id` or `Upload-Offset` header is a chunk of a
+     * resumable upload: its single file part is appended to the upload at `Upload-Offset`, or starts a new upload when
+     * sent without an `Upload-Id`, and the upload's progress is returned.
+     * <p>
+     * With a {@link PersistedQueryStore}, operations are resolved against it before any is executed.
+     * <p>
+     * With an {@link UploadProgressRegistry}, the received bytes of a request carrying an `Upload-Progress-Id` header
+     * issued by the registry are published to the registry while it is processed; other ids are not tracked.
      * @param serverRequest incoming multipart server request
      * @return mono producing the HTTP response
      */
     public Mono<ServerResponse> handleGraphQlMultipartRequest(final ServerRequest serverRequest) {
         log.trace("Handling multipart GraphQL request: {}", serverRequest.uri());
-        return serverRequest.multipartData()
-                .flatMap(graphQlMultipartDecoder::decode)
-                .flatMap(gqlReq -> {
-                    final WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(serverRequest.uri(),
-                            serverRequest.headers().asHttpHeaders(),
-                            serverRequest.cookies(),
-                            serverRequest.remoteAddress().orElse(null),
-                            serverRequest.attributes(),
-                            gqlReq,
-                            serverRequest.exchange().getRequest().getId(),
-                            serverRequest.exchange().getLocaleContext().getLocale());
-
-                    log.debug("Dispatching decoded GraphQL request: {}", graphQlRequest);
-
-                    return webGraphQlHandler.handleRequest(graphQlRequest);
-                })
-                .flatMap(response -> buildServerResponse(response, serverRequest.headers().accept()));
+        return metrics.observe(GraphQlMultipartStage.REQUEST, Mono.defer(() -> handle(serverRequest)));
+    }
+
+    /**
+     * Close the default upload storage, deleting any uploads it still holds; a storage set through
+     * `setUploadStorage` is left to its owner.
+     */
+    @Override
+    public void close() {
+        this.defaultUploadStorage.close();
+    }
+
+    private Mono<ServerResponse> handle(final ServerRequest serverRequest) {
+        final List<MediaType> acceptableMediaTypes = serverRequest.headers().accept();
+        final long maxRequestSize = limits.getMaxRequestSize().toBytes();
+        final long contentLength = serverRequest.headers().contentLength().orElse(-1);
+        if (contentLength >= 0) {
+            metrics.recordRequestSize(contentLength);
+        }
+        if (maxRequestSize >= 0 && contentLength > maxRequestSize) {
+            return buildErrorResponse(new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_REQUEST_SIZE, maxRequestSize),
+                    acceptableMediaTypes);
+        }
+        if (admissionController == null) {
+            return process(serverRequest, acceptableMediaTypes);
+        }
+        return Mono.usingWhen(admissionController.acquire(contentLength >= 0 ? contentLength : maxRequestSize),
+                        permit -> process(serverRequest, acceptableMediaTypes),
+                        GraphQlMultipartAdmissionController.Permit::release)
+                .onErrorResume(GraphQlMultipartException.class, e -> buildErrorResponse(e, acceptableMediaTypes));
+    }
+
+    private Mono<ServerResponse> process(final ServerRequest serverRequest, final List<MediaType> acceptableMediaTypes) {
+        if (resumableUploadStore != null && (serverRequest.headers().firstHeader(ResumableUploadStore.UPLOAD_ID) != null
+                || serverRequest.headers().firstHeader(ResumableUploadStore.UPLOAD_OFFSET) != null)) {
+            return appendChunk(serverRequest)
+                    .flatMap(GraphQlMultipartWebHandler::buildChunkResponse)
+                    .onErrorResume(GraphQlMultipartException.class, e -> buildErrorResponse(e, acceptableMediaTypes));
+        }
+        final String progressId = progressRegistry != null ? serverRequest.headers().firstHeader(UploadProgressRegistry.PROGRESS_ID) : null;
+        final UploadProgressTracker tracker = progressId != null
+                ? progressRegistry.start(progressId, serverRequest.headers().contentLength().orElse(-1))
+                : null;
+        final UploadContext uploadContext = new UploadContext(uploadStorage);
+        serverRequest.attributes().put(UploadContext.KEY, uploadContext);
+        final AtomicBoolean released = new AtomicBoolean();
+        final AtomicBoolean releaseWithBody = new AtomicBoolean();
+        final Function<GraphQlMultipartBatch, Mono<Void>> release = batch -> Mono.defer(() -> released.compareAndSet(false, true)
+                ? releaseUploads(batch).then(uploadContext.release())
+                : Mono.empty());
+        final Mono<ServerResponse> processing = Mono.usingWhen(decode(serverRequest, tracker),
+                batch -> Flux.fromIterable(batch.requests()).concatMap(this::resolvePersistedQuery).collectList().flatMap(requests -> {
+                    if (!batch.batched()) {
+                        final boolean incremental = incrementalResponseWriter != null && IncrementalGraphQlResponseWriter.isAccepted(acceptableMediaTypes);
+                        return execute(serverRequest, requests.get(0), serverRequest.exchange().getRequest().getId(), incremental)
+                                .doOnNext(response -> markSucceeded(uploadContext, List.of(response)))
+                                .flatMap(response -> {
+                                    if (incremental && response.getExecutionResult() instanceof IncrementalExecutionResult result && result.hasNext()) {
+                                        // Deferred payloads may still read uploads: release them once the body has been written.
+                                        releaseWithBody.set(true);
+                                        return buildIncrementalResponse(response, result, release.apply(batch));
+                                    }
+                                    return buildServerResponse(response, acceptableMediaTypes, responseWriter);
+                                });
+                    }
+                    final String batchId = serverRequest.exchange().getRequest().getId();
+                    return Flux.range(0, requests.size())
+                            .flatMapSequential(i -> execute(serverRequest, requests.get(i), batchId + "-" + i), batchConcurrency)
+                            .collectList()
+                            .doOnNext(responses -> markSucceeded(uploadContext, responses))
+                            .flatMap(responses -> buildServerResponse(responses, acceptableMediaTypes, responseWriter));
+                }),
+                batch -> releaseWithBody.get() ? Mono.empty() : release.apply(batch),
+                (batch, error) -> release.apply(batch),
+                release);
+        return (tracker != null ? tracker.track(processing) : processing)
+                .onErrorResume(GraphQlMultipartException.class, e -> buildErrorResponse(e, acceptableMediaTypes));
+    }
+
+    /**
+     * Append the file part of a resumable upload chunk to its upload, or start an upload with a chunk without an id.
+     * @param serverRequest incoming chunk request
+     * @return mono producing the upload's progress
+     */
+    protected Mono<ResumableUploadStatus> appendChunk(final ServerRequest serverRequest) {
+        final String uploadId = serverRequest.headers().firstHeader(ResumableUploadStore.UPLOAD_ID);
+        final long offset;
+        final long length;
+        try {
+            offset = Long.parseLong(Objects.requireNonNullElse(serverRequest.headers().firstHeader(ResumableUploadStore.UPLOAD_OFFSET), "-1"));
+            length = Long.parseLong(Objects.requireNonNullElse(serverRequest.headers().firstHeader(ResumableUploadStore.UPLOAD_LENGTH), "-1"));
+        } catch (final NumberFormatException e) {
+            return Mono.error(GraphQlMultipartException.invalidRequest("Invalid " + ResumableUploadStore.UPLOAD_OFFSET + " or "
+                    + ResumableUploadStore.UPLOAD_LENGTH + " header."));
+        }
+        final AtomicBoolean appended = new AtomicBoolean();
+        return serverRequest.bodyToFlux(PartEvent.class)
+                .windowUntil(PartEvent::isLast)
+                .concatMap(part -> part.switchOnFirst((signal, events) -> {
+                    if (signal.get() instanceof FilePartEvent file) {
+                        if (!appended.compareAndSet(false, true)) {
+                            return Mono.error(GraphQlMultipartException.invalidRequest("A resumable upload chunk must hold a single file part."));
+                        }
+                        return resumableUploadStore.append(uploadId, offset, length, file.filename(), file.headers(),
+                                events.map(PartEvent::content));
+                    }
+                    return events.doOnNext(event -> DataBufferUtils.release(event.content())).then(Mono.<ResumableUploadStatus>empty());
+                }))
+                .singleOrEmpty()
+                .switchIfEmpty(Mono.error(() -> GraphQlMultipartException.invalidRequest("A resumable upload chunk must hold a file part.")));
+    }
+
+    /**
+     * Resolve the automatic persisted query named by a decoded request.
+     * <ul>
+     * <li>A request with only a hash gets the registered document, or fails as `PersistedQueryNotFound` so the client
+     * sends it again with the document.</li>
+     * <li>A request with a document and a hash registers the document once its hash has been verified.</li>
+     * </ul>
+     * @param request decoded GraphQL request
+     * @return mono emitting the request to execute
+     */
+    protected Mono<GraphQlRequest> resolvePersistedQuery(final GraphQlRequest request) {
+        if (!(request instanceof GraphQlMultipartRequest multipart)) {
+            return Mono.just(request);
+        }
+        final String hash;
+        try {
+            hash = multipart.getPersistedQueryHash();
+        } catch (final GraphQlMultipartException e) {
+            return Mono.error(e);
+        }
+        if (hash == null) {
+            return Mono.just(request);
+        }
+        final String document = multipart.getDocument();
+        if (persistedQueryStore == null) {
+            return document.isEmpty() ? Mono.error(GraphQlMultipartException.persistedQueryNotSupported()) : Mono.just(request);
+        }
+        if (document.isEmpty()) {
+            return persistedQueryStore.get(hash)
+                    .<GraphQlRequest>map(multipart::withDocument)
+                    .switchIfEmpty(Mono.error(GraphQlMultipartException::persistedQueryNotFound));
+        }
+        if (!hash.equals(PersistedQueryStore.hash(document))) {
+            return Mono.error(GraphQlMultipartException.invalidRequest("Provided persisted query sha256Hash does not match the query."));
+        }
+        log.trace("Registering persisted query {}.", hash);
+        return persistedQueryStore.put(hash, document).thenReturn(request);
+    }
+
+    /**
+     * Execute a single decoded GraphQL request through the {@link WebGraphQlHandler}.
+     * <p>
+     * The request's {@link UploadContext} is exposed to the execution through the GraphQL context, where the
+     * `Upload` scalar picks it up.  With a {@link BlockingUploadExecutor} the operation is run on one of its threads.
+     * @param serverRequest incoming multipart server request
+     * @param request decoded GraphQL request
+     * @param id id of the execution
+     * @return mono producing the GraphQL response
+     */
+    protected Mono<WebGraphQlResponse> execute(final ServerRequest serverRequest, final GraphQlRequest request, final String id) {
+        return execute(serverRequest, request, id, false);
+    }
+
+    /**
+     * Execute a single decoded GraphQL request through the {@link WebGraphQlHandler}, optionally with incremental
+     * delivery enabled.
+     * @param serverRequest incoming multipart server request
+     * @param request decoded GraphQL request
+     * @param id id of the execution
+     * @param incremental whether `@defer` may produce an `IncrementalExecutionResult`
+     * @return mono producing the GraphQL response
+     */
+    protected Mono<WebGraphQlResponse> execute(final ServerRequest serverRequest, final GraphQlRequest request, final String id,
+                                               final boolean incremental) {
+        final WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(serverRequest.uri(),
+                serverRequest.headers().asHttpHeaders(),
+                serverRequest.cookies(),
+                serverRequest.remoteAddress().orElse(null),
+                serverRequest.attributes(),
+                request,
+                id,
+                serverRequest.exchange().getLocaleContext().getLocale());
+
+        final Map<Object, Object> context = new HashMap<>();
+        final Object uploadContext = serverRequest.attributes().get(UploadContext.KEY);
+        if (uploadContext != null) {
+            context.put(UploadContext.KEY, uploadContext);
+        }
+        if (incremental) {
+            context.put(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true);
+        }
+        if (!context.isEmpty()) {
+            graphQlRequest.configureExecutionInput((input, builder) -> builder.graphQLContext(context).build());
+        }
+
+        log.debug("Dispatching decoded GraphQL request: {}", graphQlRequest);
+
+        final Mono<WebGraphQlResponse> response = blockingExecutor != null
+                ? blockingExecutor.execute(() -> webGraphQlHandler.handleRequest(graphQlRequest))
+                : webGraphQlHandler.handleRequest(graphQlRequest);
+        return metrics.observe(GraphQlMultipartStage.EXECUTION, response);
+    }
+
+    /**
+     * Decode the multipart body according to the configured {@link GraphQlMultipartDecodeMode}.
+     * @param serverRequest incoming multipart server request
+     * @return mono producing the decoded GraphQL requests
+     */
+    protected Mono<GraphQlMultipartBatch> decode(final ServerRequest serverRequest) {
+        return decode(serverRequest, null);
+    }
+
+    /**
+     * Decode the multipart body according to the configured {@link GraphQlMultipartDecodeMode}, counting its bytes
+     * into a progress tracker.
+     * @param serverRequest incoming multipart server request
+     * @param tracker tracker counting the received bytes and, in the part-event modes, the bytes of each file; may be
+     * `null`
+     * @return mono producing the decoded GraphQL requests
+     */
+    protected Mono<GraphQlMultipartBatch> decode(final ServerRequest serverRequest, final UploadProgressTracker tracker) {
+        if (tracker != null) {
+            return decode(trackedRequest(serverRequest, tracker), tracker::partEvent, tracker::bodyComplete, true);
+        }
+        return decode(serverRequest, event -> { }, () -> { }, false);
+    }
+
+    private Mono<GraphQlMultipartBatch> decode(final ServerRequest serverRequest, final Consumer<PartEvent> onPartEvent,
+                                               final Runnable onBodyComplete, final boolean readMultipartData) {
+        if (decodeMode == GraphQlMultipartDecodeMode.STREAMING) {
+            return metrics.observe(GraphQlMultipartStage.MULTIPART_PARSE,
+                    graphQlMultipartDecoder.decodeBatch(partEvents(serverRequest, onPartEvent, onBodyComplete)));
+        }
+        if (decodeMode == GraphQlMultipartDecodeMode.SINK) {
+            if (uploadSink == null) {
+                return Mono.error(new IllegalStateException("The sink decode mode requires an UploadSink."));
+            }
+            return metrics.observe(GraphQlMultipartStage.MULTIPART_PARSE,
+                    graphQlMultipartDecoder.decodeBatch(partEvents(serverRequest, onPartEvent, onBodyComplete), uploadSink));
+        }
+        if (decodeMode == GraphQlMultipartDecodeMode.STORED) {
+            return metrics.observe(GraphQlMultipartStage.MULTIPART_PARSE,
+                    graphQlMultipartDecoder.decodeBatch(partEvents(serverRequest, onPartEvent, onBodyComplete), uploadStorage));
+        }
+        // The exchange caches multipart data read from its own, untracked and unlimited body.
+        final long maxRequestSize = limits.getMaxRequestSize().toBytes();
+        final Mono<MultiValueMap<String, Part>> multipartData = readMultipartData || maxRequestSize >= 0
+                ? limitedRequest(serverRequest, maxRequestSize).body(BodyExtractors.toMultipartData())
+                : serverRequest.multipartData();
+        return metrics.observe(GraphQlMultipartStage.MULTIPART_PARSE, multipartData.doOnSuccess(data -> onBodyComplete.run()))
+                .flatMap(graphQlMultipartDecoder::decodeBatch);
+    }
+
+    /**
+     * Part events of a request; they complete once the last part, which may be read well after decoding produced
+     * the batch, has been parsed.
+     */
+    private static Flux<PartEvent> partEvents(final ServerRequest serverRequest, final Consumer<PartEvent> onPartEvent,
+                                              final Runnable onBodyComplete) {
+        return serverRequest.bodyToFlux(PartEvent.class)
+                .doOnNext(onPartEvent)
+                .doOnComplete(onBodyComplete);
+    }
+
+    /**
+     * View of a request whose body counts the bytes it emits into a progress tracker.
+     */
+    private static ServerRequest trackedRequest(final ServerRequest serverRequest, final UploadProgressTracker tracker) {
+        return decoratedRequest(serverRequest, body -> body.doOnNext(buffer -> tracker.received(buffer.readableByteCount())));
+    }
+
+    /**
+     * View of a request whose body fails with a {@link GraphQlMultipartLimitExceededException} as soon as more than
+     * `maxRequestSize` bytes have been read, so aggregated parts are never buffered past the limit.
+     */
+    private static ServerRequest limitedRequest(final ServerRequest serverRequest, final long maxRequestSize) {
+        if (maxRequestSize < 0) {
+            return serverRequest;
+        }
+        return decoratedRequest(serverRequest, body -> Flux.defer(() -> {
+            final long[] total = {0};
+            return body.handle((buffer, sink) -> {
+                total[0] += buffer.readableByteCount();
+                if (total[0] > maxRequestSize) {
+                    DataBufferUtils.release(buffer);
+                    sink.error(new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_REQUEST_SIZE, maxRequestSize));
+                } else {
+                    sink.next(buffer);
+                }
+            });
+        }));
+    }
+
+    private static ServerRequest decoratedRequest(final ServerRequest serverRequest, final UnaryOperator<Flux<DataBuffer>> body) {
+        final ServerHttpRequest request = new ServerHttpRequestDecorator(serverRequest.exchange().getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body.apply(super.getBody());
+            }
+        };
+        return ServerRequest.create(serverRequest.exchange().mutate().request(request).build(), serverRequest.messageReaders());
+    }
+
+    /**
+     * Release upload parts owned by a decoded batch once its GraphQL responses have been produced.
+     * @param batch decoded GraphQL requests
+     * @return mono completing once all owned uploads have been released
+     */
+    protected static Mono<Void> releaseUploads(final GraphQlMultipartBatch batch) {
+        if (batch.uploads().isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(batch.uploads())
+                .flatMap(Part::delete)
+                .then();
+    }
+
+    /**
+     * Mark the request's uploads as consumed when every operation executed without errors, so uploads it claimed are
+     * deleted on release rather than returned to their store.
+     */
+    private static void markSucceeded(final UploadContext uploadContext, final List<WebGraphQlResponse> responses) {
+        if (responses.stream().allMatch(response -> response.getErrors().isEmpty())) {
+            uploadContext.succeeded();
+        }
     }
 
     /**
@@ -66,15 +518,119 @@ import static org.springframework.http.MediaType.APPLICATION_GRAPHQL_RESPONSE;
      * @return server response with selected content type
      */
     protected static Mono<ServerResponse> buildServerResponse(final WebGraphQlResponse response, final List<MediaType> acceptableMediaTypes) {
-        final MediaType responseContentType = Optional.ofNullable(acceptableMediaTypes)
+        return buildServerResponse(response, acceptableMediaTypes, null);
+    }
+
+    /**
+     * Build an HTTP response from a {@link WebGraphQlResponse}, honoring acceptable media types.
+     * @param response GraphQL response to render
+     * @param acceptableMediaTypes media types accepted by the client
+     * @param writer writer streaming the body, or `null` to encode it with the configured codecs
+     * @return server response with selected content type
+     */
+    protected static Mono<ServerResponse> buildServerResponse(final WebGraphQlResponse response, final List<MediaType> acceptableMediaTypes,
+                                                              final StreamingGraphQlResponseWriter writer) {
+        final ServerResponse.BodyBuilder builder = ServerResponse.ok()
+                .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                .contentType(selectContentType(acceptableMediaTypes));
+        return writer != null ? builder.body(writer.inserter(response.getExecutionResult())) : builder.bodyValue(response.toMap());
+    }
+
+    /**
+     * Build an HTTP response holding the array of responses to a batch, honoring acceptable media types.
+     * <p>
+     * Response headers contributed by each operation are merged into the HTTP response.
+     * @param responses GraphQL responses in `operations` order
+     * @param acceptableMediaTypes media types accepted by the client
+     * @return server response with selected content type
+     */
+    protected static Mono<ServerResponse> buildServerResponse(final List<WebGraphQlResponse> responses, final List<MediaType> acceptableMediaTypes) {
+        return buildServerResponse(responses, acceptableMediaTypes, null);
+    }
+
+    /**
+     * Build an HTTP response holding the array of responses to a batch, honoring acceptable media types.
+     * @param responses GraphQL responses in `operations` order
+     * @param acceptableMediaTypes media types accepted by the client
+     * @param writer writer streaming the body, or `null` to encode it with the configured codecs
+     * @return server response with selected content type
+     */
+    protected static Mono<ServerResponse> buildServerResponse(final List<WebGraphQlResponse> responses, final List<MediaType> acceptableMediaTypes,
+                                                              final StreamingGraphQlResponseWriter writer) {
+        final ServerResponse.BodyBuilder builder = ServerResponse.ok()
+                .headers(headers -> responses.forEach(response -> headers.addAll(response.getResponseHeaders())))
+                .contentType(selectContentType(acceptableMediaTypes));
+        if (writer != null) {
+            return builder.body(writer.inserter(responses.stream().map(WebGraphQlResponse::getExecutionResult).toList()));
+        }
+        return builder.bodyValue(responses.stream().map(WebGraphQlResponse::toMap).toList());
+    }
+
+    /**
+     * Build a `multipart/mixed` response writing the initial result at once and each deferred payload as it resolves.
+     * @param response GraphQL response holding the initial result
+     * @param result incremental result publishing the deferred payloads
+     * @param onComplete action run once the body has been written, failed or been cancelled; must be idempotent
+     * @return server response of type {@link IncrementalGraphQlResponseWriter#MULTIPART_MIXED}
+     */
+    protected Mono<ServerResponse> buildIncrementalResponse(final WebGraphQlResponse response, final IncrementalExecutionResult result,
+                                                           final Mono<Void> onComplete) {
+        final Map<String, Object> initial = response.toMap();
+        return ServerResponse.ok()
+                .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                .contentType(IncrementalGraphQlResponseWriter.MULTIPART_MIXED)
+                .body((message, context) -> message.writeAndFlushWith(incrementalResponseWriter.write(initial, result, message.bufferFactory())
+                        .concatWith(onComplete.then(Mono.empty()))
+                        .onErrorResume(e -> onComplete.then(Mono.error(e)))
+                        .doOnCancel(onComplete::subscribe)));
+    }
+
+    /**
+     * Build the response to an accepted resumable upload chunk.
+     * @param status progress of the upload
+     * @return server response carrying the progress as `Upload-Offset`/`Upload-Length` headers and a JSON body
+     */
+    protected static Mono<ServerResponse> buildChunkResponse(final ResumableUploadStatus status) {
+        final Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uploadId", status.uploadId());
+        body.put("offset", status.offset());
+        body.put("length", status.length());
+        body.put("complete", status.isComplete());
+        return ServerResponse.ok()
+                .headers(headers -> {
+                    headers.set(ResumableUploadStore.UPLOAD_ID, status.uploadId());
+                    headers.set(ResumableUploadStore.UPLOAD_OFFSET, Long.toString(status.offset()));
+                    if (status.length() >= 0) {
+                        headers.set(ResumableUploadStore.UPLOAD_LENGTH, Long.toString(status.length()));
+                    }
+                    headers.setCacheControl("no-store");
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body);
+    }
+
+    /**
+     * Build a GraphQL error response for a request-level failure, honoring acceptable media types.
+     * @param exception failure to render
+     * @param acceptableMediaTypes media types accepted by the client
+     * @return server response with the exception's status and headers and a single GraphQL error
+     */
+    protected static Mono<ServerResponse> buildErrorResponse(final GraphQlMultipartException exception, final List<MediaType> acceptableMediaTypes) {
+        log.debug("Rejecting multipart GraphQL request: {}", exception.getReason());
+        final Map<String, Object> error = Map.of(
+                "message", Objects.requireNonNullElse(exception.getReason(), exception.getStatusCode().toString()),
+                "extensions", Map.of("code", exception.getErrorCode()));
+        return ServerResponse.status(exception.getStatusCode())
+                .headers(headers -> headers.addAll(exception.getHeaders()))
+                .contentType(selectContentType(acceptableMediaTypes))
+                .bodyValue(Map.of("errors", List.of(error)));
+    }
+
+    private static MediaType selectContentType(final List<MediaType> acceptableMediaTypes) {
+        return Optional.ofNullable(acceptableMediaTypes)
                 .flatMap(t -> t.stream()
                         .filter(SUPPORTED_MEDIA_TYPES::contains)
                         .findFirst())
                 .orElse(MediaType.APPLICATION_JSON);
-
-        return ServerResponse.ok()
-                .headers(headers -> headers.putAll(response.getResponseHeaders()))
-                .contentType(responseContentType)
-                .bodyValue(response.toMap());
     }
 }
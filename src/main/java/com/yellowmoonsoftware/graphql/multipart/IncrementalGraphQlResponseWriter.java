@@ -0,0 +1,86 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>IncrementalGraphQlResponseWriter</h2>
+ * Writes the result of an operation using `@defer` as a `multipart/mixed` response, following the incremental delivery
+ * over HTTP format (`deferSpec=20220824`).
+ * <ul>
+ * <li>The initial result is written as the first part as soon as it is available, with `hasNext: true`.</li>
+ * <li>Each {@link DelayedIncrementalPartialResult} is written and flushed as its own part when it resolves; the last
+ * one carries `hasNext: false` and is followed by the closing boundary.</li>
+ * </ul>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IncrementalGraphQlResponseWriter {
+    /**
+     * Media type of incremental responses.
+     */
+    public static final MediaType MULTIPART_MIXED = MediaType.parseMediaType("multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+
+    private static final byte[] PART_HEADER = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE_DELIMITER = "\r\n-----\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper mapper;
+
+    /**
+     * Whether a client accepts incremental responses.
+     * @param acceptableMediaTypes media types accepted by the client
+     * @return `true` when `multipart/mixed` is accepted explicitly
+     */
+    public static boolean isAccepted(final List<MediaType> acceptableMediaTypes) {
+        return acceptableMediaTypes != null && acceptableMediaTypes.stream()
+                .anyMatch(type -> !type.isWildcardType() && !type.isWildcardSubtype() && MediaType.MULTIPART_MIXED.isCompatibleWith(type));
+    }
+
+    /**
+     * Serialize an incremental result as `multipart/mixed` parts.
+     * @param initial initial result in its specification form, e.g. `WebGraphQlResponse.toMap()`
+     * @param result incremental result publishing the deferred payloads
+     * @param bufferFactory factory of the buffers written into
+     * @return one publisher per part, each to be flushed once written
+     */
+    public Flux<Mono<DataBuffer>> write(final Map<String, Object> initial, final IncrementalExecutionResult result,
+                                        final DataBufferFactory bufferFactory) {
+        final Flux<Map<String, Object>> payloads = result.hasNext()
+                ? Flux.concat(Mono.just(initial), Flux.from(result.getIncrementalItemPublisher()).map(DelayedIncrementalPartialResult::toSpecification))
+                : Flux.just(initial);
+        return payloads
+                .map(payload -> Mono.fromSupplier(() -> part(payload, bufferFactory)))
+                .concatWith(Mono.just(Mono.fromSupplier(() -> bufferFactory.wrap(CLOSE_DELIMITER))));
+    }
+
+    /**
+     * Body inserter writing an incremental result into the response, flushing every part.
+     * @param initial initial result in its specification form
+     * @param result incremental result publishing the deferred payloads
+     * @return body inserter for a `ServerResponse`
+     */
+    public BodyInserter<Object, ReactiveHttpOutputMessage> inserter(final Map<String, Object> initial, final IncrementalExecutionResult result) {
+        return (message, context) -> message.writeAndFlushWith(write(initial, result, message.bufferFactory()));
+    }
+
+    private DataBuffer part(final Map<String, Object> payload, final DataBufferFactory bufferFactory) {
+        final byte[] json = this.mapper.writeValueAsBytes(payload);
+        log.trace("Writing incremental GraphQL payload of {} bytes.", json.length);
+        final DataBuffer buffer = bufferFactory.allocateBuffer(PART_HEADER.length + json.length);
+        return buffer.write(PART_HEADER).write(json);
+    }
+}
@@ -0,0 +1,292 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Flux;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <h2>StreamingGraphQlResponseWriter</h2>
+ * Writes GraphQL responses as JSON straight into the response's {@link DataBuffer}s instead of encoding each response
+ * into a single contiguous buffer first.
+ * <ul>
+ * <li>The response is serialized by a Jackson generator writing into buffers of `chunkSize` bytes obtained from the
+ * response's (typically pooled) {@link DataBufferFactory}; each full buffer is sent as it is filled, so the first bytes
+ * go out before the last ones are produced.</li>
+ * <li>{@link ExecutionResult}s are written field by field straight from the result, without first building the
+ * specification map of each response.</li>
+ * <li>Serialization blocks while the client is not reading, so at most a few chunks of a response are held in
+ * memory at once.  It therefore runs on a dedicated pool of `threads` daemon threads rather than a shared scheduler,
+ * so slow clients can only hold up the writing of other responses.</li>
+ * <li>At most `maxQueueSize` responses wait for a thread; further responses fail with `503` rather than queue without
+ * bound.</li>
+ * </ul>
+ */
+@Slf4j
+public class StreamingGraphQlResponseWriter implements AutoCloseable {
+    /**
+     * Default `chunkSize`.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * Default `maxQueueSize`.
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 256;
+
+    private static final String THREAD_PREFIX = "graphql-multipart-response-";
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    /**
+     * Size of the buffers the response is written into.
+     */
+    @Getter
+    private final int chunkSize;
+
+    private final ObjectMapper mapper;
+    private final Executor executor;
+
+    /**
+     * Pool created by this writer, shut down on {@link #close()}; `null` when serializing on a caller's executor.
+     */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * One permit per response the pool may run or queue; `null` when serializing on a caller's executor.
+     */
+    private final Semaphore admissions;
+
+    /**
+     * Create a writer of {@link #DEFAULT_CHUNK_SIZE default}-sized chunks.
+     * @param mapper mapper serializing responses
+     */
+    public StreamingGraphQlResponseWriter(final ObjectMapper mapper) {
+        this(mapper, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a writer serializing on one thread per available processor.
+     * @param mapper mapper serializing responses
+     * @param chunkSize size of the buffers the response is written into
+     */
+    public StreamingGraphQlResponseWriter(final ObjectMapper mapper, final int chunkSize) {
+        this(mapper, chunkSize, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    /**
+     * Create a writer serializing on a pool of its own, shut down on {@link #close()}.
+     * @param mapper mapper serializing responses
+     * @param chunkSize size of the buffers the response is written into
+     * @param threads number of serializing threads
+     * @param maxQueueSize maximum number of responses waiting for a serializing thread
+     * @throws IllegalArgumentException when any size is not positive
+     */
+    public StreamingGraphQlResponseWriter(final ObjectMapper mapper, final int chunkSize, final int threads, final int maxQueueSize) {
+        this(mapper, chunkSize, null, newPool(threads, maxQueueSize), new Semaphore(threads + maxQueueSize));
+        log.debug("Serializing streamed responses on {} threads with a queue of {}.", threads, maxQueueSize);
+    }
+
+    /**
+     * Create a writer serializing on the caller's executor, which {@link #close()} leaves running.
+     * @param mapper mapper serializing responses
+     * @param chunkSize size of the buffers the response is written into
+     * @param executor executor serializing responses; its threads block while the client is not reading
+     * @throws IllegalArgumentException when `chunkSize` is not positive
+     */
+    public StreamingGraphQlResponseWriter(final ObjectMapper mapper, final int chunkSize, final Executor executor) {
+        this(mapper, chunkSize, executor, null, null);
+    }
+
+    private StreamingGraphQlResponseWriter(final ObjectMapper mapper, final int chunkSize, final Executor executor,
+                                           final ThreadPoolExecutor pool, final Semaphore admissions) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        this.admissions = admissions;
+        this.executor = pool != null ? pool : executor;
+    }
+
+    /**
+     * Serialize a response body as JSON.
+     * @param body response body, e.g. a map or a list of them for a batch
+     * @param bufferFactory factory of the buffers written into
+     * @return buffers of at most `chunkSize` bytes, produced as they are requested; fails with
+     * {@link GraphQlMultipartAdmissionRejectedException} when no serializing thread can take the response
+     */
+    public Flux<DataBuffer> write(final Object body, final DataBufferFactory bufferFactory) {
+        return stream(outputStream -> this.mapper.writeValue(outputStream, body), bufferFactory);
+    }
+
+    /**
+     * Serialize a GraphQL response as JSON, in the shape of its specification map.
+     * @param result result of the operation
+     * @param bufferFactory factory of the buffers written into
+     * @return buffers of at most `chunkSize` bytes, produced as they are requested; fails with
+     * {@link GraphQlMultipartAdmissionRejectedException} when no serializing thread can take the response
+     */
+    public Flux<DataBuffer> write(final ExecutionResult result, final DataBufferFactory bufferFactory) {
+        return stream(outputStream -> {
+            try (JsonGenerator generator = this.mapper.createGenerator(outputStream)) {
+                writeResult(generator, result);
+            }
+        }, bufferFactory);
+    }
+
+    /**
+     * Serialize the responses to a batch as a JSON array.
+     * @param results results of the operations, in `operations` order
+     * @param bufferFactory factory of the buffers written into
+     * @return buffers of at most `chunkSize` bytes, produced as they are requested; fails with
+     * {@link GraphQlMultipartAdmissionRejectedException} when no serializing thread can take the response
+     */
+    public Flux<DataBuffer> write(final List<? extends ExecutionResult> results, final DataBufferFactory bufferFactory) {
+        return stream(outputStream -> {
+            try (JsonGenerator generator = this.mapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (final ExecutionResult result : results) {
+                    writeResult(generator, result);
+                }
+                generator.writeEndArray();
+            }
+        }, bufferFactory);
+    }
+
+    private Flux<DataBuffer> stream(final Consumer<OutputStream> handler, final DataBufferFactory bufferFactory) {
+        final Flux<DataBuffer> buffers = Flux.from(DataBufferUtils.outputStreamPublisher(
+                outputStream -> handler.accept(new ChunkingOutputStream(outputStream, this.chunkSize)),
+                bufferFactory, this.executor, this.chunkSize));
+        if (this.admissions == null) {
+            return buffers;
+        }
+        return Flux.defer(() -> {
+            if (!this.admissions.tryAcquire()) {
+                return Flux.error(new GraphQlMultipartAdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Response streaming capacity exhausted.", RETRY_AFTER));
+            }
+            return buffers.doFinally(signal -> this.admissions.release());
+        });
+    }
+
+    /**
+     * Body inserter writing a response body as JSON into the response's buffers.
+     * @param body response body
+     * @return body inserter for a `ServerResponse`
+     */
+    public BodyInserter<Object, ReactiveHttpOutputMessage> inserter(final Object body) {
+        return (message, context) -> message.writeWith(write(body, message.bufferFactory()));
+    }
+
+    /**
+     * Body inserter writing a GraphQL response as JSON into the response's buffers.
+     * @param result result of the operation
+     * @return body inserter for a `ServerResponse`
+     */
+    public BodyInserter<Object, ReactiveHttpOutputMessage> inserter(final ExecutionResult result) {
+        return (message, context) -> message.writeWith(write(result, message.bufferFactory()));
+    }
+
+    /**
+     * Body inserter writing the responses to a batch as a JSON array into the response's buffers.
+     * @param results results of the operations, in `operations` order
+     * @return body inserter for a `ServerResponse`
+     */
+    public BodyInserter<Object, ReactiveHttpOutputMessage> inserter(final List<? extends ExecutionResult> results) {
+        return (message, context) -> message.writeWith(write(results, message.bufferFactory()));
+    }
+
+    /**
+     * Stop serializing on the writer's own pool, interrupting responses still being written; an executor passed by
+     * the caller is left running.
+     */
+    @Override
+    public void close() {
+        if (this.pool != null) {
+            this.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Write a result as {@link ExecutionResult#toSpecification()} would map it: `errors` when there are any, `data`
+     * when present and `extensions` when set.
+     */
+    private static void writeResult(final JsonGenerator generator, final ExecutionResult result) {
+        generator.writeStartObject();
+        if (!result.getErrors().isEmpty()) {
+            generator.writeName("errors");
+            generator.writeStartArray();
+            for (final GraphQLError error : result.getErrors()) {
+                generator.writePOJO(error.toSpecification());
+            }
+            generator.writeEndArray();
+        }
+        if (result.isDataPresent()) {
+            generator.writePOJOProperty("data", result.getData());
+        }
+        if (result.getExtensions() != null) {
+            generator.writePOJOProperty("extensions", result.getExtensions());
+        }
+        generator.writeEndObject();
+    }
+
+    private static ThreadPoolExecutor newPool(final int threads, final int maxQueueSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException("maxQueueSize must be positive: " + maxQueueSize);
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        // Admission permits bound the queue, so the pool itself never rejects a response it was handed.
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, THREAD_PREFIX + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Splits the generator's buffer flushes into writes of at most `chunkSize` bytes, so no buffer grows past the
+     * chunk size.
+     */
+    private static final class ChunkingOutputStream extends FilterOutputStream {
+        private final int chunkSize;
+
+        ChunkingOutputStream(final OutputStream out, final int chunkSize) {
+            super(out);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            for (int written = 0; written < length; written += this.chunkSize) {
+                this.out.write(bytes, offset + written, Math.min(this.chunkSize, length - written));
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.digest.DigestedContent;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * <h2>Upload</h2>
+ * Value of the `Upload` scalar: a {@link FilePart} with the metadata and views resolvers usually need.
+ * <ul>
+ * <li>{@link #contentLength()} and {@link #contentType()} are known without reading the content.</li>
+ * <li>{@link #digests()} exposes the digests computed by the decoder while the content was received.</li>
+ * <li>{@link #inputStream()} and {@link #channel()} expose the content to blocking APIs.</li>
+ * <li>{@link #replayable()} yields an upload whose content may be read any number of times: the upload itself in
+ * `stored` mode, otherwise a copy written to the request's upload storage and deleted with the request.</li>
+ * </ul>
+ * Like the wrapped part, the content of a non-replayable upload can be consumed only once.
+ */
+public final class Upload implements FilePart, DigestedContent {
+    private final FilePart part;
+    private final UploadContext context;
+    private Mono<Upload> replayable;
+
+    private Upload(final FilePart part, final UploadContext context) {
+        this.part = part;
+        this.context = context;
+    }
+
+    /**
+     * Wrap a file part without access to upload storage.
+     * @param part file part
+     * @return upload wrapping the part, or the part itself when already an upload
+     */
+    public static Upload of(final FilePart part) {
+        return of(part, null);
+    }
+
+    /**
+     * Wrap a file part, using the request's upload context to make it replayable on demand.
+     * @param part file part
+     * @param context upload context of the request, may be `null`
+     * @return upload wrapping the part, or the part itself when already an upload
+     */
+    public static Upload of(final FilePart part, final UploadContext context) {
+        return part instanceof Upload upload ? upload : new Upload(part, context);
+    }
+
+    /**
+     * The wrapped part.
+     * @return file part
+     */
+    public FilePart getPart() {
+        return this.part;
+    }
+
+    @Override
+    public @NonNull String name() {
+        return this.part.name();
+    }
+
+    @Override
+    public @NonNull String filename() {
+        return this.part.filename();
+    }
+
+    @Override
+    public @NonNull HttpHeaders headers() {
+        return this.part.headers();
+    }
+
+    /**
+     * Size of the content: exact for stored uploads not kept encoded, otherwise the part's declared `Content-Length`.
+     * @return content length in bytes, or `-1` when unknown
+     */
+    public long contentLength() {
+        return this.part instanceof StoredFilePart stored && !stored.isEncoded()
+                ? stored.getContentLength()
+                : this.part.headers().getContentLength();
+    }
+
+    /**
+     * Declared content type of the part.
+     * @return content type, `application/octet-stream` when not declared
+     */
+    public MediaType contentType() {
+        final MediaType contentType = this.part.headers().getContentType();
+        return contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    /**
+     * Digests computed while the content was received, when the decoder is configured with digest algorithms.
+     * <p>
+     * Stored uploads carry their digests as soon as they are bound; a streamed upload only once its content has been
+     * fully consumed.
+     * @return content digests, {@link ContentDigests#NONE} when not computed (yet)
+     */
+    @Override
+    public ContentDigests digests() {
+        return this.part instanceof DigestedContent digested ? digested.digests() : ContentDigests.NONE;
+    }
+
+    /**
+     * Whether the content may be read more than once.
+     * @return `true` for stored uploads
+     */
+    public boolean isReplayable() {
+        return this.part instanceof StoredFilePart;
+    }
+
+    /**
+     * Get an upload whose content may be read any number of times.
+     * <p>
+     * A replayable upload is returned as is.  Otherwise the content is consumed once and copied into the request's
+     * upload storage; the copy is made at most once per upload and deleted when the request completes.
+     * @return mono emitting a replayable upload
+     * @throws IllegalStateException (signalled) when the upload is not replayable and no upload storage is available
+     */
+    public synchronized Mono<Upload> replayable() {
+        if (this.replayable == null) {
+            if (isReplayable()) {
+                this.replayable = Mono.just(this);
+            } else if (this.context == null) {
+                this.replayable = Mono.error(new IllegalStateException("Upload " + name() + " is not replayable and no upload storage is available."));
+            } else {
+                this.replayable = this.context.store(this.part)
+                        .map(copy -> {
+                            if (copy instanceof StoredFilePart stored) {
+                                stored.setDigests(digests());
+                            }
+                            return new Upload(copy, this.context);
+                        })
+                        .cache();
+            }
+        }
+        return this.replayable;
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return this.part.content();
+    }
+
+    /**
+     * Blocking view of the content; subscribes to {@link #content()} on first read.
+     * <p>
+     * Reads block until content is available, so the stream must not be read on an event-loop thread; run the
+     * operation through a {@link BlockingUploadExecutor} instead.
+     * @return input stream over the content
+     * @throws IllegalStateException when called on a non-blocking thread
+     */
+    public InputStream inputStream() {
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Upload " + name() + " cannot be read as a blocking stream on non-blocking thread "
+                    + Thread.currentThread().getName() + ".");
+        }
+        return DataBufferUtils.subscriberInputStream(content(), 1);
+    }
+
+    /**
+     * Blocking channel view of the content; see {@link #inputStream()}.
+     * @return readable channel over the content
+     */
+    public ReadableByteChannel channel() {
+        return Channels.newChannel(inputStream());
+    }
+
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        return this.part.transferTo(dest);
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return this.part.delete();
+    }
+
+    @Override
+    public String toString() {
+        return "Upload{" + this.part + "}";
+    }
+}
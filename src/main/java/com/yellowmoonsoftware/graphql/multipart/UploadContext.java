@@ -0,0 +1,122 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
+import graphql.GraphQLContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <h2>UploadContext</h2>
+ * Per-request upload resources shared with {@link Upload} values through the {@link GraphQLContext}.
+ * <p>
+ * {@link GraphQlMultipartWebHandler} creates one context per multipart request, exposes it to the GraphQL execution
+ * under {@link #KEY}, and {@link #release() releases} it together with the decoded uploads once the response has
+ * been produced, so replayable copies made by {@link Upload#replayable()} never outlive the request.
+ * <p>
+ * Uploads {@link #claimed(FilePart, Runnable) claimed} by the request from a store outliving it, such as resumable
+ * uploads, are deleted on release when the request {@link #succeeded() succeeded}, and returned to their store
+ * otherwise, so a failed mutation can be retried with the same upload.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public final class UploadContext {
+    /**
+     * Key of the context in the {@link GraphQLContext} and in the server request attributes.
+     */
+    public static final String KEY = UploadContext.class.getName();
+
+    /**
+     * Storage used to make uploads replayable.
+     */
+    @Getter
+    private final UploadStorage storage;
+
+    private final Queue<Part> copies = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Claim> claims = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean succeeded;
+
+    /**
+     * Look up the context of the current request.
+     * @param graphQLContext GraphQL context of the execution
+     * @return the request's upload context, or `null` outside a multipart request
+     */
+    public static UploadContext from(final GraphQLContext graphQLContext) {
+        return graphQLContext.get(KEY);
+    }
+
+    /**
+     * Copy a part into the storage; the copy is deleted by {@link #release()}.
+     * @param part part whose content is copied (and consumed)
+     * @return mono emitting the stored copy
+     */
+    public Mono<FilePart> store(final FilePart part) {
+        return this.storage.store(part.name(), part.filename(), part.headers(), part.content())
+                .doOnNext(this.copies::add);
+    }
+
+    /**
+     * Register an upload claimed by the request; it is released by {@link #release()}.
+     * @param part claimed part, whose deletion deletes the upload
+     * @param unclaim action returning the upload to its store
+     */
+    public void claimed(final FilePart part, final Runnable unclaim) {
+        this.claims.add(new Claim(part, unclaim));
+    }
+
+    /**
+     * Mark the request as succeeded, so {@link #release()} deletes its claimed uploads rather than returning them.
+     */
+    public void succeeded() {
+        this.succeeded = true;
+    }
+
+    /**
+     * Delete every copy made for the request, and delete or return its claimed uploads.
+     * @return mono completing once all copies and deleted uploads have been deleted
+     */
+    public Mono<Void> release() {
+        final List<Part> released = new ArrayList<>();
+        for (Part part = this.copies.poll(); part != null; part = this.copies.poll()) {
+            released.add(part);
+        }
+        final List<Part> consumed = new ArrayList<>();
+        for (Claim claim = this.claims.poll(); claim != null; claim = this.claims.poll()) {
+            if (this.succeeded) {
+                consumed.add(claim.part());
+            } else {
+                claim.unclaim().run();
+            }
+        }
+        return Flux.concat(
+                        Flux.fromIterable(released).flatMap(part -> delete(part, "replayable copy of upload")),
+                        Flux.fromIterable(consumed).flatMap(part -> delete(part, "claimed upload")))
+                .then();
+    }
+
+    private static Mono<Void> delete(final Part part, final String description) {
+        return part.delete().onErrorResume(e -> {
+            log.warn("Failed to delete {} {}.", description, part.name(), e);
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Upload claimed by the request.
+     * @param part claimed part
+     * @param unclaim action returning the upload to its store
+     */
+    private record Claim(FilePart part, Runnable unclaim) {
+    }
+}
@@ -1,25 +1,57 @@
 package com.yellowmoonsoftware.graphql.multipart.config;
 
+import com.yellowmoonsoftware.graphql.multipart.BlockingUploadExecutor;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionController;
+import com.yellowmoonsoftware.graphql.multipart.decoder.DecodeScheduler;
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartDecoder;
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.decoder.SchemaUploadPathValidator;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.document.GraphQlDocumentCache;
+import com.yellowmoonsoftware.graphql.multipart.encoding.ContentCoding;
+import com.yellowmoonsoftware.graphql.multipart.encoding.PartContentDecoder;
+import com.yellowmoonsoftware.graphql.multipart.encoding.StandardContentCoding;
 import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartWebHandler;
+import com.yellowmoonsoftware.graphql.multipart.IncrementalGraphQlResponseWriter;
+import com.yellowmoonsoftware.graphql.multipart.StreamingGraphQlResponseWriter;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.persisted.InMemoryPersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.persisted.PersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressWebHandler;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.DeduplicatingUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.FileSystemUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.S3UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.graphql.autoconfigure.GraphQlProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.annotation.Order;
+import org.springframework.graphql.execution.GraphQlSource;
 import org.springframework.graphql.server.WebGraphQlHandler;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 
 /**
@@ -29,57 +61,375 @@ import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
 @Slf4j
 @AutoConfiguration
 @ConditionalOnClass(WebGraphQlHandler.class)
+@EnableConfigurationProperties(GraphQlMultipartProperties.class)
 public class GraphQlMultipartFileUploadConfig {
 
     /**
      * Provide a {@link GraphQlMultipartDecoder} backed by {@link JacksonJsonDecoder}.
      * @param jsonDecoderProvider provider for JacksonJsonDecoder
      * @param jsonMapper JSON mapper fallback
+     * @param properties multipart upload properties
+     * @param metrics multipart instrumentation, when configured
+     * @param graphQlSource schema source checked against `map` paths when `graphql.multipart.validation.enabled` is set
+     * @param documentCache cache of parsed documents shared with GraphQL execution, when enabled
+     * @param decodeScheduler scheduler decoding large payloads off the event loop, when enabled
+     * @param contentDecoder decoder of parts sent with a `Content-Encoding`, when enabled
      * @return configured multipart decoder
      */
     @Bean
     @ConditionalOnMissingBean
     public GraphQlMultipartDecoder graphQlMultipartDecoder(final ObjectProvider<JacksonJsonDecoder> jsonDecoderProvider,
-                                                           final JsonMapper jsonMapper) {
+                                                           final JsonMapper jsonMapper,
+                                                           final GraphQlMultipartProperties properties,
+                                                           final ObjectProvider<GraphQlMultipartMetrics> metrics,
+                                                           final ObjectProvider<GraphQlSource> graphQlSource,
+                                                           final ObjectProvider<GraphQlDocumentCache> documentCache,
+                                                           final ObjectProvider<DecodeScheduler> decodeScheduler,
+                                                           final ObjectProvider<PartContentDecoder> contentDecoder) {
         final JacksonJsonDecoder jsonDecoder = jsonDecoderProvider.getIfAvailable(() -> new JacksonJsonDecoder(jsonMapper));
         log.info("Configured GraphQlMultipartDecoder using JacksonJsonDecoder for multipart GraphQL decoding.");
-        return new GraphQlMultipartJsonDecoder(jsonDecoder);
+        final GraphQlMultipartJsonDecoder decoder = new GraphQlMultipartJsonDecoder(jsonDecoder);
+        decoder.setLimits(properties.getLimits());
+        final Set<ContentDigestAlgorithm> digestAlgorithms = new LinkedHashSet<>(properties.getDigest().getAlgorithms());
+        if (properties.getSink().getDeduplication().isEnabled()) {
+            // Deduplication reuses the decoder's SHA-256 instead of digesting uploads a second time.
+            digestAlgorithms.add(ContentDigestAlgorithm.SHA_256);
+        }
+        decoder.setDigestAlgorithms(Set.copyOf(digestAlgorithms));
+        decoder.setVerifyDigests(properties.getDigest().isVerify());
+        metrics.ifAvailable(decoder::setMetrics);
+        decodeScheduler.ifAvailable(decoder::setDecodeScheduler);
+        contentDecoder.ifAvailable(decoder::setContentDecoder);
+        if (properties.getValidation().isEnabled()) {
+            final GraphQlDocumentCache documents = documentCache.getIfAvailable();
+            graphQlSource.ifAvailable(source -> decoder.setUploadPathValidator(documents == null
+                    ? new SchemaUploadPathValidator(source.schema(), properties.getValidation().getCacheSize())
+                    : new SchemaUploadPathValidator(source.schema(), properties.getValidation().getCacheSize(), documents::parse)));
+        }
+        return decoder;
+    }
+
+    /**
+     * Provide the {@link DecodeScheduler} moving large decoding work off the event loop when
+     * `graphql.multipart.offload.enabled` is set.
+     * @param properties multipart upload properties
+     * @param metrics multipart instrumentation, when configured
+     * @return decode scheduler, closed on shutdown
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.offload", name = "enabled", havingValue = "true")
+    public DecodeScheduler graphQlMultipartDecodeScheduler(final GraphQlMultipartProperties properties,
+                                                           final ObjectProvider<GraphQlMultipartMetrics> metrics) {
+        final GraphQlMultipartProperties.Offload config = properties.getOffload();
+        log.info("Configured offloading of multipart decoding above {} or {} map entries to {} threads.",
+                config.getByteThreshold(), config.getEntryThreshold(), config.getParallelism());
+        final DecodeScheduler scheduler = new DecodeScheduler(config.getParallelism(), config.getMaxQueueSize());
+        scheduler.setByteThreshold(config.getByteThreshold());
+        scheduler.setEntryThreshold(config.getEntryThreshold());
+        metrics.ifAvailable(scheduler::setMetrics);
+        return scheduler;
+    }
+
+    /**
+     * Provide the {@link PartContentDecoder} decoding parts sent with a `Content-Encoding` when
+     * `graphql.multipart.content-encoding.enabled` is set.
+     * @param properties multipart upload properties
+     * @param codings codings supported in addition to, or replacing, the standard `gzip` and `deflate`
+     * @return part content decoder
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.content-encoding", name = "enabled", havingValue = "true")
+    public PartContentDecoder graphQlMultipartPartContentDecoder(final GraphQlMultipartProperties properties,
+                                                                 final ObjectProvider<ContentCoding> codings) {
+        final GraphQlMultipartProperties.ContentEncoding config = properties.getContentEncoding();
+        final List<ContentCoding> supported = new ArrayList<>(List.of(StandardContentCoding.values()));
+        codings.orderedStream().forEach(supported::add);
+        final PartContentDecoder decoder = new PartContentDecoder(supported);
+        decoder.setBufferSize(config.getBufferSize());
+        decoder.setRatioThreshold(config.getRatioThreshold());
+        decoder.setKeepEncoded(config.isKeepEncoded());
+        log.info("Configured decoding of multipart parts sent with Content-Encoding {}.", decoder.getTokens());
+        return decoder;
+    }
+
+    /**
+     * Provide the {@link UploadStorage} used by the `stored` decode mode, spilling large uploads to disk.
+     * @param properties multipart upload properties
+     * @return configured upload storage, closed (deleting any remaining spilled uploads) on shutdown
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public UploadStorage graphQlMultipartUploadStorage(final GraphQlMultipartProperties properties) {
+        final GraphQlMultipartProperties.Storage config = properties.getStorage();
+        final SpillingUploadStorage storage = new SpillingUploadStorage(config.getDirectory());
+        storage.setInMemoryThreshold(config.getInMemoryThreshold());
+        storage.setMaxDiskUsage(config.getMaxDiskUsage());
+        return storage;
+    }
+
+    /**
+     * Provide an {@link S3UploadSink} for the `sink` decode mode when `graphql.multipart.sink.s3.bucket` is set.
+     * @param properties multipart upload properties
+     * @param webClientBuilder builder for the object store client, when configured
+     * @return configured S3 upload sink, deduplicating when `graphql.multipart.sink.deduplication.enabled` is set
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.sink.s3", name = "bucket")
+    public UploadSink graphQlMultipartS3UploadSink(final GraphQlMultipartProperties properties,
+                                                   final ObjectProvider<WebClient.Builder> webClientBuilder) {
+        final GraphQlMultipartProperties.Sink.S3 config = properties.getSink().getS3();
+        log.info("Configured S3 upload sink for bucket {} at {}.", config.getBucket(), config.getEndpoint());
+        final S3UploadSink sink = new S3UploadSink(webClientBuilder.getIfAvailable(WebClient::builder).build(),
+                config.getEndpoint(), config.getBucket(), config.getRegion(), config.getAccessKey(), config.getSecretKey());
+        sink.setKeyPrefix(config.getKeyPrefix());
+        sink.setPartSize(config.getPartSize());
+        return deduplicate(sink, properties);
+    }
+
+    /**
+     * Provide a {@link FileSystemUploadSink} for the `sink` decode mode when `graphql.multipart.sink.directory` is set.
+     * @param properties multipart upload properties
+     * @return configured file system upload sink, deduplicating when `graphql.multipart.sink.deduplication.enabled` is set
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.sink", name = "directory")
+    public UploadSink graphQlMultipartFileSystemUploadSink(final GraphQlMultipartProperties properties) {
+        log.info("Configured file system upload sink writing to {}.", properties.getSink().getDirectory());
+        return deduplicate(new FileSystemUploadSink(properties.getSink().getDirectory()), properties);
+    }
+
+    private static UploadSink deduplicate(final UploadSink sink, final GraphQlMultipartProperties properties) {
+        final GraphQlMultipartProperties.Sink.Deduplication config = properties.getSink().getDeduplication();
+        if (!config.isEnabled()) {
+            return sink;
+        }
+        log.info("Configured content-addressed deduplication of uploads indexing {} digests.", config.getMaxEntries());
+        return new DeduplicatingUploadSink(sink, config.getMaxEntries());
+    }
+
+    /**
+     * Provide the {@link BlockingUploadExecutor} running operations off the event loop when
+     * `graphql.multipart.blocking.enabled` is set.
+     * @param properties multipart upload properties
+     * @return blocking executor, closed on shutdown
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.blocking", name = "enabled", havingValue = "true")
+    public BlockingUploadExecutor graphQlMultipartBlockingUploadExecutor(final GraphQlMultipartProperties properties) {
+        final BlockingUploadExecutor executor = new BlockingUploadExecutor(properties.getBlocking().getMaxConcurrency());
+        log.info("Configured blocking execution of multipart GraphQL operations on {} threads.", executor.isVirtual() ? "virtual" : "platform");
+        return executor;
+    }
+
+    /**
+     * Provide the {@link GraphQlMultipartAdmissionController} bounding requests in flight when
+     * `graphql.multipart.admission.enabled` is set.
+     * @param properties multipart upload properties
+     * @param metrics multipart instrumentation, when configured
+     * @return admission controller
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.admission", name = "enabled", havingValue = "true")
+    public GraphQlMultipartAdmissionController graphQlMultipartAdmissionController(final GraphQlMultipartProperties properties,
+                                                                                   final ObjectProvider<GraphQlMultipartMetrics> metrics) {
+        final GraphQlMultipartProperties.Admission config = properties.getAdmission();
+        log.info("Configured admission control of multipart GraphQL requests: {} requests, {} in flight.",
+                config.getMaxConcurrentRequests(), config.getMaxInFlightBytes());
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(
+                config.getMaxConcurrentRequests(), config.getMaxInFlightBytes().toBytes());
+        controller.setMaxQueueSize(config.getMaxQueueSize());
+        controller.setMaxQueueWait(config.getMaxQueueWait());
+        controller.setRetryAfter(config.getRetryAfter());
+        metrics.ifAvailable(controller::setMetrics);
+        return controller;
+    }
+
+    /**
+     * Provide an {@link InMemoryPersistedQueryStore} when `graphql.multipart.persisted-queries.enabled` is set; define
+     * a {@link PersistedQueryStore} bean to use another backend.
+     * @param properties multipart upload properties
+     * @return persisted query store
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.persisted-queries", name = "enabled", havingValue = "true")
+    public PersistedQueryStore graphQlMultipartPersistedQueryStore(final GraphQlMultipartProperties properties) {
+        log.info("Configured in-memory persisted query store of {} entries.", properties.getPersistedQueries().getMaxEntries());
+        return new InMemoryPersistedQueryStore(properties.getPersistedQueries().getMaxEntries());
+    }
+
+    /**
+     * Provide the {@link StreamingGraphQlResponseWriter} when `graphql.multipart.streaming-response.enabled` is set.
+     * @param jsonMapper JSON mapper serializing responses
+     * @param properties multipart upload properties
+     * @return streaming response writer, whose serializing threads are shut down on shutdown
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.streaming-response", name = "enabled", havingValue = "true")
+    public StreamingGraphQlResponseWriter graphQlMultipartResponseWriter(final JsonMapper jsonMapper, final GraphQlMultipartProperties properties) {
+        final GraphQlMultipartProperties.StreamingResponse config = properties.getStreamingResponse();
+        log.info("Configured streaming of multipart GraphQL responses in chunks of {} on {} threads.",
+                config.getChunkSize(), config.getThreads());
+        return new StreamingGraphQlResponseWriter(jsonMapper, Math.toIntExact(config.getChunkSize().toBytes()),
+                config.getThreads(), config.getMaxQueueSize());
+    }
+
+    /**
+     * Provide the {@link IncrementalGraphQlResponseWriter} when `graphql.multipart.incremental.enabled` is set.
+     * @param jsonMapper JSON mapper serializing payloads
+     * @return incremental response writer
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.incremental", name = "enabled", havingValue = "true")
+    public IncrementalGraphQlResponseWriter graphQlMultipartIncrementalResponseWriter(final JsonMapper jsonMapper) {
+        log.info("Configured incremental delivery of deferred multipart GraphQL results.");
+        return new IncrementalGraphQlResponseWriter(jsonMapper);
+    }
+
+    /**
+     * Provide the {@link UploadProgressRegistry} when `graphql.multipart.progress.enabled` is set.
+     * @param properties multipart upload properties
+     * @return upload progress registry
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.progress", name = "enabled", havingValue = "true")
+    public UploadProgressRegistry graphQlMultipartUploadProgressRegistry(final GraphQlMultipartProperties properties) {
+        final GraphQlMultipartProperties.Progress config = properties.getProgress();
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        registry.setSampleSize(config.getSampleSize());
+        registry.setInterval(config.getInterval());
+        registry.setRetention(config.getRetention());
+        registry.setMaxEntries(config.getMaxEntries());
+        log.info("Configured upload progress reporting sampled every {}.", config.getSampleSize());
+        return registry;
+    }
+
+    /**
+     * Issue progress ids on POSTs to `graphql.multipart.progress.path` and serve upload progress as server-sent events
+     * below it when progress reporting is enabled.
+     * @param properties multipart upload properties
+     * @param progressRegistry upload progress registry
+     * @return router function for progress ids and streams
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "graphQlMultipartProgressRouter")
+    @ConditionalOnProperty(prefix = "graphql.multipart.progress", name = "enabled", havingValue = "true")
+    public RouterFunction<ServerResponse> graphQlMultipartProgressRouter(final GraphQlMultipartProperties properties,
+                                                                         final UploadProgressRegistry progressRegistry) {
+        final String path = properties.getProgress().getPath();
+        final UploadProgressWebHandler handler = new UploadProgressWebHandler(progressRegistry);
+        log.info("Configured upload progress ids and events on {}.", path);
+        return RouterFunctions.route()
+                .POST(path, handler::handleIssueRequest)
+                .GET(path + "/{" + UploadProgressWebHandler.ID_VARIABLE + "}", handler::handleProgressRequest)
+                .build();
+    }
+
+    /**
+     * Provide the {@link ResumableUploadStore} staging chunked uploads when `graphql.multipart.resumable.enabled` is set.
+     * @param properties multipart upload properties
+     * @return resumable upload store, closed (deleting staged uploads) on shutdown
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.resumable", name = "enabled", havingValue = "true")
+    public ResumableUploadStore graphQlMultipartResumableUploadStore(final GraphQlMultipartProperties properties) {
+        final GraphQlMultipartProperties.Resumable config = properties.getResumable();
+        final ResumableUploadStore store = new ResumableUploadStore(config.getDirectory());
+        store.setExpiry(config.getExpiry());
+        store.setMaxLength(config.getMaxLength());
+        store.setMaxUploads(config.getMaxUploads());
+        log.info("Configured resumable multipart uploads expiring after {}.", config.getExpiry());
+        return store;
     }
 
     /**
      * Provide the {@link GraphQlMultipartWebHandler} that delegates to the core {@link WebGraphQlHandler}.
      * @param graphQlMultipartDecoder decoder for multipart GraphQL requests
      * @param webGraphQlHandler core GraphQL handler
+     * @param properties multipart upload properties
+     * @param uploadStorage storage receiving file parts in `stored` mode
+     * @param uploadSink sink receiving file parts in `sink` mode, when configured
+     * @param blockingExecutor executor running operations off the event loop, when enabled
+     * @param admissionController admission control of requests, when enabled
+     * @param resumableUploadStore store receiving chunks of resumable uploads, when enabled
+     * @param persistedQueryStore store resolving automatic persisted queries, when enabled
+     * @param responseWriter writer streaming responses, when enabled
+     * @param incrementalResponseWriter writer of incremental `@defer` responses, when enabled
+     * @param progressRegistry registry publishing upload progress, when enabled
+     * @param metrics multipart instrumentation, when configured
      * @return multipart web handler
      */
     @Bean
     @ConditionalOnMissingBean
     public GraphQlMultipartWebHandler graphQlMultipartWebHandler(final GraphQlMultipartDecoder graphQlMultipartDecoder,
-                                                                 final WebGraphQlHandler webGraphQlHandler) {
-        log.info("Configured GraphQlMultipartWebHandler for multipart GraphQL request handling.");
-        return new GraphQlMultipartWebHandler(graphQlMultipartDecoder, webGraphQlHandler);
+                                                                 final WebGraphQlHandler webGraphQlHandler,
+                                                                 final GraphQlMultipartProperties properties,
+                                                                 final UploadStorage uploadStorage,
+                                                                 final ObjectProvider<UploadSink> uploadSink,
+                                                                 final ObjectProvider<BlockingUploadExecutor> blockingExecutor,
+                                                                 final ObjectProvider<GraphQlMultipartAdmissionController> admissionController,
+                                                                 final ObjectProvider<ResumableUploadStore> resumableUploadStore,
+                                                                 final ObjectProvider<PersistedQueryStore> persistedQueryStore,
+                                                                 final ObjectProvider<StreamingGraphQlResponseWriter> responseWriter,
+                                                                 final ObjectProvider<IncrementalGraphQlResponseWriter> incrementalResponseWriter,
+                                                                 final ObjectProvider<UploadProgressRegistry> progressRegistry,
+                                                                 final ObjectProvider<GraphQlMultipartMetrics> metrics) {
+        log.info("Configured GraphQlMultipartWebHandler for multipart GraphQL request handling using {} decoding.", properties.getDecodeMode());
+        final GraphQlMultipartWebHandler handler = new GraphQlMultipartWebHandler(graphQlMultipartDecoder, webGraphQlHandler);
+        handler.setDecodeMode(properties.getDecodeMode());
+        handler.setBatchConcurrency(properties.getBatch().getMaxConcurrency());
+        handler.setLimits(properties.getLimits());
+        handler.setUploadStorage(uploadStorage);
+        uploadSink.ifAvailable(handler::setUploadSink);
+        blockingExecutor.ifAvailable(handler::setBlockingExecutor);
+        admissionController.ifAvailable(handler::setAdmissionController);
+        resumableUploadStore.ifAvailable(handler::setResumableUploadStore);
+        persistedQueryStore.ifAvailable(handler::setPersistedQueryStore);
+        responseWriter.ifAvailable(handler::setResponseWriter);
+        incrementalResponseWriter.ifAvailable(handler::setIncrementalResponseWriter);
+        progressRegistry.ifAvailable(handler::setProgressRegistry);
+        metrics.ifAvailable(handler::setMetrics);
+        return handler;
     }
 
     /**
      * Route multipart GraphQL POSTs to the multipart handler when no custom router is defined.
+     * <p>
+     * When incremental delivery is enabled, clients accepting only `multipart/mixed` are routed as well.
      * @param properties GraphQL properties (includes http path)
      * @param graphQlMultipartWebHandler multipart handler
+     * @param incrementalResponseWriter writer of incremental `@defer` responses, when enabled
      * @return router function for multipart GraphQL requests
      */
     @Bean
     @ConditionalOnMissingBean(name = "graphQlMultipartRouter")
     @Order(-10)
     public RouterFunction<ServerResponse> graphQlMultipartRouter(final GraphQlProperties properties,
-                                                                 final GraphQlMultipartWebHandler graphQlMultipartWebHandler) {
+                                                                 final GraphQlMultipartWebHandler graphQlMultipartWebHandler,
+                                                                 final ObjectProvider<IncrementalGraphQlResponseWriter> incrementalResponseWriter) {
+        final List<MediaType> acceptedMediaTypes = new ArrayList<>(GraphQlMultipartWebHandler.SUPPORTED_MEDIA_TYPES);
+        if (incrementalResponseWriter.getIfAvailable() != null) {
+            acceptedMediaTypes.add(IncrementalGraphQlResponseWriter.MULTIPART_MIXED);
+        }
         log.info("Configured default multipart GraphQL router for POST requests on {} with content type {}, accepting {}.",
                 properties.getHttp().getPath(),
                 MULTIPART_FORM_DATA,
-                GraphQlMultipartWebHandler.SUPPORTED_MEDIA_TYPES);
+                acceptedMediaTypes);
         return RouterFunctions.route()
                 .POST(properties.getHttp().getPath(),
                         RequestPredicates
                                 .contentType(MULTIPART_FORM_DATA)
-                                .and(RequestPredicates.accept(GraphQlMultipartWebHandler.SUPPORTED_MEDIA_TYPES.toArray(new MediaType[]{}))),
+                                .and(RequestPredicates.accept(acceptedMediaTypes.toArray(new MediaType[]{}))),
                         graphQlMultipartWebHandler::handleGraphQlMultipartRequest)
                 .build();
     }
@@ -0,0 +1,68 @@
+package com.yellowmoonsoftware.graphql.multipart.config;
+
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.metrics.MicrometerGraphQlMultipartMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.ConfigurationCondition;
+
+/**
+ * <h2>GraphQlMultipartMetricsConfig</h2>
+ * Autoconfiguration of {@link MicrometerGraphQlMultipartMetrics} when Micrometer is on the classpath and a
+ * {@link MeterRegistry} or {@link ObservationRegistry} bean exists.
+ * <ul>
+ * <li>Runs after the Micrometer metrics and observation auto-configurations so their registries are visible.</li>
+ * <li>A missing registry is replaced by a no-op one, so either registry alone is enough.</li>
+ * </ul>
+ */
+@Slf4j
+@AutoConfiguration(
+        before = GraphQlMultipartFileUploadConfig.class,
+        afterName = {
+                "org.springframework.boot.micrometer.metrics.autoconfigure.CompositeMeterRegistryAutoConfiguration",
+                "org.springframework.boot.micrometer.observation.autoconfigure.ObservationAutoConfiguration"
+        })
+@ConditionalOnClass(MeterRegistry.class)
+public class GraphQlMultipartMetricsConfig {
+
+    /**
+     * Provide Micrometer-backed multipart instrumentation.
+     * @param meterRegistry meter registry, when available
+     * @param observationRegistry observation registry, when available
+     * @return multipart instrumentation
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @Conditional(OnMeterOrObservationRegistry.class)
+    public GraphQlMultipartMetrics graphQlMultipartMetrics(final ObjectProvider<MeterRegistry> meterRegistry,
+                                                           final ObjectProvider<ObservationRegistry> observationRegistry) {
+        log.info("Configured Micrometer instrumentation for multipart GraphQL requests.");
+        return new MicrometerGraphQlMultipartMetrics(meterRegistry.getIfAvailable(CompositeMeterRegistry::new),
+                observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    /**
+     * Matches when either a {@link MeterRegistry} or an {@link ObservationRegistry} bean is present.
+     */
+    static class OnMeterOrObservationRegistry extends AnyNestedCondition {
+        OnMeterOrObservationRegistry() {
+            super(ConfigurationCondition.ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnBean(MeterRegistry.class)
+        static class MeterRegistryPresent { }
+
+        @ConditionalOnBean(ObservationRegistry.class)
+        static class ObservationRegistryPresent { }
+    }
+}
@@ -0,0 +1,559 @@
+package com.yellowmoonsoftware.graphql.multipart.config;
+
+import com.yellowmoonsoftware.graphql.multipart.BlockingUploadExecutor;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionController;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartDecodeMode;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartWebHandler;
+import com.yellowmoonsoftware.graphql.multipart.StreamingGraphQlResponseWriter;
+import com.yellowmoonsoftware.graphql.multipart.decoder.DecodeScheduler;
+import com.yellowmoonsoftware.graphql.multipart.decoder.SchemaUploadPathValidator;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.document.GraphQlDocumentCache;
+import com.yellowmoonsoftware.graphql.multipart.encoding.PartContentDecoder;
+import com.yellowmoonsoftware.graphql.multipart.persisted.InMemoryPersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.DeduplicatingUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.S3UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <h2>GraphQlMultipartProperties</h2>
+ * Configuration properties (prefix `graphql.multipart`) for multipart GraphQL file upload handling.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "graphql.multipart")
+public class GraphQlMultipartProperties {
+
+    /**
+     * How the multipart body is read before the GraphQL request is dispatched.
+     */
+    private GraphQlMultipartDecodeMode decodeMode = GraphQlMultipartDecodeMode.AGGREGATED;
+
+    /**
+     * Size, count and depth limits applied to each multipart request.
+     */
+    private final GraphQlMultipartLimits limits = new GraphQlMultipartLimits();
+
+    /**
+     * Execution settings for batched `operations`.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * Upload storage used by the `stored` decode mode.
+     */
+    private final Storage storage = new Storage();
+
+    /**
+     * Upload sink used by the `sink` decode mode.
+     */
+    private final Sink sink = new Sink();
+
+    /**
+     * Blocking execution of upload-bearing operations.
+     */
+    private final Blocking blocking = new Blocking();
+
+    /**
+     * Admission control of concurrent multipart requests.
+     */
+    private final Admission admission = new Admission();
+
+    /**
+     * Resumable uploads sent in chunks over several requests.
+     */
+    private final Resumable resumable = new Resumable();
+
+    /**
+     * Digests computed over file parts while they are received.
+     */
+    private final Digest digest = new Digest();
+
+    /**
+     * Validation of `map` paths against the schema before file parts are consumed.
+     */
+    private final Validation validation = new Validation();
+
+    /**
+     * Cache of parsed and validated GraphQL documents.
+     */
+    private final DocumentCache documentCache = new DocumentCache();
+
+    /**
+     * Automatic persisted queries.
+     */
+    private final PersistedQueries persistedQueries = new PersistedQueries();
+
+    /**
+     * Offloading of large decoding work from the event loop.
+     */
+    private final Offload offload = new Offload();
+
+    /**
+     * Streaming of GraphQL responses into the response buffers.
+     */
+    private final StreamingResponse streamingResponse = new StreamingResponse();
+
+    /**
+     * Incremental delivery of `@defer`red results.
+     */
+    private final Incremental incremental = new Incremental();
+
+    /**
+     * Live upload progress reporting.
+     */
+    private final Progress progress = new Progress();
+
+    /**
+     * Decoding of parts sent with a `Content-Encoding`.
+     */
+    private final ContentEncoding contentEncoding = new ContentEncoding();
+
+    /**
+     * <h2>ContentEncoding</h2>
+     * Configuration properties (prefix `graphql.multipart.content-encoding`) for per-part content decoding.
+     */
+    @Getter
+    @Setter
+    public static class ContentEncoding {
+        /**
+         * Whether parts sent with a `gzip` or `deflate` `Content-Encoding`, or one of a registered `ContentCoding` bean,
+         * are decoded while they are received.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum size of each decoded buffer.
+         */
+        private DataSize bufferSize = PartContentDecoder.DEFAULT_BUFFER_SIZE;
+
+        /**
+         * Number of decoded bytes of a part below which `limits.max-decompression-ratio` is not checked.
+         */
+        private DataSize ratioThreshold = PartContentDecoder.DEFAULT_RATIO_THRESHOLD;
+
+        /**
+         * Whether file parts written to upload storage in the `stored` decode mode are kept in their encoding and
+         * decoded each time they are read.
+         */
+        private boolean keepEncoded;
+    }
+
+    /**
+     * <h2>Progress</h2>
+     * Configuration properties (prefix `graphql.multipart.progress`) for upload progress reporting.
+     */
+    @Getter
+    @Setter
+    public static class Progress {
+        /**
+         * Whether progress ids are issued and the progress of requests carrying one in an `Upload-Progress-Id` header
+         * is tracked and served as server-sent events.
+         */
+        private boolean enabled;
+
+        /**
+         * Path issuing progress ids on `POST`, and of the server-sent event streams, which append the progress id as
+         * last path segment.
+         */
+        private String path = "/graphql/progress";
+
+        /**
+         * Whether the progress is also published by the `uploadProgress` field of the `Subscription` type.
+         */
+        private boolean subscription;
+
+        /**
+         * Number of bytes counted between two publications of a counter.
+         */
+        private DataSize sampleSize = UploadProgressRegistry.DEFAULT_SAMPLE_SIZE;
+
+        /**
+         * Interval at which watchers poll the published counters.
+         */
+        private Duration interval = UploadProgressRegistry.DEFAULT_INTERVAL;
+
+        /**
+         * Time the progress of a finished request is kept for; also the time an issued id may go unused.
+         */
+        private Duration retention = UploadProgressRegistry.DEFAULT_RETENTION;
+
+        /**
+         * Maximum number of issued ids and tracked requests.
+         */
+        private int maxEntries = UploadProgressRegistry.DEFAULT_MAX_ENTRIES;
+    }
+
+    /**
+     * <h2>Incremental</h2>
+     * Configuration properties (prefix `graphql.multipart.incremental`) for incremental delivery as `multipart/mixed`.
+     */
+    @Getter
+    @Setter
+    public static class Incremental {
+        /**
+         * Whether single operations of clients accepting `multipart/mixed` are executed with `@defer` support and
+         * answered part by part.
+         */
+        private boolean enabled;
+    }
+
+    /**
+     * <h2>StreamingResponse</h2>
+     * Configuration properties (prefix `graphql.multipart.streaming-response`) for streamed response encoding.
+     */
+    @Getter
+    @Setter
+    public static class StreamingResponse {
+        /**
+         * Whether responses are serialized straight into the response buffers and sent chunk by chunk instead of being
+         * encoded in one piece.
+         */
+        private boolean enabled;
+
+        /**
+         * Size of the buffers responses are written into.
+         */
+        private DataSize chunkSize = DataSize.ofBytes(StreamingGraphQlResponseWriter.DEFAULT_CHUNK_SIZE);
+
+        /**
+         * Number of threads serializing responses; each blocks while its client is not reading.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of responses waiting for a serializing thread; further responses fail with `503`.
+         */
+        private int maxQueueSize = StreamingGraphQlResponseWriter.DEFAULT_MAX_QUEUE_SIZE;
+    }
+
+    /**
+     * <h2>Offload</h2>
+     * Configuration properties (prefix `graphql.multipart.offload`) for decoding large payloads off the event loop.
+     */
+    @Getter
+    @Setter
+    public static class Offload {
+        /**
+         * Whether large `operations` and `map` parts are decoded, and files injected, on a dedicated scheduler.
+         */
+        private boolean enabled;
+
+        /**
+         * Number of decode threads.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of decoding tasks waiting for a thread; further requests are rejected with `503`.
+         */
+        private int maxQueueSize = DecodeScheduler.DEFAULT_MAX_QUEUE_SIZE;
+
+        /**
+         * Size of a JSON part above which it is decoded on the scheduler; negative to never offload by size.
+         */
+        private DataSize byteThreshold = DecodeScheduler.DEFAULT_BYTE_THRESHOLD;
+
+        /**
+         * Number of `map` paths above which files are injected on the scheduler; negative to never offload by entries.
+         */
+        private int entryThreshold = DecodeScheduler.DEFAULT_ENTRY_THRESHOLD;
+    }
+
+    /**
+     * <h2>PersistedQueries</h2>
+     * Configuration properties (prefix `graphql.multipart.persisted-queries`) for automatic persisted queries.
+     */
+    @Getter
+    @Setter
+    public static class PersistedQueries {
+        /**
+         * Whether operations may name `extensions.persistedQuery.sha256Hash` instead of sending their `query`.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum number of documents kept by the in-memory store.
+         */
+        private int maxEntries = InMemoryPersistedQueryStore.DEFAULT_MAX_ENTRIES;
+    }
+
+    /**
+     * <h2>DocumentCache</h2>
+     * Configuration properties (prefix `graphql.multipart.document-cache`) for the parsed document cache.
+     */
+    @Getter
+    @Setter
+    public static class DocumentCache {
+        /**
+         * Whether parsed and validated documents are cached, so repeated operations skip parsing and validation.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum number of cached documents.
+         */
+        private int maxEntries = GraphQlDocumentCache.DEFAULT_MAX_ENTRIES;
+    }
+
+    /**
+     * <h2>Validation</h2>
+     * Configuration properties (prefix `graphql.multipart.validation`) for upload path validation.
+     */
+    @Getter
+    @Setter
+    public static class Validation {
+        /**
+         * Whether `map` paths are checked against the operation's variable definitions and the `Upload` positions of
+         * the schema, rejecting requests with `400` before their files are read.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of documents whose variable definitions are cached.
+         */
+        private int cacheSize = SchemaUploadPathValidator.DEFAULT_CACHE_SIZE;
+    }
+
+    /**
+     * <h2>Digest</h2>
+     * Configuration properties (prefix `graphql.multipart.digest`) for in-stream content digests.
+     */
+    @Getter
+    @Setter
+    public static class Digest {
+        /**
+         * Algorithms computed over every file part in the `streaming`, `stored` and `sink` decode modes, e.g.
+         * `sha-256,crc32c`; none when empty.
+         */
+        private Set<ContentDigestAlgorithm> algorithms = new LinkedHashSet<>();
+
+        /**
+         * Whether computed digests are checked against `Content-MD5`, `Repr-Digest`, `Content-Digest` and `Digest`
+         * part headers, rejecting mismatching uploads with `400`.
+         */
+        private boolean verify = true;
+    }
+
+    /**
+     * <h2>Resumable</h2>
+     * Configuration properties (prefix `graphql.multipart.resumable`) for resumable uploads.
+     */
+    @Getter
+    @Setter
+    public static class Resumable {
+        /**
+         * Whether requests carrying an `Upload-Id` or `Upload-Offset` header are accepted as chunks of resumable uploads.
+         */
+        private boolean enabled;
+
+        /**
+         * Directory staging resumable uploads; a private temp directory when unset.
+         */
+        private Path directory;
+
+        /**
+         * Time after its last chunk after which an unclaimed upload is deleted.
+         */
+        private Duration expiry = Duration.ofHours(1);
+
+        /**
+         * Maximum total length of an upload; negative for no limit.
+         */
+        private DataSize maxLength = ResumableUploadStore.DEFAULT_MAX_LENGTH;
+
+        /**
+         * Maximum number of uploads staged at a time; negative for no limit.
+         */
+        private int maxUploads = ResumableUploadStore.DEFAULT_MAX_UPLOADS;
+    }
+
+    /**
+     * <h2>Admission</h2>
+     * Configuration properties (prefix `graphql.multipart.admission`) for admission control.
+     */
+    @Getter
+    @Setter
+    public static class Admission {
+        /**
+         * Whether requests are admitted against the budgets below.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum number of multipart requests in flight; negative for no limit.
+         */
+        private int maxConcurrentRequests = 64;
+
+        /**
+         * Maximum number of declared request bytes in flight; negative for no limit.
+         */
+        private DataSize maxInFlightBytes = DataSize.ofMegabytes(256);
+
+        /**
+         * Maximum number of requests waiting for admission; further requests are rejected with `429`.
+         */
+        private int maxQueueSize = GraphQlMultipartAdmissionController.DEFAULT_MAX_QUEUE_SIZE;
+
+        /**
+         * Maximum time a request waits for admission before it is rejected with `503`.
+         */
+        private Duration maxQueueWait = Duration.ofSeconds(10);
+
+        /**
+         * Delay advertised through `Retry-After` on rejection.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    /**
+     * <h2>Blocking</h2>
+     * Configuration properties (prefix `graphql.multipart.blocking`) for running operations off the event loop.
+     */
+    @Getter
+    @Setter
+    public static class Blocking {
+        /**
+         * Whether operations run on virtual threads (platform threads before Java 21), letting resolvers block on uploads.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum number of operations running concurrently.
+         */
+        private int maxConcurrency = BlockingUploadExecutor.DEFAULT_MAX_CONCURRENCY;
+    }
+
+    /**
+     * <h2>Batch</h2>
+     * Configuration properties (prefix `graphql.multipart.batch`) for batched operations.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Maximum number of operations of a batch executed concurrently; responses keep `operations` order.
+         */
+        private int maxConcurrency = GraphQlMultipartWebHandler.DEFAULT_BATCH_CONCURRENCY;
+    }
+
+    /**
+     * <h2>Storage</h2>
+     * Configuration properties (prefix `graphql.multipart.storage`) for the default upload storage.
+     */
+    @Getter
+    @Setter
+    public static class Storage {
+        /**
+         * Largest upload kept in memory; larger uploads are written to disk.
+         */
+        private DataSize inMemoryThreshold = SpillingUploadStorage.DEFAULT_IN_MEMORY_THRESHOLD;
+
+        /**
+         * Directory receiving uploads above the in-memory threshold; a private temp directory when unset.
+         */
+        private Path directory;
+
+        /**
+         * Maximum number of bytes held on disk across all live uploads; negative for no limit.
+         */
+        private DataSize maxDiskUsage = DataSize.ofBytes(-1);
+    }
+
+    /**
+     * <h2>Sink</h2>
+     * Configuration properties (prefix `graphql.multipart.sink`) for the auto-configured upload sink.
+     */
+    @Getter
+    @Setter
+    public static class Sink {
+        /**
+         * Directory uploads are written to; enables the file system sink when set.
+         */
+        private Path directory;
+
+        /**
+         * S3-compatible object store uploads are written to; enables the S3 sink when `bucket` is set.
+         */
+        private final S3 s3 = new S3();
+
+        /**
+         * Content-addressed deduplication of uploads written to the sink.
+         */
+        private final Deduplication deduplication = new Deduplication();
+
+        /**
+         * <h2>Deduplication</h2>
+         * Configuration properties (prefix `graphql.multipart.sink.deduplication`) for content-addressed deduplication.
+         */
+        @Getter
+        @Setter
+        public static class Deduplication {
+            /**
+             * Whether uploads with the SHA-256 of a recently written object share that object instead of being written again.
+             */
+            private boolean enabled;
+
+            /**
+             * Maximum number of recent digests indexed.
+             */
+            private int maxEntries = DeduplicatingUploadSink.DEFAULT_MAX_ENTRIES;
+        }
+
+        /**
+         * <h2>S3</h2>
+         * Configuration properties (prefix `graphql.multipart.sink.s3`) for the S3 upload sink.
+         */
+        @Getter
+        @Setter
+        public static class S3 {
+            /**
+             * Object store endpoint; uses path-style addressing.
+             */
+            private URI endpoint = URI.create("https://s3.amazonaws.com");
+
+            /**
+             * Bucket uploads are written to.
+             */
+            private String bucket;
+
+            /**
+             * Region requests are signed for.
+             */
+            private String region = "us-east-1";
+
+            /**
+             * Access key id.
+             */
+            private String accessKey;
+
+            /**
+             * Secret access key.
+             */
+            private String secretKey;
+
+            /**
+             * Prefix of the keys uploads are written under.
+             */
+            private String keyPrefix = "";
+
+            /**
+             * Size of the parts uploads are sent in; larger uploads use a multipart upload.
+             */
+            private DataSize partSize = S3UploadSink.DEFAULT_PART_SIZE;
+        }
+    }
+}
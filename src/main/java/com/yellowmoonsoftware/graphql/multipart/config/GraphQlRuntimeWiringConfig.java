@@ -1,14 +1,26 @@
 package com.yellowmoonsoftware.graphql.multipart.config;
 
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressDataFetcher;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
 import com.yellowmoonsoftware.graphql.multipart.scalars.UploadScalar;
+import com.yellowmoonsoftware.graphql.multipart.document.GraphQlDocumentCache;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.graphql.autoconfigure.GraphQlAutoConfiguration;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
 import org.springframework.boot.graphql.autoconfigure.servlet.GraphQlWebMvcAutoConfiguration;
 import org.springframework.boot.graphql.autoconfigure.reactive.GraphQlWebFluxAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 
 /**
@@ -17,20 +29,82 @@ import org.springframework.graphql.execution.RuntimeWiringConfigurer;
  * <ul>
  * <li>Runs before Spring GraphQL auto-config to ensure the scalar is available.</li>
  * <li>Conditional on {@link RuntimeWiringConfigurer} presence and absence of existing bean.</li>
+ * <li>Installs the {@link GraphQlDocumentCache} as the preparsed document provider when enabled, in front of the
+ * application's own provider.</li>
+ * <li>Wires the `uploadProgress` subscription field when enabled.</li>
  * </ul>
  */
+@Slf4j
 @AutoConfiguration
 @AutoConfigureBefore({GraphQlAutoConfiguration.class, GraphQlWebMvcAutoConfiguration.class, GraphQlWebFluxAutoConfiguration.class})
 @ConditionalOnClass(RuntimeWiringConfigurer.class)
+@EnableConfigurationProperties(GraphQlMultipartProperties.class)
 public class GraphQlRuntimeWiringConfig {
 
+    /**
+     * Provide the {@link GraphQlDocumentCache} when `graphql.multipart.document-cache.enabled` is set.
+     * @param properties multipart upload properties
+     * @return document cache
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "graphql.multipart.document-cache", name = "enabled", havingValue = "true")
+    public GraphQlDocumentCache graphQlMultipartDocumentCache(final GraphQlMultipartProperties properties) {
+        log.info("Configured GraphQL document cache of {} entries.", properties.getDocumentCache().getMaxEntries());
+        return new GraphQlDocumentCache(properties.getDocumentCache().getMaxEntries());
+    }
+
+    /**
+     * Install the {@link GraphQlDocumentCache}, when configured, as preparsed document provider of the GraphQL instance.
+     * <p>
+     * The cache serves every GraphQL request, not only multipart ones.  A {@link PreparsedDocumentProvider} bean of the
+     * application is kept as the cache's delegate for documents it has not validated yet, and the customizer runs
+     * first, so a customizer of the application configuring its own provider replaces the cache.
+     * @param documentCache     document cache, when configured
+     * @param documentProviders preparsed document providers declared by the application
+     * @return customizer of the GraphQL source
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnMissingBean(name = "graphQlMultipartDocumentCacheCustomizer")
+    public GraphQlSourceBuilderCustomizer graphQlMultipartDocumentCacheCustomizer(final ObjectProvider<GraphQlDocumentCache> documentCache,
+                                                                                  final ObjectProvider<PreparsedDocumentProvider> documentProviders) {
+        return builder -> documentCache.ifAvailable(cache -> {
+            if (cache.getDelegate() == null) {
+                documentProviders.orderedStream()
+                        .filter(provider -> provider != cache)
+                        .findFirst()
+                        .ifPresent(cache::setDelegate);
+            }
+            builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(cache));
+        });
+    }
+
+    /**
+     * Provide a {@link RuntimeWiringConfigurer} publishing upload progress through the `uploadProgress` field of the
+     * `Subscription` type when `graphql.multipart.progress.subscription` is set; the schema must declare the field.
+     * @param progressRegistry upload progress registry, when progress reporting is enabled
+     * @return runtime wiring configurer that adds the `uploadProgress` data fetcher
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "graphQlUploadProgressConfigurer")
+    @ConditionalOnProperty(prefix = "graphql.multipart.progress", name = "subscription", havingValue = "true")
+    public RuntimeWiringConfigurer graphQlUploadProgressConfigurer(final ObjectProvider<UploadProgressRegistry> progressRegistry) {
+        return builder -> progressRegistry.ifAvailable(registry -> builder.type("Subscription",
+                type -> type.dataFetcher(UploadProgressDataFetcher.FIELD, new UploadProgressDataFetcher(registry))));
+    }
+
     /**
      * Provide a {@link RuntimeWiringConfigurer} to register the `Upload` scalar when missing.
+     * @param resumableUploads store of resumable uploads the scalar resolves upload ids against, when configured
      * @return runtime wiring configurer that adds the Upload scalar
      */
     @Bean
     @ConditionalOnMissingBean(name = "graphQlUploadScalarConfigurer")
-    public RuntimeWiringConfigurer graphQlUploadScalarConfigurer() {
-        return builder -> builder.scalar(UploadScalar.INSTANCE);
+    public RuntimeWiringConfigurer graphQlUploadScalarConfigurer(final ObjectProvider<ResumableUploadStore> resumableUploads) {
+        return builder -> {
+            final ResumableUploadStore store = resumableUploads.getIfAvailable();
+            builder.scalar(store == null ? UploadScalar.INSTANCE : UploadScalar.scalarType(store));
+        };
     }
 }
@@ -1,19 +1,56 @@
 package com.yellowmoonsoftware.graphql.multipart.decoder;
 
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartBatch;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
 import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartRequest;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigester;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.encoding.PartContentDecoder;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartStage;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
 import com.yellowmoonsoftware.graphql.multipart.util.MapUtils;
-import com.yellowmoonsoftware.graphql.multipart.util.MapListGraphTraverser;
+import com.yellowmoonsoftware.graphql.multipart.util.IterativeMapListGraphTraverser;
 import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
+import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPathTrie;
+import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphTraverser;
 import graphql.com.google.common.collect.Maps;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.graphql.GraphQlRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.FormPartEvent;
 import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -21,11 +58,75 @@ import java.util.stream.Stream;
  * Base implementation of {@link GraphQlMultipartDecoder} that wires together JSON decoding
  * of the `operations` and `map` parts, joins file parts, and injects files into variables.
  * <p>
- * Implementations supply `decodePart` to turn a single multipart part into a typed map.
+ * Implementations supply `decodeValue` to turn a single multipart part into a typed value.
  */
 @Slf4j
 public abstract class AbstractGraphQlMultipartDecoder implements GraphQlMultipartDecoder {
 
+    /**
+     * Factory wrapping the decoded operations in the {@link ObjectGraphTraverser} used to inject files;
+     * defaults to {@link IterativeMapListGraphTraverser#wrap(Object)}.
+     */
+    @Setter
+    private Function<Object, ObjectGraphTraverser> traverserFactory = IterativeMapListGraphTraverser::wrap;
+
+    /**
+     * Limits enforced while decoding each request.
+     */
+    @Getter
+    @Setter
+    private GraphQlMultipartLimits limits = new GraphQlMultipartLimits();
+
+    /**
+     * Instrumentation of the decode and injection stages; defaults to {@link GraphQlMultipartMetrics#NOOP}.
+     */
+    @Setter
+    private GraphQlMultipartMetrics metrics = GraphQlMultipartMetrics.NOOP;
+
+    /**
+     * Digests computed over each file part as its buffers pass through, in the streamed decode modes; none by default.
+     */
+    @Getter
+    @Setter
+    private Set<ContentDigestAlgorithm> digestAlgorithms = Set.of();
+
+    /**
+     * Whether computed digests are checked against the `Content-MD5` and digest headers declared on each file part.
+     */
+    @Getter
+    @Setter
+    private boolean verifyDigests = true;
+
+    /**
+     * Check applied to every `map` path before files are bound; `null` (the default) leaves paths unchecked, silently
+     * skipping those not rooted at `variables`.
+     * <p>
+     * In the streaming modes the check runs as soon as `map` arrives, so a rejected request fails before any of its
+     * file parts is received, stored or written to a sink.
+     */
+    @Getter
+    @Setter
+    private UploadPathValidator uploadPathValidator;
+
+    /**
+     * Policy moving the decoding of large `operations` and `map` parts, and the injection of files into large `map`s,
+     * off the thread completing the part; `null` (the default) decodes everything inline.
+     */
+    @Getter
+    @Setter
+    private DecodeScheduler decodeScheduler;
+
+    /**
+     * Decoder of parts sent with a `Content-Encoding`, e.g. `gzip`; `null` (the default) passes such parts through
+     * untouched.
+     * <p>
+     * Digests are computed over the bytes as sent, while `maxFileSize` applies to the decoded content of a file part and
+     * `maxOperationsSize` to the decoded `operations` and `map`.
+     */
+    @Getter
+    @Setter
+    private PartContentDecoder contentDecoder;
+
     /**
      * Protected constructor to allow subclassing
      */
@@ -38,59 +139,725 @@ public abstract class AbstractGraphQlMultipartDecoder implements GraphQlMultipar
      * @return stream of valid mapped files
      */
     protected Stream<GraphQlMappedFile> decodeFileMap(final Map<String, Set<ObjectGraphPath>> filePathMap, final Map<String, Part> partsMap) {
+        return decodeFileMap(filePathMap, partsMap, DecodingUtils::isValidPath);
+    }
+
+    /**
+     * Join the file map to available file parts and produce mapped file entries for paths accepted by the filter.
+     * @param filePathMap file key to a set of object graph paths
+     * @param partsMap multipart parts keyed by the form field name
+     * @param pathFilter predicate selecting the paths that may be written
+     * @return stream of valid mapped files
+     */
+    protected Stream<GraphQlMappedFile> decodeFileMap(final Map<String, Set<ObjectGraphPath>> filePathMap, final Map<String, Part> partsMap,
+                                                      final Predicate<ObjectGraphPath> pathFilter) {
         return MapUtils.joinToStream(filePathMap, DecodingUtils.filterFileParts(partsMap))
                 .flatMap(e -> e.flatMapLeft(Set::stream))
-                .filter(e -> DecodingUtils.isValidPath(e.leftValue()))
+                .filter(e -> pathFilter.test(e.leftValue()))
                 .map(e -> new GraphQlMappedFile(e.rightValue(), e.leftValue()))
                 .peek(mf -> log.trace("Decoded multipart file: {} -> {}", mf.path(), mf.file().filename()));
     }
 
+    /**
+     * Decode a single multipart part into a typed value: the `operations` object or array, or the `map`.
+     * @param part multipart part to decode
+     * @param typeRef target type, one of the {@link GraphQlMultipartPartKey#getValueTypeRef() part key types}
+     * @param <T> decoded type
+     * @return mono containing decoded value
+     */
+    protected abstract <T> Mono<T> decodeValue(@NonNull final Part part, @NonNull final ParameterizedTypeReference<T> typeRef);
+
     /**
      * Decode a single multipart part into a typed map (operations or map).
      * @param part multipart part to decode
      * @param typeRef target map type
      * @param <T> value type in the map
      * @return mono containing decoded map
+     * @deprecated `operations` may be a JSON array of operations, which a map can not hold; use
+     * {@link #decodeValue(Part, ParameterizedTypeReference)}, to which this method delegates, instead.
      */
-    protected abstract <T> Mono<Map<String,T>> decodePart(@NonNull final Part part, @NonNull final ParameterizedTypeReference<Map<String, T>> typeRef);
+    @Deprecated
+    protected <T> Mono<Map<String, T>> decodePart(@NonNull final Part part, @NonNull final ParameterizedTypeReference<Map<String, T>> typeRef) {
+        return decodeValue(part, typeRef);
+    }
 
     /**
      * Decode a multipart part by key name, defaulting to an empty map when absent.
      * @param partsMap all parts keyed by name
      * @param key enum describing which part to decode
-     * @param <T> value type in the decoded map
-     * @return mono containing decoded map or empty map if missing
+     * @param <T> decoded type
+     * @return mono containing decoded value or empty map if missing
      */
-    protected <T> Mono<Map<String,T>> decodePart(final Map<String, Part> partsMap, final GraphQlMultipartPartKey key) {
+    @SuppressWarnings("unchecked")
+    protected <T> Mono<T> decodeValue(final Map<String, Part> partsMap, final GraphQlMultipartPartKey key) {
         return Optional.ofNullable(partsMap.get(key.getKeyName()))
-                .map(part -> decodePart(part, key.<T>getTypeRef()))
+                .map(part -> offload(jsonSize(part), 0,
+                        Mono.defer(() -> this.<T>decodeValue(limitJsonPart(decodeContent(part)), key.getValueTypeRef()))))
                 .orElseGet(() -> {
                     log.warn("No multipart part named {} found; using empty map instead.", key.getKeyName());
-                    return Mono.just(Maps.newHashMap());
+                    return Mono.just((T) Maps.newHashMap());
                 });
     }
 
+    /**
+     * Decode a multipart part by key name into a map, defaulting to an empty map when absent.
+     * @param partsMap all parts keyed by name
+     * @param key enum describing which part to decode
+     * @param <T> value type in the decoded map
+     * @return mono containing decoded map or empty map if missing
+     * @deprecated `operations` may be a JSON array of operations, which a map can not hold; use
+     * {@link #decodeValue(Map, GraphQlMultipartPartKey)} instead.
+     */
+    @Deprecated
+    protected <T> Mono<Map<String, T>> decodePart(final Map<String, Part> partsMap, final GraphQlMultipartPartKey key) {
+        return decodeValue(partsMap, key);
+    }
+
     /**
      * Decode the multipart payload into a [GraphQlRequest], injecting files into variables.
+     * <p>
+     * Batched `operations` are rejected; use {@link #decodeBatch(MultiValueMap)} to accept them.
      * @param multipartData multipart form data keyed by part name
      * @return mono emitting the built [GraphQlRequest]
      */
     @Override
     public Mono<GraphQlRequest> decode(final MultiValueMap<String, Part> multipartData) {
-        final Map<String, Part> partsMap = multipartData.toSingleValueMap();
+        return decodeBatch(multipartData).flatMap(AbstractGraphQlMultipartDecoder::singleRequest);
+    }
+
+    /**
+     * Decode the multipart payload into one [GraphQlRequest] per operation, injecting files into variables.
+     * @param multipartData multipart form data keyed by part name
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    @Override
+    public Mono<GraphQlMultipartBatch> decodeBatch(final MultiValueMap<String, Part> multipartData) {
+        return decodeCollectedParts(multipartData, null, true);
+    }
+
+    /**
+     * Decode collected parts as by {@link #decodeBatch(MultiValueMap)}.
+     * @param multipartData multipart form data keyed by part name
+     * @param decoded `operations` and `map` already decoded from the same parts, or `null` to decode them here
+     * @param limitFiles whether the content of file parts still has to be limited to `maxFileSize` as it is read
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    private Mono<GraphQlMultipartBatch> decodeCollectedParts(final MultiValueMap<String, Part> multipartData,
+                                                             final Mono<Tuple2<Object, Map<String, Set<ObjectGraphPath>>>> decoded,
+                                                             final boolean limitFiles) {
+        final long files = multipartData.values().stream()
+                .flatMap(List::stream)
+                .filter(FilePart.class::isInstance)
+                .count();
+        if (limits.getMaxFiles() >= 0 && files > limits.getMaxFiles()) {
+            return Mono.error(new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_FILES, limits.getMaxFiles()));
+        }
+        metrics.recordFileCount(files);
+        final Map<String, Part> partsMap = new LinkedHashMap<>();
+        multipartData.toSingleValueMap().forEach((name, part) -> partsMap.put(name, limitFiles ? limitFilePart(part) : decodeContent(part)));
+
+        return (decoded != null ? decoded : decodeJsonParts(partsMap))
+                .flatMap(json -> offload(0, countPaths(json.getT2()),
+                        Mono.fromCallable(() -> bindFiles(json.getT1(), json.getT2(), partsMap, List.of()))));
+    }
+
+    /**
+     * Decode the `operations` and `map` parts.
+     * @param partsMap parts keyed by name
+     * @return mono emitting the decoded operations and path map
+     */
+    private Mono<Tuple2<Object, Map<String, Set<ObjectGraphPath>>>> decodeJsonParts(final Map<String, Part> partsMap) {
+        final Mono<Map<String, Set<ObjectGraphPath>>> pathMap = metrics.observe(GraphQlMultipartStage.MAP_DECODE,
+                this.decodeValue(partsMap, GraphQlMultipartPartKey.MAP));
+        final Mono<Object> gqlRawOps = metrics.observe(GraphQlMultipartStage.OPERATIONS_DECODE,
+                this.decodeValue(partsMap, GraphQlMultipartPartKey.OPERATIONS));
+        return gqlRawOps.zipWith(pathMap);
+    }
+
+    /**
+     * Decode a multipart body streamed as part events, emitting the request once `operations` and `map` are known.
+     * <p>
+     * Each file key named in `map` is bound as a {@link GraphQlStreamedFilePart} handle whose content is fed from the
+     * matching part as it arrives.  Parts are consumed strictly in request order, so the socket is only read as fast
+     * as resolvers consume (or the handler discards) each upload.  As a handle can only be read once, a `map` naming
+     * several paths for one file is rejected with `400 Bad Request`.
+     * @param partEvents part events in request order
+     * @return mono emitting the built [GraphQlRequest]
+     */
+    @Override
+    public Mono<GraphQlRequest> decode(final Flux<PartEvent> partEvents) {
+        return decodeBatch(partEvents).flatMap(AbstractGraphQlMultipartDecoder::singleRequest);
+    }
+
+    /**
+     * Decode a multipart body streamed as part events into one [GraphQlRequest] per operation.
+     * @param partEvents part events in request order
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     * @see #decode(Flux)
+     */
+    @Override
+    public Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents) {
+        return Mono.defer(() -> {
+            final StreamingDecodeState state = new StreamingDecodeState();
+            final Disposable subscription = DecodingUtils.limitBytes(partEvents, PartEvent::content,
+                            GraphQlMultipartLimits.MAX_REQUEST_SIZE, limits.getMaxRequestSize().toBytes())
+                    .windowUntil(PartEvent::isLast)
+                    .concatMap(window -> window.switchOnFirst((signal, events) -> signal.hasValue()
+                            ? decodePartEvents(state, signal.get(), events)
+                            : events.then()))
+                    .subscribe(null, state::fail, state::complete);
+            return state.request().doOnCancel(subscription::dispose);
+        });
+    }
+
+    /**
+     * Decode a multipart body streamed as part events after writing each file part to the given storage.
+     * <p>
+     * Form fields are collected as they arrive and file parts are stored one at a time in request order; once the body
+     * has been fully received the collected parts are decoded as by {@link #decodeBatch(MultiValueMap)}.  Every stored
+     * part, mapped or not, is owned by the emitted batch and deleted when decoding fails or is cancelled.
+     * @param partEvents part events in request order
+     * @param storage storage receiving the file parts
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    @Override
+    public Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents, final UploadStorage storage) {
+        return decodeWrittenParts(partEvents,
+                (event, headers, content, digests) -> storage.store(event.name(), event.filename(), headers, content), part -> true,
+                contentDecoder != null && contentDecoder.isKeepEncoded());
+    }
+
+    /**
+     * Decode a multipart body streamed as part events while writing each file part to the given sink.
+     * <p>
+     * Parts are handled as by {@link #decodeBatch(Flux, UploadStorage)}, except that the {@link UploadReference} of
+     * each written file is bound into variables instead of a file part.  Bound objects outlive the request: they are
+     * only deleted when decoding fails or is cancelled.  Files not bound to any variable are owned by the emitted batch,
+     * so they are deleted with the request.
+     * @param partEvents part events in request order
+     * @param sink sink receiving the file parts
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    @Override
+    public Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents, final UploadSink sink) {
+        return decodeWrittenParts(partEvents,
+                (event, headers, content, digests) -> (digests != null
+                        ? sink.write(event.name(), event.filename(), headers, content, digests)
+                        : sink.write(event.name(), event.filename(), headers, content))
+                        .map(reference -> new SunkFilePart(reference, sink)),
+                part -> !((SunkFilePart) part).isBound(), false);
+    }
+
+    /**
+     * Collect streamed parts, writing each file part with the given writer, and decode them once the body has been
+     * fully received.
+     * @param partEvents part events in request order
+     * @param writer consumer of a file part's content, emitting the part to collect in its place
+     * @param owned selects the written parts owned (and released) by the emitted batch; all written parts are deleted
+     * on failure
+     * @param keepEncoded whether encoded file parts are written as received and decoded when read
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    private Mono<GraphQlMultipartBatch> decodeWrittenParts(final Flux<PartEvent> partEvents, final PartWriter writer,
+                                                           final Predicate<Part> owned, final boolean keepEncoded) {
+        return Mono.defer(() -> {
+            final List<Part> written = new ArrayList<>();
+            final int[] files = {0};
+            final Map<String, Part> jsonParts = new HashMap<>();
+            final AtomicReference<Mono<Tuple2<Object, Map<String, Set<ObjectGraphPath>>>>> decoded = new AtomicReference<>();
+            return DecodingUtils.limitBytes(partEvents, PartEvent::content,
+                            GraphQlMultipartLimits.MAX_REQUEST_SIZE, limits.getMaxRequestSize().toBytes())
+                    .windowUntil(PartEvent::isLast)
+                    .concatMap(window -> window.switchOnFirst((signal, events) -> signal.hasValue()
+                            ? writePartEvents(writer, keepEncoded, files, signal.get(), events).flatMap(part -> validateEarly(part, jsonParts, decoded))
+                            : events.then(Mono.empty())))
+                    .doOnNext(part -> {
+                        if (part instanceof FilePart) {
+                            written.add(part);
+                        }
+                    })
+                    .collect(LinkedMultiValueMap<String, Part>::new, (parts, part) -> parts.add(part.name(), part))
+                    .flatMap(parts -> decodeCollectedParts(parts, decoded.get(), false))
+                    .map(batch -> new GraphQlMultipartBatch(batch.requests(), batch.batched(), written.stream().filter(owned).toList()))
+                    .onErrorResume(e -> deleteAll(written).then(Mono.error(e)))
+                    .doOnCancel(() -> deleteAll(written).subscribe());
+        });
+    }
+
+    /**
+     * Decode `operations` and `map` as soon as both have been collected and check the `map` against them, so a request
+     * that can not bind its files fails before any later file part is written.
+     * @param part collected part
+     * @param jsonParts first `operations` and `map` parts collected so far
+     * @param decoded receiver of the decoded `operations` and `map`, reused when the collected parts are decoded
+     * @return mono emitting the part once it has been checked
+     */
+    private Mono<Part> validateEarly(final Part part, final Map<String, Part> jsonParts,
+                                     final AtomicReference<Mono<Tuple2<Object, Map<String, Set<ObjectGraphPath>>>>> decoded) {
+        if (uploadPathValidator == null || decoded.get() != null || !(part instanceof FormFieldPart)
+                || !(GraphQlMultipartPartKey.OPERATIONS.getKeyName().equals(part.name())
+                        || GraphQlMultipartPartKey.MAP.getKeyName().equals(part.name()))) {
+            return Mono.just(part);
+        }
+        jsonParts.putIfAbsent(part.name(), part);
+        if (jsonParts.size() < 2) {
+            return Mono.just(part);
+        }
+        final Mono<Tuple2<Object, Map<String, Set<ObjectGraphPath>>>> json = decodeJsonParts(jsonParts)
+                .doOnNext(ops -> {
+                    checkPathMap(ops.getT2());
+                    checkUploadPaths(ops.getT1(), ops.getT2());
+                })
+                .cache();
+        decoded.set(json);
+        return json.thenReturn(part);
+    }
+
+    /**
+     * Turn the events of a single streamed part into a collected form field or a written file part.
+     * @param writer consumer of file part content
+     * @param keepEncoded whether an encoded file part is written as received and decoded when read
+     * @param files number of file parts seen so far
+     * @param first first event of the part
+     * @param events all events of the part
+     * @return mono emitting the collected part, or empty for unsupported events
+     */
+    private Mono<Part> writePartEvents(final PartWriter writer, final boolean keepEncoded, final int[] files,
+                                       final PartEvent first, final Flux<PartEvent> events) {
+        if (first instanceof FormPartEvent formEvent) {
+            return events.doOnNext(event -> DataBufferUtils.release(event.content()))
+                    .then(Mono.just(new EventFormFieldPart(formEvent)));
+        }
+        if (first instanceof FilePartEvent fileEvent) {
+            files[0]++;
+            if (limits.getMaxFiles() >= 0 && files[0] > limits.getMaxFiles()) {
+                return Mono.error(new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_FILES, limits.getMaxFiles()));
+            }
+            final ContentDigests[] digests = {ContentDigests.NONE};
+            final boolean encoded = isEncoded(fileEvent.headers());
+            final boolean stayEncoded = encoded && keepEncoded;
+            final boolean decode = encoded && !stayEncoded;
+            final Flux<DataBuffer> content = receiveFile(fileEvent, events, decode, computed -> digests[0] = computed);
+            log.trace("Writing multipart file part {}.", fileEvent.name());
+            // Digests cover the bytes as sent, so they only describe the written content when it is not decoded.
+            return writer.write(fileEvent, encoded ? PartContentDecoder.decodedHeaders(fileEvent.headers()) : fileEvent.headers(), content,
+                            digestAlgorithms.isEmpty() || decode ? null : () -> digests[0])
+                    .map(part -> withDigests(part, digests[0]))
+                    .map(part -> stayEncoded ? decodeWhenRead(part, fileEvent.headers()) : part)
+                    .cast(Part.class);
+        }
+        return events.doOnNext(event -> DataBufferUtils.release(event.content())).then(Mono.empty());
+    }
+
+    /**
+     * Receive the content of a streamed file part: digest the bytes as sent, decode them when requested, and enforce
+     * the file size limit on the result.
+     * @param first first event of the part
+     * @param events all events of the part
+     * @param decode whether the content is decoded according to the part's `Content-Encoding`
+     * @param onDigests receiver of the computed digests, or `null` to skip digesting
+     * @return content of the part
+     */
+    private Flux<DataBuffer> receiveFile(final PartEvent first, final Flux<PartEvent> events, final boolean decode,
+                                         final Consumer<ContentDigests> onDigests) {
+        final Flux<DataBuffer> received = events.map(PartEvent::content);
+        final Flux<DataBuffer> digested = onDigests == null
+                ? received
+                : digest(received, Function.identity(), first.name(), first.headers(), onDigests);
+        final long[] size = {0};
+        return DecodingUtils.limitBytes(decode ? decodeContent(first.name(), first.headers(), digested) : digested,
+                        Function.identity(), GraphQlMultipartLimits.MAX_FILE_SIZE, limits.getMaxFileSize().toBytes())
+                .doOnNext(buffer -> size[0] += buffer.readableByteCount())
+                .doOnComplete(() -> metrics.recordFileSize(size[0]));
+    }
+
+    /**
+     * Compute the configured digests over the content of a file part as it passes through, verifying them against the
+     * part headers once the content is complete.
+     * @param source content of the part
+     * @param content accessor of the buffer carried by each element
+     * @param name multipart field name
+     * @param headers part headers
+     * @param onDigests receiver of the computed digests
+     * @param <T> element type
+     * @return the source, digested
+     */
+    private <T> Flux<T> digest(final Flux<T> source, final Function<T, DataBuffer> content, final String name,
+                               final HttpHeaders headers, final Consumer<ContentDigests> onDigests) {
+        if (digestAlgorithms.isEmpty()) {
+            return source;
+        }
+        final ContentDigester digester = new ContentDigester(digestAlgorithms);
+        return source.doOnNext(element -> digester.update(content.apply(element)))
+                .doOnComplete(() -> {
+                    final ContentDigests digests = digester.finish();
+                    if (verifyDigests) {
+                        digests.verify(name, headers);
+                    }
+                    log.trace("Computed digests of multipart file part {}: {}", name, digests);
+                    onDigests.accept(digests);
+                });
+    }
+
+    private static FilePart withDigests(final FilePart part, final ContentDigests digests) {
+        if (part instanceof StoredFilePart stored) {
+            stored.setDigests(digests);
+        }
+        return part instanceof SunkFilePart sunk && !digests.isEmpty() ? sunk.withDigests(digests) : part;
+    }
+
+    private static Mono<Void> deleteAll(final List<Part> parts) {
+        return Flux.fromIterable(parts)
+                .flatMap(part -> part.delete().onErrorResume(e -> {
+                    log.warn("Failed to delete written multipart part {}.", part.name(), e);
+                    return Mono.empty();
+                }))
+                .then();
+    }
+
+    /**
+     * Run decoding work through the `decodeScheduler`, when one is set.
+     * @param bytes size of the JSON being decoded, or `0` when not applicable
+     * @param entries number of `map` paths being bound, or `0` when not applicable
+     * @param work decoding work, performed on subscription
+     * @param <T> result type
+     * @return the work, offloaded when it exceeds a threshold of the scheduler
+     */
+    protected <T> Mono<T> offload(final long bytes, final long entries, final Mono<T> work) {
+        return decodeScheduler == null ? work : decodeScheduler.schedule(bytes, entries, work);
+    }
+
+    /**
+     * Size in bytes of a JSON part, as declared by its `Content-Length` or, for an aggregated form field, as encoded
+     * in UTF-8; `0` when unknown.
+     */
+    private static long jsonSize(final Part part) {
+        final long contentLength = part.headers().getContentLength();
+        if (contentLength >= 0) {
+            return contentLength;
+        }
+        return part instanceof FormFieldPart formField ? formField.value().getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    private static long countPaths(final Map<String, Set<ObjectGraphPath>> pathMap) {
+        long paths = 0;
+        for (final Set<ObjectGraphPath> filePaths : pathMap.values()) {
+            paths += filePaths.size();
+        }
+        return paths;
+    }
 
-        final Mono<Map<String, Set<ObjectGraphPath>>> pathMap = this.decodePart(partsMap, GraphQlMultipartPartKey.MAP);
-        final Mono<Map<String, Object>> gqlRawOps = this.decodePart(partsMap, GraphQlMultipartPartKey.OPERATIONS);
+    private static Mono<GraphQlRequest> singleRequest(final GraphQlMultipartBatch batch) {
+        return batch.batched()
+                ? Mono.error(GraphQlMultipartException.invalidRequest("Batched multipart operations are not supported by this decode call."))
+                : Mono.just(batch.requests().get(0));
+    }
 
-        return gqlRawOps.zipWith(pathMap, (ops, m) -> {
-            log.trace("Decoded multipart operations and path map.  Ops Keys: [{}]  Path Map Keys: [{}]",
-                    String.join(", ", ops.keySet()),
-                    String.join(", ", m.keySet()));
-            decodeFileMap(m, partsMap)
-                    .forEach(mf -> MapListGraphTraverser.wrap(ops).set(mf.path(), mf.file()));
+    /**
+     * Apply the {@link GraphQlMultipartLimits#getMaxOperationsSize() operations size} limit to a JSON part.
+     * <p>
+     * Aggregated form fields are already in memory and are checked up front; any other part is limited as its
+     * content is read.
+     * @param part `operations` or `map` part
+     * @return the part, or a view of it whose content fails once the limit is exceeded
+     */
+    private Part limitJsonPart(final Part part) {
+        final long maxBytes = limits.getMaxOperationsSize().toBytes();
+        if (maxBytes < 0) {
+            return part;
+        }
+        if (part instanceof FormFieldPart formField) {
+            GraphQlMultipartLimits.check(GraphQlMultipartLimits.MAX_OPERATIONS_SIZE, maxBytes,
+                    formField.value().getBytes(StandardCharsets.UTF_8).length);
+            return part;
+        }
+        return new LimitedPart(part, GraphQlMultipartLimits.MAX_OPERATIONS_SIZE, maxBytes);
+    }
 
-            return GraphQlMultipartRequest.build(ops);
+    private boolean isEncoded(final HttpHeaders headers) {
+        return contentDecoder != null && contentDecoder.isEncoded(headers);
+    }
+
+    /**
+     * Decode content sent in the given headers' `Content-Encoding`, enforcing the `maxDecompressionRatio` limit.
+     * @param name multipart field name
+     * @param headers headers of the encoded part
+     * @param content encoded content
+     * @return decoded content
+     */
+    private Flux<DataBuffer> decodeContent(final String name, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return contentDecoder.decode(name, headers, content, limits.getMaxDecompressionRatio());
+    }
+
+    /**
+     * View a part sent with a `Content-Encoding` as its decoded content; the content of a file part is also limited
+     * to `maxFileSize`.
+     * @param part collected or streamed part
+     * @return the part when not encoded, otherwise a view decoding its content as it is read
+     */
+    private Part decodeContent(final Part part) {
+        if (!isEncoded(part.headers())) {
+            return part;
+        }
+        final HttpHeaders headers = PartContentDecoder.decodedHeaders(part.headers());
+        if (part instanceof FilePart filePart) {
+            return decodeWhenRead(filePart, part.headers(), headers);
+        }
+        return new DecodedPart(part, headers, content -> decodeContent(part.name(), part.headers(), content));
+    }
+
+    /**
+     * View a file part written in its `Content-Encoding` as its decoded content.
+     * @param part written part, whose headers already describe the decoded content
+     * @param sentHeaders headers of the part as sent, declaring its coding
+     * @return the part, decoding its content as it is read
+     */
+    private FilePart decodeWhenRead(final FilePart part, final HttpHeaders sentHeaders) {
+        if (part instanceof StoredFilePart stored) {
+            stored.setContentDecoding(content -> limitFileContent(decodeContent(part.name(), sentHeaders, content)));
+            return stored;
+        }
+        return decodeWhenRead(part, sentHeaders, part.headers());
+    }
+
+    private FilePart decodeWhenRead(final FilePart part, final HttpHeaders sentHeaders, final HttpHeaders headers) {
+        return new DecodedFilePart(part, headers, content -> limitFileContent(decodeContent(part.name(), sentHeaders, content)));
+    }
+
+    /**
+     * View a collected part as its decoded content, limiting the content of a file part to `maxFileSize` as it is read.
+     * @param part collected part
+     * @return the part, or a view of it decoding and limiting its content
+     */
+    private Part limitFilePart(final Part part) {
+        final Part decoded = decodeContent(part);
+        if (decoded != part || !(part instanceof FilePart filePart) || limits.getMaxFileSize().toBytes() < 0) {
+            return decoded;
+        }
+        return new DecodedFilePart(filePart, filePart.headers(), this::limitFileContent);
+    }
+
+    private Flux<DataBuffer> limitFileContent(final Flux<DataBuffer> content) {
+        return DecodingUtils.limitBytes(content, Function.identity(), GraphQlMultipartLimits.MAX_FILE_SIZE, limits.getMaxFileSize().toBytes());
+    }
+
+    /**
+     * Route the events of a single streamed part to the `operations`/`map` decoders or a bound upload handle.
+     * @param state per-request streaming state
+     * @param first first event of the part
+     * @param events all events of the part
+     * @return mono completing once the part has been fully consumed
+     */
+    private Mono<Void> decodePartEvents(final StreamingDecodeState state, final PartEvent first, final Flux<PartEvent> events) {
+        final String name = first.name();
+        if (GraphQlMultipartPartKey.OPERATIONS.getKeyName().equals(name)) {
+            return metrics.observe(GraphQlMultipartStage.OPERATIONS_DECODE,
+                            this.<Object>decodeValue(limitJsonPart(decodeContent(new PartEventsPart(first, events))), GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef()))
+                    .doOnNext(state::operations)
+                    .then();
+        }
+        if (GraphQlMultipartPartKey.MAP.getKeyName().equals(name)) {
+            return metrics.observe(GraphQlMultipartStage.MAP_DECODE,
+                            this.<Map<String, Set<ObjectGraphPath>>>decodeValue(limitJsonPart(decodeContent(new PartEventsPart(first, events))), GraphQlMultipartPartKey.MAP.getValueTypeRef()))
+                    .flatMap(state::bind);
+        }
+
+        if (first instanceof FilePartEvent) {
+            state.files++;
+            if (limits.getMaxFiles() >= 0 && state.files > limits.getMaxFiles()) {
+                return Mono.error(new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_FILES, limits.getMaxFiles()));
+            }
+            final GraphQlStreamedFilePart handle = state.handle(name);
+            if (handle != null) {
+                log.trace("Streaming multipart file part {} into bound upload handle.", name);
+                final boolean encoded = isEncoded(first.headers());
+                return handle.attach(first, encoded ? PartContentDecoder.decodedHeaders(first.headers()) : first.headers(),
+                        receiveFile(first, events, encoded, handle::digested));
+            }
+            log.warn("Discarding unmapped multipart part named {}.", name);
+            return receiveFile(first, events, false, null).doOnNext(DataBufferUtils::release).then();
+        }
+
+        log.warn("Discarding unmapped multipart part named {}.", name);
+        return events.doOnNext(event -> DataBufferUtils.release(event.content())).then();
+    }
+
+    /**
+     * Inject mapped files into the decoded operations and build one request per operation.
+     * <p>
+     * Mapped files are grouped into an {@link ObjectGraphPathTrie} so each container shared by several paths
+     * (e.g. `variables.input.files`) is walked once.  When `operations` is an array, map paths are prefixed with the
+     * operation index (e.g. `0.variables.file`) and the whole batch is written in the same single pass.
+     * @param ops decoded operations: a JSON object, or an array of them for a batch
+     * @param pathMap decoded file key to path map
+     * @param partsMap parts (or upload handles) keyed by field name
+     * @param uploads upload parts owned by the built batch
+     * @return built batch with files bound into variables
+     * @throws GraphQlMultipartException when `operations` is neither an object nor an array of objects, or a `map`
+     * limit is exceeded
+     */
+    protected GraphQlMultipartBatch bindFiles(final Object ops, final Map<String, Set<ObjectGraphPath>> pathMap,
+                                              final Map<String, Part> partsMap, final Collection<? extends Part> uploads) {
+        checkPathMap(pathMap);
+        checkUploadPaths(ops, pathMap);
+        final boolean batched = ops instanceof List<?>;
+        final List<Map<String, Object>> operations = batched
+                ? ((List<?>) ops).stream().map(AbstractGraphQlMultipartDecoder::asOperation).toList()
+                : List.of(asOperation(ops));
+        log.trace("Decoded multipart operations and path map.  Operations: [{}]  Batched: [{}]  Path Map Keys: [{}]",
+                operations.size(),
+                batched,
+                String.join(", ", pathMap.keySet()));
+
+        final ObjectGraphPathTrie<Object> files = new ObjectGraphPathTrie<>();
+        decodeFileMap(pathMap, partsMap, batched ? DecodingUtils::isValidBatchPath : DecodingUtils::isValidPath)
+                .forEach(mf -> files.put(mf.path(), mf.file() instanceof SunkFilePart sunk ? sunk.bind() : mf.file()));
+        metrics.observe(GraphQlMultipartStage.FILE_INJECTION, () -> {
+            files.applyTo(traverserFactory.apply(batched ? operations : operations.get(0)));
+            return files.size();
         });
+        log.trace("Injected {} mapped multipart file paths into variables.", files.size());
+
+        final List<GraphQlRequest> requests = operations.stream()
+                .<GraphQlRequest>map(GraphQlMultipartRequest::build)
+                .toList();
+        return batched
+                ? GraphQlMultipartBatch.batch(requests, uploads)
+                : GraphQlMultipartBatch.single(requests.get(0), uploads);
     }
 
+    /**
+     * Enforce the `map` limits before any file is bound.
+     * @param pathMap decoded file key to path map
+     * @throws GraphQlMultipartLimitExceededException when a limit is exceeded
+     */
+    private void checkPathMap(final Map<String, Set<ObjectGraphPath>> pathMap) {
+        GraphQlMultipartLimits.check(GraphQlMultipartLimits.MAX_MAP_ENTRIES, limits.getMaxMapEntries(), pathMap.size());
+        for (final Set<ObjectGraphPath> paths : pathMap.values()) {
+            GraphQlMultipartLimits.check(GraphQlMultipartLimits.MAX_PATHS_PER_FILE, limits.getMaxPathsPerFile(), paths.size());
+            for (final ObjectGraphPath path : paths) {
+                GraphQlMultipartLimits.check(GraphQlMultipartLimits.MAX_PATH_DEPTH, limits.getMaxPathDepth(),
+                        path.pathSegments().size() + (path.isValid() ? 1 : 0));
+            }
+        }
+    }
+
+    /**
+     * Apply the {@link #getUploadPathValidator() upload path validator} to every `map` path.
+     * @param ops decoded operations: a JSON object, or an array of them for a batch
+     * @param pathMap decoded file key to path map
+     * @throws GraphQlMultipartException when a path is not rooted at the `variables` of an operation, or is rejected
+     * by the validator
+     */
+    private void checkUploadPaths(final Object ops, final Map<String, Set<ObjectGraphPath>> pathMap) {
+        if (uploadPathValidator == null) {
+            return;
+        }
+        final boolean batched = ops instanceof List<?>;
+        final List<?> operations = batched ? (List<?>) ops : List.of(ops);
+        pathMap.forEach((fileKey, paths) -> {
+            for (final ObjectGraphPath path : paths) {
+                if (!(batched ? DecodingUtils.isValidBatchPath(path) : DecodingUtils.isValidPath(path))) {
+                    throw GraphQlMultipartException.invalidRequest("Multipart map entry " + fileKey + " must be rooted at "
+                            + (batched ? "an operation's " : "") + "variables.");
+                }
+                final int operation = batched ? path.segmentIndex(0) : 0;
+                if (operation >= operations.size()) {
+                    throw GraphQlMultipartException.invalidRequest("Multipart map entry " + fileKey
+                            + " refers to missing operation " + operation + ".");
+                }
+                final List<String> segments = path.pathSegments();
+                final List<String> variablePath = new ArrayList<>(segments.subList(batched ? 2 : 1, segments.size()));
+                variablePath.add(path.key());
+                uploadPathValidator.validate(asOperation(operations.get(operation)), fileKey, variablePath);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asOperation(final Object operation) {
+        if (operation instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw GraphQlMultipartException.invalidRequest("Multipart " + GraphQlMultipartPartKey.OPERATIONS.getKeyName()
+                + " must be a JSON object or an array of JSON objects.");
+    }
+
+    /**
+     * Consumer of the content of a streamed file part, emitting the part to collect in its place; `digests` supplies
+     * the digests of the content once it has completed, or is `null` when the content is not digested as written.
+     */
+    @FunctionalInterface
+    private interface PartWriter {
+        Mono<? extends FilePart> write(FilePartEvent event, HttpHeaders headers, Flux<DataBuffer> content, Supplier<ContentDigests> digests);
+    }
+
+    /**
+     * Mutable per-request state for streaming decoding; parts are routed strictly sequentially.
+     */
+    private final class StreamingDecodeState {
+        private final Sinks.One<GraphQlMultipartBatch> request = Sinks.one();
+        private final Map<String, GraphQlStreamedFilePart> handles = new LinkedHashMap<>();
+        private Object operations;
+        private boolean bound;
+        private int files;
+
+        Mono<GraphQlMultipartBatch> request() {
+            return this.request.asMono();
+        }
+
+        void operations(final Object ops) {
+            this.operations = ops;
+        }
+
+        GraphQlStreamedFilePart handle(final String name) {
+            return this.handles.get(name);
+        }
+
+        Mono<Void> bind(final Map<String, Set<ObjectGraphPath>> pathMap) {
+            if (this.bound) {
+                log.warn("Ignoring duplicate multipart {} part.", GraphQlMultipartPartKey.MAP.getKeyName());
+                return Mono.empty();
+            }
+            for (final Map.Entry<String, Set<ObjectGraphPath>> entry : pathMap.entrySet()) {
+                if (entry.getValue().size() > 1) {
+                    // A streamed handle can only be read once, so it can not back several variables.
+                    return Mono.error(GraphQlMultipartException.invalidRequest("File " + entry.getKey()
+                            + " is mapped to " + entry.getValue().size() + " paths; streamed files may only be mapped to one."));
+                }
+            }
+            pathMap.keySet().forEach(key -> this.handles.put(key, new GraphQlStreamedFilePart(key)));
+            return offload(0, countPaths(pathMap), Mono.fromRunnable(() -> emit(pathMap)));
+        }
+
+        void complete() {
+            metrics.recordFileCount(this.files);
+            if (!this.bound) {
+                log.warn("No multipart part named {} found; using empty map instead.", GraphQlMultipartPartKey.MAP.getKeyName());
+                try {
+                    emit(Maps.newHashMap());
+                } catch (final RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+            }
+            this.handles.values().forEach(handle -> handle.fail(
+                    new IllegalStateException("No multipart file part named " + handle.name() + " was received.")));
+        }
+
+        void fail(final Throwable error) {
+            this.request.tryEmitError(error);
+            this.handles.values().forEach(handle -> handle.fail(error));
+        }
+
+        private void emit(final Map<String, Set<ObjectGraphPath>> pathMap) {
+            this.bound = true;
+            if (this.operations == null) {
+                log.warn("No multipart part named {} found before {}; using empty map instead.",
+                        GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GraphQlMultipartPartKey.MAP.getKeyName());
+                this.operations = Maps.newHashMap();
+            }
+            this.request.tryEmitValue(bindFiles(this.operations, pathMap, Map.<String, Part>copyOf(this.handles), this.handles.values()));
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+/**
+ * <h2>BufferedFilePart</h2>
+ * {@link FilePart} whose content has been copied to the heap, used when part events are collected into a multipart
+ * map for a decoder without streaming support.  Its content may be read any number of times.
+ * @param name multipart field name
+ * @param filename client-supplied file name
+ * @param headers part headers
+ * @param bytes file content
+ */
+record BufferedFilePart(String name, String filename, HttpHeaders headers, byte[] bytes) implements FilePart {
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.bytes)));
+    }
+
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        return DataBufferUtils.write(content(), dest);
+    }
+}
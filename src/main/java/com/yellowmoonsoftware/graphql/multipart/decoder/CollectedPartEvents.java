@@ -0,0 +1,181 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartBatch;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartRequest;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * <h2>CollectedPartEvents</h2>
+ * Default part-event decoding of {@link GraphQlMultipartDecoder} for decoders that only decode aggregated multipart
+ * data: the events are collected into a multipart map, each file part being buffered, stored or written to a sink, and
+ * decoded through {@link GraphQlMultipartDecoder#decodeBatch(MultiValueMap)}.
+ */
+@Slf4j
+final class CollectedPartEvents {
+    /**
+     * Storage copying the content of each file part to the heap.
+     */
+    static final UploadStorage BUFFERED = (name, filename, headers, content) -> DataBufferUtils.join(content)
+            .map(buffer -> {
+                final byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                return bytes;
+            })
+            .defaultIfEmpty(new byte[0])
+            .map(bytes -> new BufferedFilePart(name, filename, headers, bytes));
+
+    private CollectedPartEvents() {
+    }
+
+    /**
+     * Collect part events into a multipart map, buffering each file part on the heap.
+     * @param partEvents part events in request order
+     * @return mono emitting the collected parts keyed by field name
+     */
+    static Mono<MultiValueMap<String, Part>> buffer(final Flux<PartEvent> partEvents) {
+        return collect(partEvents, BUFFERED, new ArrayList<>());
+    }
+
+    /**
+     * Decode part events after writing each file part to the given storage.  The emitted batch owns every stored part,
+     * which is deleted when decoding fails or is cancelled.
+     * @param decoder decoder of the collected parts
+     * @param partEvents part events in request order
+     * @param storage storage receiving the file parts
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    static Mono<GraphQlMultipartBatch> decodeStored(final GraphQlMultipartDecoder decoder, final Flux<PartEvent> partEvents,
+                                                    final UploadStorage storage) {
+        return decodeWritten(decoder, partEvents, storage, part -> true);
+    }
+
+    /**
+     * Decode part events after writing each file part to the given sink, binding the {@link
+     * com.yellowmoonsoftware.graphql.multipart.sink.UploadReference UploadReference} of each written file in place of
+     * its part.  The emitted batch owns the written objects not bound to any variable.
+     * @param decoder decoder of the collected parts
+     * @param partEvents part events in request order
+     * @param sink sink receiving the file parts
+     * @return mono emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    static Mono<GraphQlMultipartBatch> decodeSunk(final GraphQlMultipartDecoder decoder, final Flux<PartEvent> partEvents,
+                                                  final UploadSink sink) {
+        final UploadStorage storage = (name, filename, headers, content) -> sink.write(name, filename, headers, content)
+                .map(reference -> new SunkFilePart(reference, sink));
+        return decodeWritten(decoder, partEvents, storage, part -> !((SunkFilePart) part).isBound());
+    }
+
+    private static Mono<GraphQlMultipartBatch> decodeWritten(final GraphQlMultipartDecoder decoder, final Flux<PartEvent> partEvents,
+                                                             final UploadStorage storage, final Predicate<Part> owned) {
+        return Mono.defer(() -> {
+            final List<Part> written = new ArrayList<>();
+            return collect(partEvents, storage, written)
+                    .flatMap(decoder::decodeBatch)
+                    .map(batch -> new GraphQlMultipartBatch(
+                            batch.requests().stream().map(CollectedPartEvents::bindReferences).toList(),
+                            batch.batched(),
+                            Stream.concat(batch.uploads().stream(), written.stream().filter(owned)).distinct().toList()))
+                    .onErrorResume(e -> deleteAll(written).then(Mono.error(e)))
+                    .doOnCancel(() -> deleteAll(written).subscribe());
+        });
+    }
+
+    private static Mono<MultiValueMap<String, Part>> collect(final Flux<PartEvent> partEvents, final UploadStorage storage,
+                                                             final List<Part> written) {
+        return partEvents.windowUntil(PartEvent::isLast)
+                .concatMap(window -> window.switchOnFirst((signal, events) -> signal.hasValue()
+                        ? collectPart(storage, signal.get(), events)
+                        : events.then(Mono.empty())))
+                .doOnNext(part -> {
+                    if (part instanceof FilePart) {
+                        written.add(part);
+                    }
+                })
+                .collect(LinkedMultiValueMap<String, Part>::new, (parts, part) -> parts.add(part.name(), part));
+    }
+
+    private static Mono<Part> collectPart(final UploadStorage storage, final PartEvent first, final Flux<PartEvent> events) {
+        if (first instanceof FormPartEvent formEvent) {
+            return events.doOnNext(event -> DataBufferUtils.release(event.content()))
+                    .then(Mono.just(new EventFormFieldPart(formEvent)));
+        }
+        if (first instanceof FilePartEvent fileEvent) {
+            return storage.store(fileEvent.name(), fileEvent.filename(), fileEvent.headers(), events.map(PartEvent::content))
+                    .cast(Part.class);
+        }
+        return events.doOnNext(event -> DataBufferUtils.release(event.content())).then(Mono.empty());
+    }
+
+    /**
+     * Replace the sunk file parts bound into the variables of a request by their references.
+     * @param request decoded request
+     * @return the request, or a copy of it binding references when it holds sunk file parts
+     */
+    private static GraphQlRequest bindReferences(final GraphQlRequest request) {
+        final Object variables = bindReferences(request.getVariables());
+        if (variables == request.getVariables()) {
+            return request;
+        }
+        final Map<String, Object> operation = new HashMap<>(request.toMap());
+        operation.put("variables", variables);
+        return GraphQlMultipartRequest.build(operation);
+    }
+
+    private static Object bindReferences(final Object value) {
+        if (value instanceof SunkFilePart sunk) {
+            return sunk.bind();
+        }
+        if (value instanceof Map<?, ?> map) {
+            final Map<Object, Object> bound = new LinkedHashMap<>();
+            boolean changed = false;
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                final Object entryValue = bindReferences(entry.getValue());
+                changed |= entryValue != entry.getValue();
+                bound.put(entry.getKey(), entryValue);
+            }
+            return changed ? bound : value;
+        }
+        if (value instanceof List<?> list) {
+            final List<Object> bound = new ArrayList<>(list.size());
+            boolean changed = false;
+            for (final Object element : list) {
+                final Object elementValue = bindReferences(element);
+                changed |= elementValue != element;
+                bound.add(elementValue);
+            }
+            return changed ? bound : value;
+        }
+        return value;
+    }
+
+    private static Mono<Void> deleteAll(final List<Part> parts) {
+        return Flux.fromIterable(parts)
+                .flatMap(part -> part.delete().onErrorResume(e -> {
+                    log.warn("Failed to delete written multipart part {}.", part.name(), e);
+                    return Mono.empty();
+                }))
+                .then();
+    }
+}
@@ -0,0 +1,212 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionRejectedException;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>DecodeScheduler</h2>
+ * Size-aware policy moving expensive decoding work off the thread that completed the part, usually a Reactor Netty
+ * event-loop thread.
+ * <ul>
+ * <li>Work below both thresholds runs inline, so small requests pay no thread hop.</li>
+ * <li>JSON parts larger than `byteThreshold` and `map`s with more than `entryThreshold` paths are decoded and bound on
+ * a bounded pool of `parallelism` daemon threads.</li>
+ * <li>At most `maxQueueSize` tasks wait for a thread; further requests are rejected with `503` rather than queued
+ * without bound or run back on the event loop.</li>
+ * </ul>
+ * Work already running on one of the scheduler's threads is never rescheduled.  Once offloaded, the request continues
+ * on the decode thread until it next changes threads.
+ */
+@Slf4j
+public class DecodeScheduler implements AutoCloseable {
+    /**
+     * Default `byteThreshold`.
+     */
+    public static final DataSize DEFAULT_BYTE_THRESHOLD = DataSize.ofKilobytes(256);
+
+    /**
+     * Default `entryThreshold`.
+     */
+    public static final int DEFAULT_ENTRY_THRESHOLD = 1_000;
+
+    /**
+     * Default `maxQueueSize`.
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 256;
+
+    private static final String THREAD_PREFIX = "graphql-multipart-decode-";
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    /**
+     * Number of decode threads.
+     */
+    @Getter
+    private final int parallelism;
+
+    /**
+     * Maximum number of tasks waiting for a decode thread.
+     */
+    @Getter
+    private final int maxQueueSize;
+
+    /**
+     * Size of a JSON part above which it is decoded off the calling thread; negative to never offload by size.
+     */
+    @Getter
+    @Setter
+    private DataSize byteThreshold = DEFAULT_BYTE_THRESHOLD;
+
+    /**
+     * Number of `map` paths above which files are injected off the calling thread; negative to never offload by
+     * entries.
+     */
+    @Getter
+    @Setter
+    private int entryThreshold = DEFAULT_ENTRY_THRESHOLD;
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final LongAdder offloaded = new LongAdder();
+
+    /**
+     * Create a scheduler with one thread per available processor.
+     */
+    public DecodeScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    /**
+     * Create a scheduler.
+     * @param parallelism number of decode threads
+     * @param maxQueueSize maximum number of tasks waiting for a decode thread
+     * @throws IllegalArgumentException when either argument is not positive
+     */
+    public DecodeScheduler(final int parallelism, final int maxQueueSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException("maxQueueSize must be positive: " + maxQueueSize);
+        }
+        this.parallelism = parallelism;
+        this.maxQueueSize = maxQueueSize;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueueSize), threadFactory());
+        this.scheduler = Schedulers.fromExecutorService(this.executor, "graphql-multipart-decode");
+        log.debug("Offloading large multipart decoding to {} threads with a queue of {}.", parallelism, maxQueueSize);
+    }
+
+    /**
+     * Publish the state of the scheduler.
+     * @param metrics multipart instrumentation
+     */
+    public void setMetrics(final GraphQlMultipartMetrics metrics) {
+        metrics.bindDecodeScheduler(this::getActiveCount, this::getQueueSize, this::getOffloadedCount);
+    }
+
+    /**
+     * Whether work of the given size would be offloaded from the current thread.
+     * @param bytes size of the JSON being decoded, or `0` when not applicable
+     * @param entries number of `map` paths being bound, or `0` when not applicable
+     * @return `true` when a threshold is exceeded and the current thread is not a decode thread
+     */
+    public boolean shouldOffload(final long bytes, final long entries) {
+        final long maxBytes = this.byteThreshold.toBytes();
+        return ((maxBytes >= 0 && bytes > maxBytes) || (this.entryThreshold >= 0 && entries > this.entryThreshold))
+                && !isDecodeThread();
+    }
+
+    /**
+     * Run decoding work inline, or subscribe it on a decode thread when it exceeds a threshold.
+     * @param bytes size of the JSON being decoded, or `0` when not applicable
+     * @param entries number of `map` paths being bound, or `0` when not applicable
+     * @param work decoding work, performed on subscription
+     * @param <T> result type
+     * @return the work, offloaded when required; fails with {@link GraphQlMultipartAdmissionRejectedException} when
+     * the queue is full
+     */
+    public <T> Mono<T> schedule(final long bytes, final long entries, final Mono<T> work) {
+        if (!shouldOffload(bytes, entries)) {
+            return work;
+        }
+        return Mono.defer(() -> {
+                    this.offloaded.increment();
+                    log.trace("Offloading multipart decoding of {} bytes and {} map entries.", bytes, entries);
+                    return work.subscribeOn(this.scheduler);
+                })
+                .onErrorMap(RejectedExecutionException.class, e -> new GraphQlMultipartAdmissionRejectedException(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Multipart decoding capacity exhausted.", RETRY_AFTER));
+    }
+
+    /**
+     * Number of decode threads currently running a task.
+     * @return active threads
+     */
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     * Number of tasks waiting for a decode thread.
+     * @return queued tasks
+     */
+    public int getQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Number of decoding tasks offloaded since creation.
+     * @return offloaded tasks
+     */
+    public long getOffloadedCount() {
+        return this.offloaded.sum();
+    }
+
+    /**
+     * Stop accepting work and interrupt tasks still running.
+     */
+    @Override
+    public void close() {
+        this.scheduler.dispose();
+        this.executor.shutdownNow();
+    }
+
+    private boolean isDecodeThread() {
+        return Thread.currentThread() instanceof DecodeThread thread && thread.owner == this;
+    }
+
+    private ThreadFactory threadFactory() {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> new DecodeThread(this, runnable, THREAD_PREFIX + counter.getAndIncrement());
+    }
+
+    /**
+     * Daemon thread recognised by its scheduler, so work running on it is not offloaded again.
+     */
+    private static final class DecodeThread extends Thread {
+        private final DecodeScheduler owner;
+
+        DecodeThread(final DecodeScheduler owner, final Runnable runnable, final String name) {
+            super(runnable, name);
+            this.owner = owner;
+            setDaemon(true);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h2>DecodedFilePart</h2>
+ * View of a {@link FilePart} whose content is transformed as it is read: decoded from its `Content-Encoding`, e.g. for
+ * a file part of an aggregated request or one kept encoded by an upload storage, and limited to `maxFileSize`.
+ * @param delegate file part as received
+ * @param headers headers describing the decoded content
+ * @param decoding decoding applied to the content of the delegate
+ */
+record DecodedFilePart(FilePart delegate, HttpHeaders headers, UnaryOperator<Flux<DataBuffer>> decoding) implements FilePart {
+
+    @Override
+    public @NonNull String name() {
+        return this.delegate.name();
+    }
+
+    @Override
+    public @NonNull String filename() {
+        return this.delegate.filename();
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return this.decoding.apply(this.delegate.content());
+    }
+
+    /**
+     * Write the decoded content to the given destination.
+     * @param dest target file
+     * @return mono completing when the content has been written
+     */
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        return DataBufferUtils.write(content(), dest);
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return this.delegate.delete();
+    }
+}
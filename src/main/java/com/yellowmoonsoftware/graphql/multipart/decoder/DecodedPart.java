@@ -0,0 +1,35 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * <h2>DecodedPart</h2>
+ * View of a {@link Part} sent with a `Content-Encoding` whose content is decoded as it is read.
+ * @param delegate encoded part
+ * @param headers headers describing the decoded content
+ * @param decoding decoding applied to the content of the delegate
+ */
+record DecodedPart(Part delegate, HttpHeaders headers, UnaryOperator<Flux<DataBuffer>> decoding) implements Part {
+
+    @Override
+    public @NonNull String name() {
+        return this.delegate.name();
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return this.decoding.apply(this.delegate.content());
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return this.delegate.delete();
+    }
+}
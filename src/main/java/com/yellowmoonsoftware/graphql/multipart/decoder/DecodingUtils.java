@@ -1,20 +1,27 @@
 package com.yellowmoonsoftware.graphql.multipart.decoder;
 
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
 import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
 import graphql.com.google.common.collect.Maps;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.http.codec.multipart.Part;
 
+import reactor.core.publisher.Flux;
+
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * <h2>DecodingUtils</h2>
  * <p>
  * Utilities used while decoding multipart GraphQL requests.
  * <ul>
- * <li>Validates decoded {@link ObjectGraphPath} values start at `variables`.</li>
+ * <li>Validates decoded {@link ObjectGraphPath} values start at `variables` (or `{@code <index>}.variables` in a batch).</li>
  * <li>Filters multipart parts down to {@link FilePart} instances for file injection.</li>
+ * <li>Enforces byte limits on streamed content as it arrives.</li>
  * </ul>
  * The helpers are package-scoped to support reuse across decoder implementations without leaking
  * additional public API.
@@ -33,6 +40,16 @@ public class DecodingUtils {
         return p.isValid() && !p.pathSegments().isEmpty() && Objects.equals(p.pathSegments().get(0), REQUIRED_PATH_PREFIX);
     }
 
+    /**
+     * Check whether the given path is non-null, well-formed, and rooted at the `variables` of a batched operation.
+     * @param p decoded graph path from the multipart map
+     * @return `true` when the path is valid and starts with an operation index followed by `variables`
+     */
+    protected static boolean isValidBatchPath(final ObjectGraphPath p) {
+        return p.isValid() && p.pathSegments().size() > 1 && p.segmentIndex(0) != ObjectGraphPath.NOT_AN_INDEX
+                && Objects.equals(p.pathSegments().get(1), REQUIRED_PATH_PREFIX);
+    }
+
     /**
      * Retain only file parts from the multipart map, dropping form fields or other part types.
      * @param partsMap multipart parts keyed by form field name
@@ -41,4 +58,35 @@ public class DecodingUtils {
     protected static Map<String, FilePart> filterFileParts(final Map<String, Part> partsMap) {
         return Maps.filterValues(Maps.transformValues(partsMap, p -> p instanceof FilePart fp ? fp : null), Objects::nonNull);
     }
+
+    /**
+     * Pass items through while counting their content bytes, failing as soon as more than `maxBytes` have been seen.
+     * <p>
+     * The item that crosses the limit is released rather than emitted.
+     * @param source items carrying content, e.g. {@link DataBuffer}s or part events
+     * @param content function extracting an item's content
+     * @param limit limit name reported on failure
+     * @param maxBytes maximum number of bytes, negative to disable the check
+     * @param <T> item type
+     * @return limited flux failing with {@link GraphQlMultipartLimitExceededException}
+     */
+    protected static <T> Flux<T> limitBytes(final Flux<T> source, final Function<T, DataBuffer> content,
+                                            final String limit, final long maxBytes) {
+        if (maxBytes < 0) {
+            return source;
+        }
+        return Flux.defer(() -> {
+            final long[] total = {0};
+            return source.handle((item, sink) -> {
+                final DataBuffer buffer = content.apply(item);
+                total[0] += buffer.readableByteCount();
+                if (total[0] > maxBytes) {
+                    DataBufferUtils.release(buffer);
+                    sink.error(new GraphQlMultipartLimitExceededException(limit, maxBytes));
+                } else {
+                    sink.next(item);
+                }
+            });
+        });
+    }
 }
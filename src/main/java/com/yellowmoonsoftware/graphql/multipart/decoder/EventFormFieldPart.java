@@ -0,0 +1,35 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <h2>EventFormFieldPart</h2>
+ * {@link FormFieldPart} built from a streamed {@link FormPartEvent}, used when part events are collected into a
+ * multipart map.
+ * @param name multipart field name
+ * @param headers part headers
+ * @param value form field value
+ */
+record EventFormFieldPart(String name, HttpHeaders headers, String value) implements FormFieldPart {
+
+    /**
+     * Build from a form part event.
+     * @param event form field event
+     */
+    EventFormFieldPart(final FormPartEvent event) {
+        this(event.name(), event.headers(), event.value());
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.value.getBytes(StandardCharsets.UTF_8))));
+    }
+}
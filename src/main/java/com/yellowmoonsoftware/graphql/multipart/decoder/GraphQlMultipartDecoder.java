@@ -1,8 +1,13 @@
 package com.yellowmoonsoftware.graphql.multipart.decoder;
 
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartBatch;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
 import org.springframework.graphql.GraphQlRequest;
 import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -19,4 +24,74 @@ public interface GraphQlMultipartDecoder {
      * @return a {@link Mono} emitting the fully constructed {@link GraphQlRequest} with files bound into variables
      */
     Mono<GraphQlRequest> decode(final MultiValueMap<String, Part> multipartData);
+
+    /**
+     * Decode a multipart body streamed as ordered part events.
+     * <p>
+     * The returned request is emitted as soon as `operations` and `map` have been decoded; file parts are bound as
+     * lazily-consumable handles that are fed while the remainder of the body arrives.
+     * <p>
+     * The default implementation buffers the whole body, copying each file part to the heap, and delegates to
+     * {@link #decode(MultiValueMap)}.
+     * @param partEvents part events in request order
+     * @return a {@link Mono} emitting the {@link GraphQlRequest} with upload handles bound into variables
+     */
+    default Mono<GraphQlRequest> decode(final Flux<PartEvent> partEvents) {
+        return CollectedPartEvents.buffer(partEvents).flatMap(multipartData -> decode(multipartData));
+    }
+
+    /**
+     * Decode multipart form-data whose `operations` may be a single operation or a batch (JSON array) of them.
+     * <p>
+     * The default implementation supports single operations only by delegating to {@link #decode(MultiValueMap)}.
+     * @param multipartData aggregated multipart parts keyed by form field name
+     * @return a {@link Mono} emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    default Mono<GraphQlMultipartBatch> decodeBatch(final MultiValueMap<String, Part> multipartData) {
+        return decode(multipartData).map(GraphQlMultipartBatch::single);
+    }
+
+    /**
+     * Decode a streamed multipart body whose `operations` may be a single operation or a batch of them.
+     * <p>
+     * The default implementation supports single operations only by delegating to {@link #decode(Flux)}.
+     * @param partEvents part events in request order
+     * @return a {@link Mono} emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    default Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents) {
+        return decode(partEvents).map(GraphQlMultipartBatch::single);
+    }
+
+    /**
+     * Decode a streamed multipart body after writing every file part to the given storage.
+     * <p>
+     * The batch is emitted once the whole body has been received; it owns every stored part, so releasing its
+     * {@link GraphQlMultipartBatch#uploads() uploads} frees the storage.
+     * <p>
+     * The default implementation collects the stored parts and delegates to {@link #decodeBatch(MultiValueMap)}.
+     * @param partEvents part events in request order
+     * @param storage storage receiving the file parts
+     * @return a {@link Mono} emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    default Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents, final UploadStorage storage) {
+        return CollectedPartEvents.decodeStored(this, partEvents, storage);
+    }
+
+    /**
+     * Decode a streamed multipart body while writing every file part to the given sink.
+     * <p>
+     * The batch is emitted once the whole body has been received, with an
+     * {@link com.yellowmoonsoftware.graphql.multipart.sink.UploadReference} bound in place of each file part.  Written
+     * objects are deleted when decoding fails; otherwise bound objects outlive the request and the batch owns only
+     * the objects not bound to any variable.
+     * <p>
+     * The default implementation collects the written parts, delegates to {@link #decodeBatch(MultiValueMap)} and
+     * replaces each written part bound into variables by its reference.
+     * @param partEvents part events in request order
+     * @param sink sink receiving the file parts
+     * @return a {@link Mono} emitting the decoded {@link GraphQlMultipartBatch}
+     */
+    default Mono<GraphQlMultipartBatch> decodeBatch(final Flux<PartEvent> partEvents, final UploadSink sink) {
+        return CollectedPartEvents.decodeSunk(this, partEvents, sink);
+    }
 }
@@ -7,10 +7,11 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.Decoder;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.AbstractJacksonDecoder;
 import org.springframework.http.codec.multipart.Part;
 import reactor.core.publisher.Mono;
+import tools.jackson.databind.ObjectMapper;
 
-import java.util.Map;
 
 /**
  * <h2>GraphQlMultipartJsonDecoder</h2>
@@ -20,7 +21,9 @@ import java.util.Map;
  * <ul>
  * <li>Uses a Spring {@link Decoder} (typically `JacksonJsonDecoder`) to read the `operations` and `map` parts of a
  * GraphQL multipart request.</li>
- * <li>Produces typed maps that the base class combines to attach files to variables and build the final GraphQL
+ * <li>With a Jackson decoder, parts are tokenized incrementally by Jackson's non-blocking parser as their buffers
+ * arrive instead of being joined into one contiguous buffer first.</li>
+ * <li>Produces typed values that the base class combines to attach files to variables and build the final GraphQL
  * request.</li>
  * </ul>
  */
@@ -30,17 +33,27 @@ public class GraphQlMultipartJsonDecoder extends AbstractGraphQlMultipartDecoder
     private final Decoder<?> jsonDecoder;
 
     /**
-     * Decode the multipart part into a {@link Map} of {@link String} to specified type {@link T} using the configured JSON decoder.
+     * Decode the multipart part into the specified type {@link T} using the configured JSON decoder.
+     * <p>
+     * When the decoder is an {@link AbstractJacksonDecoder} its mapper and `maxInMemorySize` are used to read the part
+     * with {@link NonBlockingJsonPartReader}, binding the tokens of a large part through the
+     * `decodeScheduler`, when one is set; any other decoder falls back to {@link Decoder#decodeToMono}.
      * @param part    multipart part (`operations` or `map`)
-     * @param typeRef target map type reference
-     * @param <T>     value type of the decoded map
-     * @return {@link Mono} emitting the decoded map
+     * @param typeRef target type reference
+     * @param <T>     decoded type
+     * @return {@link Mono} emitting the decoded value
      */
     @Override
     @SuppressWarnings("unchecked")
-    public <T> Mono<Map<String,T>> decodePart(@NonNull final Part part, @NonNull final ParameterizedTypeReference<Map<String, T>> typeRef) {
+    public <T> Mono<T> decodeValue(@NonNull final Part part, @NonNull final ParameterizedTypeReference<T> typeRef) {
         log.trace("Decoding part {} as JSON into {}", part.name(), typeRef.getType());
-        final Decoder<Map<String,T>> typedDecoder = (Decoder<Map<String,T>>) jsonDecoder;
-        return typedDecoder.decodeToMono(part.content(), ResolvableType.forType(typeRef), MediaType.APPLICATION_JSON, null);
+        final ResolvableType type = ResolvableType.forType(typeRef);
+        if (jsonDecoder instanceof AbstractJacksonDecoder<?> jacksonDecoder && jacksonDecoder.canDecode(type, MediaType.APPLICATION_JSON)) {
+            final ObjectMapper mapper = jacksonDecoder.getMapper();
+            return NonBlockingJsonPartReader.read(mapper, part.content(), mapper.constructType(typeRef.getType()),
+                    jacksonDecoder.getMaxInMemorySize(), getDecodeScheduler());
+        }
+        final Decoder<T> typedDecoder = (Decoder<T>) jsonDecoder;
+        return typedDecoder.decodeToMono(part.content(), type, MediaType.APPLICATION_JSON, null);
     }
 }
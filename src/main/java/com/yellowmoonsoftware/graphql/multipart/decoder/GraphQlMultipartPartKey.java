@@ -30,25 +30,42 @@ import java.util.Set;
 @RequiredArgsConstructor
 public enum GraphQlMultipartPartKey {
     /**
-     * Used for identifying and decoding the "operations" part of the payload, which typically contains GraphQL
-     * query details, variables, and extensions.
+     * Used for identifying and decoding the "operations" part of the payload, which contains GraphQL query details,
+     * variables, and extensions: a JSON object for a single operation or a JSON array of them for a batch.
      */
-    OPERATIONS("operations", new ParameterizedTypeReference<Map<String, Object>>() { }),
+    OPERATIONS("operations", new ParameterizedTypeReference<Object>() { },
+            new ParameterizedTypeReference<Map<String, Object>>() { }),
     /**
      * Used for identifying and decoding the "map" part of the payload, used for describing file mapping metadata.
      */
-    MAP("map", new ParameterizedTypeReference<Map<String, Set<ObjectGraphPath>>>() { });
+    MAP("map", new ParameterizedTypeReference<Map<String, Set<ObjectGraphPath>>>() { },
+            new ParameterizedTypeReference<Map<String, Set<ObjectGraphPath>>>() { });
 
     @Getter
     private final String keyName;
 
+    private final ParameterizedTypeReference<?> valueTypeRef;
+
     private final ParameterizedTypeReference<?> typeRef;
 
     /**
-     * Get the type reference associated with this multipart part key.
+     * Get the type reference a part with this key is decoded into.
+     * @param <T> decoded type
+     * @return typed {@link ParameterizedTypeReference} for decoding
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ParameterizedTypeReference<T> getValueTypeRef() {
+        return (ParameterizedTypeReference<T>) this.valueTypeRef;
+    }
+
+    /**
+     * Get the map type reference associated with this multipart part key.
      * @param <T> map value type
      * @return typed {@link ParameterizedTypeReference} for decoding
+     * @deprecated `operations` may be a JSON array of operations, which this map type can not describe; use
+     * {@link #getValueTypeRef()} instead.
      */
+    @Deprecated
     @SuppressWarnings("unchecked")
     public <T> ParameterizedTypeReference<Map<String, T>> getTypeRef() {
         return (ParameterizedTypeReference<Map<String, T>>) this.typeRef;
@@ -0,0 +1,163 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.digest.DigestedContent;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * <h2>GraphQlStreamedFilePart</h2>
+ * <p>
+ * Lazily-consumable upload handle bound into GraphQL variables while the multipart body is still arriving.
+ * </p>
+ * <ul>
+ * <li>The handle is created as soon as the `map` part names its file key; the underlying part events are attached
+ * once the matching file part is reached in the request body.</li>
+ * <li>{@link #content()} may be subscribed once.  Parts arrive in request order, so a handle is only readable after
+ * every earlier file part has been consumed or discarded.</li>
+ * <li>{@link #headers()} and {@link #filename()} are empty until the part headers have arrived.</li>
+ * <li>{@link #digests()} are empty until the content has been fully consumed.</li>
+ * </ul>
+ */
+@Slf4j
+public class GraphQlStreamedFilePart implements FilePart, DigestedContent {
+    private final String name;
+    private final Sinks.One<Flux<DataBuffer>> source = Sinks.one();
+    private final Sinks.Empty<Void> consumed = Sinks.empty();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile HttpHeaders headers = new HttpHeaders();
+    private volatile String filename = "";
+    private volatile ContentDigests digests = ContentDigests.NONE;
+
+    /**
+     * Create an unattached handle for the given multipart field name.
+     * @param name multipart field name referenced by the `map` part
+     */
+    GraphQlStreamedFilePart(@NonNull final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Return the multipart field name of this upload.
+     * @return field name
+     */
+    @Override
+    public @NonNull String name() {
+        return this.name;
+    }
+
+    /**
+     * Return the part headers, or empty headers when the part has not arrived yet.
+     * @return part headers
+     */
+    @Override
+    public @NonNull HttpHeaders headers() {
+        return this.headers;
+    }
+
+    /**
+     * Return the client supplied filename, or an empty string when the part has not arrived yet.
+     * @return filename
+     */
+    @Override
+    public @NonNull String filename() {
+        return this.filename;
+    }
+
+    /**
+     * Return the digests computed over the content, or none until the content has been fully consumed.
+     * @return content digests
+     */
+    @Override
+    public ContentDigests digests() {
+        return this.digests;
+    }
+
+    /**
+     * Stream the file content as it arrives; completes once the part has been fully received.
+     * @return single-subscription flux of content buffers
+     */
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return Flux.defer(() -> this.subscribed.compareAndSet(false, true)
+                ? this.source.asMono()
+                        .flatMapMany(Function.identity())
+                        .doOnError(this.consumed::tryEmitError)
+                        .doFinally(signal -> this.consumed.tryEmitEmpty())
+                : Flux.error(new IllegalStateException("Content of streamed file part [" + this.name + "] has already been consumed.")));
+    }
+
+    /**
+     * Write the file content to the given destination as it arrives.
+     * @param dest target file
+     * @return mono completing when the content has been written
+     */
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        return DataBufferUtils.write(content(), dest);
+    }
+
+    /**
+     * Discard the content when it has not been consumed, so that later parts in the request can be read.
+     * @return mono completing once any unread content has been released
+     */
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return Mono.defer(() -> {
+            if (!this.subscribed.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            log.trace("Discarding unconsumed streamed file part {}", this.name);
+            return this.source.asMono()
+                    .flatMapMany(Function.identity())
+                    .doOnNext(DataBufferUtils::release)
+                    .doOnError(this.consumed::tryEmitError)
+                    .doFinally(signal -> this.consumed.tryEmitEmpty())
+                    .onErrorComplete()
+                    .then();
+        });
+    }
+
+    /**
+     * Attach the content of the arriving part to this handle.
+     * @param first first event of the part
+     * @param headers headers describing the content, e.g. those of the first event
+     * @param content content of the part, e.g. that of all its events
+     * @return mono completing once the content has been consumed or discarded, or failing when the content fails
+     */
+    Mono<Void> attach(final PartEvent first, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        this.headers = headers;
+        this.filename = first instanceof FilePartEvent filePartEvent ? filePartEvent.filename() : "";
+        this.source.tryEmitValue(content);
+        return this.consumed.asMono();
+    }
+
+    /**
+     * Record the digests computed over the content once it has been fully received.
+     * @param digests computed digests
+     */
+    void digested(final ContentDigests digests) {
+        this.digests = digests;
+    }
+
+    /**
+     * Fail the handle when its part never arrives or the request body errors; no-op once attached.
+     * @param error failure surfaced to subscribers of {@link #content()}
+     */
+    void fail(final Throwable error) {
+        this.source.tryEmitError(error);
+    }
+}
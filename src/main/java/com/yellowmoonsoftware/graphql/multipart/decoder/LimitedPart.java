@@ -0,0 +1,42 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * <h2>LimitedPart</h2>
+ * View of a {@link Part} whose content fails with {@link GraphQlMultipartLimitExceededException} as soon as more than
+ * `maxBytes` have been read.
+ * @param delegate part being limited
+ * @param limit limit name reported on failure
+ * @param maxBytes maximum number of content bytes
+ */
+record LimitedPart(Part delegate, String limit, long maxBytes) implements Part {
+
+    @Override
+    public @NonNull String name() {
+        return this.delegate.name();
+    }
+
+    @Override
+    public @NonNull HttpHeaders headers() {
+        return this.delegate.headers();
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return DecodingUtils.limitBytes(this.delegate.content(), Function.identity(), this.limit, this.maxBytes);
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return this.delegate.delete();
+    }
+}
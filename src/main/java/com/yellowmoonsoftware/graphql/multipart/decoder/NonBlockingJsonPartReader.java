@@ -0,0 +1,140 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.async.ByteBufferFeeder;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.util.TokenBuffer;
+
+/**
+ * <h2>NonBlockingJsonPartReader</h2>
+ * Reads a single JSON value from a stream of {@link DataBuffer}s with Jackson's non-blocking parser.
+ * <ul>
+ * <li>Each buffer's {@link java.nio.ByteBuffer}s are fed to the parser in place and the buffer is released as soon as
+ * its tokens have been copied into a {@link TokenBuffer}, so the content is never joined into one contiguous copy.</li>
+ * <li>Tokenizing overlaps with the arrival of the part's content; the value is bound once the root value closes and
+ * the input ends, optionally on another thread chosen from the size of the content.</li>
+ * <li>Failures are reported as {@link DecodingException} and {@link DataBufferLimitException}, as with Spring's
+ * Jackson decoders.</li>
+ * </ul>
+ */
+final class NonBlockingJsonPartReader {
+    private final ObjectMapper mapper;
+    private final JavaType type;
+    private final int maxInMemorySize;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final TokenBuffer tokens;
+    private long byteCount;
+    private int depth;
+    private boolean rootClosed;
+
+    private NonBlockingJsonPartReader(final ObjectMapper mapper, final JavaType type, final int maxInMemorySize) {
+        this.mapper = mapper;
+        this.type = type;
+        this.maxInMemorySize = maxInMemorySize;
+        this.parser = mapper.createNonBlockingByteBufferParser();
+        this.feeder = (ByteBufferFeeder) this.parser.nonBlockingInputFeeder();
+        this.tokens = TokenBuffer.forBuffering(this.parser, this.parser.objectReadContext());
+    }
+
+    /**
+     * Read the JSON value carried by `content` into the given type.
+     * @param mapper mapper used to create the parser and bind the value
+     * @param content JSON content; every buffer is released once consumed
+     * @param type target type
+     * @param maxInMemorySize maximum number of bytes to read, negative for no limit
+     * @param <T> decoded type
+     * @return {@link Mono} emitting the decoded value, or empty when the content is empty
+     */
+    static <T> Mono<T> read(final ObjectMapper mapper, final Flux<DataBuffer> content, final JavaType type, final int maxInMemorySize) {
+        return read(mapper, content, type, maxInMemorySize, null);
+    }
+
+    /**
+     * Read the JSON value carried by `content` into the given type, binding the buffered tokens through a
+     * {@link DecodeScheduler} once the size of the content is known.
+     * @param mapper mapper used to create the parser and bind the value
+     * @param content JSON content; every buffer is released once consumed
+     * @param type target type
+     * @param maxInMemorySize maximum number of bytes to read, negative for no limit
+     * @param scheduler scheduler of the binding step, or `null` to bind on the thread completing the content
+     * @param <T> decoded type
+     * @return {@link Mono} emitting the decoded value, or empty when the content is empty
+     */
+    static <T> Mono<T> read(final ObjectMapper mapper, final Flux<DataBuffer> content, final JavaType type, final int maxInMemorySize,
+                            final DecodeScheduler scheduler) {
+        return Mono.using(
+                () -> new NonBlockingJsonPartReader(mapper, type, maxInMemorySize),
+                reader -> content.doOnNext(reader::feed).then(Mono.defer(() -> {
+                    final Mono<T> binding = Mono.fromSupplier(reader::<T>complete);
+                    return scheduler == null ? binding : scheduler.schedule(reader.byteCount, 0, binding);
+                })),
+                NonBlockingJsonPartReader::close);
+    }
+
+    private void feed(final DataBuffer buffer) {
+        try {
+            this.byteCount += buffer.readableByteCount();
+            if (this.maxInMemorySize >= 0 && this.byteCount > this.maxInMemorySize) {
+                throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + this.maxInMemorySize);
+            }
+            try (DataBuffer.ByteBufferIterator byteBuffers = buffer.readableByteBuffers()) {
+                while (byteBuffers.hasNext()) {
+                    this.feeder.feedInput(byteBuffers.next());
+                    drain();
+                }
+            }
+        } catch (final JacksonException ex) {
+            throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T complete() {
+        try {
+            this.feeder.endOfInput();
+            drain();
+            if (this.tokens.isEmpty()) {
+                return null;
+            }
+            if (!this.rootClosed) {
+                throw new DecodingException("JSON decoding error: unexpected end of input");
+            }
+            return (T) this.mapper.readValue(this.tokens, this.type);
+        } catch (final JacksonException ex) {
+            throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private void drain() {
+        JsonToken token;
+        while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (this.rootClosed) {
+                throw new DecodingException("JSON decoding error: unexpected content after the root value");
+            }
+            this.tokens.copyCurrentEvent(this.parser);
+            if (token.isStructStart()) {
+                this.depth++;
+            } else if (token.isStructEnd()) {
+                this.depth--;
+            }
+            this.rootClosed = this.depth == 0;
+        }
+    }
+
+    private void close() {
+        this.parser.close();
+        this.tokens.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * <h2>PartEventsPart</h2>
+ * Adapts the events of a single streamed part to the {@link Part} contract so that `operations` and `map` can be
+ * decoded through {@link AbstractGraphQlMultipartDecoder#decodeValue(Part, org.springframework.core.ParameterizedTypeReference)}.
+ * @param name multipart field name
+ * @param headers part headers taken from the first event
+ * @param events all events belonging to the part
+ */
+record PartEventsPart(String name, HttpHeaders headers, Flux<PartEvent> events) implements Part {
+
+    /**
+     * Build from the first event of a part and the full event stream.
+     * @param first first event of the part
+     * @param events all events belonging to the part
+     */
+    PartEventsPart(final PartEvent first, final Flux<PartEvent> events) {
+        this(first.name(), first.headers(), events);
+    }
+
+    /**
+     * Content buffers of the part, in arrival order.
+     * @return flux of content buffers
+     */
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return this.events.map(PartEvent::content);
+    }
+}
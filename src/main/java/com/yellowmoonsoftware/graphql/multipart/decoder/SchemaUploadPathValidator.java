@@ -0,0 +1,189 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.scalars.UploadScalar;
+import graphql.GraphQLException;
+import graphql.language.Document;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.OperationDefinition;
+import graphql.language.Type;
+import graphql.language.TypeName;
+import graphql.language.VariableDefinition;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLInputType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ConcurrentLruCache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <h2>SchemaUploadPathValidator</h2>
+ * {@link UploadPathValidator} checking `map` paths against the variable definitions of the operation and the
+ * positions of the `Upload` scalar in the schema.
+ * <ul>
+ * <li>The variable must be defined by the selected operation.</li>
+ * <li>Every further segment must address a field of an input object or, as an index, an element of a list.</li>
+ * <li>The addressed position must be of the `Upload` scalar type.</li>
+ * </ul>
+ * Variable definitions are resolved once per document and kept in a bounded LRU cache.  Documents that do not parse,
+ * operations that can not be selected and variables of unknown types are left for GraphQL validation to report.
+ */
+@Slf4j
+public class SchemaUploadPathValidator implements UploadPathValidator {
+    /**
+     * Default number of documents whose variable definitions are cached.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final String QUERY = "query";
+    private static final String OPERATION_NAME = "operationName";
+    private static final String ANONYMOUS = "";
+
+    private final GraphQLSchema schema;
+    private final String uploadTypeName;
+    private final Function<String, Document> parser;
+    private final ConcurrentLruCache<String, Map<String, Map<String, GraphQLInputType>>> documents;
+
+    /**
+     * Create a validator for the `Upload` scalar with the {@link #DEFAULT_CACHE_SIZE default} cache size.
+     * @param schema executable schema
+     */
+    public SchemaUploadPathValidator(final GraphQLSchema schema) {
+        this(schema, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a validator for the `Upload` scalar.
+     * @param schema executable schema
+     * @param cacheSize number of documents whose variable definitions are cached
+     */
+    public SchemaUploadPathValidator(final GraphQLSchema schema, final int cacheSize) {
+        this(schema, cacheSize, Parser::parse);
+    }
+
+    /**
+     * Create a validator for the `Upload` scalar parsing documents with the given parser, e.g. one sharing parsed
+     * documents with GraphQL execution.
+     * @param schema executable schema
+     * @param cacheSize number of documents whose variable definitions are cached
+     * @param parser parser of document sources
+     */
+    public SchemaUploadPathValidator(final GraphQLSchema schema, final int cacheSize, final Function<String, Document> parser) {
+        this.schema = schema;
+        this.uploadTypeName = UploadScalar.INSTANCE.getName();
+        this.parser = parser;
+        this.documents = new ConcurrentLruCache<>(cacheSize, this::variableTypes);
+    }
+
+    @Override
+    public void validate(final Map<String, Object> operation, final String fileKey, final List<String> path) {
+        if (!(operation.get(QUERY) instanceof String query)) {
+            return;
+        }
+        final Object operationName = operation.get(OPERATION_NAME);
+        final Map<String, Map<String, GraphQLInputType>> operations = this.documents.get(query);
+        final Map<String, GraphQLInputType> variables = operationName instanceof String name
+                ? operations.get(name)
+                : operations.size() == 1 ? operations.values().iterator().next() : null;
+        if (variables == null) {
+            return;
+        }
+
+        final String variable = path.get(0);
+        if (!variables.containsKey(variable)) {
+            throw invalid(fileKey, path, "variable $" + variable + " is not defined by the operation");
+        }
+        GraphQLType type = variables.get(variable);
+        if (type == null) {
+            return;
+        }
+        for (int i = 1; i < path.size(); i++) {
+            final String segment = path.get(i);
+            type = GraphQLTypeUtil.unwrapNonNull(type);
+            if (type instanceof GraphQLList list) {
+                if (!isIndex(segment)) {
+                    throw invalid(fileKey, path, "'" + segment + "' is not an index of list " + GraphQLTypeUtil.simplePrint(list));
+                }
+                type = list.getWrappedType();
+            } else if (type instanceof GraphQLInputObjectType object) {
+                final GraphQLInputObjectField field = object.getField(segment);
+                if (field == null) {
+                    throw invalid(fileKey, path, "input type " + object.getName() + " has no field '" + segment + "'");
+                }
+                type = field.getType();
+            } else {
+                throw invalid(fileKey, path, "type " + GraphQLTypeUtil.simplePrint(type) + " has no field '" + segment + "'");
+            }
+        }
+        final GraphQLType target = GraphQLTypeUtil.unwrapNonNull(type);
+        if (!(target instanceof GraphQLScalarType scalar) || !this.uploadTypeName.equals(scalar.getName())) {
+            throw invalid(fileKey, path, "expected " + this.uploadTypeName + " but found " + GraphQLTypeUtil.simplePrint(type));
+        }
+    }
+
+    /**
+     * Resolve the variable types of every operation of a document.
+     * @param query document source
+     * @return variable types by operation name (`""` for an anonymous operation); a `null` type marks a variable of
+     * an unknown type
+     */
+    private Map<String, Map<String, GraphQLInputType>> variableTypes(final String query) {
+        final Document document;
+        try {
+            document = this.parser.apply(query);
+        } catch (final GraphQLException e) {
+            log.trace("Skipping upload path validation of a document that does not parse.", e);
+            return Map.of();
+        }
+        final Map<String, Map<String, GraphQLInputType>> operations = new HashMap<>();
+        for (final OperationDefinition definition : document.getDefinitionsOfType(OperationDefinition.class)) {
+            final Map<String, GraphQLInputType> variables = new HashMap<>();
+            for (final VariableDefinition variable : definition.getVariableDefinitions()) {
+                variables.put(variable.getName(), inputType(variable.getType()));
+            }
+            operations.put(definition.getName() != null ? definition.getName() : ANONYMOUS, variables);
+        }
+        return operations;
+    }
+
+    private GraphQLInputType inputType(final Type<?> type) {
+        if (type instanceof NonNullType nonNull) {
+            final GraphQLInputType wrapped = inputType(nonNull.getType());
+            return wrapped == null ? null : GraphQLNonNull.nonNull(wrapped);
+        }
+        if (type instanceof ListType list) {
+            final GraphQLInputType wrapped = inputType(list.getType());
+            return wrapped == null ? null : GraphQLList.list(wrapped);
+        }
+        return type instanceof TypeName name && this.schema.getType(name.getName()) instanceof GraphQLInputType input ? input : null;
+    }
+
+    private static boolean isIndex(final String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static GraphQlMultipartException invalid(final String fileKey, final List<String> path, final String reason) {
+        return GraphQlMultipartException.invalidRequest("Multipart map entry " + fileKey + " can not bind an upload to variables."
+                + String.join(".", path) + ": " + reason + ".");
+    }
+}
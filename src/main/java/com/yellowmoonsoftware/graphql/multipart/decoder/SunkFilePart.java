@@ -0,0 +1,99 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+/**
+ * <h2>SunkFilePart</h2>
+ * {@link FilePart} standing in for an upload already written to an {@link UploadSink}, used while collecting parts in
+ * `sink` mode.  Its {@link #bind() reference} is bound into variables instead of the part; {@link #delete()} deletes
+ * the written object.
+ */
+final class SunkFilePart implements FilePart {
+    private final UploadReference reference;
+    private final UploadSink sink;
+    private volatile boolean bound;
+
+    /**
+     * Create a part for a written upload.
+     * @param reference reference to the written object
+     * @param sink sink the object was written to
+     */
+    SunkFilePart(final UploadReference reference, final UploadSink sink) {
+        this.reference = reference;
+        this.sink = sink;
+    }
+
+    /**
+     * Mark the upload as bound into variables.
+     * @return reference to bind in place of the part
+     */
+    UploadReference bind() {
+        this.bound = true;
+        return this.reference;
+    }
+
+    /**
+     * Copy of this part whose reference also carries the given digests.
+     * @param digests digests computed while the content was written
+     * @return part with digests
+     */
+    SunkFilePart withDigests(final ContentDigests digests) {
+        return new SunkFilePart(this.reference.withDigests(this.reference.digests().with(digests)), this.sink);
+    }
+
+    /**
+     * Whether the upload has been bound into variables; unbound uploads are deleted with the request.
+     * @return `true` once {@link #bind()} has been called
+     */
+    boolean isBound() {
+        return this.bound;
+    }
+
+    @Override
+    public @NonNull String name() {
+        return this.reference.name();
+    }
+
+    @Override
+    public @NonNull String filename() {
+        return this.reference.filename();
+    }
+
+    @Override
+    public @NonNull HttpHeaders headers() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(this.reference.contentType());
+        headers.setContentLength(this.reference.contentLength());
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        return Flux.error(new IllegalStateException("Upload " + name() + " has been written to " + this.reference.location() + "."));
+    }
+
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        return Mono.error(new IllegalStateException("Upload " + name() + " has been written to " + this.reference.location() + "."));
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return this.sink.delete(this.reference);
+    }
+
+    @Override
+    public String toString() {
+        return "SunkFilePart{" + this.reference + "}";
+    }
+}
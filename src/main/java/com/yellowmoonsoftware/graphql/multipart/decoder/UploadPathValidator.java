@@ -0,0 +1,26 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>UploadPathValidator</h2>
+ * Check applied by {@link AbstractGraphQlMultipartDecoder} to every `map` path once `operations` and `map` have been
+ * decoded, before any file is bound or further parts are read.
+ * <p>
+ * Rejecting a path here fails the request while the body is still arriving, so the file parts of a request that
+ * could never execute are not received, stored or written to a sink.
+ */
+@FunctionalInterface
+public interface UploadPathValidator {
+    /**
+     * Check that an upload may be bound at the given variable path.
+     * @param operation decoded operation (`query`, `operationName`, `variables`, ...)
+     * @param fileKey `map` key of the file, for error messages
+     * @param path path below `variables`: the variable name followed by input field names and list indices
+     * @throws GraphQlMultipartException when the path can not receive an upload
+     */
+    void validate(Map<String, Object> operation, String fileKey, List<String> path);
+}
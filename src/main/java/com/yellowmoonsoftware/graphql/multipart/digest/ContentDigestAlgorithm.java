@@ -0,0 +1,122 @@
+package com.yellowmoonsoftware.graphql.multipart.digest;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+
+/**
+ * <h2>ContentDigestAlgorithm</h2>
+ * Digest algorithms that may be computed over upload content while it is received.
+ */
+@Getter
+public enum ContentDigestAlgorithm {
+    /**
+     * SHA-256, suitable for integrity checks and content addressing.
+     */
+    SHA_256("sha-256") {
+        @Override
+        Accumulator accumulator() {
+            return messageDigest("SHA-256");
+        }
+    },
+    /**
+     * MD5, as sent by clients in `Content-MD5`.
+     */
+    MD5("md5") {
+        @Override
+        Accumulator accumulator() {
+            return messageDigest("MD5");
+        }
+    },
+    /**
+     * CRC-32C (Castagnoli) checksum, as used by object stores; the value is the big-endian 32-bit checksum.
+     */
+    CRC32C("crc32c") {
+        @Override
+        Accumulator accumulator() {
+            final CRC32C checksum = new CRC32C();
+            return new Accumulator() {
+                @Override
+                public void update(final ByteBuffer bytes) {
+                    checksum.update(bytes);
+                }
+
+                @Override
+                public byte[] finish() {
+                    return ByteBuffer.allocate(Integer.BYTES).putInt((int) checksum.getValue()).array();
+                }
+            };
+        }
+    };
+
+    /**
+     * Algorithm key of `Repr-Digest`, `Content-Digest` and `Digest` headers, e.g. `sha-256`.
+     */
+    private final String token;
+
+    ContentDigestAlgorithm(final String token) {
+        this.token = token;
+    }
+
+    /**
+     * Look up an algorithm by its header token, ignoring case.
+     * @param token algorithm key, e.g. `sha-256` or `SHA-256`
+     * @return the algorithm, or `null` when not supported
+     */
+    public static ContentDigestAlgorithm fromToken(final String token) {
+        final String normalized = token.trim().toLowerCase(Locale.ROOT);
+        for (final ContentDigestAlgorithm algorithm : values()) {
+            if (algorithm.token.equals(normalized)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a fresh accumulator for this algorithm.
+     * @return accumulator
+     */
+    abstract Accumulator accumulator();
+
+    private static Accumulator messageDigest(final String name) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(name);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Digest algorithm " + name + " is not available.", e);
+        }
+        return new Accumulator() {
+            @Override
+            public void update(final ByteBuffer bytes) {
+                digest.update(bytes);
+            }
+
+            @Override
+            public byte[] finish() {
+                return digest.digest();
+            }
+        };
+    }
+
+    /**
+     * Incremental state of a single digest.
+     */
+    interface Accumulator {
+        /**
+         * Add the remaining bytes of the buffer, advancing its position.
+         * @param bytes content bytes
+         */
+        void update(ByteBuffer bytes);
+
+        /**
+         * Complete the digest.
+         * @return digest value
+         */
+        byte[] finish();
+    }
+}
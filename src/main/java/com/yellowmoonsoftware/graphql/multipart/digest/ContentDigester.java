@@ -0,0 +1,56 @@
+package com.yellowmoonsoftware.graphql.multipart.digest;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h2>ContentDigester</h2>
+ * Computes {@link ContentDigests} incrementally over the buffers of one upload as they pass through.
+ * <p>
+ * Buffers are read through views, so their read position is left untouched and they can be handed on unchanged.
+ * A digester is not thread-safe; the buffers of one part arrive sequentially.
+ */
+public final class ContentDigester {
+    private final Map<ContentDigestAlgorithm, ContentDigestAlgorithm.Accumulator> accumulators =
+            new EnumMap<>(ContentDigestAlgorithm.class);
+
+    /**
+     * Create a digester computing the given algorithms.
+     * @param algorithms algorithms to compute; may be empty
+     */
+    public ContentDigester(final Set<ContentDigestAlgorithm> algorithms) {
+        algorithms.forEach(algorithm -> this.accumulators.put(algorithm, algorithm.accumulator()));
+    }
+
+    /**
+     * Add the readable bytes of a buffer to every digest without consuming them.
+     * @param buffer content buffer
+     */
+    public void update(final DataBuffer buffer) {
+        if (this.accumulators.isEmpty()) {
+            return;
+        }
+        try (DataBuffer.ByteBufferIterator byteBuffers = buffer.readableByteBuffers()) {
+            while (byteBuffers.hasNext()) {
+                final ByteBuffer byteBuffer = byteBuffers.next();
+                for (final ContentDigestAlgorithm.Accumulator accumulator : this.accumulators.values()) {
+                    accumulator.update(byteBuffer.duplicate());
+                }
+            }
+        }
+    }
+
+    /**
+     * Complete every digest; the digester must not be used afterwards.
+     * @return computed digests
+     */
+    public ContentDigests finish() {
+        final Map<ContentDigestAlgorithm, byte[]> values = new EnumMap<>(ContentDigestAlgorithm.class);
+        this.accumulators.forEach((algorithm, accumulator) -> values.put(algorithm, accumulator.finish()));
+        return new ContentDigests(values);
+    }
+}
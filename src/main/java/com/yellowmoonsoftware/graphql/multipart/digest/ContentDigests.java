@@ -0,0 +1,218 @@
+package com.yellowmoonsoftware.graphql.multipart.digest;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import org.springframework.http.HttpHeaders;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * <h2>ContentDigests</h2>
+ * Digests of an upload's content, computed by a {@link ContentDigester} while the content was received or declared
+ * by the client.
+ * <ul>
+ * <li>Values are available as raw bytes, lowercase hex ({@link #hex}) or base64 ({@link #base64}).</li>
+ * <li>{@link #verify} checks them against the digests a client {@link #declared declared} in the part headers.</li>
+ * </ul>
+ */
+public final class ContentDigests {
+    /**
+     * Headers carrying `algorithm=value` lists of declared digests: `Repr-Digest` and `Content-Digest`
+     * (structured byte sequences, e.g. `sha-256=:...:`) and the legacy `Digest` (e.g. `SHA-256=...`).
+     */
+    public static final List<String> DIGEST_HEADERS = List.of("Repr-Digest", "Content-Digest", "Digest");
+
+    /**
+     * Header carrying the base64 MD5 of the content.
+     */
+    public static final String CONTENT_MD5 = "Content-MD5";
+
+    /**
+     * No digests, e.g. when digest computation is disabled or the content has not been fully received yet.
+     */
+    public static final ContentDigests NONE = new ContentDigests(Map.of());
+
+    private final Map<ContentDigestAlgorithm, byte[]> values;
+
+    /**
+     * Create digests from computed values, taking ownership of the arrays.
+     * @param values digest values keyed by algorithm
+     */
+    ContentDigests(final Map<ContentDigestAlgorithm, byte[]> values) {
+        this.values = values.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(values));
+    }
+
+    /**
+     * Whether no digest has been computed.
+     * @return `true` when empty
+     */
+    public boolean isEmpty() {
+        return this.values.isEmpty();
+    }
+
+    /**
+     * Algorithms with a computed digest.
+     * @return algorithms
+     */
+    public Set<ContentDigestAlgorithm> algorithms() {
+        return this.values.keySet();
+    }
+
+    /**
+     * Raw digest value.
+     * @param algorithm algorithm
+     * @return copy of the digest, or `null` when not computed
+     */
+    public byte[] get(final ContentDigestAlgorithm algorithm) {
+        final byte[] value = this.values.get(algorithm);
+        return value == null ? null : value.clone();
+    }
+
+    /**
+     * Digest value as lowercase hex, as commonly used for content addressing.
+     * @param algorithm algorithm
+     * @return hex digest, or `null` when not computed
+     */
+    public String hex(final ContentDigestAlgorithm algorithm) {
+        final byte[] value = this.values.get(algorithm);
+        return value == null ? null : HexFormat.of().formatHex(value);
+    }
+
+    /**
+     * Digest value as base64, as used by `Content-MD5` and `Repr-Digest`.
+     * @param algorithm algorithm
+     * @return base64 digest, or `null` when not computed
+     */
+    public String base64(final ContentDigestAlgorithm algorithm) {
+        final byte[] value = this.values.get(algorithm);
+        return value == null ? null : Base64.getEncoder().encodeToString(value);
+    }
+
+    /**
+     * Combine these digests with others.
+     * @param other digests to add; their values take precedence
+     * @return combined digests
+     */
+    public ContentDigests with(final ContentDigests other) {
+        if (other.values.isEmpty()) {
+            return this;
+        }
+        if (this.values.isEmpty()) {
+            return other;
+        }
+        final Map<ContentDigestAlgorithm, byte[]> combined = new EnumMap<>(this.values);
+        combined.putAll(other.values);
+        return new ContentDigests(combined);
+    }
+
+    /**
+     * Parse the digests a client declared in `Content-MD5` and the {@link #DIGEST_HEADERS} of a part.
+     * <p>
+     * Declared digests of unknown algorithms are ignored.
+     * @param name multipart field name, used in error messages
+     * @param headers part headers
+     * @return declared digests
+     * @throws GraphQlMultipartException with {@link GraphQlMultipartException#INVALID_REQUEST} code when a declared
+     * digest is malformed or the headers declare different values for one algorithm
+     */
+    public static ContentDigests declared(final String name, final HttpHeaders headers) {
+        final Map<ContentDigestAlgorithm, byte[]> declared = new EnumMap<>(ContentDigestAlgorithm.class);
+        final String contentMd5 = headers.getFirst(CONTENT_MD5);
+        if (contentMd5 != null) {
+            declare(declared, name, ContentDigestAlgorithm.MD5, contentMd5);
+        }
+        for (final String header : DIGEST_HEADERS) {
+            for (final String value : headers.getValuesAsList(header)) {
+                final int separator = value.indexOf('=');
+                if (separator <= 0) {
+                    throw GraphQlMultipartException.invalidRequest("Malformed " + header + " header of multipart part " + name + ".");
+                }
+                final ContentDigestAlgorithm algorithm = ContentDigestAlgorithm.fromToken(value.substring(0, separator));
+                if (algorithm != null) {
+                    declare(declared, name, algorithm, value.substring(separator + 1));
+                }
+            }
+        }
+        return declared.isEmpty() ? NONE : new ContentDigests(declared);
+    }
+
+    /**
+     * Check the digests against those {@link #declared declared} in the headers of a part.
+     * <p>
+     * Only computed algorithms are checked; declared digests of other algorithms are ignored.
+     * @param name multipart field name, used in the error message
+     * @param headers part headers
+     * @throws GraphQlMultipartException with {@link GraphQlMultipartException#DIGEST_MISMATCH} code when a declared
+     * digest differs from the computed one, or {@link GraphQlMultipartException#INVALID_REQUEST} when it is malformed
+     */
+    public void verify(final String name, final HttpHeaders headers) {
+        if (this.values.isEmpty()) {
+            return;
+        }
+        declared(name, headers).values.forEach((algorithm, expected) -> {
+            final byte[] computed = this.values.get(algorithm);
+            if (computed != null && !MessageDigest.isEqual(computed, expected)) {
+                throw GraphQlMultipartException.digestMismatch("Content of multipart part " + name + " does not match its declared "
+                        + algorithm.getToken() + " digest.");
+            }
+        });
+    }
+
+    private static void declare(final Map<ContentDigestAlgorithm, byte[]> declared, final String name,
+                                final ContentDigestAlgorithm algorithm, final String value) {
+        String encoded = value.trim();
+        final int parameters = encoded.indexOf(';');
+        if (parameters >= 0) {
+            encoded = encoded.substring(0, parameters).trim();
+        }
+        if (encoded.length() >= 2 && encoded.startsWith(":") && encoded.endsWith(":")) {
+            encoded = encoded.substring(1, encoded.length() - 1);
+        }
+        final byte[] digest;
+        try {
+            digest = Base64.getDecoder().decode(encoded);
+        } catch (final IllegalArgumentException e) {
+            throw GraphQlMultipartException.invalidRequest("Malformed " + algorithm.getToken() + " digest of multipart part " + name + ".");
+        }
+        final byte[] previous = declared.putIfAbsent(algorithm, digest);
+        if (previous != null && !MessageDigest.isEqual(previous, digest)) {
+            throw GraphQlMultipartException.invalidRequest("Conflicting " + algorithm.getToken() + " digests declared for multipart part " + name + ".");
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ContentDigests that) || !this.values.keySet().equals(that.values.keySet())) {
+            return false;
+        }
+        return this.values.entrySet().stream()
+                .allMatch(entry -> MessageDigest.isEqual(entry.getValue(), that.values.get(entry.getKey())));
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (final Map.Entry<ContentDigestAlgorithm, byte[]> entry : this.values.entrySet()) {
+            hash += entry.getKey().hashCode() ^ Arrays.hashCode(entry.getValue());
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(", ", "ContentDigests{", "}");
+        this.values.keySet().forEach(algorithm -> joiner.add(algorithm.getToken() + "=" + hex(algorithm)));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.yellowmoonsoftware.graphql.multipart.digest;
+
+/**
+ * <h2>DigestedContent</h2>
+ * Upload whose {@link ContentDigests} were computed while its content was received.
+ */
+public interface DigestedContent {
+    /**
+     * Digests of the content.
+     * @return computed digests; {@link ContentDigests#NONE} when disabled or not yet fully received
+     */
+    ContentDigests digests();
+}
@@ -0,0 +1,160 @@
+package com.yellowmoonsoftware.graphql.multipart.document;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.language.Document;
+import graphql.parser.Parser;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ConcurrentLruCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <h2>GraphQlDocumentCache</h2>
+ * Bounded, concurrent LRU caches of parsed and validated GraphQL documents, keyed by query string.
+ * <ul>
+ * <li>As a {@link PreparsedDocumentProvider} it lets GraphQL skip parsing and validation of documents it has already
+ * validated.  A document is only cached once it has validated, so invalid or unknown documents can not crowd out
+ * valid ones.  Documents it has not validated yet are handed to the `delegate` provider, when set.</li>
+ * <li>{@link #parse(String)} serves validated documents to checks running before execution, such as upload path
+ * validation while the multipart body is still arriving, and keeps the documents it parses itself in a cache of their
+ * own until they have validated.</li>
+ * </ul>
+ * Each cache keeps at most `maxEntries` documents; the least recently used is evicted first.
+ */
+@Slf4j
+public class GraphQlDocumentCache implements PreparsedDocumentProvider {
+    /**
+     * Default maximum number of cached documents.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+
+    /**
+     * Maximum number of validated documents, and of parsed documents not validated yet.
+     */
+    @Getter
+    private final int maxEntries;
+
+    /**
+     * Provider parsing and validating documents missing from the cache, e.g. the application's own provider; GraphQL
+     * parses and validates them itself when `null` (the default).
+     */
+    @Getter
+    @Setter
+    private PreparsedDocumentProvider delegate;
+
+    /**
+     * Validated documents; an entry is created empty once its document has validated and then holds it.
+     */
+    private final ConcurrentLruCache<String, AtomicReference<PreparsedDocumentEntry>> validated;
+
+    /**
+     * Documents parsed before execution that have not validated yet; an entry is created empty once its document has
+     * parsed and then holds it.
+     */
+    private final ConcurrentLruCache<String, AtomicReference<Document>> parsed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a cache of the {@link #DEFAULT_MAX_ENTRIES default} size.
+     */
+    public GraphQlDocumentCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache.
+     * @param maxEntries maximum number of validated documents, and of parsed documents not validated yet
+     * @throws IllegalArgumentException when `maxEntries` is negative
+     */
+    public GraphQlDocumentCache(final int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.validated = new ConcurrentLruCache<>(maxEntries, query -> new AtomicReference<>());
+        this.parsed = new ConcurrentLruCache<>(maxEntries, query -> new AtomicReference<>());
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(final ExecutionInput executionInput,
+                                                                      final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        final String query = executionInput.getQuery();
+        final PreparsedDocumentEntry cached = query == null ? null : lookup(this.validated, query);
+        if (cached != null) {
+            this.hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        this.misses.increment();
+        final CompletableFuture<PreparsedDocumentEntry> result = this.delegate != null
+                ? this.delegate.getDocumentAsync(executionInput, parseAndValidateFunction)
+                : CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+        return result.thenApply(entry -> {
+            if (query != null && !entry.hasErrors()) {
+                this.validated.get(query).set(entry);
+                this.parsed.remove(query);
+                log.trace("Cached validated GraphQL document of {} characters.", query.length());
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Parse a document, reusing the cached parse of the same query.
+     * @param query document source
+     * @return parsed, but not necessarily validated, document
+     * @throws graphql.parser.InvalidSyntaxException when the document does not parse
+     */
+    public Document parse(final String query) {
+        final PreparsedDocumentEntry validatedEntry = lookup(this.validated, query);
+        final Document cached = validatedEntry != null ? validatedEntry.getDocument() : lookup(this.parsed, query);
+        if (cached != null) {
+            this.hits.increment();
+            return cached;
+        }
+        this.misses.increment();
+        final Document document = Parser.parse(query);
+        this.parsed.get(query).set(document);
+        log.trace("Cached parsed GraphQL document of {} characters.", query.length());
+        return document;
+    }
+
+    /**
+     * Number of cached documents, validated or only parsed.
+     * @return cache size
+     */
+    public int getSize() {
+        return this.validated.size() + this.parsed.size();
+    }
+
+    /**
+     * Number of lookups served from the cache.
+     * @return cache hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Number of lookups that had to parse the document.
+     * @return cache misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Look up a cached value without creating an entry, so misses don't evict cached documents.
+     */
+    private static <V> V lookup(final ConcurrentLruCache<String, AtomicReference<V>> cache, final String query) {
+        return cache.contains(query) ? cache.get(query).get() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+/**
+ * <h2>ContentCoding</h2>
+ * Content coding a multipart part may be sent in, identified by its `Content-Encoding` token.
+ * <p>
+ * The codings of the JDK are provided by {@link StandardContentCoding}.  Others, e.g. `zstd` or `br` backed by a
+ * native library, are added by implementing this interface over the library's streaming decompressor and registering
+ * the implementation with a {@link PartContentDecoder}.
+ */
+public interface ContentCoding {
+    /**
+     * `Content-Encoding` token of the coding, matched case-insensitively, e.g. `gzip`.
+     * @return coding token
+     */
+    String getToken();
+
+    /**
+     * Create a decompressor for the content of a single part.
+     * @return new decompressor, closed once the part has been decoded
+     */
+    ContentDecompressor decompressor();
+}
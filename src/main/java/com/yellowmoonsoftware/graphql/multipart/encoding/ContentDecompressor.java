@@ -0,0 +1,47 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <h2>ContentDecompressor</h2>
+ * Stateful decompressor of the content of one part, fed the encoded bytes as they arrive and drained into output
+ * buffers of bounded size.
+ * <p>
+ * The contract follows {@link java.util.zip.Inflater}: input is handed over whenever {@link #needsInput()} is `true`
+ * and is consumed by advancing its position; {@link #decompress(ByteBuffer)} is called until it produces no output.
+ * A decompressor is not thread-safe; the buffers of one part arrive sequentially.
+ */
+public interface ContentDecompressor extends AutoCloseable {
+    /**
+     * Hand over the next encoded bytes; only called when {@link #needsInput()} is `true`.
+     * @param input encoded bytes, consumed by advancing the buffer's position
+     */
+    void setInput(ByteBuffer input);
+
+    /**
+     * Whether all input handed over has been consumed and more is needed to make progress.
+     * @return `true` when more input is needed
+     */
+    boolean needsInput();
+
+    /**
+     * Decompress as many bytes as fit into the output buffer.
+     * @param output buffer receiving the decoded bytes at its position
+     * @return number of bytes written; `0` when more input is needed or the content is complete
+     * @throws IOException when the input is not valid encoded content
+     */
+    int decompress(ByteBuffer output) throws IOException;
+
+    /**
+     * Whether the input consumed so far forms complete encoded content.
+     * @return `true` once the end of the content has been decoded
+     */
+    boolean isFinished();
+
+    /**
+     * Release the resources held by the decompressor; further calls fail.
+     */
+    @Override
+    void close();
+}
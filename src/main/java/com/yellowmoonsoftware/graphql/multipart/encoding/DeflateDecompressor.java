@@ -0,0 +1,69 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * <h2>DeflateDecompressor</h2>
+ * Decompressor of `deflate` content.  Whether the content carries a zlib header is detected from its first bytes, so
+ * raw deflate streams are accepted as well.
+ */
+final class DeflateDecompressor implements ContentDecompressor {
+    private Inflater inflater;
+
+    @Override
+    public void setInput(final ByteBuffer input) {
+        if (this.inflater == null) {
+            this.inflater = new Inflater(!isZlib(input));
+        }
+        this.inflater.setInput(input);
+    }
+
+    @Override
+    public boolean needsInput() {
+        return this.inflater == null || !this.inflater.finished() && this.inflater.needsInput();
+    }
+
+    @Override
+    public int decompress(final ByteBuffer output) throws ZipException {
+        if (this.inflater == null) {
+            return 0;
+        }
+        try {
+            final int decompressed = this.inflater.inflate(output);
+            if (decompressed == 0 && this.inflater.needsDictionary()) {
+                throw new ZipException("deflate content requiring a preset dictionary is not supported");
+            }
+            return decompressed;
+        } catch (final DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return this.inflater != null && this.inflater.finished();
+    }
+
+    @Override
+    public void close() {
+        if (this.inflater != null) {
+            this.inflater.end();
+        }
+    }
+
+    /**
+     * Check for a zlib header: compression method 8 with a window of at most 32K, and a header checksum divisible by
+     * 31 when the second byte is available.
+     */
+    private static boolean isZlib(final ByteBuffer input) {
+        final int position = input.position();
+        final int cmf = input.get(position) & 0xff;
+        if ((cmf & 0x0f) != 8 || (cmf >> 4) > 7) {
+            return false;
+        }
+        return input.remaining() < 2 || ((cmf << 8) | (input.get(position + 1) & 0xff)) % 31 == 0;
+    }
+}
@@ -0,0 +1,208 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * <h2>GzipDecompressor</h2>
+ * Decompressor of `gzip` content.
+ * <p>
+ * Member headers and trailers are parsed incrementally, so they may be split across any number of input buffers; the
+ * deflate body of each member is inflated with a raw {@link Inflater}.  The CRC-32 and size of every member are
+ * checked against its trailer.
+ */
+final class GzipDecompressor implements ContentDecompressor {
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private enum Stage { HEADER, EXTRA_LENGTH, EXTRA, NAME, COMMENT, HEADER_CRC, BODY, TRAILER, END }
+
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] field = new byte[10];
+    private int filled;
+    private int flags;
+    private long skip;
+    private long size;
+    private Stage stage = Stage.HEADER;
+    private ByteBuffer input;
+
+    @Override
+    public void setInput(final ByteBuffer input) {
+        this.input = input;
+        if (this.stage == Stage.BODY) {
+            this.inflater.setInput(input);
+        }
+    }
+
+    @Override
+    public boolean needsInput() {
+        return this.stage == Stage.BODY ? this.inflater.needsInput() : this.input == null || !this.input.hasRemaining();
+    }
+
+    @Override
+    public int decompress(final ByteBuffer output) throws ZipException {
+        for (;;) {
+            switch (this.stage) {
+                case BODY -> {
+                    final int start = output.position();
+                    final int decompressed = inflate(output);
+                    if (decompressed > 0) {
+                        this.crc.update(output.duplicate().flip().position(start));
+                        this.size += decompressed;
+                        return decompressed;
+                    }
+                    if (!this.inflater.finished()) {
+                        return 0;
+                    }
+                    this.stage = Stage.TRAILER;
+                }
+                case TRAILER -> {
+                    if (!fill(8)) {
+                        return 0;
+                    }
+                    if (littleEndian(0) != this.crc.getValue() || littleEndian(4) != (this.size & 0xffffffffL)) {
+                        throw new ZipException("gzip trailer does not match the decompressed content");
+                    }
+                    this.stage = Stage.END;
+                }
+                case END -> {
+                    if (this.input == null || !this.input.hasRemaining()) {
+                        return 0;
+                    }
+                    this.inflater.reset();
+                    this.crc.reset();
+                    this.size = 0;
+                    this.stage = Stage.HEADER;
+                }
+                default -> {
+                    if (!readHeader()) {
+                        return 0;
+                    }
+                    this.inflater.setInput(this.input);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return this.stage == Stage.END;
+    }
+
+    @Override
+    public void close() {
+        this.inflater.end();
+    }
+
+    private int inflate(final ByteBuffer output) throws ZipException {
+        try {
+            final int decompressed = this.inflater.inflate(output);
+            if (decompressed == 0 && this.inflater.needsDictionary()) {
+                throw new ZipException("gzip content requiring a preset dictionary is not valid");
+            }
+            return decompressed;
+        } catch (final DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    /**
+     * Consume the member header as far as the input allows.
+     * @return `true` once the header is complete and the body follows
+     */
+    private boolean readHeader() throws ZipException {
+        while (this.stage != Stage.BODY) {
+            switch (this.stage) {
+                case HEADER -> {
+                    if (!fill(10)) {
+                        return false;
+                    }
+                    if ((this.field[0] & 0xff) != 0x1f || (this.field[1] & 0xff) != 0x8b) {
+                        throw new ZipException("content is not in gzip format");
+                    }
+                    if (this.field[2] != 8) {
+                        throw new ZipException("unsupported gzip compression method " + this.field[2]);
+                    }
+                    this.flags = this.field[3] & 0xff;
+                    this.stage = after(Stage.HEADER);
+                }
+                case EXTRA_LENGTH -> {
+                    if (!fill(2)) {
+                        return false;
+                    }
+                    this.skip = (this.field[0] & 0xff) | (this.field[1] & 0xff) << 8;
+                    this.stage = Stage.EXTRA;
+                }
+                case EXTRA -> {
+                    final int skipped = (int) Math.min(this.skip, this.input.remaining());
+                    this.input.position(this.input.position() + skipped);
+                    this.skip -= skipped;
+                    if (this.skip > 0) {
+                        return false;
+                    }
+                    this.stage = after(Stage.EXTRA);
+                }
+                case NAME, COMMENT -> {
+                    if (!skipZeroTerminated()) {
+                        return false;
+                    }
+                    this.stage = after(this.stage);
+                }
+                case HEADER_CRC -> {
+                    if (!fill(2)) {
+                        return false;
+                    }
+                    this.stage = Stage.BODY;
+                }
+                default -> throw new IllegalStateException("Unexpected gzip stage " + this.stage);
+            }
+        }
+        return true;
+    }
+
+    private Stage after(final Stage current) {
+        return switch (current) {
+            case HEADER -> (this.flags & FEXTRA) != 0 ? Stage.EXTRA_LENGTH : after(Stage.EXTRA);
+            case EXTRA -> (this.flags & FNAME) != 0 ? Stage.NAME : after(Stage.NAME);
+            case NAME -> (this.flags & FCOMMENT) != 0 ? Stage.COMMENT : after(Stage.COMMENT);
+            case COMMENT -> (this.flags & FHCRC) != 0 ? Stage.HEADER_CRC : Stage.BODY;
+            default -> Stage.BODY;
+        };
+    }
+
+    private boolean skipZeroTerminated() {
+        while (this.input.hasRemaining()) {
+            if (this.input.get() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collect the next fixed-length field into `field`, across as many input buffers as needed.
+     */
+    private boolean fill(final int length) {
+        while (this.filled < length) {
+            if (this.input == null || !this.input.hasRemaining()) {
+                return false;
+            }
+            this.field[this.filled++] = this.input.get();
+        }
+        this.filled = 0;
+        return true;
+    }
+
+    private long littleEndian(final int offset) {
+        return (this.field[offset] & 0xffL)
+                | (this.field[offset + 1] & 0xffL) << 8
+                | (this.field[offset + 2] & 0xffL) << 16
+                | (this.field[offset + 3] & 0xffL) << 24;
+    }
+}
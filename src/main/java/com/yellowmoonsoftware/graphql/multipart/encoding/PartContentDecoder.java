@@ -0,0 +1,274 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h2>PartContentDecoder</h2>
+ * Decodes the content of multipart parts sent with a `Content-Encoding` header as it streams through.
+ * <ul>
+ * <li>Each received buffer is decompressed lazily into chunks of at most `bufferSize` bytes, one chunk per request of
+ * the subscriber, so a highly compressed part never materialises more than one chunk ahead of its consumer.</li>
+ * <li>Once more than `ratioThreshold` bytes have been decoded, a part whose decoded size exceeds `maxRatio` times the
+ * bytes received so far fails with {@link GraphQlMultipartLimitExceededException}, stopping decompression bombs early.</li>
+ * <li>Parts in an unknown coding, or in more than one coding, fail with `415 Unsupported Media Type`; malformed
+ * content fails with `400 Bad Request`.</li>
+ * </ul>
+ * With `keepEncoded`, parts written to upload storage are stored as received and decoded each time they are read.
+ */
+@Slf4j
+public class PartContentDecoder {
+    /**
+     * `Content-Encoding` token of content that is not encoded.
+     */
+    public static final String IDENTITY = "identity";
+
+    /**
+     * Default `bufferSize`.
+     */
+    public static final DataSize DEFAULT_BUFFER_SIZE = DataSize.ofKilobytes(16);
+
+    /**
+     * Default `ratioThreshold`.
+     */
+    public static final DataSize DEFAULT_RATIO_THRESHOLD = DataSize.ofMegabytes(1);
+
+    private final Map<String, ContentCoding> codings = new LinkedHashMap<>();
+
+    /**
+     * Maximum size of each decoded buffer.
+     */
+    @Getter
+    @Setter
+    private DataSize bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Number of decoded bytes of a part below which its decompression ratio is not checked, so small but highly
+     * compressible parts are accepted.
+     */
+    @Getter
+    @Setter
+    private DataSize ratioThreshold = DEFAULT_RATIO_THRESHOLD;
+
+    /**
+     * Whether file parts written to upload storage are kept in their `Content-Encoding` and decoded when read, trading
+     * CPU on every read for less memory and disk used by stored uploads.
+     */
+    @Getter
+    @Setter
+    private boolean keepEncoded;
+
+    /**
+     * Create a decoder of the {@link StandardContentCoding standard codings}.
+     */
+    public PartContentDecoder() {
+        this(List.of(StandardContentCoding.values()));
+    }
+
+    /**
+     * Create a decoder of the given codings; a later coding replaces an earlier one of the same token.
+     * @param codings supported codings
+     */
+    public PartContentDecoder(final Collection<? extends ContentCoding> codings) {
+        codings.forEach(coding -> this.codings.put(coding.getToken().toLowerCase(Locale.ROOT), coding));
+    }
+
+    /**
+     * Tokens of the supported codings.
+     * @return lower-case coding tokens
+     */
+    public Set<String> getTokens() {
+        return Collections.unmodifiableSet(this.codings.keySet());
+    }
+
+    /**
+     * Whether a part declares a `Content-Encoding` other than `identity`.
+     * @param headers part headers
+     * @return `true` when the content of the part must be decoded
+     */
+    public boolean isEncoded(final HttpHeaders headers) {
+        return !encodings(headers).isEmpty();
+    }
+
+    /**
+     * Decode the content of a part according to its `Content-Encoding`.
+     * @param name multipart field name, reported on failure
+     * @param headers part headers declaring the coding
+     * @param content encoded content; every buffer is released once decoded
+     * @param maxRatio maximum ratio of decoded to received bytes, negative to disable the check
+     * @return decoded content, the content itself when not encoded; fails with {@link GraphQlMultipartException} for
+     * unsupported or malformed content
+     */
+    public Flux<DataBuffer> decode(final String name, final HttpHeaders headers, final Flux<DataBuffer> content, final long maxRatio) {
+        final List<String> encodings = encodings(headers);
+        if (encodings.isEmpty()) {
+            return content;
+        }
+        final ContentCoding coding = encodings.size() == 1 ? this.codings.get(normalize(encodings.get(0))) : null;
+        if (coding == null) {
+            return Flux.error(GraphQlMultipartException.unsupportedEncoding("Multipart part " + name
+                    + " has unsupported Content-Encoding " + String.join(", ", encodings) + "."));
+        }
+        return Flux.defer(() -> {
+            log.trace("Decoding {} content of multipart part {}.", coding.getToken(), name);
+            final Decompression decompression = new Decompression(name, coding, maxRatio);
+            return content.concatMap(decompression::decompress, 0)
+                    .concatWith(Mono.fromRunnable(decompression::finish))
+                    .doFinally(signal -> decompression.close());
+        });
+    }
+
+    /**
+     * Headers describing the decoded content of a part: `Content-Encoding` and `Content-Length` are removed.
+     * @param headers headers of the encoded part
+     * @return copy of the headers
+     */
+    public static HttpHeaders decodedHeaders(final HttpHeaders headers) {
+        final HttpHeaders decoded = HttpHeaders.copyOf(headers);
+        decoded.remove(HttpHeaders.CONTENT_ENCODING);
+        decoded.remove(HttpHeaders.CONTENT_LENGTH);
+        return decoded;
+    }
+
+    private static List<String> encodings(final HttpHeaders headers) {
+        return headers.getValuesAsList(HttpHeaders.CONTENT_ENCODING).stream()
+                .map(encoding -> encoding.trim().toLowerCase(Locale.ROOT))
+                .filter(encoding -> !encoding.isEmpty() && !IDENTITY.equals(encoding))
+                .toList();
+    }
+
+    /**
+     * Map `x-gzip` to `gzip`, as recipients are asked to by RFC 9110.
+     */
+    private static String normalize(final String encoding) {
+        return "x-gzip".equals(encoding) ? StandardContentCoding.GZIP.getToken() : encoding;
+    }
+
+    /**
+     * State of the decoding of one part.
+     */
+    private final class Decompression {
+        private final String name;
+        private final ContentCoding coding;
+        private final ContentDecompressor decompressor;
+        private final long maxRatio;
+        private final long threshold = ratioThreshold.toBytes();
+        private final int chunkSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, bufferSize.toBytes()));
+        private long received;
+        private long decoded;
+        private ByteBuffer input;
+
+        Decompression(final String name, final ContentCoding coding, final long maxRatio) {
+            this.name = name;
+            this.coding = coding;
+            this.decompressor = coding.decompressor();
+            this.maxRatio = maxRatio;
+        }
+
+        /**
+         * Decode one received buffer, producing a chunk per request and releasing the buffer once it is consumed.
+         */
+        Flux<DataBuffer> decompress(final DataBuffer buffer) {
+            return Flux.generate(buffer::readableByteBuffers,
+                    (byteBuffers, sink) -> {
+                        next(byteBuffers, sink);
+                        return byteBuffers;
+                    },
+                    byteBuffers -> {
+                        this.input = null;
+                        byteBuffers.close();
+                        DataBufferUtils.release(buffer);
+                    });
+        }
+
+        void finish() {
+            if (!this.decompressor.isFinished()) {
+                throw invalid("content ended before the end of the " + this.coding.getToken() + " stream");
+            }
+        }
+
+        void close() {
+            this.decompressor.close();
+        }
+
+        private void next(final Iterator<ByteBuffer> byteBuffers, final SynchronousSink<DataBuffer> sink) {
+            final ByteBuffer output = ByteBuffer.allocate(this.chunkSize);
+            try {
+                for (;;) {
+                    if (this.decompressor.needsInput()) {
+                        if (!nextInput(byteBuffers)) {
+                            sink.complete();
+                            return;
+                        }
+                        this.decompressor.setInput(this.input);
+                    }
+                    final int decompressed = this.decompressor.decompress(output);
+                    if (decompressed > 0) {
+                        checkRatio(decompressed);
+                        sink.next(DefaultDataBufferFactory.sharedInstance.wrap(output.flip()));
+                        return;
+                    }
+                    if (!this.decompressor.needsInput()) {
+                        if (!this.decompressor.isFinished()) {
+                            throw new IOException("decompression stalled");
+                        }
+                        if (nextInput(byteBuffers)) {
+                            throw new IOException("unexpected data after the end of the " + this.coding.getToken() + " stream");
+                        }
+                        sink.complete();
+                        return;
+                    }
+                }
+            } catch (final IOException e) {
+                sink.error(invalid(e.getMessage()));
+            }
+        }
+
+        private boolean nextInput(final Iterator<ByteBuffer> byteBuffers) {
+            while (this.input == null || !this.input.hasRemaining()) {
+                if (!byteBuffers.hasNext()) {
+                    return false;
+                }
+                this.input = byteBuffers.next();
+                this.received += this.input.remaining();
+            }
+            return true;
+        }
+
+        private void checkRatio(final int decompressed) {
+            this.decoded += decompressed;
+            if (this.maxRatio >= 0 && this.decoded > this.threshold
+                    && (this.maxRatio == 0 || this.decoded / this.maxRatio > this.received)) {
+                throw new GraphQlMultipartLimitExceededException(GraphQlMultipartLimits.MAX_DECOMPRESSION_RATIO, this.maxRatio);
+            }
+        }
+
+        private GraphQlMultipartException invalid(final String reason) {
+            return GraphQlMultipartException.invalidRequest("Multipart part " + this.name + " is not valid "
+                    + this.coding.getToken() + " content: " + reason + ".");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <h2>StandardContentCoding</h2>
+ * Content codings decoded with the `java.util.zip` {@link java.util.zip.Inflater}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StandardContentCoding implements ContentCoding {
+    /**
+     * `gzip` (RFC 1952), including content of several concatenated members.
+     */
+    GZIP("gzip") {
+        @Override
+        public ContentDecompressor decompressor() {
+            return new GzipDecompressor();
+        }
+    },
+    /**
+     * `deflate`: the zlib format (RFC 1950) or, as sent by some clients, raw deflate (RFC 1951).
+     */
+    DEFLATE("deflate") {
+        @Override
+        public ContentDecompressor decompressor() {
+            return new DeflateDecompressor();
+        }
+    };
+
+    /**
+     * `Content-Encoding` token of the coding.
+     */
+    private final String token;
+}
@@ -0,0 +1,82 @@
+package com.yellowmoonsoftware.graphql.multipart.metrics;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <h2>GraphQlMultipartMetrics</h2>
+ * Instrumentation hooks invoked by the multipart handler and decoders.
+ * <p>
+ * Every method defaults to a no-op so that {@link #NOOP} costs nothing when no metrics backend is configured.
+ */
+public interface GraphQlMultipartMetrics {
+    /**
+     * Instrumentation that records nothing.
+     */
+    GraphQlMultipartMetrics NOOP = new GraphQlMultipartMetrics() { };
+
+    /**
+     * Time and observe an asynchronous stage.
+     * @param stage pipeline stage
+     * @param source publisher performing the stage
+     * @param <T> emitted type
+     * @return instrumented publisher
+     */
+    default <T> Mono<T> observe(final GraphQlMultipartStage stage, final Mono<T> source) {
+        return source;
+    }
+
+    /**
+     * Time and observe a synchronous stage.
+     * @param stage pipeline stage
+     * @param action action performing the stage
+     * @param <T> result type
+     * @return the action's result
+     */
+    default <T> T observe(final GraphQlMultipartStage stage, final Supplier<T> action) {
+        return action.get();
+    }
+
+    /**
+     * Record the size of a multipart request body.
+     * @param bytes body size in bytes
+     */
+    default void recordRequestSize(final long bytes) { }
+
+    /**
+     * Record the number of file parts in a request.
+     * @param count file part count
+     */
+    default void recordFileCount(final long count) { }
+
+    /**
+     * Record the size of a single file part.
+     * @param bytes file size in bytes
+     */
+    default void recordFileSize(final long bytes) { }
+
+    /**
+     * Publish the state of the admission controller.
+     * @param queueDepth number of requests waiting for admission
+     * @param inFlightRequests number of admitted requests
+     * @param inFlightBytes declared bytes of admitted requests
+     */
+    default void bindAdmission(final IntSupplier queueDepth, final IntSupplier inFlightRequests, final LongSupplier inFlightBytes) { }
+
+    /**
+     * Record a request rejected by the admission controller.
+     * @param reason rejection reason, e.g. `queue-full`
+     */
+    default void recordAdmissionRejected(final String reason) { }
+
+    /**
+     * Publish the state of the decode scheduler.
+     * @param activeThreads number of decode threads running a task
+     * @param queuedTasks number of tasks waiting for a decode thread
+     * @param offloadedTasks number of tasks offloaded so far
+     */
+    default void bindDecodeScheduler(final IntSupplier activeThreads, final IntSupplier queuedTasks, final LongSupplier offloadedTasks) { }
+}
@@ -0,0 +1,43 @@
+package com.yellowmoonsoftware.graphql.multipart.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <h2>GraphQlMultipartStage</h2>
+ * Stages of the multipart GraphQL pipeline that are timed and observed by {@link GraphQlMultipartMetrics}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum GraphQlMultipartStage {
+    /**
+     * The whole request, from handler entry until the HTTP response has been built.
+     */
+    REQUEST("request"),
+    /**
+     * Reading and decoding of the multipart body into a batch: every part in `aggregated` mode, every file in `stored`
+     * and `sink` modes, and the parts up to `operations` and `map` in `streaming` mode.
+     */
+    MULTIPART_PARSE("multipart.parse"),
+    /**
+     * JSON decoding of the `operations` part.
+     */
+    OPERATIONS_DECODE("operations.decode"),
+    /**
+     * JSON decoding of the `map` part.
+     */
+    MAP_DECODE("map.decode"),
+    /**
+     * Injection of the mapped files into the operation variables.
+     */
+    FILE_INJECTION("file.injection"),
+    /**
+     * Execution of a single GraphQL operation.
+     */
+    EXECUTION("execution");
+
+    /**
+     * Tag value identifying the stage.
+     */
+    private final String tagValue;
+}
@@ -0,0 +1,240 @@
+package com.yellowmoonsoftware.graphql.multipart.metrics;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <h2>MicrometerGraphQlMultipartMetrics</h2>
+ * {@link GraphQlMultipartMetrics} backed by a Micrometer {@link MeterRegistry} and {@link ObservationRegistry}.
+ * <ul>
+ * <li>`graphql.multipart.stage` timer per {@link GraphQlMultipartStage}, tagged with `stage` and `outcome`.</li>
+ * <li>`graphql.multipart.request.size`, `graphql.multipart.files` and `graphql.multipart.file.size` distribution
+ * summaries.</li>
+ * <li>`graphql.multipart.admission.queue`, `graphql.multipart.admission.requests` and
+ * `graphql.multipart.admission.bytes` gauges and a `graphql.multipart.admission.rejected` counter tagged with
+ * `reason`, when an admission controller is bound.</li>
+ * <li>`graphql.multipart.decode.active` and `graphql.multipart.decode.queue` gauges and a
+ * `graphql.multipart.decode.offloaded` counter, when a decode scheduler is bound.</li>
+ * <li>A `graphql.multipart` {@link Observation} around each stage, with the stage as a low cardinality key value;
+ * the observation is placed in the Reactor context so nested observations (e.g. GraphQL execution) become children.</li>
+ * </ul>
+ */
+public class MicrometerGraphQlMultipartMetrics implements GraphQlMultipartMetrics {
+    /**
+     * Name of the stage timer.
+     */
+    public static final String STAGE_TIMER = "graphql.multipart.stage";
+    /**
+     * Name of the request size summary.
+     */
+    public static final String REQUEST_SIZE = "graphql.multipart.request.size";
+    /**
+     * Name of the file count summary.
+     */
+    public static final String FILE_COUNT = "graphql.multipart.files";
+    /**
+     * Name of the file size summary.
+     */
+    public static final String FILE_SIZE = "graphql.multipart.file.size";
+    /**
+     * Name of the admission queue depth gauge.
+     */
+    public static final String ADMISSION_QUEUE = "graphql.multipart.admission.queue";
+    /**
+     * Name of the admitted requests gauge.
+     */
+    public static final String ADMISSION_REQUESTS = "graphql.multipart.admission.requests";
+    /**
+     * Name of the admitted bytes gauge.
+     */
+    public static final String ADMISSION_BYTES = "graphql.multipart.admission.bytes";
+    /**
+     * Name of the admission rejection counter.
+     */
+    public static final String ADMISSION_REJECTED = "graphql.multipart.admission.rejected";
+    /**
+     * Name of the active decode threads gauge.
+     */
+    public static final String DECODE_ACTIVE = "graphql.multipart.decode.active";
+    /**
+     * Name of the queued decode tasks gauge.
+     */
+    public static final String DECODE_QUEUE = "graphql.multipart.decode.queue";
+    /**
+     * Name of the offloaded decode tasks counter.
+     */
+    public static final String DECODE_OFFLOADED = "graphql.multipart.decode.offloaded";
+    /**
+     * Name of the stage observations.
+     */
+    public static final String OBSERVATION_NAME = "graphql.multipart";
+
+    private static final String STAGE_TAG = "stage";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final String REASON_TAG = "reason";
+
+    private enum Outcome { SUCCESS, ERROR, CANCELLED }
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final Map<GraphQlMultipartStage, KeyValues> stageKeyValues = new EnumMap<>(GraphQlMultipartStage.class);
+    private final Map<GraphQlMultipartStage, Timer[]> stageTimers = new EnumMap<>(GraphQlMultipartStage.class);
+    private final DistributionSummary requestSize;
+    private final DistributionSummary fileCount;
+    private final DistributionSummary fileSize;
+    private final Map<String, Counter> admissionRejections = new ConcurrentHashMap<>();
+
+    /**
+     * Create instrumentation publishing to the given registries.
+     * @param meterRegistry registry receiving timers and distribution summaries
+     * @param observationRegistry registry receiving stage observations
+     */
+    public MicrometerGraphQlMultipartMetrics(final MeterRegistry meterRegistry, final ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        for (final GraphQlMultipartStage stage : GraphQlMultipartStage.values()) {
+            this.stageKeyValues.put(stage, KeyValues.of(STAGE_TAG, stage.getTagValue()));
+            final Timer[] timers = new Timer[Outcome.values().length];
+            for (final Outcome outcome : Outcome.values()) {
+                timers[outcome.ordinal()] = Timer.builder(STAGE_TIMER)
+                        .description("Duration of multipart GraphQL pipeline stages")
+                        .tag(STAGE_TAG, stage.getTagValue())
+                        .tag(OUTCOME_TAG, outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+            this.stageTimers.put(stage, timers);
+        }
+        this.requestSize = DistributionSummary.builder(REQUEST_SIZE)
+                .description("Size of multipart GraphQL request bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.fileCount = DistributionSummary.builder(FILE_COUNT)
+                .description("Number of file parts per multipart GraphQL request")
+                .baseUnit("files")
+                .register(meterRegistry);
+        this.fileSize = DistributionSummary.builder(FILE_SIZE)
+                .description("Size of multipart GraphQL file parts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> Mono<T> observe(final GraphQlMultipartStage stage, final Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            final Observation observation = start(stage, context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+            final Timer.Sample sample = Timer.start(this.meterRegistry);
+            // Stop before the terminal signal propagates so that nested stages stop before their parents.
+            return source
+                    .doOnSuccess(value -> stop(stage, Outcome.SUCCESS, sample, observation))
+                    .doOnError(error -> {
+                        observation.error(error);
+                        stop(stage, Outcome.ERROR, sample, observation);
+                    })
+                    .doOnCancel(() -> stop(stage, Outcome.CANCELLED, sample, observation))
+                    .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    @Override
+    public <T> T observe(final GraphQlMultipartStage stage, final Supplier<T> action) {
+        final Observation observation = start(stage, this.observationRegistry.getCurrentObservation());
+        final Timer.Sample sample = Timer.start(this.meterRegistry);
+        Outcome outcome = Outcome.ERROR;
+        try (Observation.Scope ignored = observation.openScope()) {
+            final T result = action.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (final RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            stop(stage, outcome, sample, observation);
+        }
+    }
+
+    @Override
+    public void recordRequestSize(final long bytes) {
+        this.requestSize.record(bytes);
+    }
+
+    @Override
+    public void recordFileCount(final long count) {
+        this.fileCount.record(count);
+    }
+
+    @Override
+    public void recordFileSize(final long bytes) {
+        this.fileSize.record(bytes);
+    }
+
+    @Override
+    public void bindAdmission(final IntSupplier queueDepth, final IntSupplier inFlightRequests, final LongSupplier inFlightBytes) {
+        Gauge.builder(ADMISSION_QUEUE, queueDepth::getAsInt)
+                .description("Multipart GraphQL requests waiting for admission")
+                .baseUnit("requests")
+                .register(this.meterRegistry);
+        Gauge.builder(ADMISSION_REQUESTS, inFlightRequests::getAsInt)
+                .description("Admitted multipart GraphQL requests in flight")
+                .baseUnit("requests")
+                .register(this.meterRegistry);
+        Gauge.builder(ADMISSION_BYTES, inFlightBytes::getAsLong)
+                .description("Declared bytes of admitted multipart GraphQL requests in flight")
+                .baseUnit("bytes")
+                .register(this.meterRegistry);
+    }
+
+    @Override
+    public void recordAdmissionRejected(final String reason) {
+        this.admissionRejections.computeIfAbsent(reason, r -> Counter.builder(ADMISSION_REJECTED)
+                        .description("Multipart GraphQL requests rejected by admission control")
+                        .tag(REASON_TAG, r)
+                        .register(this.meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void bindDecodeScheduler(final IntSupplier activeThreads, final IntSupplier queuedTasks, final LongSupplier offloadedTasks) {
+        Gauge.builder(DECODE_ACTIVE, activeThreads::getAsInt)
+                .description("Decode threads running multipart GraphQL decoding")
+                .baseUnit("threads")
+                .register(this.meterRegistry);
+        Gauge.builder(DECODE_QUEUE, queuedTasks::getAsInt)
+                .description("Multipart GraphQL decoding tasks waiting for a decode thread")
+                .baseUnit("tasks")
+                .register(this.meterRegistry);
+        FunctionCounter.builder(DECODE_OFFLOADED, offloadedTasks, LongSupplier::getAsLong)
+                .description("Multipart GraphQL decoding tasks moved off the calling thread")
+                .baseUnit("tasks")
+                .register(this.meterRegistry);
+    }
+
+    private Observation start(final GraphQlMultipartStage stage, final Observation parent) {
+        return Observation.createNotStarted(OBSERVATION_NAME, this.observationRegistry)
+                .contextualName("graphql multipart " + stage.getTagValue())
+                .lowCardinalityKeyValues(this.stageKeyValues.get(stage))
+                .parentObservation(parent)
+                .start();
+    }
+
+    private void stop(final GraphQlMultipartStage stage, final Outcome outcome, final Timer.Sample sample, final Observation observation) {
+        sample.stop(this.stageTimers.get(stage)[outcome.ordinal()]);
+        observation.stop();
+    }
+}
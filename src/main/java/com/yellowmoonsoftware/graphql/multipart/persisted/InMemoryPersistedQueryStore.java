@@ -0,0 +1,71 @@
+package com.yellowmoonsoftware.graphql.multipart.persisted;
+
+import lombok.Getter;
+import org.springframework.util.ConcurrentLruCache;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <h2>InMemoryPersistedQueryStore</h2>
+ * {@link PersistedQueryStore} keeping registered documents in a bounded, concurrent LRU cache of this JVM.
+ * <p>
+ * At most `maxEntries` documents are kept; the least recently used is forgotten first, and is registered again by
+ * the next client that uses it.
+ */
+public class InMemoryPersistedQueryStore implements PersistedQueryStore {
+    /**
+     * Default maximum number of registered documents.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+
+    /**
+     * Maximum number of registered documents.
+     */
+    @Getter
+    private final int maxEntries;
+
+    /**
+     * Registered documents by hash; an entry is created empty by {@link #put} and then holds its document.
+     */
+    private final ConcurrentLruCache<String, AtomicReference<String>> documents;
+
+    /**
+     * Create a store of the {@link #DEFAULT_MAX_ENTRIES default} size.
+     */
+    public InMemoryPersistedQueryStore() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a store.
+     * @param maxEntries maximum number of registered documents
+     * @throws IllegalArgumentException when `maxEntries` is negative
+     */
+    public InMemoryPersistedQueryStore(final int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.documents = new ConcurrentLruCache<>(maxEntries, sha256Hash -> new AtomicReference<>());
+    }
+
+    @Override
+    public Mono<String> get(final String sha256Hash) {
+        // Only look up registered hashes, so unknown hashes don't evict registered documents.
+        return Mono.fromSupplier(() -> this.documents.contains(sha256Hash) ? this.documents.get(sha256Hash).get() : null);
+    }
+
+    @Override
+    public Mono<Void> put(final String sha256Hash, final String document) {
+        return Mono.fromRunnable(() -> this.documents.get(sha256Hash).set(document));
+    }
+
+    /**
+     * Number of registered documents.
+     * @return store size
+     */
+    public int getSize() {
+        return this.documents.size();
+    }
+}
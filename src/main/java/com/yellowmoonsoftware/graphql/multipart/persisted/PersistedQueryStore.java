@@ -0,0 +1,47 @@
+package com.yellowmoonsoftware.graphql.multipart.persisted;
+
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * <h2>PersistedQueryStore</h2>
+ * Backend of automatic persisted queries: documents registered by clients under the SHA-256 hash of their text, so
+ * later requests may send `extensions.persistedQuery.sha256Hash` instead of the full `query`.
+ * <p>
+ * Implementations may be remote (e.g. a shared cache in front of several servers); both operations are asynchronous.
+ * Stores are free to forget documents at any time: clients answer `PersistedQueryNotFound` by sending the document
+ * again.
+ */
+public interface PersistedQueryStore {
+    /**
+     * Look up a registered document.
+     * @param sha256Hash lowercase hex SHA-256 hash of the document
+     * @return mono emitting the document, or empty when unknown
+     */
+    Mono<String> get(String sha256Hash);
+
+    /**
+     * Register a document; its hash has already been verified.
+     * @param sha256Hash lowercase hex SHA-256 hash of the document
+     * @param document document text
+     * @return mono completing once the document has been registered
+     */
+    Mono<Void> put(String sha256Hash, String document);
+
+    /**
+     * Compute the hash a document is registered under.
+     * @param document document text
+     * @return lowercase hex SHA-256 hash of the UTF-8 encoded document
+     */
+    static String hash(final String document) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import java.util.List;
+
+/**
+ * <h2>UploadProgress</h2>
+ * Sampled progress of a multipart request, as published by its {@link UploadProgressTracker}.
+ * @param id client-chosen progress id of the request
+ * @param state stage the request has reached
+ * @param contentLength declared `Content-Length` of the request, or `-1` when unknown
+ * @param receivedBytes bytes of the request body received so far
+ * @param files progress of each file part seen so far, in request order; empty in the `aggregated` decode mode
+ */
+public record UploadProgress(String id, State state, long contentLength, long receivedBytes, List<FileProgress> files) {
+    /**
+     * Whether the request has completed or failed, so its progress no longer changes.
+     * @return `true` when done
+     */
+    public boolean isDone() {
+        return this.state == State.COMPLETED || this.state == State.FAILED;
+    }
+
+    /**
+     * <h2>State</h2>
+     * Stages of a tracked request.
+     */
+    public enum State {
+        /**
+         * The body is being read.
+         */
+        RECEIVING,
+        /**
+         * The body has been read and the operations are executing.
+         */
+        PROCESSING,
+        /**
+         * A response has been produced.
+         */
+        COMPLETED,
+        /**
+         * The request failed or was cancelled.
+         */
+        FAILED
+    }
+
+    /**
+     * <h2>FileProgress</h2>
+     * Sampled progress of one file part.
+     * @param name name of the part
+     * @param filename client-supplied file name
+     * @param bytes bytes of the file handed to the decoder (and its storage or sink) so far
+     * @param complete whether the whole file has been handed over
+     */
+    public record FileProgress(String name, String filename, long bytes, boolean complete) {
+    }
+}
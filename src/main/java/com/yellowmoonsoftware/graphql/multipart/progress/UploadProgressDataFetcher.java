@@ -0,0 +1,33 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+
+/**
+ * <h2>UploadProgressDataFetcher</h2>
+ * Data fetcher of a subscription field publishing the progress of a multipart request, e.g.
+ * `uploadProgress(id: ID!): UploadProgress` on `Subscription`.
+ * <p>
+ * Publishes the same changes as {@link UploadProgressRegistry#watch(String)} for the `id` argument.
+ */
+@RequiredArgsConstructor
+public class UploadProgressDataFetcher implements DataFetcher<Publisher<UploadProgress>> {
+    /**
+     * Default name of the subscription field.
+     */
+    public static final String FIELD = "uploadProgress";
+
+    /**
+     * Name of the argument holding the progress id.
+     */
+    public static final String ID_ARGUMENT = "id";
+
+    private final UploadProgressRegistry registry;
+
+    @Override
+    public Publisher<UploadProgress> get(final DataFetchingEnvironment environment) {
+        return this.registry.watch(environment.getArgument(ID_ARGUMENT));
+    }
+}
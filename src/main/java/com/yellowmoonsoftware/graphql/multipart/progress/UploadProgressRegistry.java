@@ -0,0 +1,167 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h2>UploadProgressRegistry</h2>
+ * Lock-free registry of the progress of multipart requests, keyed by a progress id sent in the `Upload-Progress-Id`
+ * header.
+ * <ul>
+ * <li>Progress ids are issued by the registry as random UUIDs and start tracking a single request, so only the client
+ * that obtained an id can follow its request, and no client can take over or watch another's by choosing its id.
+ * An id not used within `retention` expires.</li>
+ * <li>The request pipeline counts received body bytes and, in the part-event decode modes, the bytes of each file
+ * into an {@link UploadProgressTracker}, publishing them every `sampleSize` bytes.</li>
+ * <li>Watchers poll the published counters every `interval` and only see changes, so a slow or numerous audience
+ * never slows the upload down.</li>
+ * <li>Progress of a finished request is kept for `retention`, so a watcher connecting late still sees its outcome.
+ * At most `maxEntries` ids are issued or tracked at once; no further ids are issued.</li>
+ * </ul>
+ */
+@Slf4j
+public class UploadProgressRegistry {
+    /**
+     * Request header carrying the issued progress id, and response header issuing it.
+     */
+    public static final String PROGRESS_ID = "Upload-Progress-Id";
+
+    /**
+     * Default `sampleSize`.
+     */
+    public static final DataSize DEFAULT_SAMPLE_SIZE = DataSize.ofKilobytes(64);
+
+    /**
+     * Default `interval`.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMillis(250);
+
+    /**
+     * Default `retention`.
+     */
+    public static final Duration DEFAULT_RETENTION = Duration.ofMinutes(1);
+
+    /**
+     * Default `maxEntries`.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * Number of bytes counted between two publications of a counter.
+     */
+    @Getter
+    @Setter
+    private DataSize sampleSize = DEFAULT_SAMPLE_SIZE;
+
+    /**
+     * Interval at which watchers poll the published counters.
+     */
+    @Getter
+    @Setter
+    private Duration interval = DEFAULT_INTERVAL;
+
+    /**
+     * Time the progress of a finished request is kept for; also the longest a watcher waits for an unknown id.
+     */
+    @Getter
+    @Setter
+    private Duration retention = DEFAULT_RETENTION;
+
+    /**
+     * Maximum number of issued ids and tracked requests, finished ones included.
+     */
+    @Getter
+    @Setter
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private final Map<String, UploadProgressTracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * Issue time of the ids not used by a request yet.
+     */
+    private final Map<String, Long> issued = new ConcurrentHashMap<>();
+    private volatile long nextSweep;
+
+    /**
+     * Issue a progress id for the client to send with its request.
+     * @return new progress id, or `null` when `maxEntries` ids are issued or tracked
+     */
+    public String issue() {
+        sweepExpired();
+        if (this.trackers.size() + this.issued.size() >= this.maxEntries) {
+            log.debug("Not issuing a progress id: {} requests are tracked.", this.maxEntries);
+            return null;
+        }
+        final String id = UUID.randomUUID().toString();
+        this.issued.put(id, System.currentTimeMillis());
+        return id;
+    }
+
+    /**
+     * Start tracking a request; each issued id tracks one request only.
+     * @param id progress id sent with the request
+     * @param contentLength declared `Content-Length` of the request, or `-1` when unknown
+     * @return tracker of the request, or `null` when the id was not issued, has expired or is already in use
+     */
+    public UploadProgressTracker start(final String id, final long contentLength) {
+        if (id == null || this.issued.remove(id) == null) {
+            log.debug("Not tracking the progress of a request with unknown progress id {}.", id);
+            return null;
+        }
+        final UploadProgressTracker tracker = new UploadProgressTracker(id, contentLength, Math.max(1, this.sampleSize.toBytes()));
+        this.trackers.put(id, tracker);
+        return tracker;
+    }
+
+    /**
+     * Latest published progress of a request.
+     * @param id progress id
+     * @return progress, empty when the request is unknown or expired
+     */
+    public Optional<UploadProgress> get(final String id) {
+        return Optional.ofNullable(this.trackers.get(id)).map(UploadProgressTracker::snapshot);
+    }
+
+    /**
+     * Watch the progress of a request, which may not have started yet.
+     * @param id progress id
+     * @return every change of the published progress, completing after the request is done or when it has not
+     * started within `retention`
+     */
+    public Flux<UploadProgress> watch(final String id) {
+        return Flux.interval(Duration.ZERO, this.interval)
+                .concatMap(tick -> Mono.justOrEmpty(get(id)))
+                .distinctUntilChanged()
+                .takeUntil(UploadProgress::isDone)
+                .timeout(Mono.delay(this.retention), progress -> Mono.never(), Flux.empty());
+    }
+
+    /**
+     * Number of tracked requests.
+     * @return registry size
+     */
+    public int getSize() {
+        return this.trackers.size();
+    }
+
+    private void sweepExpired() {
+        final long now = System.currentTimeMillis();
+        if (now < this.nextSweep) {
+            return;
+        }
+        final long retentionMillis = this.retention.toMillis();
+        this.nextSweep = now + Math.min(retentionMillis / 4, Duration.ofSeconds(10).toMillis());
+        this.trackers.values().removeIf(tracker -> tracker.isExpired(now, retentionMillis));
+        this.issued.values().removeIf(issuedAt -> issuedAt + retentionMillis < now);
+    }
+}
@@ -0,0 +1,169 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>UploadProgressTracker</h2>
+ * Byte counters of one multipart request, written by its pipeline and read by any number of watchers.
+ * <ul>
+ * <li>Counters are `volatile` fields written only by the request's (serialized) signals, so the body and the
+ * processing, which may run on other threads, read their exact totals when the body or the request ends.</li>
+ * <li>Watchers are only shown values published once `sampleBytes` more bytes have been counted, and whenever a file
+ * or the body ends, so they see a change per sample rather than per buffer and never contend with the pipeline.</li>
+ * </ul>
+ */
+public final class UploadProgressTracker {
+    private static final FileCounter[] NO_FILES = new FileCounter[0];
+
+    private final String id;
+    private final long contentLength;
+    private final long sampleBytes;
+
+    private volatile long received;
+    private volatile long unpublished;
+    private volatile FileCounter currentFile;
+
+    private volatile long publishedReceived;
+    private volatile FileCounter[] files = NO_FILES;
+    private volatile UploadProgress.State state = UploadProgress.State.RECEIVING;
+    private volatile long finishedAt;
+
+    UploadProgressTracker(final String id, final long contentLength, final long sampleBytes) {
+        this.id = id;
+        this.contentLength = contentLength;
+        this.sampleBytes = sampleBytes;
+    }
+
+    /**
+     * Count bytes of the request body as they are received.
+     * @param bytes number of bytes received
+     */
+    public void received(final long bytes) {
+        this.received += bytes;
+        this.unpublished += bytes;
+        if (this.unpublished >= this.sampleBytes) {
+            this.unpublished = 0;
+            this.publishedReceived = this.received;
+        }
+    }
+
+    /**
+     * Count the content of a file part event as it is handed to the decoder.
+     * @param event part event of the request
+     */
+    public void partEvent(final PartEvent event) {
+        if (!(event instanceof FilePartEvent fileEvent)) {
+            return;
+        }
+        FileCounter file = this.currentFile;
+        if (file == null) {
+            file = new FileCounter(fileEvent.name(), fileEvent.filename());
+            this.currentFile = file;
+            final FileCounter[] previous = this.files;
+            final FileCounter[] next = Arrays.copyOf(previous, previous.length + 1);
+            next[previous.length] = file;
+            this.files = next;
+        }
+        file.add(fileEvent.content().readableByteCount(), this.sampleBytes);
+        if (fileEvent.isLast()) {
+            file.complete();
+            this.currentFile = null;
+        }
+    }
+
+    /**
+     * Mark the body as fully read.  The rest of a body may be drained after the request has been processed, in which
+     * case its final state is kept.
+     */
+    public synchronized void bodyComplete() {
+        this.publishedReceived = this.received;
+        if (this.finishedAt == 0) {
+            this.state = UploadProgress.State.PROCESSING;
+        }
+    }
+
+    /**
+     * Track the processing of the request: it completes when the returned mono succeeds and fails otherwise.
+     * @param processing processing of the request
+     * @param <T> result type
+     * @return the processing, updating the tracker when it terminates
+     */
+    public <T> Mono<T> track(final Mono<T> processing) {
+        return processing
+                .doOnSuccess(result -> finish(UploadProgress.State.COMPLETED))
+                .doOnError(e -> finish(UploadProgress.State.FAILED))
+                .doOnCancel(() -> finish(UploadProgress.State.FAILED));
+    }
+
+    /**
+     * Latest published progress.
+     * @return progress snapshot
+     */
+    public UploadProgress snapshot() {
+        final UploadProgress.State current = this.state;
+        final List<UploadProgress.FileProgress> fileProgress = Arrays.stream(this.files).map(FileCounter::snapshot).toList();
+        return new UploadProgress(this.id, current, this.contentLength, this.publishedReceived, fileProgress);
+    }
+
+    boolean isExpired(final long now, final long retentionMillis) {
+        final long finished = this.finishedAt;
+        return finished != 0 && finished + retentionMillis < now;
+    }
+
+    private synchronized void finish(final UploadProgress.State finalState) {
+        if (this.finishedAt != 0) {
+            return;
+        }
+        this.publishedReceived = this.received;
+        final FileCounter file = this.currentFile;
+        if (file != null) {
+            file.publish();
+        }
+        this.state = finalState;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Counter of one file part; `bytes` is written by the pipeline only.
+     */
+    private static final class FileCounter {
+        private final String name;
+        private final String filename;
+        private volatile long bytes;
+        private volatile long unpublished;
+        private volatile long published;
+        private volatile boolean complete;
+
+        private FileCounter(final String name, final String filename) {
+            this.name = name;
+            this.filename = filename;
+        }
+
+        private void add(final long count, final long sampleBytes) {
+            this.bytes += count;
+            this.unpublished += count;
+            if (this.unpublished >= sampleBytes) {
+                publish();
+            }
+        }
+
+        private void publish() {
+            this.unpublished = 0;
+            this.published = this.bytes;
+        }
+
+        private void complete() {
+            publish();
+            this.complete = true;
+        }
+
+        private UploadProgress.FileProgress snapshot() {
+            return new UploadProgress.FileProgress(this.name, this.filename, this.published, this.complete);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionRejectedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * <h2>UploadProgressWebHandler</h2>
+ * Issues progress ids and streams the progress of a multipart request as server-sent events.
+ * <p>
+ * A client obtains an id before sending its upload; the id is returned in the `Upload-Progress-Id` header along with
+ * the `Location` of its event stream.
+ * <p>
+ * Each change of the published progress is sent as a `progress` event whose data is the {@link UploadProgress} as
+ * JSON.  The stream ends after the event of a completed or failed request, or when the request has not started
+ * within the registry's `retention`.  The stream may be opened before the upload is sent.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class UploadProgressWebHandler {
+    /**
+     * Name of the events carrying progress.
+     */
+    public static final String EVENT = "progress";
+
+    /**
+     * Name of the path variable holding the progress id.
+     */
+    public static final String ID_VARIABLE = "id";
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final UploadProgressRegistry registry;
+
+    /**
+     * Issue a progress id for an upload the client is about to send.
+     * @param serverRequest issue request, sent to the path of the event streams
+     * @return `201 Created` response carrying the id; fails with {@link GraphQlMultipartAdmissionRejectedException}
+     * when the registry tracks `maxEntries` requests
+     */
+    public Mono<ServerResponse> handleIssueRequest(final ServerRequest serverRequest) {
+        final String id = this.registry.issue();
+        if (id == null) {
+            return Mono.error(new GraphQlMultipartAdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Upload progress capacity exhausted.", RETRY_AFTER));
+        }
+        log.trace("Issued upload progress id {}.", id);
+        return ServerResponse.created(serverRequest.uriBuilder().pathSegment(id).build())
+                .header(UploadProgressRegistry.PROGRESS_ID, id)
+                .build();
+    }
+
+    /**
+     * Stream the progress of the request whose id is the `id` path variable.
+     * @param serverRequest progress request
+     * @return `text/event-stream` response
+     */
+    public Mono<ServerResponse> handleProgressRequest(final ServerRequest serverRequest) {
+        final String id = serverRequest.pathVariable(ID_VARIABLE);
+        log.trace("Streaming progress of multipart request {}.", id);
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(this.registry.watch(id)
+                        .map(progress -> ServerSentEvent.builder(progress).event(EVENT).build())));
+    }
+}
@@ -0,0 +1,43 @@
+package com.yellowmoonsoftware.graphql.multipart.resumable;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import lombok.Getter;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * <h2>ResumableUploadConflictException</h2>
+ * Raised when a chunk does not continue its resumable upload, i.e. its `Upload-Offset` differs from the bytes received
+ * so far or another chunk of the upload is still being written; rendered as a `409 Conflict` GraphQL error whose
+ * `Upload-Offset` header tells the client where to resume.
+ */
+@Getter
+public class ResumableUploadConflictException extends GraphQlMultipartException {
+    /**
+     * Error code for chunks that do not continue their upload.
+     */
+    public static final String OFFSET_CONFLICT = "MULTIPART_UPLOAD_OFFSET_CONFLICT";
+
+    /**
+     * Number of bytes received so far; the offset the client should resume from.
+     */
+    private final long offset;
+
+    /**
+     * Create an exception for a conflicting chunk.
+     * @param reason human-readable error message
+     * @param offset number of bytes received so far
+     */
+    public ResumableUploadConflictException(final String reason, final long offset) {
+        super(HttpStatus.CONFLICT, reason, OFFSET_CONFLICT);
+        this.offset = offset;
+    }
+
+    @Override
+    public @NonNull HttpHeaders getHeaders() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(ResumableUploadStore.UPLOAD_OFFSET, Long.toString(this.offset));
+        return headers;
+    }
+}
@@ -0,0 +1,18 @@
+package com.yellowmoonsoftware.graphql.multipart.resumable;
+
+/**
+ * <h2>ResumableUploadStatus</h2>
+ * Progress of a resumable upload, returned for every accepted chunk.
+ * @param uploadId id issued for the upload by the store
+ * @param offset number of bytes received so far; the offset of the next chunk
+ * @param length declared total length, or `-1` while not declared
+ */
+public record ResumableUploadStatus(String uploadId, long offset, long length) {
+    /**
+     * Whether every declared byte has been received, so the upload may be bound to an `Upload` variable.
+     * @return `true` when complete
+     */
+    public boolean isComplete() {
+        return this.length >= 0 && this.offset == this.length;
+    }
+}
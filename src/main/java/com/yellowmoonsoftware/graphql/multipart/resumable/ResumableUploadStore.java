@@ -0,0 +1,449 @@
+package com.yellowmoonsoftware.graphql.multipart.resumable;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * <h2>ResumableUploadStore</h2>
+ * Stages resumable uploads sent in chunks over several multipart requests, so that a retry only resends the bytes the
+ * server has not received yet.
+ * <ul>
+ * <li>An upload is started by a first chunk without an `Upload-Id`; the store issues a random, unguessable id which
+ * names every further chunk and the upload itself.  Each upload is staged in its own file.</li>
+ * <li>A chunk is appended at its `Upload-Offset`, which must equal the number of bytes received so far; otherwise the
+ * chunk is rejected with a `409` {@link ResumableUploadConflictException} telling the client where to resume.</li>
+ * <li>Bytes are counted as they are written, so a chunk interrupted by a dropped connection still advances the
+ * upload.</li>
+ * <li>The total `Upload-Length` may be declared with any chunk; once every declared byte has been received the
+ * upload is complete and can be {@link #claim(String) claimed} as a {@link StoredFilePart}, e.g. by the `Upload`
+ * scalar for a variable holding the upload id.  A claimed upload stays staged, out of reach of chunks and further
+ * claims, until its part is deleted, which deletes the upload, or it is {@link #unclaim(String) unclaimed}, e.g. after
+ * a failed request, so it can be claimed again.</li>
+ * <li>Uploads are bounded by `maxLength` bytes each and `maxUploads` staged at a time.</li>
+ * <li>Uploads untouched for `expiry`, complete, incomplete or claimed, are deleted.</li>
+ * </ul>
+ */
+@Slf4j
+public class ResumableUploadStore implements AutoCloseable {
+    /**
+     * Request header carrying the upload id issued by the store; response header naming the upload of a chunk.
+     */
+    public static final String UPLOAD_ID = "Upload-Id";
+
+    /**
+     * Request header carrying the offset of a chunk; response header carrying the bytes received so far.
+     */
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    /**
+     * Header carrying the declared total length of an upload.
+     */
+    public static final String UPLOAD_LENGTH = "Upload-Length";
+
+    /**
+     * Name of the limit reported when an upload exceeds `maxLength`.
+     */
+    public static final String MAX_LENGTH = "max-length";
+
+    /**
+     * Default `maxLength`.
+     */
+    public static final DataSize DEFAULT_MAX_LENGTH = DataSize.ofGigabytes(1);
+
+    /**
+     * Default `maxUploads`.
+     */
+    public static final int DEFAULT_MAX_UPLOADS = 1000;
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+    private static final String DIRECTORY_PREFIX = "graphql-multipart-resumable-";
+
+    /**
+     * Time after its last chunk or claim after which an upload is deleted.
+     */
+    @Getter
+    @Setter
+    private Duration expiry = Duration.ofHours(1);
+
+    /**
+     * Maximum total length of an upload; negative for no limit.
+     */
+    @Getter
+    @Setter
+    private DataSize maxLength = DEFAULT_MAX_LENGTH;
+
+    /**
+     * Maximum number of uploads staged at a time, complete or not; negative for no limit.
+     */
+    @Getter
+    @Setter
+    private int maxUploads = DEFAULT_MAX_UPLOADS;
+
+    /**
+     * Size of the buffers used to read claimed uploads.
+     */
+    @Setter
+    private int readBufferSize = 8192;
+
+    /**
+     * Factory for buffers read from claimed uploads.
+     */
+    @Setter
+    private DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private final Path configuredDirectory;
+    private final Map<String, StagedUpload> uploads = new ConcurrentHashMap<>();
+    private volatile Path directory;
+    private volatile long nextSweep;
+
+    /**
+     * Create a store staging uploads in a private temp directory.
+     */
+    public ResumableUploadStore() {
+        this(null);
+    }
+
+    /**
+     * Create a store staging uploads in the given directory, created on first use when missing.
+     * @param directory staging directory, or `null` for a private temp directory
+     */
+    public ResumableUploadStore(final Path directory) {
+        this.configuredDirectory = directory;
+    }
+
+    /**
+     * Progress of an upload.
+     * @param uploadId upload id
+     * @return status, or empty when no such upload is staged
+     */
+    public Optional<ResumableUploadStatus> status(final String uploadId) {
+        return Optional.ofNullable(this.uploads.get(uploadId)).map(StagedUpload::status);
+    }
+
+    /**
+     * Append a chunk to an upload, or start a new upload with a chunk at offset `0` and no upload id.
+     * @param uploadId id issued for the upload, or `null` to start a new upload
+     * @param offset offset of the chunk within the upload
+     * @param length declared total length, or `-1` when not declared with this chunk
+     * @param filename client-supplied file name, recorded with the first chunk
+     * @param headers part headers, recorded with the first chunk
+     * @param content chunk content; every buffer is released by the store
+     * @return mono emitting the upload's progress once the chunk has been written
+     */
+    public Mono<ResumableUploadStatus> append(final String uploadId, final long offset, final long length, final String filename,
+                                              final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            if (uploadId != null && !VALID_ID.matcher(uploadId).matches()) {
+                return Mono.error(GraphQlMultipartException.invalidRequest("Invalid " + UPLOAD_ID + " header."));
+            }
+            if (offset < 0 || uploadId == null && offset != 0) {
+                return Mono.error(GraphQlMultipartException.invalidRequest("Invalid " + UPLOAD_OFFSET + " header."));
+            }
+            sweepExpired();
+            final StagedUpload staged = uploadId == null ? start() : this.uploads.get(uploadId);
+            if (staged == null) {
+                return Mono.error(GraphQlMultipartException.invalidRequest("Unknown resumable upload " + uploadId
+                        + "; start a new upload without an " + UPLOAD_ID + " header."));
+            }
+            if (!staged.writing.compareAndSet(false, true)) {
+                return Mono.error(new ResumableUploadConflictException("Another chunk of upload " + uploadId + " is being written.", staged.offset));
+            }
+            final GraphQlMultipartException invalid = validate(staged, offset, length);
+            if (invalid != null) {
+                staged.writing.set(false);
+                return Mono.error(invalid);
+            }
+            if (length >= 0) {
+                staged.length = length;
+            }
+            if (staged.file == null) {
+                staged.filename = filename;
+                staged.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            }
+            // The chunk is released before its status is emitted, so a client acting on a complete status can claim it.
+            final AtomicBoolean finished = new AtomicBoolean();
+            return write(staged, content)
+                    .then(Mono.fromSupplier(() -> {
+                        finishWrite(staged, finished);
+                        return staged.status();
+                    }))
+                    .doOnNext(status -> log.trace("Received {} of {} bytes of resumable upload {}.", status.offset(), status.length(), status.uploadId()))
+                    .doOnError(e -> finishWrite(staged, finished))
+                    .doOnCancel(() -> finishWrite(staged, finished));
+        });
+    }
+
+    /**
+     * Stage a new upload under a fresh id, unless `maxUploads` are staged already.
+     */
+    private StagedUpload start() {
+        synchronized (this.uploads) {
+            final int max = this.maxUploads;
+            if (max >= 0 && this.uploads.size() >= max) {
+                throw GraphQlMultipartException.storageExhausted("Too many resumable uploads are staged.");
+            }
+            final StagedUpload staged = new StagedUpload(UUID.randomUUID().toString());
+            this.uploads.put(staged.id, staged);
+            return staged;
+        }
+    }
+
+    /**
+     * Release the write lock taken by a chunk, once.
+     */
+    private static void finishWrite(final StagedUpload staged, final AtomicBoolean finished) {
+        if (finished.compareAndSet(false, true)) {
+            staged.lastModified = System.currentTimeMillis();
+            staged.writing.set(false);
+        }
+    }
+
+    /**
+     * Claim a complete upload as a file part.  The upload stays staged but can neither be appended to nor claimed
+     * again until it is {@link #unclaim(String) unclaimed}; deleting the part deletes the upload.
+     * @param uploadId upload id
+     * @return stored part reading the staged file
+     * @throws IllegalArgumentException when no such upload is staged, or it is being written or claimed already
+     * @throws IllegalStateException when the upload is not complete
+     */
+    public FilePart claim(final String uploadId) {
+        final StagedUpload staged = this.uploads.get(uploadId);
+        // Holding the write lock keeps chunks and concurrent claims away until the upload is deleted or unclaimed.
+        if (staged == null || !staged.writing.compareAndSet(false, true)) {
+            throw new IllegalArgumentException("Unknown or busy resumable upload " + uploadId + ".");
+        }
+        final ResumableUploadStatus status = staged.status();
+        if (!status.isComplete()) {
+            staged.writing.set(false);
+            throw new IllegalStateException("Resumable upload " + uploadId + " is not complete: received " + status.offset()
+                    + " of " + (status.length() < 0 ? "an undeclared number of" : status.length()) + " bytes.");
+        }
+        if (staged.file == null) {
+            // An empty upload never had a chunk written to a file.
+            try {
+                staged.file = createFile();
+            } catch (final IOException e) {
+                staged.writing.set(false);
+                throw new UncheckedIOException(e);
+            }
+        }
+        staged.lastModified = System.currentTimeMillis();
+        staged.claimed = true;
+        return StoredFilePart.onDisk(uploadId, staged.filename, staged.headers, staged.file, status.length(),
+                this.bufferFactory, this.readBufferSize, () -> this.uploads.remove(uploadId, staged));
+    }
+
+    /**
+     * Return a claimed upload to the store, so it can be claimed again, e.g. by a retry of a request that failed.
+     * Unclaiming an upload which is not claimed, or has been deleted, has no effect.
+     * @param uploadId upload id
+     */
+    public void unclaim(final String uploadId) {
+        final StagedUpload staged = this.uploads.get(uploadId);
+        if (staged != null && staged.claimed) {
+            staged.claimed = false;
+            staged.lastModified = System.currentTimeMillis();
+            staged.writing.set(false);
+        }
+    }
+
+    /**
+     * Abandon an upload, deleting what has been received.
+     * @param uploadId upload id
+     * @return mono completing once the upload has been deleted
+     */
+    public Mono<Void> delete(final String uploadId) {
+        return Mono.defer(() -> {
+            final StagedUpload staged = this.uploads.remove(uploadId);
+            return staged == null || staged.file == null ? Mono.empty() : deleteFile(staged.file);
+        });
+    }
+
+    /**
+     * Delete every staged or claimed upload and, when created by this store, the staging directory.
+     */
+    @Override
+    public void close() {
+        final Set<Path> files = new HashSet<>();
+        this.uploads.values().stream().map(staged -> staged.file).filter(Objects::nonNull).forEach(files::add);
+        for (final Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                log.warn("Failed to delete resumable upload {}.", file, e);
+            }
+        }
+        this.uploads.clear();
+        final Path created = this.directory;
+        if (this.configuredDirectory == null && created != null) {
+            try {
+                Files.deleteIfExists(created);
+            } catch (final IOException e) {
+                log.warn("Failed to delete resumable upload directory {}.", created, e);
+            }
+        }
+    }
+
+    private GraphQlMultipartException validate(final StagedUpload staged, final long offset, final long length) {
+        if (offset != staged.offset) {
+            return new ResumableUploadConflictException("Chunk offset " + offset + " does not match the " + staged.offset
+                    + " bytes received for upload " + staged.id + ".", staged.offset);
+        }
+        if (length >= 0 && staged.length >= 0 && length != staged.length) {
+            return GraphQlMultipartException.invalidRequest(UPLOAD_LENGTH + " " + length + " differs from the declared length "
+                    + staged.length + " of upload " + staged.id + ".");
+        }
+        if (length >= 0 && length < staged.offset) {
+            return GraphQlMultipartException.invalidRequest(UPLOAD_LENGTH + " " + length + " is less than the " + staged.offset
+                    + " bytes received for upload " + staged.id + ".");
+        }
+        final long max = this.maxLength.toBytes();
+        if (max >= 0 && length > max) {
+            return new GraphQlMultipartLimitExceededException(MAX_LENGTH, max);
+        }
+        return null;
+    }
+
+    private Mono<Void> write(final StagedUpload staged, final Flux<DataBuffer> content) {
+        final long max = this.maxLength.toBytes();
+        final long start = staged.offset;
+        final long[] received = {start};
+        final Flux<DataBuffer> checked = content.handle((buffer, sink) -> {
+            received[0] += buffer.readableByteCount();
+            if (staged.length >= 0 && received[0] > staged.length) {
+                DataBufferUtils.release(buffer);
+                sink.error(GraphQlMultipartException.invalidRequest("Chunk exceeds the declared " + UPLOAD_LENGTH + " "
+                        + staged.length + " of upload " + staged.id + "."));
+            } else if (max >= 0 && received[0] > max) {
+                DataBufferUtils.release(buffer);
+                sink.error(new GraphQlMultipartLimitExceededException(MAX_LENGTH, max));
+            } else {
+                sink.next(buffer);
+            }
+        });
+        return Mono.fromCallable(() -> {
+                    if (staged.file == null) {
+                        staged.file = createFile();
+                    }
+                    return AsynchronousFileChannel.open(staged.file, StandardOpenOption.WRITE);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(channel -> DataBufferUtils.write(checked, channel, start)
+                        .doOnNext(buffer -> {
+                            staged.offset += buffer.readableByteCount();
+                            DataBufferUtils.release(buffer);
+                        })
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        // Drop bytes of a write interrupted past the final length.
+                        .then(Mono.fromCallable(() -> staged.status().isComplete() ? channel.truncate(staged.offset) : channel))
+                        .then()
+                        .doFinally(signal -> {
+                            try {
+                                channel.close();
+                            } catch (final IOException e) {
+                                log.debug("Failed to close resumable upload {}.", staged.file, e);
+                            }
+                        }));
+    }
+
+    private void sweepExpired() {
+        final long now = System.currentTimeMillis();
+        if (now < this.nextSweep) {
+            return;
+        }
+        final long expiryMillis = this.expiry.toMillis();
+        this.nextSweep = now + Math.min(expiryMillis / 4, Duration.ofMinutes(1).toMillis());
+        this.uploads.forEach((id, staged) -> {
+            // A claim left behind by a request that never releases it expires like an upload left by its client.
+            if (staged.lastModified + expiryMillis < now && (staged.claimed || staged.writing.compareAndSet(false, true))
+                    && this.uploads.remove(id, staged)) {
+                log.debug("Deleting expired resumable upload {}.", id);
+                if (staged.file != null) {
+                    deleteFile(staged.file).subscribe(null, e -> log.warn("Failed to delete expired resumable upload {}.", staged.file, e));
+                }
+            }
+        });
+    }
+
+    private Path createFile() throws IOException {
+        Path dir = this.directory;
+        if (dir == null) {
+            synchronized (this) {
+                dir = this.directory;
+                if (dir == null) {
+                    dir = this.configuredDirectory != null
+                            ? Files.createDirectories(this.configuredDirectory)
+                            : Files.createTempDirectory(DIRECTORY_PREFIX);
+                    this.directory = dir;
+                    log.debug("Staging resumable uploads in {}.", dir);
+                }
+            }
+        }
+        return Files.createTempFile(dir, "upload-", ".part");
+    }
+
+    private static Mono<Void> deleteFile(final Path file) {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Upload state; mutated only by the holder of `writing`.
+     */
+    private static final class StagedUpload {
+        private final String id;
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private volatile long offset;
+        private volatile long length = -1;
+        private volatile long lastModified = System.currentTimeMillis();
+        private volatile Path file;
+        private volatile boolean claimed;
+        private volatile String filename;
+        private volatile HttpHeaders headers;
+
+        private StagedUpload(final String id) {
+            this.id = id;
+        }
+
+        private ResumableUploadStatus status() {
+            return new ResumableUploadStatus(this.id, this.offset, this.length);
+        }
+    }
+}
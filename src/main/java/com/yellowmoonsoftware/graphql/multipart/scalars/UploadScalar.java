@@ -1,5 +1,9 @@
 package com.yellowmoonsoftware.graphql.multipart.scalars;
 
+import com.yellowmoonsoftware.graphql.multipart.Upload;
+import com.yellowmoonsoftware.graphql.multipart.UploadContext;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
 import graphql.GraphQLContext;
 import graphql.execution.CoercedVariables;
 import graphql.language.Value;
@@ -11,17 +15,27 @@ import java.util.Locale;
 
 /**
  * <h2>UploadScalar</h2>
- * Custom GraphQL scalar for handling file uploads (input-only, expects {@link FilePart}).
+ * Custom GraphQL scalar for handling file uploads (input-only, expects {@link FilePart} or {@link UploadReference}, or
+ * the id of a complete resumable upload when constructed with a {@link ResumableUploadStore}).
  * <ul>
  * <li>
- * Validates input during value parsing.
+ * Validates input during value parsing and wraps file parts in an {@link Upload}, bound to the request's
+ * {@link UploadContext} when one is present in the GraphQL context.
+ * </li>
+ * <li>
+ * Passes {@link UploadReference}s of uploads written to an upload sink through unchanged.
+ * </li>
+ * <li>
+ * Resolves a string to the resumable upload of that id, {@link ResumableUploadStore#claim(String) claimed} as an
+ * {@link Upload} and registered with the request's {@link UploadContext}, which deletes the upload once the request
+ * has succeeded and unclaims it otherwise.
  * </li>
  * <li>
  * Disallows serialization and literal parsing.
  * </li>
  * </ul>
  */
-public class UploadScalar implements Coercing<FilePart, Void> {
+public class UploadScalar implements Coercing<Object, Void> {
 
     /**
      * Reusable Upload scalar instance for schema registration.
@@ -31,6 +45,35 @@ public class UploadScalar implements Coercing<FilePart, Void> {
             .coercing(new UploadScalar())
             .build();
 
+    private final ResumableUploadStore resumableUploads;
+
+    /**
+     * Create a scalar accepting file parts and upload references.
+     */
+    public UploadScalar() {
+        this(null);
+    }
+
+    /**
+     * Create a scalar also accepting ids of complete resumable uploads.
+     * @param resumableUploads store of resumable uploads, may be `null`
+     */
+    public UploadScalar(final ResumableUploadStore resumableUploads) {
+        this.resumableUploads = resumableUploads;
+    }
+
+    /**
+     * Build an Upload scalar type resolving resumable upload ids against the given store.
+     * @param resumableUploads store of resumable uploads
+     * @return Upload scalar type
+     */
+    public static GraphQLScalarType scalarType(final ResumableUploadStore resumableUploads) {
+        return GraphQLScalarType.newScalar()
+                .name("Upload")
+                .coercing(new UploadScalar(resumableUploads))
+                .build();
+    }
+
     /**
      * Upload cannot be serialized (input-only); always throws.
      * @param dataFetcherResult value to serialize (ignored)
@@ -44,18 +87,33 @@ public class UploadScalar implements Coercing<FilePart, Void> {
     }
 
     /**
-     * Validate and extract {@link FilePart} during variable parsing.
+     * Validate an upload during variable parsing, wrapping a {@link FilePart} in an {@link Upload}.
      * @param input input value
      * @param graphQLContext context
      * @param locale locale
-     * @return parsed {@link FilePart}
+     * @return {@link Upload} wrapping the part or claimed resumable upload, or the {@link UploadReference} given
      */
     @Override
-    public FilePart parseValue(@NonNull final Object input,
-                               @NonNull final GraphQLContext graphQLContext,
-                               @NonNull final Locale locale) throws CoercingParseValueException {
+    public Object parseValue(@NonNull final Object input,
+                             @NonNull final GraphQLContext graphQLContext,
+                             @NonNull final Locale locale) throws CoercingParseValueException {
         if (input instanceof FilePart fileInput) {
-            return fileInput;
+            return Upload.of(fileInput, UploadContext.from(graphQLContext));
+        }
+        if (input instanceof UploadReference reference) {
+            return reference;
+        }
+        if (input instanceof String uploadId && this.resumableUploads != null) {
+            try {
+                final FilePart claimed = this.resumableUploads.claim(uploadId);
+                final UploadContext context = UploadContext.from(graphQLContext);
+                if (context != null) {
+                    context.claimed(claimed, () -> this.resumableUploads.unclaim(uploadId));
+                }
+                return Upload.of(claimed, context);
+            } catch (final IllegalArgumentException | IllegalStateException e) {
+                throw new CoercingParseValueException(e.getMessage(), e);
+            }
         }
         throw new CoercingParseValueException("Expected type FilePart but was " + input.getClass().getName());
     }
@@ -69,10 +127,10 @@ public class UploadScalar implements Coercing<FilePart, Void> {
      * @return never returns; always throws
      */
     @Override
-    public FilePart parseLiteral(@NonNull final Value<?> input,
-                                 @NonNull final CoercedVariables variables,
-                                 @NonNull final GraphQLContext graphQLContext,
-                                 @NonNull final Locale locale) throws CoercingParseLiteralException {
+    public Object parseLiteral(@NonNull final Value<?> input,
+                               @NonNull final CoercedVariables variables,
+                               @NonNull final GraphQLContext graphQLContext,
+                               @NonNull final Locale locale) throws CoercingParseLiteralException {
         throw new CoercingParseLiteralException("Upload is an input-only type and cannot be parsed from literals");
     }
 }
@@ -0,0 +1,285 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigester;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <h2>DeduplicatingUploadSink</h2>
+ * {@link UploadSink} decorator storing each distinct content once: uploads whose SHA-256 matches a recently written
+ * object are handed a reference to that object instead of a copy of their own.
+ * <ul>
+ * <li>Content is digested in-stream as it is written, unless the caller supplies the digests it computes anyway (as the
+ * decoder does when `sha-256` is among its digest algorithms); once the digest is known a duplicate copy is deleted
+ * again and the reference points at the existing object.</li>
+ * <li>When a part declares its SHA-256 up front (`Repr-Digest`, `Content-Digest` or `Digest`) and the object is
+ * known, nothing is written at all: the content is only digested, and the declaration must match.</li>
+ * <li>The digests of the `maxEntries` most recently written objects are indexed; evicted objects are kept but no
+ * longer shared with new uploads.</li>
+ * <li>Shared objects are reference counted: {@link #delete(UploadReference)} only deletes an object once every
+ * reference to it has been deleted.</li>
+ * </ul>
+ * References carry the SHA-256 as their {@link UploadReference#digests() digests}.  The index and reference counts are
+ * concurrent maps updated per key, so uploads of different content never contend.
+ */
+@Slf4j
+public class DeduplicatingUploadSink implements UploadSink {
+    /**
+     * Default maximum number of digests in the index.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final UploadSink delegate;
+
+    /**
+     * Maximum number of digests in the index.
+     */
+    @Getter
+    private final int maxEntries;
+
+    /**
+     * Recently written objects by SHA-256.
+     */
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * Indexed objects, oldest first; entries no longer indexed are skipped when evicting.
+     */
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Objects that may be referenced more than once, by location; reference counts only change within a `compute` of
+     * their entry's key.
+     */
+    private final Map<URI, Entry> tracked = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Create a deduplicating sink with the {@link #DEFAULT_MAX_ENTRIES default} index size.
+     * @param delegate sink objects are written to
+     */
+    public DeduplicatingUploadSink(final UploadSink delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a deduplicating sink.
+     * @param delegate sink objects are written to
+     * @param maxEntries maximum number of digests in the index
+     * @throws IllegalArgumentException when `maxEntries` is negative
+     */
+    public DeduplicatingUploadSink(final UploadSink delegate, final int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Mono<UploadReference> write(final String name, final String filename, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return write(name, filename, headers, content, null);
+    }
+
+    /**
+     * Write an upload, using the supplied digests instead of digesting the content again; an upload whose supplied
+     * digests lack a SHA-256 is written without deduplication.
+     */
+    @Override
+    public Mono<UploadReference> write(final String name, final String filename, final HttpHeaders headers,
+                                       final Flux<DataBuffer> content, final Supplier<ContentDigests> digests) {
+        return Mono.defer(() -> {
+            final ContentDigester digester = digests == null ? new ContentDigester(Set.of(ContentDigestAlgorithm.SHA_256)) : null;
+            final Flux<DataBuffer> digested = digester == null ? content : content.doOnNext(digester::update);
+            final Supplier<ContentDigests> computed = digester == null ? digests : digester::finish;
+            final String declared = ContentDigests.declared(name, headers).hex(ContentDigestAlgorithm.SHA_256);
+            final UploadReference known = declared == null ? null : acquire(declared, name, filename, headers);
+            if (known != null) {
+                log.trace("Skipping write of multipart upload {}: content {} is already stored at {}.", name, declared, known.location());
+                return digested.doOnNext(DataBufferUtils::release)
+                        .then(Mono.fromSupplier(() -> {
+                            final ContentDigests actual = computed.get();
+                            if (!declared.equals(actual.hex(ContentDigestAlgorithm.SHA_256))) {
+                                throw GraphQlMultipartException.digestMismatch("Content of multipart part " + name
+                                        + " does not match its declared sha-256 digest.");
+                            }
+                            return known.withDigests(actual);
+                        }))
+                        .onErrorResume(e -> delete(known).onErrorResume(ignored -> Mono.empty()).then(Mono.error(e)))
+                        .doOnCancel(() -> delete(known).subscribe());
+            }
+            return this.delegate.write(name, filename, headers, digested)
+                    .flatMap(written -> register(written.withDigests(computed.get())));
+        });
+    }
+
+    /**
+     * Delete a reference, deleting its object once no other reference to it remains.
+     * @param reference reference returned by {@link #write(String, String, HttpHeaders, Flux)}
+     * @return {@link Mono} completing once the reference has been released
+     */
+    @Override
+    public Mono<Void> delete(final UploadReference reference) {
+        return Mono.defer(() -> release(reference.location()) ? this.delegate.delete(reference) : Mono.empty());
+    }
+
+    /**
+     * Number of digests in the index.
+     * @return index size
+     */
+    public int getIndexSize() {
+        return this.index.size();
+    }
+
+    /**
+     * Number of uploads served by an existing object instead of a copy of their own.
+     * @return deduplicated uploads
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Reference a known object for a new upload.
+     * @return reference to the object, or `null` when unknown
+     */
+    private UploadReference acquire(final String digest, final String name, final String filename, final HttpHeaders headers) {
+        final Entry entry = this.index.get(digest);
+        if (entry == null || !retain(entry)) {
+            return null;
+        }
+        this.hits.increment();
+        return share(entry.reference, name, filename, SinkSupport.contentType(headers));
+    }
+
+    /**
+     * Count a new reference to a tracked object.
+     * @return `false` when the object is no longer tracked, i.e. may be deleted by its sole reference
+     */
+    private boolean retain(final Entry entry) {
+        return this.tracked.computeIfPresent(entry.reference.location(), (location, tracked) -> {
+            if (tracked == entry) {
+                entry.references++;
+            }
+            return tracked;
+        }) == entry;
+    }
+
+    /**
+     * Index a written object, or replace it by a known object with the same content.
+     * @param written reference to the written object, carrying its digest
+     * @return mono emitting the reference to hand out
+     */
+    private Mono<UploadReference> register(final UploadReference written) {
+        final String digest = written.digests().hex(ContentDigestAlgorithm.SHA_256);
+        if (digest == null) {
+            return Mono.just(written);
+        }
+        final Entry entry = new Entry(digest, written);
+        this.tracked.put(written.location(), entry);
+        final Entry existing = this.index.putIfAbsent(digest, entry);
+        if (existing == null) {
+            this.order.add(entry);
+            trim();
+            return Mono.just(written);
+        }
+        this.tracked.remove(written.location(), entry);
+        if (existing.reference.contentLength() != written.contentLength() || !retain(existing)) {
+            return Mono.just(written);
+        }
+        this.hits.increment();
+        log.trace("Deduplicated multipart upload {}: content {} is already stored at {}.", written.name(), digest,
+                existing.reference.location());
+        return this.delegate.delete(written)
+                .onErrorResume(e -> {
+                    log.warn("Failed to delete duplicate copy {} of multipart upload {}.", written.location(), written.name(), e);
+                    return Mono.empty();
+                })
+                .thenReturn(share(existing.reference, written.name(), written.filename(), written.contentType()));
+    }
+
+    /**
+     * Evict the oldest indexed objects until the index fits `maxEntries`.
+     */
+    private void trim() {
+        while (this.index.size() > this.maxEntries) {
+            final Entry eldest = this.order.poll();
+            if (eldest == null) {
+                return;
+            }
+            if (this.index.remove(eldest.digest, eldest)) {
+                evict(eldest);
+            }
+        }
+    }
+
+    /**
+     * Drop a reference to an object.
+     * @return `true` when the object is no longer referenced and must be deleted
+     */
+    private boolean release(final URI location) {
+        final boolean[] delete = {true};
+        final Entry[] unreferenced = {null};
+        this.tracked.computeIfPresent(location, (key, entry) -> {
+            entry.references--;
+            if (entry.references <= 0) {
+                unreferenced[0] = entry;
+                return null;
+            }
+            delete[0] = false;
+            return entry.references == 1 && !entry.indexed ? null : entry;
+        });
+        if (unreferenced[0] != null && this.index.remove(unreferenced[0].digest, unreferenced[0])) {
+            this.order.remove(unreferenced[0]);
+        }
+        return delete[0];
+    }
+
+    /**
+     * Stop sharing an evicted object; a solely referenced object is no longer tracked, so deleting its reference
+     * deletes it directly.
+     */
+    private void evict(final Entry entry) {
+        entry.indexed = false;
+        this.tracked.computeIfPresent(entry.reference.location(), (location, tracked) ->
+                tracked == entry && entry.references <= 1 ? null : tracked);
+    }
+
+    private static UploadReference share(final UploadReference stored, final String name, final String filename, final MediaType contentType) {
+        return new UploadReference(name, filename, contentType, stored.contentLength(), stored.location(), stored.digests());
+    }
+
+    /**
+     * Indexed object and the number of references handed out for it.
+     */
+    private static final class Entry {
+        private final String digest;
+        private final UploadReference reference;
+        private int references = 1;
+        private volatile boolean indexed = true;
+
+        Entry(final String digest, final UploadReference reference) {
+            this.digest = digest;
+            this.reference = reference;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h2>FileSystemUploadSink</h2>
+ * {@link UploadSink} writing each upload to its own file in a directory as its content arrives.
+ * <ul>
+ * <li>Files are named by a random UUID plus the extension of the client-supplied file name.</li>
+ * <li>Content is written through an asynchronous file channel; a partially written file is deleted on failure.</li>
+ * <li>References carry the `file:` URI of the written file.</li>
+ * </ul>
+ */
+@Slf4j
+public class FileSystemUploadSink implements UploadSink {
+    private final Path directory;
+
+    /**
+     * Create a sink writing to the given directory, created on first use when missing.
+     * @param directory destination directory
+     */
+    public FileSystemUploadSink(final Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Mono<UploadReference> write(final String name, final String filename, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            final Path file = this.directory.resolve(SinkSupport.newKey(filename));
+            final AtomicLong size = new AtomicLong();
+            return Mono.fromCallable(() -> Files.createDirectories(this.directory))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(DataBufferUtils.write(content.doOnNext(buffer -> size.addAndGet(buffer.readableByteCount())),
+                            file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+                    .then(Mono.fromSupplier(() -> new UploadReference(name, filename, SinkSupport.contentType(headers), size.get(), file.toUri())))
+                    .onErrorResume(e -> deleteFile(file).onErrorResume(ignored -> Mono.empty()).then(Mono.error(e)))
+                    .doOnNext(reference -> log.trace("Wrote multipart upload {} to {}.", name, file));
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(final UploadReference reference) {
+        return deleteFile(Path.of(reference.location()));
+    }
+
+    private static Mono<Void> deleteFile(final Path file) {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
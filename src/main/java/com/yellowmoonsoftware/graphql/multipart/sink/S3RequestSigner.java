@@ -0,0 +1,146 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * <h2>S3RequestSigner</h2>
+ * AWS Signature Version 4 signing of S3 requests, as described in the Amazon S3 API reference
+ * ("Authenticating Requests: Using the Authorization Header").
+ * <p>
+ * Request URIs must already be encoded as S3 expects; they are signed as given.
+ */
+final class S3RequestSigner {
+    /**
+     * Payload hash sent when the request body is not signed.
+     */
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+
+    S3RequestSigner(final String region, final String accessKey, final String secretKey) {
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+    }
+
+    /**
+     * Compute the headers authenticating a request.
+     * @param method request method
+     * @param uri encoded request URI
+     * @param headers further headers to sign, e.g. `Content-Type`; not modified
+     * @param payloadHash hex SHA-256 of the body, or {@link #UNSIGNED_PAYLOAD}
+     * @param time request time
+     * @return `x-amz-date`, `x-amz-content-sha256` and `Authorization` headers to send with the request
+     */
+    HttpHeaders sign(final HttpMethod method, final URI uri, final HttpHeaders headers, final String payloadHash, final Instant time) {
+        final String dateTime = DATE_TIME.format(time);
+        final String scope = DATE.format(time) + "/" + this.region + "/" + SERVICE + "/aws4_request";
+
+        final Map<String, String> signed = new TreeMap<>();
+        signed.put("host", uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        headers.forEach((name, values) -> signed.put(name.toLowerCase(Locale.ROOT),
+                values.stream().map(String::strip).collect(Collectors.joining(","))));
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", dateTime);
+        final String signedHeaders = String.join(";", signed.keySet());
+
+        final String canonicalRequest = method.name() + "\n"
+                + (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()) + "\n"
+                + canonicalQuery(uri.getRawQuery()) + "\n"
+                + signed.entrySet().stream().map(e -> e.getKey() + ":" + e.getValue() + "\n").collect(Collectors.joining()) + "\n"
+                + signedHeaders + "\n"
+                + payloadHash;
+        final String stringToSign = ALGORITHM + "\n" + dateTime + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] key = hmac(("AWS4" + this.secretKey).getBytes(StandardCharsets.UTF_8), DATE.format(time));
+        key = hmac(key, this.region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        final String signature = HexFormat.of().formatHex(hmac(key, stringToSign));
+
+        final HttpHeaders result = new HttpHeaders();
+        result.set("x-amz-date", dateTime);
+        result.set("x-amz-content-sha256", payloadHash);
+        result.set(HttpHeaders.AUTHORIZATION, ALGORITHM + " Credential=" + this.accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return result;
+    }
+
+    /**
+     * Encode a string as S3 expects in paths and query strings: everything but unreserved characters is
+     * percent-encoded.
+     * @param value value to encode
+     * @param encodeSlash whether `/` is encoded too (query values) or kept (object keys)
+     * @return encoded value
+     */
+    static String uriEncode(final String value, final boolean encodeSlash) {
+        final StringBuilder encoded = new StringBuilder(value.length());
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            final char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Hex SHA-256 of a string.
+     * @param value UTF-8 value
+     * @return lower-case hex digest
+     */
+    static String sha256Hex(final String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String canonicalQuery(final String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&"))
+                .map(param -> param.contains("=") ? param : param + "=")
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] hmac(final byte[] key, final String data) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
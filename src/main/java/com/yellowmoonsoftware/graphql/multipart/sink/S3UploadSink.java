@@ -0,0 +1,216 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <h2>S3UploadSink</h2>
+ * {@link UploadSink} streaming uploads to an S3-compatible object store over its REST API, signed with AWS Signature
+ * Version 4 and addressed path-style (`{endpoint}/{bucket}/{key}`).
+ * <ul>
+ * <li>Content is cut into parts of `partSize` bytes as it arrives.  An upload that fits into a single part is
+ * written with one `PutObject`; larger uploads use a multipart upload, sending each part while the next one is still
+ * being received and aborting the upload on failure.</li>
+ * <li>Objects are named `keyPrefix` plus a random UUID and the extension of the client-supplied file name.</li>
+ * <li>Failures reported by the object store, and responses missing an upload id or part ETag, fail the request with a
+ * `502` {@link GraphQlMultipartException#SINK_FAILED} error.</li>
+ * </ul>
+ * Memory per upload is bounded by the part being sent, the next complete part and the part being received.  Payloads
+ * are sent as `UNSIGNED-PAYLOAD`, so the endpoint should use TLS.
+ */
+@Slf4j
+public class S3UploadSink implements UploadSink {
+    /**
+     * Default `partSize`; S3 requires every part of a multipart upload but the last to hold at least 5 MiB.
+     */
+    public static final DataSize DEFAULT_PART_SIZE = DataSize.ofMegabytes(8);
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    /**
+     * Prefix of the keys objects are written under, e.g. `uploads/`.
+     */
+    @Getter
+    @Setter
+    private String keyPrefix = "";
+
+    /**
+     * Size of the parts content is cut into; also the largest upload written with a single `PutObject`.
+     */
+    @Getter
+    @Setter
+    private DataSize partSize = DEFAULT_PART_SIZE;
+
+    private final WebClient webClient;
+    private final String bucketUri;
+    private final S3RequestSigner signer;
+
+    /**
+     * Create a sink writing to a bucket of an S3-compatible object store.
+     * @param webClient client used for object store requests
+     * @param endpoint object store endpoint, e.g. `https://s3.eu-west-1.amazonaws.com`
+     * @param bucket bucket name
+     * @param region signing region, e.g. `eu-west-1`
+     * @param accessKey access key id
+     * @param secretKey secret access key
+     */
+    public S3UploadSink(final WebClient webClient, final URI endpoint, final String bucket, final String region,
+                        final String accessKey, final String secretKey) {
+        this.webClient = webClient;
+        final String base = endpoint.toString();
+        this.bucketUri = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "/" + S3RequestSigner.uriEncode(bucket, true);
+        this.signer = new S3RequestSigner(region, accessKey, secretKey);
+    }
+
+    @Override
+    public Mono<UploadReference> write(final String name, final String filename, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            final URI uri = URI.create(this.bucketUri + "/" + S3RequestSigner.uriEncode(this.keyPrefix + SinkSupport.newKey(filename), false));
+            final MediaType contentType = SinkSupport.contentType(headers);
+            final long partBytes = Math.max(1, this.partSize.toBytes());
+            final long[] size = {0};
+            final long[] buffered = {0};
+            return content
+                    .doOnNext(buffer -> size[0] += buffer.readableByteCount())
+                    .bufferUntil(buffer -> {
+                        buffered[0] += buffer.readableByteCount();
+                        if (buffered[0] < partBytes) {
+                            return false;
+                        }
+                        buffered[0] = 0;
+                        return true;
+                    })
+                    .<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::join)
+                    // A first part smaller than a full part is the only one.
+                    .switchOnFirst((signal, parts) -> signal.hasValue() && signal.get().readableByteCount() >= partBytes
+                            ? multipartUpload(uri, contentType, parts)
+                            : parts.singleOrEmpty()
+                                    .defaultIfEmpty(DefaultDataBufferFactory.sharedInstance.allocateBuffer(0))
+                                    .flatMap(part -> putObject(uri, contentType, part)))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then(Mono.fromSupplier(() -> new UploadReference(name, filename, contentType, size[0], uri)))
+                    .onErrorMap(WebClientException.class, e -> GraphQlMultipartException.sinkFailed("Failed to write upload " + name + " to the object store.", e))
+                    .doOnNext(reference -> log.trace("Wrote multipart upload {} to {}.", name, uri));
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(final UploadReference reference) {
+        return send(HttpMethod.DELETE, reference.location(), new HttpHeaders(), 0, BodyInserters.empty())
+                .then()
+                .onErrorMap(WebClientException.class, e -> GraphQlMultipartException.sinkFailed("Failed to delete " + reference.location() + " from the object store.", e));
+    }
+
+    private Mono<Void> putObject(final URI uri, final MediaType contentType, final DataBuffer content) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return send(HttpMethod.PUT, uri, headers, content.readableByteCount(), BodyInserters.fromDataBuffers(Mono.just(content))).then();
+    }
+
+    private Mono<Void> multipartUpload(final URI uri, final MediaType contentType, final Flux<DataBuffer> parts) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return send(HttpMethod.POST, withQuery(uri, "uploads"), headers, 0, BodyInserters.empty())
+                .map(response -> {
+                    final Matcher matcher = UPLOAD_ID.matcher(response.getBody() == null ? "" : response.getBody());
+                    if (!matcher.find()) {
+                        throw GraphQlMultipartException.sinkFailed("Object store did not return an upload id for " + uri + ".");
+                    }
+                    return matcher.group(1);
+                })
+                .flatMap(uploadId -> parts.index()
+                        .concatMap(part -> uploadPart(uri, uploadId, part.getT1().intValue() + 1, part.getT2()), 1)
+                        .collectList()
+                        .flatMap(etags -> completeUpload(uri, uploadId, etags))
+                        .onErrorResume(e -> abortUpload(uri, uploadId).then(Mono.error(e))));
+    }
+
+    private Mono<String> uploadPart(final URI uri, final String uploadId, final int partNumber, final DataBuffer content) {
+        return send(HttpMethod.PUT, withQuery(uri, "partNumber=" + partNumber + "&uploadId=" + S3RequestSigner.uriEncode(uploadId, true)),
+                new HttpHeaders(), content.readableByteCount(), BodyInserters.fromDataBuffers(Mono.just(content)))
+                .map(response -> {
+                    final String etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+                    if (etag == null) {
+                        throw GraphQlMultipartException.sinkFailed("Object store did not return an ETag for part " + partNumber + " of " + uri + ".");
+                    }
+                    return etag;
+                });
+    }
+
+    private Mono<Void> completeUpload(final URI uri, final String uploadId, final List<String> etags) {
+        final String body = "<CompleteMultipartUpload>"
+                + IntStream.range(0, etags.size())
+                        .mapToObj(i -> "<Part><PartNumber>" + (i + 1) + "</PartNumber><ETag>" + escapeXml(etags.get(i)) + "</ETag></Part>")
+                        .collect(Collectors.joining())
+                + "</CompleteMultipartUpload>";
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_XML);
+        return send(HttpMethod.POST, withQuery(uri, "uploadId=" + S3RequestSigner.uriEncode(uploadId, true)), headers, bytes.length,
+                BodyInserters.fromValue(bytes))
+                .flatMap(response -> response.getBody() != null && response.getBody().contains("<Error>")
+                        // S3 may report a failed completion with a 200 status.
+                        ? Mono.error(GraphQlMultipartException.sinkFailed("Object store failed to complete upload " + uri + ": " + response.getBody()))
+                        : Mono.empty());
+    }
+
+    private Mono<Void> abortUpload(final URI uri, final String uploadId) {
+        return send(HttpMethod.DELETE, withQuery(uri, "uploadId=" + S3RequestSigner.uriEncode(uploadId, true)), new HttpHeaders(), 0, BodyInserters.empty())
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to abort multipart upload {} of {}.", uploadId, uri, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<ResponseEntity<String>> send(final HttpMethod method, final URI uri, final HttpHeaders headers, final long contentLength,
+                                              final BodyInserter<?, ? super ClientHttpRequest> body) {
+        return Mono.defer(() -> {
+            final HttpHeaders authorization = this.signer.sign(method, uri, headers, S3RequestSigner.UNSIGNED_PAYLOAD, Instant.now());
+            return this.webClient.method(method)
+                    .uri(uri)
+                    .headers(h -> {
+                        h.addAll(headers);
+                        h.addAll(authorization);
+                        h.setContentLength(contentLength);
+                    })
+                    .body(body)
+                    .retrieve()
+                    .toEntity(String.class);
+        });
+    }
+
+    private static URI withQuery(final URI uri, final String query) {
+        return URI.create(uri + "?" + query);
+    }
+
+    private static String escapeXml(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,44 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * <h2>SinkSupport</h2>
+ * Helpers shared by the {@link UploadSink} implementations.
+ */
+final class SinkSupport {
+    private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,16}$");
+
+    private SinkSupport() { }
+
+    /**
+     * Create a unique object name, keeping a short alphanumeric extension of the client-supplied file name.
+     * <p>
+     * The rest of the file name is never used, so client input cannot escape the destination or clash with
+     * another upload.
+     * @param filename client-supplied file name
+     * @return unique object name, e.g. `3f2b...-9c1d.png`
+     */
+    static String newKey(final String filename) {
+        final String extension = filename == null ? null : EXTENSION.matcher(filename).results()
+                .map(match -> match.group().toLowerCase(Locale.ROOT))
+                .findFirst()
+                .orElse(null);
+        return UUID.randomUUID() + (extension == null ? "" : extension);
+    }
+
+    /**
+     * Declared content type of a part.
+     * @param headers part headers
+     * @return content type, `application/octet-stream` when not declared
+     */
+    static MediaType contentType(final HttpHeaders headers) {
+        final MediaType contentType = headers.getContentType();
+        return contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -0,0 +1,57 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.digest.DigestedContent;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+
+/**
+ * <h2>UploadReference</h2>
+ * Value of the `Upload` scalar in `sink` mode: a file part that has been completely written to an {@link UploadSink}.
+ *
+ * @param name multipart field name
+ * @param filename client-supplied file name
+ * @param contentType declared content type of the part, `application/octet-stream` when not declared
+ * @param contentLength number of bytes written
+ * @param location location of the written object, e.g. a `file:` or object store URI
+ * @param digests digests computed while the content was written; {@link ContentDigests#NONE} when disabled
+ */
+public record UploadReference(String name, String filename, MediaType contentType, long contentLength, URI location,
+                              ContentDigests digests) implements DigestedContent {
+
+    /**
+     * Canonical constructor, defaulting missing digests to {@link ContentDigests#NONE}.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param contentType declared content type of the part
+     * @param contentLength number of bytes written
+     * @param location location of the written object
+     * @param digests digests computed while the content was written, or `null` for none
+     */
+    public UploadReference {
+        digests = digests != null ? digests : ContentDigests.NONE;
+    }
+
+    /**
+     * Create a reference without digests.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param contentType declared content type of the part
+     * @param contentLength number of bytes written
+     * @param location location of the written object
+     */
+    public UploadReference(final String name, final String filename, final MediaType contentType, final long contentLength,
+                           final URI location) {
+        this(name, filename, contentType, contentLength, location, ContentDigests.NONE);
+    }
+
+    /**
+     * Copy of this reference carrying the given digests.
+     * @param digests computed digests
+     * @return reference with digests
+     */
+    public UploadReference withDigests(final ContentDigests digests) {
+        return new UploadReference(this.name, this.filename, this.contentType, this.contentLength, this.location, digests);
+    }
+}
@@ -0,0 +1,53 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * <h2>UploadSink</h2>
+ * Destination that uploaded file parts are streamed to while the multipart body is still arriving, used by the `sink`
+ * decode mode.
+ * <p>
+ * Unlike an {@link com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage}, a sink persists uploads: resolvers
+ * receive an {@link UploadReference} to the written object in place of the file part, and the object outlives the
+ * request.  Written objects are only {@link #delete(UploadReference) deleted} when the request fails before it is
+ * dispatched.
+ */
+public interface UploadSink {
+    /**
+     * Write the content of a file part to the destination.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param headers part headers
+     * @param content part content; every buffer is released by the sink
+     * @return {@link Mono} emitting a reference to the written object once its content has been fully written
+     */
+    Mono<UploadReference> write(String name, String filename, HttpHeaders headers, Flux<DataBuffer> content);
+
+    /**
+     * Write the content of a file part whose digests the caller computes as the content passes through, so the sink
+     * may use them instead of digesting the content again.  By default the digests are ignored.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param headers part headers
+     * @param content part content; every buffer is released by the sink
+     * @param digests digests of `content`, available once `content` has completed
+     * @return {@link Mono} emitting a reference to the written object once its content has been fully written
+     */
+    default Mono<UploadReference> write(final String name, final String filename, final HttpHeaders headers,
+                                        final Flux<DataBuffer> content, final Supplier<ContentDigests> digests) {
+        return write(name, filename, headers, content);
+    }
+
+    /**
+     * Delete a previously written object.
+     * @param reference reference returned by {@link #write(String, String, HttpHeaders, Flux)}
+     * @return {@link Mono} completing once the object has been deleted
+     */
+    Mono<Void> delete(UploadReference reference);
+}
@@ -0,0 +1,334 @@
+package com.yellowmoonsoftware.graphql.multipart.storage;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h2>SpillingUploadStorage</h2>
+ * Default {@link UploadStorage}: keeps small uploads in memory and spills larger ones to a temp directory.
+ * <ul>
+ * <li>Uploads up to `inMemoryThreshold` are kept as the (typically pooled)
+ * buffers they arrived in, without copying.</li>
+ * <li>Once an upload crosses the threshold, what has been received so far and all further content is written to a
+ * file in the storage directory through an {@link AsynchronousFileChannel}.</li>
+ * <li>Bytes on disk across all live uploads are bounded by `maxDiskUsage`; an
+ * upload that would exceed it fails with a `507` {@link GraphQlMultipartException#STORAGE_EXHAUSTED} error.</li>
+ * <li>Files are deleted by {@link StoredFilePart#delete()}, when an upload fails, and on {@link #close()}.</li>
+ * </ul>
+ * Without an explicit directory a private temp directory is created on first spill and removed on {@link #close()}.
+ */
+@Slf4j
+public class SpillingUploadStorage implements UploadStorage, AutoCloseable {
+    /**
+     * Default `inMemoryThreshold`.
+     */
+    public static final DataSize DEFAULT_IN_MEMORY_THRESHOLD = DataSize.ofKilobytes(256);
+
+    private static final String DIRECTORY_PREFIX = "graphql-multipart-";
+
+    /**
+     * Largest upload kept in memory; larger uploads are written to disk.
+     */
+    @Getter
+    @Setter
+    private DataSize inMemoryThreshold = DEFAULT_IN_MEMORY_THRESHOLD;
+
+    /**
+     * Maximum number of bytes held on disk across all live uploads; negative for no limit.
+     */
+    @Getter
+    @Setter
+    private DataSize maxDiskUsage = DataSize.ofBytes(-1);
+
+    /**
+     * Size of the buffers used to read spilled uploads back.
+     */
+    @Setter
+    private int readBufferSize = 8192;
+
+    /**
+     * Factory for buffers read back from spilled uploads.
+     */
+    @Setter
+    private DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private final Path configuredDirectory;
+    private final AtomicLong diskUsage = new AtomicLong();
+    private final Set<Path> files = ConcurrentHashMap.newKeySet();
+    private volatile Path directory;
+
+    /**
+     * Create a storage spilling to a private temp directory.
+     */
+    public SpillingUploadStorage() {
+        this(null);
+    }
+
+    /**
+     * Create a storage spilling to the given directory, created on first use when missing.
+     * @param directory spill directory, or `null` for a private temp directory
+     */
+    public SpillingUploadStorage(final Path directory) {
+        this.configuredDirectory = directory;
+    }
+
+    /**
+     * Number of bytes currently held on disk by live uploads.
+     * @return bytes on disk
+     */
+    public long getDiskUsage() {
+        return this.diskUsage.get();
+    }
+
+    @Override
+    public Mono<FilePart> store(final String name, final String filename, final HttpHeaders headers, final Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            final UploadWriter writer = new UploadWriter();
+            return content.concatMap(writer::write)
+                    .then(Mono.fromCallable(() -> writer.complete(name, filename, headers)))
+                    .doOnError(e -> writer.discard())
+                    .doOnCancel(writer::discard);
+        });
+    }
+
+    /**
+     * Delete every file still held by live uploads and, when created by this storage, the spill directory.
+     */
+    @Override
+    public void close() {
+        for (final Path file : this.files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                log.warn("Failed to delete spilled upload {}.", file, e);
+            }
+        }
+        this.files.clear();
+        this.diskUsage.set(0);
+        final Path created = this.directory;
+        if (this.configuredDirectory == null && created != null) {
+            try {
+                Files.deleteIfExists(created);
+            } catch (final IOException e) {
+                log.warn("Failed to delete upload spill directory {}.", created, e);
+            }
+        }
+    }
+
+    /**
+     * Delete a spilled upload file off the event loop.
+     * @param file file to delete
+     * @return mono completing once deleted
+     */
+    static Mono<Void> deleteFile(final Path file) {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Path createFile() throws IOException {
+        Path dir = this.directory;
+        if (dir == null) {
+            synchronized (this) {
+                dir = this.directory;
+                if (dir == null) {
+                    dir = this.configuredDirectory != null
+                            ? Files.createDirectories(this.configuredDirectory)
+                            : Files.createTempDirectory(DIRECTORY_PREFIX);
+                    this.directory = dir;
+                    log.debug("Spilling large multipart uploads to {}.", dir);
+                }
+            }
+        }
+        final Path file = Files.createTempFile(dir, "upload-", ".tmp");
+        this.files.add(file);
+        return file;
+    }
+
+    /**
+     * Reserve disk bytes, committing the reservation only when it fits so that a concurrent upload never sees the
+     * usage of one that is rejected.
+     */
+    private void reserve(final long bytes) {
+        final long max = this.maxDiskUsage.toBytes();
+        if (max < 0) {
+            this.diskUsage.addAndGet(bytes);
+            return;
+        }
+        long usage;
+        do {
+            usage = this.diskUsage.get();
+            if (usage + bytes > max) {
+                throw GraphQlMultipartException.storageExhausted("Upload storage has no room left for this upload.");
+            }
+        } while (!this.diskUsage.compareAndSet(usage, usage + bytes));
+    }
+
+    private void unreserve(final Path file, final long bytes) {
+        if (this.files.remove(file)) {
+            this.diskUsage.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Per-upload writer; `write` calls are strictly sequential, but a cancel may {@link #discard()} the upload while
+     * its file is being created on another thread, so the writer's state is only touched under the writer's lock.
+     */
+    private final class UploadWriter {
+        private final List<DataBuffer> buffers = new ArrayList<>();
+        private long size;
+        private long reserved;
+        private Path file;
+        private AsynchronousFileChannel channel;
+        private boolean discarded;
+
+        Mono<Void> write(final DataBuffer buffer) {
+            final long bytes = buffer.readableByteCount();
+            final List<DataBuffer> pending;
+            synchronized (this) {
+                if (this.discarded) {
+                    DataBufferUtils.release(buffer);
+                    return Mono.empty();
+                }
+                this.size += bytes;
+                if (this.file == null && this.size <= inMemoryThreshold.toBytes()) {
+                    this.buffers.add(buffer);
+                    return Mono.empty();
+                }
+                if (this.file != null) {
+                    return writeToFile(Flux.just(buffer), bytes);
+                }
+                pending = new ArrayList<>(this.buffers);
+                pending.add(buffer);
+                this.buffers.clear();
+            }
+            // Whoever flips this flag first owns the pending buffers: the file write, or the error/cancel release.
+            final AtomicBoolean owned = new AtomicBoolean();
+            return Mono.fromCallable(this::open)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(Mono.defer(() -> {
+                        synchronized (this) {
+                            return this.channel != null && owned.compareAndSet(false, true)
+                                    ? writeToFile(Flux.fromIterable(pending), this.size)
+                                    : Mono.<Void>empty();
+                        }
+                    }))
+                    .doFinally(signal -> {
+                        if (owned.compareAndSet(false, true)) {
+                            pending.forEach(DataBufferUtils::release);
+                        }
+                    });
+        }
+
+        /**
+         * Create and open the spill file, deleting it again when the upload was discarded in the meantime.
+         */
+        private Path open() throws IOException {
+            final Path created = createFile();
+            final AsynchronousFileChannel opened;
+            try {
+                opened = AsynchronousFileChannel.open(created, StandardOpenOption.WRITE);
+            } catch (final IOException e) {
+                unreserve(created, 0);
+                Files.deleteIfExists(created);
+                throw e;
+            }
+            synchronized (this) {
+                if (!this.discarded) {
+                    this.file = created;
+                    this.channel = opened;
+                    return created;
+                }
+            }
+            opened.close();
+            unreserve(created, 0);
+            Files.deleteIfExists(created);
+            return created;
+        }
+
+        /**
+         * Reserve disk space for and write buffers at the end of the file; called under the writer's lock.
+         */
+        private Mono<Void> writeToFile(final Flux<DataBuffer> pending, final long bytes) {
+            final long position = this.size - bytes;
+            try {
+                reserve(bytes);
+            } catch (final GraphQlMultipartException e) {
+                return pending.doOnNext(DataBufferUtils::release).then(Mono.error(e));
+            }
+            this.reserved += bytes;
+            return DataBufferUtils.write(pending, this.channel, position)
+                    .doOnNext(DataBufferUtils::release)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then();
+        }
+
+        synchronized StoredFilePart complete(final String name, final String filename, final HttpHeaders headers) throws IOException {
+            if (this.file == null) {
+                return StoredFilePart.inMemory(name, filename, headers, this.buffers);
+            }
+            this.channel.close();
+            final Path stored = this.file;
+            final long bytes = this.reserved;
+            return StoredFilePart.onDisk(name, filename, headers, stored, this.size, bufferFactory, readBufferSize,
+                    () -> unreserve(stored, bytes));
+        }
+
+        void discard() {
+            final Path discardedFile;
+            final AsynchronousFileChannel discardedChannel;
+            final long bytes;
+            synchronized (this) {
+                if (this.discarded) {
+                    return;
+                }
+                this.discarded = true;
+                this.buffers.forEach(DataBufferUtils::release);
+                this.buffers.clear();
+                discardedFile = this.file;
+                discardedChannel = this.channel;
+                bytes = this.reserved;
+            }
+            if (discardedFile == null) {
+                return;
+            }
+            try {
+                discardedChannel.close();
+            } catch (final IOException e) {
+                log.debug("Failed to close spilled upload {}.", discardedFile, e);
+            }
+            deleteFile(discardedFile).doFinally(signal -> unreserve(discardedFile, bytes)).subscribe(null,
+                    e -> log.warn("Failed to delete spilled upload {}.", discardedFile, e));
+        }
+    }
+}
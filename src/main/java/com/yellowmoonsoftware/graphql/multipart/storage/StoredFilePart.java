@@ -0,0 +1,233 @@
+package com.yellowmoonsoftware.graphql.multipart.storage;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.digest.DigestedContent;
+import lombok.Getter;
+import lombok.Setter;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h2>StoredFilePart</h2>
+ * {@link FilePart} whose content has been fully received by {@link SpillingUploadStorage}, either as retained buffers
+ * in memory or as a file in the storage directory.
+ * <ul>
+ * <li>{@link #content()} may be subscribed any number of times until {@link #delete()} is called.</li>
+ * <li>In-memory content is emitted as read-only views of the retained buffers; no copy is made.</li>
+ * <li>{@link #delete()} releases the buffers or deletes the file and returns its bytes to the disk quota; it is
+ * idempotent.</li>
+ * <li>Content kept in its `Content-Encoding` is decoded each time it is read; see `contentDecoding`.</li>
+ * </ul>
+ */
+public final class StoredFilePart implements FilePart, DigestedContent {
+    private final String name;
+    private final String filename;
+    private final HttpHeaders headers;
+
+    /**
+     * Number of stored content bytes; the encoded size when the content is kept encoded.
+     */
+    @Getter
+    private final long contentLength;
+
+    private final List<DataBuffer> buffers;
+    private final Path file;
+    private final DataBufferFactory bufferFactory;
+    private final int bufferSize;
+    private final Runnable onDelete;
+    private final AtomicBoolean deleted = new AtomicBoolean();
+
+    /**
+     * Digests computed while the content was received; set by the decoder once the part has been stored.
+     */
+    @Setter
+    private volatile ContentDigests digests = ContentDigests.NONE;
+
+    /**
+     * Decoding applied to the stored content when it is read, for content kept in its `Content-Encoding`; set by the
+     * decoder once the part has been stored, `null` when the content is stored decoded.
+     */
+    @Setter
+    private volatile UnaryOperator<Flux<DataBuffer>> contentDecoding;
+
+    private StoredFilePart(final String name, final String filename, final HttpHeaders headers, final long contentLength,
+                           final List<DataBuffer> buffers, final Path file, final DataBufferFactory bufferFactory,
+                           final int bufferSize, final Runnable onDelete) {
+        this.name = name;
+        this.filename = filename;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.contentLength = contentLength;
+        this.buffers = buffers;
+        this.file = file;
+        this.bufferFactory = bufferFactory;
+        this.bufferSize = bufferSize;
+        this.onDelete = onDelete;
+    }
+
+    /**
+     * Create a part backed by retained in-memory buffers, taking ownership of them.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param headers part headers
+     * @param buffers retained content buffers
+     * @return stored part
+     */
+    static StoredFilePart inMemory(final String name, final String filename, final HttpHeaders headers, final List<DataBuffer> buffers) {
+        final long length = buffers.stream().mapToLong(DataBuffer::readableByteCount).sum();
+        return new StoredFilePart(name, filename, headers, length, List.copyOf(buffers), null, null, 0, () -> { });
+    }
+
+    /**
+     * Create a part backed by a file, taking ownership of it.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param headers part headers
+     * @param file file holding the content
+     * @param contentLength size of the file
+     * @param bufferFactory factory for buffers read from the file
+     * @param bufferSize size of buffers read from the file
+     * @param onDelete callback run once the file has been deleted
+     * @return stored part
+     */
+    public static StoredFilePart onDisk(final String name, final String filename, final HttpHeaders headers, final Path file,
+                                 final long contentLength, final DataBufferFactory bufferFactory, final int bufferSize,
+                                 final Runnable onDelete) {
+        return new StoredFilePart(name, filename, headers, contentLength, List.of(), file, bufferFactory, bufferSize, onDelete);
+    }
+
+    @Override
+    public @NonNull String name() {
+        return this.name;
+    }
+
+    @Override
+    public @NonNull String filename() {
+        return this.filename;
+    }
+
+    @Override
+    public @NonNull HttpHeaders headers() {
+        return this.headers;
+    }
+
+    @Override
+    public ContentDigests digests() {
+        return this.digests;
+    }
+
+    /**
+     * Whether the content is held in memory rather than in a file.
+     * @return `true` when in memory
+     */
+    public boolean isInMemory() {
+        return this.file == null;
+    }
+
+    /**
+     * Whether the content is kept in its `Content-Encoding` and decoded when read.
+     * @return `true` when a `contentDecoding` is set
+     */
+    public boolean isEncoded() {
+        return this.contentDecoding != null;
+    }
+
+    /**
+     * File holding the content, when spilled to disk.
+     * @return file path, or `null` when in memory
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Content of the part; every subscription reads it from the start.
+     * @return flux of content buffers
+     * @throws IllegalStateException (signalled) once the part has been deleted
+     */
+    @Override
+    public @NonNull Flux<DataBuffer> content() {
+        final UnaryOperator<Flux<DataBuffer>> decoding = this.contentDecoding;
+        return decoding == null ? storedContent() : decoding.apply(storedContent());
+    }
+
+    private Flux<DataBuffer> storedContent() {
+        return Flux.defer(() -> {
+            if (this.deleted.get()) {
+                return Flux.error(new IllegalStateException("Upload " + this.name + " has already been deleted."));
+            }
+            if (this.file != null) {
+                return DataBufferUtils.readAsynchronousFileChannel(
+                        () -> AsynchronousFileChannel.open(this.file, StandardOpenOption.READ), this.bufferFactory, this.bufferSize);
+            }
+            final List<DataBuffer> views = new ArrayList<>(this.buffers.size());
+            for (final DataBuffer buffer : this.buffers) {
+                try (DataBuffer.ByteBufferIterator byteBuffers = buffer.readableByteBuffers()) {
+                    while (byteBuffers.hasNext()) {
+                        final ByteBuffer byteBuffer = byteBuffers.next();
+                        views.add(DefaultDataBufferFactory.sharedInstance.wrap(byteBuffer.asReadOnlyBuffer()));
+                    }
+                }
+            }
+            return Flux.fromIterable(views);
+        });
+    }
+
+    @Override
+    public @NonNull Mono<Void> transferTo(@NonNull final Path dest) {
+        if (this.file != null && this.contentDecoding == null && !this.deleted.get()) {
+            return Mono.<Void>fromRunnable(() -> {
+                        try {
+                            Files.copy(this.file, dest, StandardCopyOption.REPLACE_EXISTING);
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return DataBufferUtils.write(content(), dest);
+    }
+
+    @Override
+    public @NonNull Mono<Void> delete() {
+        return Mono.defer(() -> {
+            if (!this.deleted.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            if (this.file == null) {
+                this.buffers.forEach(DataBufferUtils::release);
+                return Mono.empty();
+            }
+            // Return the quota before completion is signalled, so callers observe it once delete() has completed.
+            return SpillingUploadStorage.deleteFile(this.file)
+                    .doOnTerminate(this.onDelete)
+                    .doOnCancel(this.onDelete);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "StoredFilePart{name='" + this.name + "', filename='" + this.filename + "', contentLength=" + this.contentLength
+                + ", inMemory=" + isInMemory() + "}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.yellowmoonsoftware.graphql.multipart.storage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h2>UploadStorage</h2>
+ * Strategy that materializes the content of an uploaded file part before the GraphQL request is dispatched, used by
+ * the `stored` decode mode.
+ * <p>
+ * The returned {@link FilePart} owns whatever the storage allocated for it: its content may be read any number of
+ * times until {@link FilePart#delete()} releases it, which the multipart handler does once the GraphQL response has
+ * been produced.
+ */
+public interface UploadStorage {
+    /**
+     * Store the content of a file part.
+     * @param name multipart field name
+     * @param filename client-supplied file name
+     * @param headers part headers
+     * @param content part content; every buffer is released by the storage
+     * @return {@link Mono} emitting the stored part once its content has been fully received
+     */
+    Mono<FilePart> store(String name, String filename, HttpHeaders headers, Flux<DataBuffer> content);
+}
@@ -0,0 +1,227 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>IterativeMapListGraphTraverser</h2>
+ * {@link ObjectGraphTraverser} for nested {@link Map}/{@link List} graphs that resolves {@link ObjectGraphPath}s in a
+ * plain loop.
+ * <ul>
+ * <li>No traverser or lambda is allocated per path segment.</li>
+ * <li>List positions use the indices pre-computed by {@link ObjectGraphPath#segmentIndex(int)}.</li>
+ * <li>Failures are reported as a {@link Result} code by {@link #trySet(ObjectGraphPath, Object)} and
+ * {@link #resolve(ObjectGraphPath)}; no exceptions are used for control flow.</li>
+ * </ul>
+ * Semantics match {@link MapListGraphTraverser}: only existing map keys and in-range list indices are written.
+ */
+@Slf4j
+public final class IterativeMapListGraphTraverser implements ObjectGraphTraverser {
+
+    /**
+     * Outcome of resolving or writing a path.
+     */
+    public enum Result {
+        /**
+         * The path resolved and the operation was applied.
+         */
+        APPLIED,
+        /**
+         * The path has no leaf key.
+         */
+        INVALID_PATH,
+        /**
+         * A map along the path does not contain the requested key.
+         */
+        MISSING_KEY,
+        /**
+         * A list along the path was addressed with a non-numeric or out-of-range index.
+         */
+        INDEX_OUT_OF_RANGE,
+        /**
+         * A value along the path is neither a {@link Map} nor a {@link List}.
+         */
+        NOT_A_CONTAINER
+    }
+
+    private final Object root;
+
+    private IterativeMapListGraphTraverser(final Object root) {
+        this.root = root;
+    }
+
+    /**
+     * Wrap an object into a traverser: Map/List supported, otherwise null-object.
+     *
+     * @param obj object to wrap
+     * @return traverser for Map/List or {@link NullObjectGraphTraverser} otherwise
+     */
+    public static ObjectGraphTraverser wrap(final Object obj) {
+        return obj instanceof Map<?, ?> || obj instanceof List<?>
+                ? new IterativeMapListGraphTraverser(obj)
+                : NullObjectGraphTraverser.INSTANCE;
+    }
+
+    /**
+     * Write a value at the given path, reporting the outcome as a result code.
+     *
+     * @param path  parsed path
+     * @param value value to set
+     * @return {@link Result#APPLIED} when written, otherwise the reason it was not
+     */
+    public Result trySet(final ObjectGraphPath path, final Object value) {
+        if (!path.isValid()) {
+            return Result.INVALID_PATH;
+        }
+        final Object parent = walk(path);
+        if (parent instanceof Result failure) {
+            return failure;
+        }
+        return write(parent, path.key(), path.keyIndex(), value);
+    }
+
+    /**
+     * Check whether the given path resolves to an existing, writable leaf without modifying the graph.
+     *
+     * @param path parsed path
+     * @return {@link Result#APPLIED} when the leaf's container exists and holds the key, otherwise the failure reason
+     */
+    public Result resolve(final ObjectGraphPath path) {
+        if (!path.isValid()) {
+            return Result.INVALID_PATH;
+        }
+        final Object parent = walk(path);
+        if (parent instanceof Result failure) {
+            return failure;
+        }
+        return probe(parent, path.key(), path.keyIndex());
+    }
+
+    /**
+     * Set a value using a multi-segment {@link ObjectGraphPath}.
+     *
+     * @param path  parsed path
+     * @param value value to set
+     * @param <T>   value type
+     * @return value set or null if path invalid
+     */
+    @Override
+    public <T> T set(final ObjectGraphPath path, final T value) {
+        log.trace("Setting value [{}] at path: {}", value, path);
+        return trySet(path, value) == Result.APPLIED ? value : null;
+    }
+
+    /**
+     * Get a value using a multi-segment {@link ObjectGraphPath}.
+     *
+     * @param path parsed path
+     * @param <T>  expected type
+     * @return value or null if missing
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final ObjectGraphPath path) {
+        if (!path.isValid()) {
+            return null;
+        }
+        final Object parent = walk(path);
+        if (parent instanceof Result) {
+            return null;
+        }
+        final Object child = child(parent, path.key(), path.keyIndex());
+        return child instanceof Result ? null : (T) child;
+    }
+
+    /**
+     * Set a value on the root collection using a string key.
+     *
+     * @param key   string key/index
+     * @param value value to set
+     * @param <T>   value type
+     * @return value set or null if key invalid
+     */
+    @Override
+    public <T> T set(final String key, final T value) {
+        return write(this.root, key, ObjectGraphPath.toIndex(key), value) == Result.APPLIED ? value : null;
+    }
+
+    /**
+     * Get a value from the root collection using a string key.
+     *
+     * @param key string key/index
+     * @param <T> expected type
+     * @return value or null if missing/invalid key
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key) {
+        final Object child = child(this.root, key, ObjectGraphPath.toIndex(key));
+        return child instanceof Result ? null : (T) child;
+    }
+
+    /**
+     * Dereference a nested node by string key and wrap it as a traverser.
+     *
+     * @param key string key/index
+     * @return traverser for nested value or null-object
+     */
+    @Override
+    public ObjectGraphTraverser dereference(final String key) {
+        return wrap(get(key));
+    }
+
+    /**
+     * Walk the path segments from the root.
+     * @param path parsed path
+     * @return the container holding the leaf key, or a failure {@link Result}
+     */
+    private Object walk(final ObjectGraphPath path) {
+        final List<String> segments = path.pathSegments();
+        Object node = this.root;
+        for (int i = 0, n = segments.size(); i < n; i++) {
+            node = child(node, segments.get(i), path.segmentIndex(i));
+            if (node instanceof Result) {
+                return node;
+            }
+        }
+        return node;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Object child(final Object node, final String key, final int index) {
+        if (node instanceof Map map) {
+            final Object value = map.get(key);
+            return value != null || map.containsKey(key) ? value : Result.MISSING_KEY;
+        }
+        if (node instanceof List list) {
+            return index >= 0 && index < list.size() ? list.get(index) : Result.INDEX_OUT_OF_RANGE;
+        }
+        return Result.NOT_A_CONTAINER;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Result probe(final Object node, final String key, final int index) {
+        if (node instanceof Map map) {
+            return map.containsKey(key) ? Result.APPLIED : Result.MISSING_KEY;
+        }
+        if (node instanceof List list) {
+            return index >= 0 && index < list.size() ? Result.APPLIED : Result.INDEX_OUT_OF_RANGE;
+        }
+        return Result.NOT_A_CONTAINER;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Result write(final Object node, final String key, final int index, final Object value) {
+        final Result probe = probe(node, key, index);
+        if (probe == Result.APPLIED) {
+            if (node instanceof Map map) {
+                map.put(key, value);
+            } else {
+                ((List) node).set(index, value);
+            }
+        }
+        return probe;
+    }
+}
@@ -1,27 +1,35 @@
 package com.yellowmoonsoftware.graphql.multipart.util;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
-import graphql.com.google.common.collect.Lists;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.jspecify.annotations.NonNull;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.function.UnaryOperator;
 
 /**
  * <h2>ObjectGraphPath</h2>
  * Immutable representation of a dotted path split into segments plus leaf key.
+ * <p>
+ * Each segment (and the key) is pre-classified as either a map key or a non-negative list index so that traversers
+ * can address lists without re-parsing segment strings.
  */
 @Getter
 @Accessors(fluent = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class ObjectGraphPath {
-    private static final Pattern PERIOD = Pattern.compile("\\.");
+    /**
+     * Marker returned by {@link #segmentIndex(int)} and {@link #keyIndex()} for segments that are not list indices.
+     */
+    public static final int NOT_AN_INDEX = -1;
+
+    private static final char SEPARATOR = '.';
+
+    private static final ObjectGraphPath INVALID = new ObjectGraphPath(null, List.of());
 
     /**
      * Leaf key of the path.
@@ -39,6 +47,12 @@ public class ObjectGraphPath {
      */
     private final boolean isValid;
 
+    @Getter(AccessLevel.NONE)
+    private final int[] segmentIndices;
+
+    @Getter(AccessLevel.NONE)
+    private final int keyIndex;
+
     @Getter(lazy = true, value = AccessLevel.PRIVATE)
     private final String toStringCache = buildToStringCache();
 
@@ -61,23 +75,110 @@ public class ObjectGraphPath {
         this.key = key;
         this.pathSegments = List.copyOf(pathSegments);
         this.isValid = this.key != null;
+        this.segmentIndices = new int[this.pathSegments.size()];
+        for (int i = 0; i < this.segmentIndices.length; i++) {
+            this.segmentIndices[i] = toIndex(this.pathSegments.get(i));
+        }
+        this.keyIndex = toIndex(this.key);
+    }
+
+    /**
+     * Return the list index of the segment at the given position.
+     * @param position segment position (0-based)
+     * @return non-negative list index, or {@link #NOT_AN_INDEX} when the segment is a map key only
+     */
+    public int segmentIndex(final int position) {
+        return this.segmentIndices[position];
+    }
+
+    /**
+     * Return the list index of the leaf key.
+     * @return non-negative list index, or {@link #NOT_AN_INDEX} when the key is a map key only
+     */
+    public int keyIndex() {
+        return this.keyIndex;
     }
 
     /**
-     * Parse a dotted string path into an {@link ObjectGraphPath}, splitting segments and leaf key.
+     * Return the shared {@link ObjectGraphPath} for a dotted string path, parsing it on first use.
+     * <p>
+     * Instances are served from {@link ObjectGraphPathCache#shared()}, so repeated paths do not re-allocate.
      * @param path dotted path string
      * @return parsed {@link ObjectGraphPath}
      */
     @JsonCreator()
     public static ObjectGraphPath from(final String path) {
-        final List<String> segments = Optional.ofNullable(path)
-                .filter(p -> !p.isEmpty())
-                .map(p -> Lists.newArrayList(PERIOD.split(p)))
-                .orElse(Lists.newArrayList());
+        return path == null || path.isEmpty() ? INVALID : ObjectGraphPathCache.shared().get(path);
+    }
+
+    /**
+     * Parse a dotted string path into an {@link ObjectGraphPath}, splitting segments and leaf key, without caching.
+     * <p>
+     * Trailing empty segments are dropped (e.g. `a.b.` is `a[b]`) while leading and inner empty segments are kept.
+     * @param path dotted path string
+     * @return parsed {@link ObjectGraphPath}
+     */
+    public static ObjectGraphPath parse(final String path) {
+        return parse(path, UnaryOperator.identity());
+    }
+
+    /**
+     * Parse a dotted string path in a single pass, passing each segment through the given interner.
+     * @param path dotted path string
+     * @param interner function returning a canonical instance for a segment
+     * @return parsed {@link ObjectGraphPath}
+     */
+    static ObjectGraphPath parse(final String path, final UnaryOperator<String> interner) {
+        if (path == null || path.isEmpty()) {
+            return INVALID;
+        }
+
+        final List<String> segments = new ArrayList<>(4);
+        int start = 0;
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        for (int i = 0; i < end; i++) {
+            if (path.charAt(i) == SEPARATOR) {
+                segments.add(interner.apply(path.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        if (end > 0) {
+            segments.add(interner.apply(path.substring(start, end)));
+        }
 
         final String key = !segments.isEmpty() ? segments.remove(segments.size() - 1) : null;
 
-        return new ObjectGraphPath(key, Collections.unmodifiableList(segments));
+        return new ObjectGraphPath(key, segments);
+    }
+
+    /**
+     * Classify a segment as a list index: an optionally `+`-signed run of decimal digits that fits an `int`.
+     * @param segment path segment
+     * @return the index, or {@link #NOT_AN_INDEX}
+     */
+    static int toIndex(final String segment) {
+        if (segment == null || segment.isEmpty()) {
+            return NOT_AN_INDEX;
+        }
+        final int first = segment.charAt(0) == '+' ? 1 : 0;
+        if (first == segment.length()) {
+            return NOT_AN_INDEX;
+        }
+        long value = 0;
+        for (int i = first; i < segment.length(); i++) {
+            final char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_AN_INDEX;
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return NOT_AN_INDEX;
+            }
+        }
+        return (int) value;
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import org.springframework.util.ConcurrentLruCache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>ObjectGraphPathCache</h2>
+ * Bounded, concurrent cache of parsed {@link ObjectGraphPath} instances keyed by their dotted string form.
+ * <ul>
+ * <li>Least recently used paths are evicted once {@link #capacity()} is exceeded.</li>
+ * <li>Segment strings are interned through a companion cache so common prefixes (`variables`, `input`, ...) are
+ * shared between cached paths.</li>
+ * <li>Hit and miss counters are maintained for monitoring.</li>
+ * </ul>
+ */
+public final class ObjectGraphPathCache {
+    /**
+     * Capacity of the {@link #shared()} cache.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final ObjectGraphPathCache SHARED = new ObjectGraphPathCache(DEFAULT_CAPACITY);
+
+    private final ConcurrentLruCache<String, ObjectGraphPath> paths;
+    private final ConcurrentLruCache<String, String> segments;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a cache holding at most `capacity` paths.
+     * @param capacity maximum number of cached paths
+     */
+    public ObjectGraphPathCache(final int capacity) {
+        this.segments = new ConcurrentLruCache<>(capacity, segment -> segment);
+        this.paths = new ConcurrentLruCache<>(capacity, path -> {
+            this.misses.increment();
+            return ObjectGraphPath.parse(path, this.segments::get);
+        });
+    }
+
+    /**
+     * Return the process-wide cache used by {@link ObjectGraphPath#from(String)}.
+     * @return shared cache
+     */
+    public static ObjectGraphPathCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Return the cached path for the given dotted string, parsing and caching it on a miss.
+     * @param path non-empty dotted path
+     * @return shared immutable {@link ObjectGraphPath}
+     */
+    public ObjectGraphPath get(final String path) {
+        this.lookups.increment();
+        return this.paths.get(path);
+    }
+
+    /**
+     * Number of lookups served from the cache.
+     * @return hit count
+     */
+    public long hitCount() {
+        return this.lookups.sum() - this.misses.sum();
+    }
+
+    /**
+     * Number of lookups that required parsing.
+     * @return miss count
+     */
+    public long missCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Number of paths currently cached.
+     * @return cache size
+     */
+    public int size() {
+        return this.paths.size();
+    }
+
+    /**
+     * Maximum number of cached paths.
+     * @return capacity
+     */
+    public int capacity() {
+        return this.paths.capacity();
+    }
+
+    /**
+     * Remove all cached paths and segments; counters are retained.
+     */
+    public void clear() {
+        this.paths.clear();
+        this.segments.clear();
+    }
+}
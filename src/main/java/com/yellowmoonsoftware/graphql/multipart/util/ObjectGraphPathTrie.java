@@ -0,0 +1,94 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>ObjectGraphPathTrie</h2>
+ * Prefix tree of {@link ObjectGraphPath}s to values, used to write many values into an object graph in a single pass.
+ * <p>
+ * Paths sharing a prefix share trie nodes, so {@link #applyTo(ObjectGraphTraverser)} dereferences each container
+ * once regardless of how many leaves sit beneath it: writing `n` values costs `O(n + distinct prefixes)` rather than
+ * `O(n * depth)`.
+ *
+ * @param <V> value type stored at the leaves
+ */
+public final class ObjectGraphPathTrie<V> {
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * Add a value at the given path, replacing any value previously added for the same path.
+     * @param path valid object graph path
+     * @param value value to write at the path
+     * @return this trie
+     */
+    public ObjectGraphPathTrie<V> put(final ObjectGraphPath path, final V value) {
+        if (!path.isValid()) {
+            return this;
+        }
+        Node<V> node = this.root;
+        final List<String> segments = path.pathSegments();
+        for (int i = 0, n = segments.size(); i < n; i++) {
+            node = node.child(segments.get(i));
+        }
+        node = node.child(path.key());
+        if (!node.hasValue) {
+            this.size++;
+        }
+        node.value = value;
+        node.hasValue = true;
+        return this;
+    }
+
+    /**
+     * Number of distinct paths holding a value.
+     * @return leaf count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Whether no value has been added.
+     * @return `true` when empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Write every value into the graph behind the traverser, dereferencing each shared container once.
+     * <p>
+     * As with {@link ObjectGraphTraverser#set(ObjectGraphPath, Object)}, paths that do not resolve are skipped.
+     * @param traverser traverser over the root of the graph
+     */
+    public void applyTo(final ObjectGraphTraverser traverser) {
+        if (this.size > 0) {
+            apply(traverser, this.root);
+        }
+    }
+
+    private static <V> void apply(final ObjectGraphTraverser traverser, final Node<V> node) {
+        for (final Map.Entry<String, Node<V>> entry : node.children.entrySet()) {
+            final Node<V> child = entry.getValue();
+            if (!child.children.isEmpty()) {
+                apply(traverser.dereference(entry.getKey()), child);
+            }
+            if (child.hasValue) {
+                traverser.set(entry.getKey(), child.value);
+            }
+        }
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new LinkedHashMap<>(4);
+        private V value;
+        private boolean hasValue;
+
+        private Node<V> child(final String segment) {
+            return this.children.computeIfAbsent(segment, s -> new Node<>());
+        }
+    }
+}
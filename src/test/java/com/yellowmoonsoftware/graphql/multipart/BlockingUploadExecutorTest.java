@@ -0,0 +1,77 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlockingUploadExecutorTest {
+
+    @Test
+    void testRunsOperationsOnExecutorThreads() {
+        try (BlockingUploadExecutor executor = new BlockingUploadExecutor(4)) {
+            StepVerifier.create(executor.execute(() -> Mono.just(Thread.currentThread().getName())))
+                    .assertNext(thread -> assertThat(thread).startsWith("graphql-multipart-blocking-"))
+                    .verifyComplete();
+            assertThat(executor.isVirtual()).isEqualTo(Runtime.version().feature() >= 21);
+        }
+    }
+
+    @Test
+    void testBoundsOperationsInFlight() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (BlockingUploadExecutor executor = new BlockingUploadExecutor(2)) {
+            StepVerifier.create(Flux.range(0, 8)
+                            .flatMap(i -> executor.execute(() -> {
+                                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                                return Mono.delay(Duration.ofMillis(20))
+                                        .doOnNext(tick -> running.decrementAndGet())
+                                        .thenReturn(i);
+                            })))
+                    .expectNextCount(8)
+                    .verifyComplete();
+
+            assertThat(maxRunning).hasValue(2);
+            assertThat(executor.getActiveCount()).isZero();
+        }
+    }
+
+    @Test
+    void testReleasesPermitWhenOperationFails() {
+        try (BlockingUploadExecutor executor = new BlockingUploadExecutor(1)) {
+            StepVerifier.create(executor.execute(() -> Mono.error(new IllegalStateException("boom"))))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+            StepVerifier.create(executor.execute(() -> {
+                        throw new IllegalArgumentException("assembly");
+                    }))
+                    .expectError(IllegalArgumentException.class)
+                    .verify();
+
+            assertThat(executor.getActiveCount()).isZero();
+            StepVerifier.create(executor.execute(() -> Mono.just(1))).expectNext(1).verifyComplete();
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveConcurrency() {
+        assertThatThrownBy(() -> new BlockingUploadExecutor(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testUploadRejectsBlockingStreamOnNonBlockingThread() {
+        final Upload upload = Upload.of(new MockFilePart("a.txt", "0", "hello"));
+
+        StepVerifier.create(Mono.fromCallable(upload::inputStream).subscribeOn(Schedulers.parallel()))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+}
@@ -1,7 +1,27 @@
 package com.yellowmoonsoftware.graphql.multipart;
 
+import com.yellowmoonsoftware.graphql.multipart.scalars.UploadScalar;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+
 public class GqlTestData {
 
+    public static GraphQLSchema getTestSchema() {
+        return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse("""
+                        scalar Upload
+                        input Attachment { file: Upload!, caption: String }
+                        input Post { title: String, cover: Upload, attachments: [Attachment!] }
+                        type Query { ping: String }
+                        type Mutation {
+                            multipleUpload(files: [Upload!]!): [ID]
+                            createPost(post: Post!): ID
+                        }
+                        """),
+                RuntimeWiring.newRuntimeWiring().scalar(UploadScalar.INSTANCE).build());
+    }
+
     public static String getTestOperationsJson() {
         return getTestOperationsJson(false, false);
     }
@@ -45,4 +65,14 @@ public class GqlTestData {
               : ["variables.files.1"] }
               """;
     }
+
+    public static String getTestBatchOperationsJson() {
+        return "[" + getTestOperationsJson() + "," + getTestOperationsJson() + "]";
+    }
+
+    public static String getTestBatchFileMapJson() {
+        return """
+                { "0": ["0.variables.files.0", "1.variables.files.1"], "1": ["0.variables.files.1"] }
+                """;
+    }
 }
@@ -0,0 +1,136 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphQlMultipartAdmissionControllerTest {
+
+    @Test
+    void testAdmitsWithinBudgets() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(2, 100);
+
+        final GraphQlMultipartAdmissionController.Permit first = controller.acquire(40).block();
+        final GraphQlMultipartAdmissionController.Permit second = controller.acquire(60).block();
+
+        assertThat(controller.getInFlightRequests()).isEqualTo(2);
+        assertThat(controller.getInFlightBytes()).isEqualTo(100);
+        first.release().block();
+        first.release().block();
+        second.release().block();
+        assertThat(controller.getInFlightRequests()).isZero();
+        assertThat(controller.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void testQueuesUntilBudgetIsReleased() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(-1, 100);
+        final GraphQlMultipartAdmissionController.Permit held = controller.acquire(80).block();
+
+        StepVerifier.create(controller.acquire(50))
+                .then(() -> assertThat(controller.getQueueDepth()).isEqualTo(1))
+                .then(held::release)
+                .assertNext(permit -> assertThat(controller.getInFlightBytes()).isEqualTo(50))
+                .verifyComplete();
+
+        assertThat(controller.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void testAdmitsQueuedRequestsInOrder() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(1, -1);
+        final GraphQlMultipartAdmissionController.Permit held = controller.acquire(0).block();
+        final List<Integer> admitted = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            controller.acquire(0).subscribe(permit -> {
+                admitted.add(index);
+                permit.release();
+            });
+        }
+
+        assertThat(controller.getQueueDepth()).isEqualTo(3);
+        held.release().block();
+
+        assertThat(admitted).containsExactly(0, 1, 2);
+        assertThat(controller.getInFlightRequests()).isZero();
+        assertThat(controller.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(1, -1);
+        controller.setMaxQueueSize(0);
+        controller.setRetryAfter(Duration.ofMillis(1500));
+        controller.acquire(0).block();
+
+        StepVerifier.create(controller.acquire(0))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartAdmissionRejectedException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartAdmissionRejectedException.ADMISSION_REJECTED);
+                    assertThat(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                }))
+                .verify();
+        assertThat(controller.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void testRejectsWhenQueueWaitExpires() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(1, -1);
+        controller.setMaxQueueWait(Duration.ofMillis(20));
+        final GraphQlMultipartAdmissionController.Permit held = controller.acquire(0).block();
+
+        StepVerifier.create(controller.acquire(0))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartAdmissionRejectedException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)))
+                .verify();
+
+        assertThat(controller.getQueueDepth()).isZero();
+        held.release().block();
+        assertThat(controller.getInFlightRequests()).isZero();
+    }
+
+    @Test
+    void testCapsChargeOfOversizedRequests() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(-1, 100);
+
+        final GraphQlMultipartAdmissionController.Permit permit = controller.acquire(1_000).block();
+
+        assertThat(controller.getInFlightBytes()).isEqualTo(100);
+        permit.release().block();
+    }
+
+    @Test
+    void testBudgetsHoldUnderContention() {
+        final GraphQlMultipartAdmissionController controller = new GraphQlMultipartAdmissionController(4, 400);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        StepVerifier.create(Flux.range(0, 200)
+                        .flatMap(i -> Mono.usingWhen(controller.acquire(100),
+                                        permit -> Mono.fromCallable(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                                                .delayElement(Duration.ofMillis(1))
+                                                .doOnNext(ignored -> running.decrementAndGet()),
+                                        GraphQlMultipartAdmissionController.Permit::release)
+                                .subscribeOn(Schedulers.parallel()), 64))
+                .expectNextCount(200)
+                .verifyComplete();
+
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(4);
+        assertThat(controller.getInFlightRequests()).isZero();
+        assertThat(controller.getInFlightBytes()).isZero();
+        assertThat(controller.getQueueDepth()).isZero();
+    }
+}
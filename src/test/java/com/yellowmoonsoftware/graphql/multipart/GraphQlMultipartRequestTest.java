@@ -7,6 +7,7 @@ import tools.jackson.databind.json.JsonMapper;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class GraphQlMultipartRequestTest {
 
@@ -29,4 +30,31 @@ class GraphQlMultipartRequestTest {
         assertThat(request.getVariables()).isEqualTo(expectedVariables);
     }
 
+    @Test
+    void buildRequestAcceptsPersistedQueryInPlaceOfDocument() {
+        final Map<String, Object> operations = Map.of(
+                "operationName", "upload",
+                "extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", "ABC123")));
+
+        final GraphQlMultipartRequest request = GraphQlMultipartRequest.build(operations);
+        final GraphQlMultipartRequest resolved = request.withDocument("mutation upload { ping }");
+
+        assertThat(request.getDocument()).isEmpty();
+        assertThat(request.getPersistedQueryHash()).isEqualTo("abc123");
+        assertThat(resolved.getDocument()).isEqualTo("mutation upload { ping }");
+        assertThat(resolved.getOperationName()).isEqualTo("upload");
+        assertThat(resolved.getExtensions()).isEqualTo(request.getExtensions());
+        assertThat(GraphQlMultipartRequest.build(Map.of("query", "{ ping }")).getPersistedQueryHash()).isNull();
+    }
+
+    @Test
+    void buildRequestRejectsMalformedPersistedQueries() {
+        assertThatThrownBy(() -> GraphQlMultipartRequest.build(Map.of(
+                "extensions", Map.of("persistedQuery", Map.of("version", 2, "sha256Hash", "abc")))))
+                .isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST));
+        assertThatThrownBy(() -> GraphQlMultipartRequest.build(Map.of(
+                "extensions", Map.of("persistedQuery", Map.of("version", 1)))))
+                .isInstanceOf(GraphQlMultipartException.class);
+    }
 }
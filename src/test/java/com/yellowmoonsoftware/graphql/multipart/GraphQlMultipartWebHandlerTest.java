@@ -1,30 +1,64 @@
 package com.yellowmoonsoftware.graphql.multipart;
 
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartDecoder;
+import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.persisted.InMemoryPersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.persisted.PersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgress;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadConflictException;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.FileSystemUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import graphql.ExecutionResult;
+import graphql.ExperimentalApi;
+import graphql.incremental.DeferPayload;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.DelayedIncrementalPartialResultImpl;
+import graphql.incremental.IncrementalExecutionResultImpl;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.i18n.LocaleContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.graphql.GraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlHandler;
 import org.springframework.graphql.server.WebGraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.http.codec.multipart.Part;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -77,7 +111,7 @@ class GraphQlMultipartWebHandlerTest {
 
         when(serverRequest.cookies()).thenReturn(new LinkedMultiValueMap<>());
         when(serverRequest.remoteAddress()).thenReturn(Optional.empty());
-        when(serverRequest.attributes()).thenReturn(Map.of());
+        when(serverRequest.attributes()).thenReturn(new HashMap<>());
 
         final ServerWebExchange exchange = mock(ServerWebExchange.class);
         final ServerHttpRequest request = mock(ServerHttpRequest.class);
@@ -88,8 +122,8 @@ class GraphQlMultipartWebHandlerTest {
         when(exchange.getLocaleContext()).thenReturn(localeContext);
         when(localeContext.getLocale()).thenReturn(null);
 
-        when(multipartDecoder.decode(multipartDataCaptor.capture()))
-                .thenReturn(Mono.just(graphQlRequest));
+        when(multipartDecoder.decodeBatch(multipartDataCaptor.capture()))
+                .thenReturn(Mono.just(GraphQlMultipartBatch.single(graphQlRequest)));
 
         when(webGraphQlResponse.toMap()).thenReturn(fakeWebGqlResponseData);
         when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
@@ -118,4 +152,725 @@ class GraphQlMultipartWebHandlerTest {
         assertThat(capturedRequest.getHeaders()).isEqualTo(fakeHeaders);
         assertThat(capturedRequest.toMap()).isEqualTo(Map.of("query", fakeQuery));
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleGraphQlMultipartRequest_withStreamingDecodeMode_shouldStreamUploadsAndReleaseThemAfterExecution() {
+        final GraphQlMultipartWebHandler streamingHandler = jsonHandler();
+        streamingHandler.setDecodeMode(GraphQlMultipartDecodeMode.STREAMING);
+
+        final List<String> uploadedFilenames = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(graphQlRequestCaptor.capture())).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            return DataBufferUtils.join(files.get(0).content())
+                    .doOnNext(DataBufferUtils::release)
+                    .then(Mono.fromRunnable(() -> files.forEach(f -> uploadedFilenames.add(f.filename()))))
+                    .thenReturn(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(streamingHandler)
+                .post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(uploadBody())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data").exists();
+
+        assertThat(graphQlRequestCaptor.getValue().getVariables()).containsEntry("foo", "bar");
+        assertThat(uploadedFilenames).containsExactly("first.txt", "");
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withStoredDecodeMode_shouldStoreUploadsAndDeleteThemAfterExecution() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(5));
+        final GraphQlMultipartWebHandler storedHandler = jsonHandler();
+        storedHandler.setDecodeMode(GraphQlMultipartDecodeMode.STORED);
+        storedHandler.setUploadStorage(storage);
+
+        final List<Long> diskUsage = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(graphQlRequestCaptor.capture())).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            assertThat(files).allSatisfy(f -> assertThat(f).isInstanceOf(StoredFilePart.class));
+            diskUsage.add(storage.getDiskUsage());
+            return Mono.just(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(storedHandler)
+                .post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(uploadBody())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data").exists();
+
+        assertThat(diskUsage).containsExactly(6L);
+        assertThat(storage.getDiskUsage()).isZero();
+        storage.close();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withSinkDecodeMode_shouldBindReferencesToWrittenUploads(@TempDir final Path directory) {
+        final GraphQlMultipartWebHandler sinkHandler = jsonHandler();
+        sinkHandler.setDecodeMode(GraphQlMultipartDecodeMode.SINK);
+        sinkHandler.setUploadSink(new FileSystemUploadSink(directory));
+
+        final List<UploadReference> references = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<UploadReference> files = (List<UploadReference>) request.getVariables().get("files");
+            references.addAll(files);
+            return Mono.just(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(sinkHandler)
+                .post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(uploadBody())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(references).extracting(UploadReference::filename).containsExactly("first.txt", "second.txt");
+        assertThat(Path.of(references.get(0).location())).hasContent("first");
+        assertThat(Path.of(references.get(1).location())).hasContent("second");
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withReplayableUploads_shouldExposeUploadContextAndReleaseCopies() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(1));
+        final GraphQlMultipartWebHandler replayHandler = jsonHandler();
+        replayHandler.setUploadStorage(storage);
+
+        final List<Long> diskUsage = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            final UploadContext uploadContext = UploadContext.from(request.toExecutionInput().getGraphQLContext());
+            assertThat(uploadContext).isNotNull();
+            assertThat(uploadContext.getStorage()).isSameAs(storage);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            return Flux.fromIterable(files)
+                    .concatMap(file -> Upload.of(file, uploadContext).replayable())
+                    .doOnNext(upload -> assertThat(upload.isReplayable()).isTrue())
+                    .then(Mono.fromRunnable(() -> diskUsage.add(storage.getDiskUsage())))
+                    .thenReturn(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(replayHandler)
+                .post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(uploadBody())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(diskUsage).containsExactly(11L);
+        assertThat(storage.getDiskUsage()).isZero();
+        storage.close();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withBlockingExecutor_shouldRunOperationsOnExecutorThreads() throws Exception {
+        final GraphQlMultipartWebHandler blockingHandler = jsonHandler();
+        final BlockingUploadExecutor executor = new BlockingUploadExecutor(2);
+        blockingHandler.setBlockingExecutor(executor);
+
+        final List<String> threads = new ArrayList<>();
+        final List<String> contents = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            threads.add(Thread.currentThread().getName());
+            for (final FilePart file : files) {
+                try (InputStream in = Upload.of(file).inputStream()) {
+                    contents.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            return Mono.just(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        try (executor) {
+            client(blockingHandler)
+                    .post()
+                    .uri("/graphql")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .bodyValue(uploadBody())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.data").exists();
+        }
+
+        assertThat(threads).singleElement().asString().startsWith("graphql-multipart-blocking-");
+        assertThat(contents).containsExactly("first", "second");
+        assertThat(executor.getActiveCount()).isZero();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withBatchedOperations_shouldRespondWithArrayInOperationsOrder() {
+        final GraphQlMultipartWebHandler batchHandler = jsonHandler();
+        batchHandler.setBatchConcurrency(2);
+
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            final WebGraphQlResponse response = mock(WebGraphQlResponse.class);
+            when(response.toMap()).thenReturn(Map.of("data", Map.of("id", request.getId(),
+                    "files", files.stream().map(f -> f == null ? "" : f.filename()).toList())));
+            when(response.getResponseHeaders()).thenReturn(new HttpHeaders());
+            // Delay the first operation so that completion order differs from operations order.
+            return Mono.just(response).delayElement(Duration.ofMillis(request.getId().endsWith("-0") ? 100 : 0));
+        });
+
+        client(batchHandler)
+                .post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(multipartBody(GqlTestData.getTestBatchOperationsJson(), GqlTestData.getTestBatchFileMapJson(),
+                        namedResource("first.txt", "first"), namedResource("second.txt", "second")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].data.id").value(id -> assertThat((String) id).endsWith("-0"))
+                .jsonPath("$[0].data.files[0]").isEqualTo("first.txt")
+                .jsonPath("$[0].data.files[1]").isEqualTo("second.txt")
+                .jsonPath("$[1].data.id").value(id -> assertThat((String) id).endsWith("-1"))
+                .jsonPath("$[1].data.files[0]").isEqualTo("")
+                .jsonPath("$[1].data.files[1]").isEqualTo("first.txt");
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withExceededLimits_shouldRespondWithGraphQlError() {
+        final GraphQlMultipartJsonDecoder decoder = new GraphQlMultipartJsonDecoder(new JacksonJsonDecoder());
+        decoder.getLimits().setMaxFiles(1);
+        final GraphQlMultipartWebHandler limitedHandler = new GraphQlMultipartWebHandler(decoder, webGraphQlHandler);
+        final WebTestClient client = client(limitedHandler);
+
+        final MultiValueMap<String, HttpEntity<?>> body = uploadBody();
+
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_GRAPHQL_RESPONSE)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectHeader().contentType(MediaType.APPLICATION_GRAPHQL_RESPONSE)
+                .expectBody()
+                .jsonPath("$.errors[0].message").isEqualTo("Multipart request exceeds the max-files limit of 1.")
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartLimitExceededException.LIMIT_EXCEEDED);
+
+        limitedHandler.getLimits().setMaxRequestSize(DataSize.ofBytes(10));
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .contentLength(1024)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectBody()
+                .jsonPath("$.errors[0].message").isEqualTo("Multipart request exceeds the max-request-size limit of 10.");
+
+        // Without a Content-Length the limit is enforced as the body is read.
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(413)
+                .expectBody()
+                .jsonPath("$.errors[0].message").isEqualTo("Multipart request exceeds the max-request-size limit of 10.");
+
+        verifyNoInteractions(webGraphQlHandler);
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withAdmissionControl_shouldRejectRequestsOverBudget() {
+        final GraphQlMultipartWebHandler admittingHandler = jsonHandler();
+        final GraphQlMultipartAdmissionController admissionController = new GraphQlMultipartAdmissionController(1, -1);
+        admissionController.setMaxQueueSize(0);
+        admissionController.setRetryAfter(Duration.ofSeconds(3));
+        admittingHandler.setAdmissionController(admissionController);
+        final WebTestClient client = client(admittingHandler);
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenReturn(Mono.just(webGraphQlResponse));
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        final MultiValueMap<String, HttpEntity<?>> body = multipartBody(GqlTestData.getTestOperationsJson(), "{}");
+
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(admissionController.getInFlightRequests()).isZero();
+
+        final GraphQlMultipartAdmissionController.Permit held = admissionController.acquire(0).block();
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "3")
+                .expectBody()
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartAdmissionRejectedException.ADMISSION_REJECTED);
+        held.release().block();
+
+        verify(webGraphQlHandler, times(1)).handleRequest(any(WebGraphQlRequest.class));
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withAdmissionByteBudget_shouldChargeChunkedRequestsTheirMaxRequestSize() {
+        final GraphQlMultipartWebHandler admittingHandler = jsonHandler();
+        final GraphQlMultipartAdmissionController admissionController = new GraphQlMultipartAdmissionController(-1, 4096);
+        admittingHandler.setAdmissionController(admissionController);
+        final WebTestClient client = client(admittingHandler);
+        final List<Long> charged = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            charged.add(admissionController.getInFlightBytes());
+            return Mono.just(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+        final byte[] body = chunkedMultipartBody();
+
+        client.post().uri("/graphql").accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.parseMediaType("multipart/form-data;boundary=chunked"))
+                .body(Flux.just(body), byte[].class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.LENGTH_REQUIRED)
+                .expectBody()
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartAdmissionRejectedException.ADMISSION_REJECTED);
+        verifyNoInteractions(webGraphQlHandler);
+
+        final GraphQlMultipartLimits limits = new GraphQlMultipartLimits();
+        limits.setMaxRequestSize(DataSize.ofKilobytes(1));
+        admittingHandler.setLimits(limits);
+        client.post().uri("/graphql").accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.parseMediaType("multipart/form-data;boundary=chunked"))
+                .body(Flux.just(body), byte[].class)
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(charged).containsExactly(1024L);
+        assertThat(admissionController.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withResumableUploadChunks_shouldAppendChunksAtTheirOffsets(@TempDir final Path directory) {
+        final GraphQlMultipartWebHandler resumableHandler = jsonHandler();
+        final ResumableUploadStore store = new ResumableUploadStore(directory);
+        resumableHandler.setResumableUploadStore(store);
+        final WebTestClient client = client(resumableHandler);
+
+        final String uploadId = client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .header(ResumableUploadStore.UPLOAD_OFFSET, "0")
+                .header(ResumableUploadStore.UPLOAD_LENGTH, "11")
+                .bodyValue(chunkBody("hello "))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ResumableUploadStore.UPLOAD_OFFSET, "6")
+                .expectBody()
+                .jsonPath("$.offset").isEqualTo(6)
+                .jsonPath("$.complete").isEqualTo(false)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ResumableUploadStore.UPLOAD_ID);
+        assertThat(uploadId).isNotBlank();
+
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .header(ResumableUploadStore.UPLOAD_ID, "video-1")
+                .header(ResumableUploadStore.UPLOAD_OFFSET, "6")
+                .bodyValue(chunkBody("world"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .header(ResumableUploadStore.UPLOAD_ID, uploadId)
+                .header(ResumableUploadStore.UPLOAD_OFFSET, "0")
+                .bodyValue(chunkBody("hello "))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectHeader().valueEquals(ResumableUploadStore.UPLOAD_OFFSET, "6")
+                .expectBody()
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(ResumableUploadConflictException.OFFSET_CONFLICT);
+
+        client.post()
+                .uri("/graphql")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .header(ResumableUploadStore.UPLOAD_ID, uploadId)
+                .header(ResumableUploadStore.UPLOAD_OFFSET, "6")
+                .bodyValue(chunkBody("world"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.uploadId").isEqualTo(uploadId)
+                .jsonPath("$.complete").isEqualTo(true);
+
+        assertThat(DataBufferUtils.join(store.claim(uploadId).content())
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .block()).isEqualTo("hello world");
+        verifyNoInteractions(webGraphQlHandler);
+        store.close();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withPersistedQueries_shouldHandleNotFoundRoundTrip() {
+        final GraphQlMultipartWebHandler persistedHandler = jsonHandler();
+        persistedHandler.setDecodeMode(GraphQlMultipartDecodeMode.STREAMING);
+        persistedHandler.setPersistedQueryStore(new InMemoryPersistedQueryStore());
+        final WebTestClient client = client(persistedHandler);
+        final String query = "mutation($files: [Upload!]!) { multipleUpload(files: $files) { id } }";
+        final String hash = PersistedQueryStore.hash(query);
+        when(webGraphQlHandler.handleRequest(graphQlRequestCaptor.capture())).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            return Flux.fromIterable(files).concatMap(Part::delete).then(Mono.fromSupplier(() -> {
+                final WebGraphQlResponse response = mock(WebGraphQlResponse.class);
+                when(response.toMap()).thenReturn(Map.of("data", Map.of("uploaded", files.size())));
+                when(response.getResponseHeaders()).thenReturn(new HttpHeaders());
+                return response;
+            }));
+        });
+
+        client.post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(persistedQueryBody(null, hash))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.errors[0].message").isEqualTo("PersistedQueryNotFound")
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartException.PERSISTED_QUERY_NOT_FOUND);
+        verifyNoInteractions(webGraphQlHandler);
+
+        client.post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(persistedQueryBody(query, hash))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.uploaded").isEqualTo(2);
+
+        client.post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(persistedQueryBody(null, hash.toUpperCase(Locale.ROOT)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.uploaded").isEqualTo(2);
+        assertThat(graphQlRequestCaptor.getValue().getDocument()).isEqualTo(query);
+
+        client.post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(persistedQueryBody("{ ping }", hash))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartException.INVALID_REQUEST);
+        verify(webGraphQlHandler, times(2)).handleRequest(any());
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withPersistedQueryWithoutStore_shouldRespondNotSupported() {
+        final GraphQlMultipartWebHandler plainHandler = jsonHandler();
+
+        client(plainHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .bodyValue(persistedQueryBody(null, PersistedQueryStore.hash("{ ping }")))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0].extensions.code").isEqualTo(GraphQlMultipartException.PERSISTED_QUERY_NOT_SUPPORTED);
+        verifyNoInteractions(webGraphQlHandler);
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withResponseWriter_shouldStreamBatchResponses() {
+        final GraphQlMultipartWebHandler streamingHandler = jsonHandler();
+        streamingHandler.setResponseWriter(new StreamingGraphQlResponseWriter(new JsonMapper(), 64));
+        final List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(i);
+        }
+        when(webGraphQlHandler.handleRequest(any())).thenAnswer(invocation -> {
+            final WebGraphQlResponse response = mock(WebGraphQlResponse.class);
+            when(response.getExecutionResult()).thenReturn(ExecutionResult.newExecutionResult().data(Map.of("rows", rows)).build());
+            when(response.getResponseHeaders()).thenReturn(new HttpHeaders());
+            return Mono.just(response);
+        });
+        client(streamingHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_GRAPHQL_RESPONSE)
+                .bodyValue(multipartBody(GqlTestData.getTestBatchOperationsJson(), "{}"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_GRAPHQL_RESPONSE)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].data.rows.length()").isEqualTo(1_000)
+                .jsonPath("$[1].data.rows[999]").isEqualTo(999);
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withIncrementalResponseWriter_shouldSendDeferredPartsAndHoldUploads() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(1));
+        final GraphQlMultipartWebHandler incrementalHandler = jsonHandler();
+        incrementalHandler.setUploadStorage(storage);
+        incrementalHandler.setIncrementalResponseWriter(new IncrementalGraphQlResponseWriter(new JsonMapper()));
+
+        final List<Long> deferredDiskUsage = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            assertThat(request.toExecutionInput().getGraphQLContext().getBoolean(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT)).isTrue();
+            final UploadContext uploadContext = UploadContext.from(request.toExecutionInput().getGraphQLContext());
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            return Flux.fromIterable(files)
+                    .concatMap(file -> Upload.of(file, uploadContext).replayable())
+                    .then(Mono.fromSupplier(() -> {
+                        final Flux<DelayedIncrementalPartialResult> deferred = Flux.defer(() -> {
+                            deferredDiskUsage.add(storage.getDiskUsage());
+                            return Flux.just(DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                                    .incrementalItems(List.of(DeferPayload.newDeferredItem()
+                                            .data(Map.of("report", "ok"))
+                                            .label("report")
+                                            .path(List.of("upload"))
+                                            .build()))
+                                    .hasNext(false)
+                                    .build());
+                        });
+                        final WebGraphQlResponse response = mock(WebGraphQlResponse.class);
+                        when(response.getExecutionResult()).thenReturn(IncrementalExecutionResultImpl.newIncrementalExecutionResult()
+                                .data(Map.of("upload", Map.of()))
+                                .hasNext(true)
+                                .incrementalItemPublisher(deferred)
+                                .build());
+                        when(response.toMap()).thenReturn(Map.of("data", Map.of("upload", Map.of()), "hasNext", true));
+                        when(response.getResponseHeaders()).thenReturn(new HttpHeaders());
+                        return response;
+                    }));
+        });
+
+        final String body = client(incrementalHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.parseMediaType("multipart/mixed; deferSpec=20220824"), MediaType.APPLICATION_JSON)
+                .bodyValue(multipartBody(GqlTestData.getTestOperationsJson(),
+                        GqlTestData.getTestFileMapJson(), namedResource("0.txt", "file-0"), namedResource("1.txt", "file-1")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.MULTIPART_MIXED)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body).isNotNull();
+        assertThat(body.split("\r\n---\r\n")).hasSize(3);
+        assertThat(body).contains("\"hasNext\":true").contains("\"label\":\"report\"").endsWith("\r\n-----\r\n");
+        assertThat(deferredDiskUsage).containsExactly(12L);
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withProgressRegistry_shouldPublishReceivedBytes() {
+        assertThat(requestWithProgress(GraphQlMultipartDecodeMode.AGGREGATED).files()).isEmpty();
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withProgressRegistryInStoredMode_shouldPublishBytesOfEachFile() {
+        assertThat(requestWithProgress(GraphQlMultipartDecodeMode.STORED).files()).containsExactly(
+                new UploadProgress.FileProgress("0", "0.txt", 6, true),
+                new UploadProgress.FileProgress("1", "1.txt", 6, true));
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withProgressRegistryInStreamingMode_shouldKeepReceivingUntilLastFile() {
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        registry.setSampleSize(DataSize.ofBytes(1));
+        final GraphQlMultipartWebHandler progressHandler = jsonHandler();
+        progressHandler.setDecodeMode(GraphQlMultipartDecodeMode.STREAMING);
+        progressHandler.setProgressRegistry(registry);
+        final String id = registry.issue();
+
+        final List<UploadProgress> beforeFiles = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            final WebGraphQlRequest request = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            final List<FilePart> files = (List<FilePart>) request.getVariables().get("files");
+            registry.get(id).ifPresent(beforeFiles::add);
+            return Flux.fromIterable(files)
+                    .concatMap(file -> DataBufferUtils.join(file.content()).doOnNext(DataBufferUtils::release))
+                    .then(Mono.just(webGraphQlResponse));
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(progressHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(UploadProgressRegistry.PROGRESS_ID, id)
+                .bodyValue(multipartBody(GqlTestData.getTestOperationsJson(),
+                        GqlTestData.getTestFileMapJson(), namedResource("0.txt", "file-0"), namedResource("1.txt", "file-1")))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(beforeFiles).singleElement().satisfies(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.RECEIVING);
+            assertThat(progress.files()).noneMatch(file -> file.name().equals("1") && file.complete());
+        });
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.COMPLETED);
+            assertThat(progress.files()).hasSize(2).allMatch(UploadProgress.FileProgress::complete);
+        });
+    }
+
+    @Test
+    void handleGraphQlMultipartRequest_withUnissuedProgressId_shouldNotTrackProgress() {
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        final GraphQlMultipartWebHandler progressHandler = jsonHandler();
+        progressHandler.setProgressRegistry(registry);
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenReturn(Mono.just(webGraphQlResponse));
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(progressHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(UploadProgressRegistry.PROGRESS_ID, "upload-1")
+                .bodyValue(uploadBody())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(registry.get("upload-1")).isEmpty();
+        assertThat(registry.getSize()).isZero();
+    }
+
+    private UploadProgress requestWithProgress(final GraphQlMultipartDecodeMode decodeMode) {
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        registry.setSampleSize(DataSize.ofBytes(1));
+        final GraphQlMultipartWebHandler progressHandler = jsonHandler();
+        progressHandler.setDecodeMode(decodeMode);
+        progressHandler.setProgressRegistry(registry);
+        final String id = registry.issue();
+
+        final List<UploadProgress> duringExecution = new ArrayList<>();
+        when(webGraphQlHandler.handleRequest(any(WebGraphQlRequest.class))).thenAnswer(invocation -> {
+            registry.get(id).ifPresent(duringExecution::add);
+            return Mono.just(webGraphQlResponse);
+        });
+        when(webGraphQlResponse.toMap()).thenReturn(Map.of("data", Map.of()));
+        when(webGraphQlResponse.getResponseHeaders()).thenReturn(new HttpHeaders());
+
+        client(progressHandler)
+                .post().uri("/graphql").contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(UploadProgressRegistry.PROGRESS_ID, id)
+                .bodyValue(multipartBody(GqlTestData.getTestOperationsJson(),
+                        GqlTestData.getTestFileMapJson(), namedResource("0.txt", "file-0"), namedResource("1.txt", "file-1")))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(duringExecution).singleElement().satisfies(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.PROCESSING);
+            assertThat(progress.receivedBytes()).isGreaterThan(12);
+        });
+        final UploadProgress progress = registry.get(id).orElseThrow();
+        assertThat(progress.state()).isEqualTo(UploadProgress.State.COMPLETED);
+        assertThat(progress.receivedBytes()).isEqualTo(duringExecution.get(0).receivedBytes());
+        return progress;
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> persistedQueryBody(final String query, final String hash) {
+        return multipartBody("{" + (query != null ? "\"query\": \"" + query + "\", " : "")
+                        + "\"variables\": { \"files\": [null, null] }, "
+                        + "\"extensions\": { \"persistedQuery\": { \"version\": 1, \"sha256Hash\": \"" + hash + "\" } } }",
+                GqlTestData.getTestFileMapJson(), namedResource("0.txt", "0"), namedResource("1.txt", "1"));
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> chunkBody(final String content) {
+        final MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+        bodyBuilder.part("chunk", namedResource("video.mp4", content));
+        return bodyBuilder.build();
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> uploadBody() {
+        return multipartBody(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson(),
+                namedResource("first.txt", "first"), namedResource("second.txt", "second"));
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> multipartBody(final String operations, final String map,
+                                                                     final ByteArrayResource... files) {
+        final MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+        bodyBuilder.part("operations", operations);
+        bodyBuilder.part("map", map);
+        for (int i = 0; i < files.length; i++) {
+            bodyBuilder.part(String.valueOf(i), files[i]);
+        }
+        return bodyBuilder.build();
+    }
+
+    private static byte[] chunkedMultipartBody() {
+        return ("--chunked\r\nContent-Disposition: form-data; name=\"operations\"\r\n\r\n" + GqlTestData.getTestOperationsJson()
+                + "\r\n--chunked\r\nContent-Disposition: form-data; name=\"map\"\r\n\r\n{}\r\n--chunked--\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteArrayResource namedResource(final String name, final String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
+    private static WebTestClient client(final GraphQlMultipartWebHandler handler) {
+        return WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .POST("/graphql", handler::handleGraphQlMultipartRequest)
+                        .build())
+                .build();
+    }
+
+    private GraphQlMultipartWebHandler jsonHandler() {
+        return new GraphQlMultipartWebHandler(new GraphQlMultipartJsonDecoder(new JacksonJsonDecoder()), webGraphQlHandler);
+    }
+}
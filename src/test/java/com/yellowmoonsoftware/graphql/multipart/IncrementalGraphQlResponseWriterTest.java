@@ -0,0 +1,82 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import graphql.incremental.DeferPayload;
+import graphql.incremental.DelayedIncrementalPartialResultImpl;
+import graphql.incremental.IncrementalExecutionResult;
+import graphql.incremental.IncrementalExecutionResultImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalGraphQlResponseWriterTest {
+    private final IncrementalGraphQlResponseWriter writer = new IncrementalGraphQlResponseWriter(new JsonMapper());
+
+    @Test
+    void testWritesInitialAndDeferredPayloadsAsParts() {
+        final IncrementalExecutionResult result = IncrementalExecutionResultImpl.newIncrementalExecutionResult()
+                .data(Map.of("importRows", Map.of("id", "1")))
+                .hasNext(true)
+                .incrementalItemPublisher(Flux.just(
+                        DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                                .incrementalItems(List.of(DeferPayload.newDeferredItem()
+                                        .data(Map.of("report", "ok"))
+                                        .label("report")
+                                        .path(List.of("importRows"))
+                                        .build()))
+                                .hasNext(false)
+                                .build()))
+                .build();
+        final List<String> parts = new ArrayList<>();
+
+        StepVerifier.create(writer.write(Map.of("data", Map.of("importRows", Map.of("id", "1")), "hasNext", true), result,
+                        DefaultDataBufferFactory.sharedInstance).concatMap(Mono::from))
+                .thenConsumeWhile(buffer -> {
+                    parts.add(buffer.toString(StandardCharsets.UTF_8));
+                    DataBufferUtils.release(buffer);
+                    return true;
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(parts).hasSize(3);
+        assertThat(parts.get(0)).startsWith("\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n")
+                .contains("\"importRows\":{\"id\":\"1\"}").contains("\"hasNext\":true");
+        assertThat(parts.get(1)).contains("\"incremental\":[").contains("\"label\":\"report\"")
+                .contains("\"path\":[\"importRows\"]").contains("\"hasNext\":false");
+        assertThat(parts.get(2)).isEqualTo("\r\n-----\r\n");
+    }
+
+    @Test
+    void testWritesOnlyInitialPayloadWithoutPendingResults() {
+        final IncrementalExecutionResult result = IncrementalExecutionResultImpl.newIncrementalExecutionResult()
+                .data(Map.of())
+                .hasNext(false)
+                .build();
+
+        StepVerifier.create(writer.write(Map.of("data", Map.of()), result, DefaultDataBufferFactory.sharedInstance))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void testAcceptsOnlyExplicitMultipartMixed() {
+        assertThat(IncrementalGraphQlResponseWriter.isAccepted(List.of(MediaType.APPLICATION_JSON,
+                MediaType.parseMediaType("multipart/mixed; deferSpec=20220824")))).isTrue();
+        assertThat(IncrementalGraphQlResponseWriter.isAccepted(List.of(MediaType.ALL))).isFalse();
+        assertThat(IncrementalGraphQlResponseWriter.isAccepted(List.of(MediaType.parseMediaType("multipart/*")))).isFalse();
+        assertThat(IncrementalGraphQlResponseWriter.isAccepted(List.of(MediaType.APPLICATION_GRAPHQL_RESPONSE))).isFalse();
+    }
+}
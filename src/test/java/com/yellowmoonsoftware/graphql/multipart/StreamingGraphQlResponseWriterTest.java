@@ -0,0 +1,151 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingGraphQlResponseWriterTest {
+    private final JsonMapper mapper = new JsonMapper();
+
+    @Test
+    void testWritesResponseInChunks() {
+        final List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add("row-" + i);
+        }
+        final Map<String, Object> response = Map.of("data", Map.of("rows", rows));
+        final StreamingGraphQlResponseWriter writer = new StreamingGraphQlResponseWriter(mapper, 128);
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final StringBuilder json = new StringBuilder();
+
+        StepVerifier.create(writer.write(response, DefaultDataBufferFactory.sharedInstance))
+                .thenConsumeWhile(buffer -> {
+                    chunkSizes.add(buffer.readableByteCount());
+                    json.append(buffer.toString(StandardCharsets.UTF_8));
+                    DataBufferUtils.release(buffer);
+                    return true;
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(json.toString()).isEqualTo(mapper.writeValueAsString(response));
+        assertThat(chunkSizes).hasSizeGreaterThan(1).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(128));
+    }
+
+    @Test
+    void testWritesExecutionResultsAsTheirSpecification() {
+        final ExecutionResult result = ExecutionResult.newExecutionResult()
+                .data(Map.of("upload", Map.of("id", "1")))
+                .addError(GraphqlErrorBuilder.newError().message("partial").path(List.of("upload", "url")).build())
+                .extensions(Map.of("cost", 3))
+                .build();
+        final ExecutionResult dataOnly = ExecutionResult.newExecutionResult().data(Map.of("ping", "pong")).build();
+        final StreamingGraphQlResponseWriter writer = new StreamingGraphQlResponseWriter(mapper, 16);
+
+        assertThat(text(writer.write(result, DefaultDataBufferFactory.sharedInstance)))
+                .isEqualTo(mapper.writeValueAsString(result.toSpecification()));
+        assertThat(text(writer.write(List.of(result, dataOnly), DefaultDataBufferFactory.sharedInstance)))
+                .isEqualTo(mapper.writeValueAsString(List.of(result.toSpecification(), dataOnly.toSpecification())));
+    }
+
+    @Test
+    void testProducesChunksOnDemand() {
+        final StreamingGraphQlResponseWriter writer = new StreamingGraphQlResponseWriter(mapper, 16);
+
+        StepVerifier.create(writer.write(Map.of("data", "x".repeat(1_000)), DefaultDataBufferFactory.sharedInstance), 1)
+                .assertNext(DataBuffer::readableByteCount)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testSerializesOnDedicatedThreads() {
+        try (StreamingGraphQlResponseWriter writer = new StreamingGraphQlResponseWriter(mapper, 16, 1, 1)) {
+            StepVerifier.create(writer.write(Map.of("data", "x"), DefaultDataBufferFactory.sharedInstance)
+                            .map(buffer -> {
+                                DataBufferUtils.release(buffer);
+                                return Thread.currentThread().getName();
+                            }))
+                    .thenConsumeWhile(thread -> thread.startsWith("graphql-multipart-response-"))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void testRejectsResponsesBeyondQueue() throws InterruptedException {
+        final Object body = Map.of("data", "x".repeat(1_000));
+        try (StreamingGraphQlResponseWriter writer = new StreamingGraphQlResponseWriter(mapper, 16, 1, 1)) {
+            final CountDownLatch writing = new CountDownLatch(1);
+            final StalledSubscriber running = new StalledSubscriber(writing);
+            final StalledSubscriber queued = new StalledSubscriber(new CountDownLatch(1));
+            writer.write(body, DefaultDataBufferFactory.sharedInstance).subscribe(running);
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            writer.write(body, DefaultDataBufferFactory.sharedInstance).subscribe(queued);
+
+            StepVerifier.create(writer.write(body, DefaultDataBufferFactory.sharedInstance))
+                    .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartAdmissionRejectedException.class,
+                            rejected -> assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)))
+                    .verify(Duration.ofSeconds(5));
+            running.dispose();
+            queued.dispose();
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveSizes() {
+        assertThatThrownBy(() -> new StreamingGraphQlResponseWriter(mapper, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StreamingGraphQlResponseWriter(mapper, 16, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StreamingGraphQlResponseWriter(mapper, 16, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Requests a single chunk and then stops reading, like a stalled client.
+     */
+    private static final class StalledSubscriber extends BaseSubscriber<DataBuffer> {
+        private final CountDownLatch received;
+
+        StalledSubscriber(final CountDownLatch received) {
+            this.received = received;
+        }
+
+        @Override
+        protected void hookOnSubscribe(final Subscription subscription) {
+            subscription.request(1);
+        }
+
+        @Override
+        protected void hookOnNext(final DataBuffer buffer) {
+            DataBufferUtils.release(buffer);
+            this.received.countDown();
+        }
+    }
+
+    private static String text(final Flux<DataBuffer> buffers) {
+        return DataBufferUtils.join(buffers).map(buffer -> {
+            final String text = buffer.toString(StandardCharsets.UTF_8);
+            DataBufferUtils.release(buffer);
+            return text;
+        }).block(Duration.ofSeconds(5));
+    }
+}
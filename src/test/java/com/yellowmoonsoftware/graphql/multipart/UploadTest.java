@@ -0,0 +1,140 @@
+package com.yellowmoonsoftware.graphql.multipart;
+
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigester;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testExposesDeclaredMetadata() {
+        final MockFilePart part = new MockFilePart("a.txt", "0", "hello");
+        part.headers().setContentLength(5);
+
+        final Upload upload = Upload.of(part);
+
+        assertThat(upload.name()).isEqualTo("0");
+        assertThat(upload.filename()).isEqualTo("a.txt");
+        assertThat(upload.contentLength()).isEqualTo(5);
+        assertThat(upload.contentType()).isEqualTo(MediaType.TEXT_PLAIN);
+        assertThat(upload.isReplayable()).isFalse();
+        assertThat(Upload.of(upload)).isSameAs(upload);
+    }
+
+    @Test
+    void testDefaultsUnknownMetadata() {
+        final Upload upload = Upload.of(new MockFilePart("a.txt", "0", new HttpHeaders(),
+                DefaultDataBufferFactory.sharedInstance.wrap(new byte[0])));
+
+        assertThat(upload.contentLength()).isEqualTo(-1);
+        assertThat(upload.contentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Test
+    void testReadsContentThroughBlockingViews() throws Exception {
+        try (InputStream in = Upload.of(new MockFilePart("a.txt", "0", "hello world")).inputStream()) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("hello world");
+        }
+
+        try (ReadableByteChannel channel = Upload.of(new MockFilePart("a.txt", "0", "hello")).channel()) {
+            final ByteBuffer buffer = ByteBuffer.allocate(16);
+            while (channel.read(buffer) >= 0) {
+                // drain
+            }
+            assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8)).isEqualTo("hello");
+        }
+    }
+
+    @Test
+    void testReplayableWithoutContextFails() {
+        StepVerifier.create(Upload.of(new MockFilePart("a.txt", "0", "hello")).replayable())
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void testStoredUploadIsReplayableAsIs() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        final Upload upload = Upload.of(storage.store("0", "a.txt", HttpHeaders.EMPTY, chunks("hello")).block());
+
+        assertThat(upload.isReplayable()).isTrue();
+        assertThat(upload.contentLength()).isEqualTo(5);
+        StepVerifier.create(upload.replayable()).expectNext(upload).verifyComplete();
+        StepVerifier.create(upload.delete()).verifyComplete();
+    }
+
+    @Test
+    void testExposesDigestsOfDigestedParts() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        final StoredFilePart stored = (StoredFilePart) storage.store("0", "a.txt", HttpHeaders.EMPTY, chunks("hello")).block();
+        final ContentDigester digester = new ContentDigester(Set.of(ContentDigestAlgorithm.CRC32C));
+        chunks("hello").subscribe(digester::update);
+        final ContentDigests digests = digester.finish();
+        stored.setDigests(digests);
+
+        assertThat(Upload.of(stored).digests()).isEqualTo(digests);
+        assertThat(Upload.of(new MockFilePart("a.txt", "0", "hello")).digests()).isEqualTo(ContentDigests.NONE);
+        StepVerifier.create(stored.delete()).verifyComplete();
+    }
+
+    @Test
+    void testReplayableCopiesContentOnceAndReleasesItWithContext() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(1));
+        final UploadContext context = new UploadContext(storage);
+        final Upload upload = Upload.of(new MockFilePart("a.txt", "0", "hello"), context);
+
+        final Upload replayable = upload.replayable().block();
+
+        assertThat(replayable).isNotNull();
+        assertThat(replayable.isReplayable()).isTrue();
+        assertThat(replayable.getPart()).isInstanceOf(StoredFilePart.class);
+        assertThat(replayable.contentLength()).isEqualTo(5);
+        assertThat(read(replayable)).isEqualTo("hello");
+        assertThat(read(replayable)).isEqualTo("hello");
+        assertThat(upload.replayable().block()).isSameAs(replayable);
+        assertThat(storage.getDiskUsage()).isEqualTo(5);
+
+        StepVerifier.create(context.release()).verifyComplete();
+
+        assertThat(storage.getDiskUsage()).isZero();
+        StepVerifier.create(replayable.content()).expectError(IllegalStateException.class).verify();
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String read(final Upload upload) {
+        return DataBufferUtils.join(upload.content())
+                .map(buffer -> {
+                    final String value = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return value;
+                })
+                .block();
+    }
+}
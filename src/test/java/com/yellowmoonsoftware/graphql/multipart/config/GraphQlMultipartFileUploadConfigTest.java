@@ -1,23 +1,64 @@
 package com.yellowmoonsoftware.graphql.multipart.config;
 
+import com.yellowmoonsoftware.graphql.multipart.BlockingUploadExecutor;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionController;
+import com.yellowmoonsoftware.graphql.multipart.decoder.DecodeScheduler;
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartDecoder;
 import com.yellowmoonsoftware.graphql.multipart.decoder.GraphQlMultipartJsonDecoder;
+import com.yellowmoonsoftware.graphql.multipart.decoder.SchemaUploadPathValidator;
+import com.yellowmoonsoftware.graphql.multipart.GqlTestData;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.document.GraphQlDocumentCache;
+import com.yellowmoonsoftware.graphql.multipart.encoding.ContentCoding;
+import com.yellowmoonsoftware.graphql.multipart.encoding.PartContentDecoder;
 import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartWebHandler;
+import com.yellowmoonsoftware.graphql.multipart.IncrementalGraphQlResponseWriter;
+import com.yellowmoonsoftware.graphql.multipart.StreamingGraphQlResponseWriter;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.persisted.InMemoryPersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.persisted.PersistedQueryStore;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.DeduplicatingUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.FileSystemUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.S3UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.UploadStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.graphql.autoconfigure.GraphQlProperties;
+import org.springframework.graphql.execution.GraphQlSource;
 import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
 import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.test.StepVerifier;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +72,48 @@ class GraphQlMultipartFileUploadConfigTest {
 
     JsonMapper jsonMapper;
 
+    @Mock
+    ObjectProvider<GraphQlMultipartMetrics> metricsProvider;
+
+    @Mock
+    ObjectProvider<UploadSink> sinkProvider;
+
+    @Mock
+    ObjectProvider<WebClient.Builder> webClientBuilderProvider;
+
+    @Mock
+    ObjectProvider<BlockingUploadExecutor> blockingExecutorProvider;
+
+    @Mock
+    ObjectProvider<GraphQlMultipartAdmissionController> admissionControllerProvider;
+
+    @Mock
+    ObjectProvider<ResumableUploadStore> resumableUploadStoreProvider;
+
+    @Mock
+    ObjectProvider<PersistedQueryStore> persistedQueryStoreProvider;
+
+    @Mock
+    ObjectProvider<StreamingGraphQlResponseWriter> responseWriterProvider;
+
+    @Mock
+    ObjectProvider<IncrementalGraphQlResponseWriter> incrementalResponseWriterProvider;
+
+    @Mock
+    ObjectProvider<UploadProgressRegistry> progressRegistryProvider;
+
+    @Mock
+    ObjectProvider<GraphQlSource> graphQlSourceProvider;
+
+    @Mock
+    ObjectProvider<GraphQlDocumentCache> documentCacheProvider;
+
+    @Mock
+    ObjectProvider<DecodeScheduler> decodeSchedulerProvider;
+
+    @Mock
+    ObjectProvider<PartContentDecoder> contentDecoderProvider;
+
     @Mock
     GraphQlMultipartDecoder multipartDecoder;
 
@@ -53,11 +136,76 @@ class GraphQlMultipartFileUploadConfigTest {
     void createsMultipartDecoderUsingExistingDecoder() {
         when(decoderProvider.getIfAvailable(any())).thenReturn(jacksonDecoder);
 
-        final GraphQlMultipartDecoder decoder = config.graphQlMultipartDecoder(decoderProvider, jsonMapper);
+        final GraphQlMultipartDecoder decoder = createDecoder(new GraphQlMultipartProperties());
 
         assertThat(decoder).isInstanceOf(GraphQlMultipartJsonDecoder.class);
     }
 
+    @Test
+    void createsMultipartDecoderComputingDigestsFromProperties() {
+        when(decoderProvider.getIfAvailable(any())).thenReturn(jacksonDecoder);
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getDigest().getAlgorithms().add(ContentDigestAlgorithm.SHA_256);
+        properties.getDigest().setVerify(false);
+
+        final GraphQlMultipartJsonDecoder decoder = createDecoder(properties);
+
+        assertThat(decoder.getDigestAlgorithms()).containsExactly(ContentDigestAlgorithm.SHA_256);
+        assertThat(decoder.isVerifyDigests()).isFalse();
+    }
+
+    @Test
+    void createsMultipartDecoderComputingSha256ForDeduplication() {
+        when(decoderProvider.getIfAvailable(any())).thenReturn(jacksonDecoder);
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getDigest().getAlgorithms().add(ContentDigestAlgorithm.CRC32C);
+        properties.getSink().getDeduplication().setEnabled(true);
+
+        final GraphQlMultipartJsonDecoder decoder = createDecoder(properties);
+
+        assertThat(decoder.getDigestAlgorithms()).containsExactlyInAnyOrder(ContentDigestAlgorithm.CRC32C, ContentDigestAlgorithm.SHA_256);
+    }
+
+    @Test
+    void createsMultipartDecoderValidatingUploadPathsWhenEnabled() {
+        when(decoderProvider.getIfAvailable(any())).thenReturn(jacksonDecoder);
+        final GraphQlSource source = Mockito.mock(GraphQlSource.class);
+        when(source.schema()).thenReturn(GqlTestData.getTestSchema());
+        doAnswer(invocation -> {
+            invocation.<Consumer<GraphQlSource>>getArgument(0).accept(source);
+            return null;
+        }).when(graphQlSourceProvider).ifAvailable(any());
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+
+        final GraphQlMultipartJsonDecoder disabled = createDecoder(properties);
+        properties.getValidation().setEnabled(true);
+        final GraphQlMultipartJsonDecoder enabled = createDecoder(properties);
+
+        assertThat(disabled.getUploadPathValidator()).isNull();
+        assertThat(enabled.getUploadPathValidator()).isInstanceOf(SchemaUploadPathValidator.class);
+    }
+
+    @Test
+    void createsMultipartDecoderValidatingUploadPathsWithSharedDocumentCache() {
+        when(decoderProvider.getIfAvailable(any())).thenReturn(jacksonDecoder);
+        final GraphQlSource source = Mockito.mock(GraphQlSource.class);
+        when(source.schema()).thenReturn(GqlTestData.getTestSchema());
+        doAnswer(invocation -> {
+            invocation.<Consumer<GraphQlSource>>getArgument(0).accept(source);
+            return null;
+        }).when(graphQlSourceProvider).ifAvailable(any());
+        final GraphQlDocumentCache documentCache = new GraphQlDocumentCache();
+        when(documentCacheProvider.getIfAvailable()).thenReturn(documentCache);
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getValidation().setEnabled(true);
+
+        final GraphQlMultipartJsonDecoder decoder = createDecoder(properties);
+        decoder.getUploadPathValidator().validate(Map.of("query", "mutation($files: [Upload!]!) { multipleUpload(files: $files) }"),
+                "0", List.of("files", "0"));
+
+        assertThat(documentCache.getSize()).isEqualTo(1);
+    }
+
     @Test
     void createsMultipartDecoderUsingFallback() {
         when(decoderProvider.getIfAvailable(any())).thenAnswer(invocation -> {
@@ -65,25 +213,214 @@ class GraphQlMultipartFileUploadConfigTest {
             return supplier.get();
         });
 
-        final GraphQlMultipartDecoder decoder = config.graphQlMultipartDecoder(decoderProvider, jsonMapper);
+        final GraphQlMultipartDecoder decoder = createDecoder(new GraphQlMultipartProperties());
 
         assertThat(decoder).isInstanceOf(GraphQlMultipartJsonDecoder.class);
     }
 
     @Test
     void createsWebHandler() {
-        final GraphQlMultipartWebHandler handler = config.graphQlMultipartWebHandler(multipartDecoder, webGraphQlHandler);
+        final GraphQlMultipartWebHandler handler = createWebHandler(new GraphQlMultipartProperties());
 
         assertThat(handler).isNotNull();
     }
 
+    @Test
+    void createsUploadSinksFromProperties(@TempDir final Path directory) {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getSink().setDirectory(directory);
+        properties.getSink().getS3().setBucket("uploads");
+        properties.getSink().getS3().setKeyPrefix("graphql/");
+        properties.getSink().getS3().setPartSize(DataSize.ofMegabytes(16));
+        when(webClientBuilderProvider.getIfAvailable(any())).thenReturn(WebClient.builder());
+
+        assertThat(config.graphQlMultipartFileSystemUploadSink(properties)).isInstanceOf(FileSystemUploadSink.class);
+        assertThat(config.graphQlMultipartS3UploadSink(properties, webClientBuilderProvider))
+                .isInstanceOfSatisfying(S3UploadSink.class, sink -> {
+                    assertThat(sink.getKeyPrefix()).isEqualTo("graphql/");
+                    assertThat(sink.getPartSize()).isEqualTo(DataSize.ofMegabytes(16));
+                });
+
+        properties.getSink().getDeduplication().setEnabled(true);
+        properties.getSink().getDeduplication().setMaxEntries(100);
+        assertThat(config.graphQlMultipartFileSystemUploadSink(properties))
+                .isInstanceOfSatisfying(DeduplicatingUploadSink.class, sink -> assertThat(sink.getMaxEntries()).isEqualTo(100));
+    }
+
+    @Test
+    void createsBlockingExecutorFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getBlocking().setEnabled(true);
+        properties.getBlocking().setMaxConcurrency(8);
+
+        try (BlockingUploadExecutor executor = config.graphQlMultipartBlockingUploadExecutor(properties)) {
+            assertThat(executor.getMaxConcurrency()).isEqualTo(8);
+        }
+    }
+
+    @Test
+    void createsAdmissionControllerFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getAdmission().setEnabled(true);
+        properties.getAdmission().setMaxConcurrentRequests(16);
+        properties.getAdmission().setMaxInFlightBytes(DataSize.ofMegabytes(32));
+        properties.getAdmission().setMaxQueueSize(4);
+
+        final GraphQlMultipartAdmissionController controller = config.graphQlMultipartAdmissionController(properties, metricsProvider);
+
+        assertThat(controller.getMaxConcurrentRequests()).isEqualTo(16);
+        assertThat(controller.getMaxInFlightBytes()).isEqualTo(DataSize.ofMegabytes(32).toBytes());
+        assertThat(controller.getMaxQueueSize()).isEqualTo(4);
+    }
+
+    @Test
+    void createsDecodeSchedulerFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getOffload().setEnabled(true);
+        properties.getOffload().setParallelism(3);
+        properties.getOffload().setMaxQueueSize(7);
+        properties.getOffload().setByteThreshold(DataSize.ofKilobytes(64));
+        properties.getOffload().setEntryThreshold(50);
+
+        try (DecodeScheduler scheduler = config.graphQlMultipartDecodeScheduler(properties, metricsProvider)) {
+            assertThat(scheduler.getParallelism()).isEqualTo(3);
+            assertThat(scheduler.getMaxQueueSize()).isEqualTo(7);
+            assertThat(scheduler.getByteThreshold()).isEqualTo(DataSize.ofKilobytes(64));
+            assertThat(scheduler.getEntryThreshold()).isEqualTo(50);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createsPartContentDecoderFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getContentEncoding().setEnabled(true);
+        properties.getContentEncoding().setBufferSize(DataSize.ofKilobytes(4));
+        properties.getContentEncoding().setRatioThreshold(DataSize.ofKilobytes(256));
+        properties.getContentEncoding().setKeepEncoded(true);
+        final ContentCoding zstd = Mockito.mock(ContentCoding.class);
+        when(zstd.getToken()).thenReturn("zstd");
+        final ObjectProvider<ContentCoding> codings = Mockito.mock(ObjectProvider.class);
+        when(codings.orderedStream()).thenReturn(Stream.of(zstd));
+
+        final PartContentDecoder decoder = config.graphQlMultipartPartContentDecoder(properties, codings);
+
+        assertThat(decoder.getTokens()).containsExactly("gzip", "deflate", "zstd");
+        assertThat(decoder.getBufferSize()).isEqualTo(DataSize.ofKilobytes(4));
+        assertThat(decoder.getRatioThreshold()).isEqualTo(DataSize.ofKilobytes(256));
+        assertThat(decoder.isKeepEncoded()).isTrue();
+    }
+
+    @Test
+    void createsStreamingResponseWriterFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getStreamingResponse().setChunkSize(DataSize.ofKilobytes(16));
+        properties.getStreamingResponse().setThreads(2);
+
+        try (StreamingGraphQlResponseWriter writer = config.graphQlMultipartResponseWriter(jsonMapper, properties)) {
+            assertThat(writer.getChunkSize()).isEqualTo(16 * 1024);
+        }
+    }
+
+    @Test
+    void createsIncrementalResponseWriter() {
+        assertThat(config.graphQlMultipartIncrementalResponseWriter(jsonMapper)).isNotNull();
+    }
+
+    @Test
+    void createsUploadProgressRegistryFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getProgress().setSampleSize(DataSize.ofKilobytes(16));
+        properties.getProgress().setInterval(Duration.ofSeconds(1));
+        properties.getProgress().setRetention(Duration.ofMinutes(5));
+        properties.getProgress().setMaxEntries(10);
+
+        final UploadProgressRegistry registry = config.graphQlMultipartUploadProgressRegistry(properties);
+
+        assertThat(registry.getSampleSize()).isEqualTo(DataSize.ofKilobytes(16));
+        assertThat(registry.getInterval()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(registry.getRetention()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(registry.getMaxEntries()).isEqualTo(10);
+        assertThat(config.graphQlMultipartProgressRouter(properties, registry)).isNotNull();
+    }
+
+    @Test
+    void createsResumableUploadStoreFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getResumable().setExpiry(Duration.ofHours(2));
+        properties.getResumable().setMaxLength(DataSize.ofMegabytes(5));
+        properties.getResumable().setMaxUploads(10);
+
+        try (ResumableUploadStore store = config.graphQlMultipartResumableUploadStore(properties)) {
+            assertThat(store.getExpiry()).isEqualTo(Duration.ofHours(2));
+            assertThat(store.getMaxLength()).isEqualTo(DataSize.ofMegabytes(5));
+            assertThat(store.getMaxUploads()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void createsUploadStorageFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getStorage().setInMemoryThreshold(DataSize.ofKilobytes(16));
+        properties.getStorage().setMaxDiskUsage(DataSize.ofMegabytes(10));
+
+        final UploadStorage storage = config.graphQlMultipartUploadStorage(properties);
+
+        assertThat(storage).isInstanceOfSatisfying(SpillingUploadStorage.class, spilling -> {
+            assertThat(spilling.getInMemoryThreshold()).isEqualTo(DataSize.ofKilobytes(16));
+            assertThat(spilling.getMaxDiskUsage()).isEqualTo(DataSize.ofMegabytes(10));
+        });
+    }
+
     @Test
     void createsRouterFunction() {
         final GraphQlProperties properties = new GraphQlProperties();
         properties.getHttp().setPath("/graphql");
 
-        final RouterFunction<ServerResponse> router = config.graphQlMultipartRouter(properties, webHandler);
+        final RouterFunction<ServerResponse> router = config.graphQlMultipartRouter(properties, webHandler, incrementalResponseWriterProvider);
 
         assertThat(router).isNotNull();
+        StepVerifier.create(router.route(multipartRequest(MediaType.APPLICATION_JSON))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(router.route(multipartRequest(MediaType.MULTIPART_MIXED))).verifyComplete();
+    }
+
+    @Test
+    void routesClientsAcceptingOnlyMultipartMixedWhenIncrementalDeliveryIsEnabled() {
+        final GraphQlProperties properties = new GraphQlProperties();
+        properties.getHttp().setPath("/graphql");
+        when(incrementalResponseWriterProvider.getIfAvailable()).thenReturn(new IncrementalGraphQlResponseWriter(jsonMapper));
+
+        final RouterFunction<ServerResponse> router = config.graphQlMultipartRouter(properties, webHandler, incrementalResponseWriterProvider);
+
+        StepVerifier.create(router.route(multipartRequest(MediaType.MULTIPART_MIXED))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(router.route(multipartRequest(MediaType.APPLICATION_JSON))).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void createsInMemoryPersistedQueryStoreFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getPersistedQueries().setMaxEntries(12);
+
+        assertThat(config.graphQlMultipartPersistedQueryStore(properties))
+                .isInstanceOfSatisfying(InMemoryPersistedQueryStore.class, store -> assertThat(store.getMaxEntries()).isEqualTo(12));
+    }
+
+    private static ServerRequest multipartRequest(final MediaType accept) {
+        return ServerRequest.create(MockServerWebExchange.from(MockServerHttpRequest.post("/graphql")
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .accept(accept)),
+                HandlerStrategies.withDefaults().messageReaders());
+    }
+
+    private GraphQlMultipartJsonDecoder createDecoder(final GraphQlMultipartProperties properties) {
+        return (GraphQlMultipartJsonDecoder) config.graphQlMultipartDecoder(decoderProvider, jsonMapper, properties, metricsProvider,
+                graphQlSourceProvider, documentCacheProvider, decodeSchedulerProvider, contentDecoderProvider);
+    }
+
+    private GraphQlMultipartWebHandler createWebHandler(final GraphQlMultipartProperties properties) {
+        return config.graphQlMultipartWebHandler(multipartDecoder, webGraphQlHandler, properties,
+                new SpillingUploadStorage(), sinkProvider, blockingExecutorProvider,
+                admissionControllerProvider, resumableUploadStoreProvider, persistedQueryStoreProvider, responseWriterProvider,
+                incrementalResponseWriterProvider, progressRegistryProvider, metricsProvider);
     }
 }
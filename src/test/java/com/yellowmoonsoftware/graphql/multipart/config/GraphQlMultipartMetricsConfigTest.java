@@ -0,0 +1,46 @@
+package com.yellowmoonsoftware.graphql.multipart.config;
+
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import com.yellowmoonsoftware.graphql.multipart.metrics.MicrometerGraphQlMultipartMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphQlMultipartMetricsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(GraphQlMultipartMetricsConfig.class));
+
+    @Test
+    void doesNotConfigureMetricsWithoutRegistries() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(GraphQlMultipartMetrics.class));
+    }
+
+    @Test
+    void configuresMetricsWhenMeterRegistryExists() {
+        contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(GraphQlMultipartMetrics.class);
+                    assertThat(context.getBean(GraphQlMultipartMetrics.class)).isInstanceOf(MicrometerGraphQlMultipartMetrics.class);
+                    assertThat(context.getBean(MeterRegistry.class).find(MicrometerGraphQlMultipartMetrics.STAGE_TIMER).timers()).isNotEmpty();
+                });
+    }
+
+    @Test
+    void configuresMetricsWhenOnlyObservationRegistryExists() {
+        contextRunner.withBean(ObservationRegistry.class, ObservationRegistry::create)
+                .run(context -> assertThat(context).hasSingleBean(GraphQlMultipartMetrics.class));
+    }
+
+    @Test
+    void backsOffWhenMetricsBeanIsDefined() {
+        contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(GraphQlMultipartMetrics.class, () -> GraphQlMultipartMetrics.NOOP)
+                .run(context -> assertThat(context.getBean(GraphQlMultipartMetrics.class)).isSameAs(GraphQlMultipartMetrics.NOOP));
+    }
+}
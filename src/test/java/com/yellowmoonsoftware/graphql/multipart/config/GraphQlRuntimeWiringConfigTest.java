@@ -1,6 +1,12 @@
 package com.yellowmoonsoftware.graphql.multipart.config;
 
+import com.yellowmoonsoftware.graphql.multipart.document.GraphQlDocumentCache;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressDataFetcher;
+import com.yellowmoonsoftware.graphql.multipart.progress.UploadProgressRegistry;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
 import com.yellowmoonsoftware.graphql.multipart.scalars.UploadScalar;
+import graphql.GraphQL;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.schema.GraphQLScalarType;
 import graphql.schema.idl.RuntimeWiring;
 import org.junit.jupiter.api.Test;
@@ -9,9 +15,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.graphql.execution.GraphQlSource;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +32,18 @@ class GraphQlRuntimeWiringConfigTest {
     @Mock
     RuntimeWiring.Builder mockBuilder;
 
+    @Mock
+    ObjectProvider<ResumableUploadStore> resumableUploads;
+
+    @Mock
+    ObjectProvider<GraphQlDocumentCache> documentCaches;
+
+    @Mock
+    ObjectProvider<PreparsedDocumentProvider> documentProviders;
+
+    @Mock
+    ObjectProvider<UploadProgressRegistry> progressRegistries;
+
     @Captor
     ArgumentCaptor<GraphQLScalarType> scalarTypeCaptor;
 
@@ -27,13 +51,13 @@ class GraphQlRuntimeWiringConfigTest {
 
     @Test
     void createsRuntimeWiringConfigurer() {
-        final RuntimeWiringConfigurer configurer = config.graphQlUploadScalarConfigurer();
+        final RuntimeWiringConfigurer configurer = config.graphQlUploadScalarConfigurer(resumableUploads);
         assertThat(configurer).isNotNull();
     }
 
     @Test
     void configurerSetsUploadScaler() {
-        final RuntimeWiringConfigurer configurer = config.graphQlUploadScalarConfigurer();
+        final RuntimeWiringConfigurer configurer = config.graphQlUploadScalarConfigurer(resumableUploads);
 
         lenient().when(mockBuilder.scalar(scalarTypeCaptor.capture()))
                 .thenReturn(mockBuilder);
@@ -41,4 +65,81 @@ class GraphQlRuntimeWiringConfigTest {
 
         assertThat(scalarTypeCaptor.getValue()).isEqualTo(UploadScalar.INSTANCE);
     }
-}
\ No newline at end of file
+
+    @Test
+    void configurerResolvesResumableUploadsWhenStoreIsConfigured() {
+        final RuntimeWiringConfigurer configurer = config.graphQlUploadScalarConfigurer(resumableUploads);
+        when(resumableUploads.getIfAvailable()).thenReturn(new ResumableUploadStore());
+
+        lenient().when(mockBuilder.scalar(scalarTypeCaptor.capture()))
+                .thenReturn(mockBuilder);
+        configurer.configure(mockBuilder);
+
+        assertThat(scalarTypeCaptor.getValue()).isNotEqualTo(UploadScalar.INSTANCE);
+        assertThat(scalarTypeCaptor.getValue().getName()).isEqualTo("Upload");
+    }
+
+    @Test
+    void progressConfigurerWiresSubscriptionFieldWhenRegistryIsConfigured() {
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        doAnswer(invocation -> {
+            invocation.<Consumer<UploadProgressRegistry>>getArgument(0).accept(registry);
+            return null;
+        }).when(progressRegistries).ifAvailable(any());
+        final RuntimeWiring.Builder builder = RuntimeWiring.newRuntimeWiring();
+
+        config.graphQlUploadProgressConfigurer(progressRegistries).configure(builder);
+
+        assertThat(builder.build().getDataFetchersForType("Subscription"))
+                .hasEntrySatisfying(UploadProgressDataFetcher.FIELD, fetcher -> assertThat(fetcher).isInstanceOf(UploadProgressDataFetcher.class));
+    }
+
+    @Test
+    void createsDocumentCacheFromProperties() {
+        final GraphQlMultipartProperties properties = new GraphQlMultipartProperties();
+        properties.getDocumentCache().setMaxEntries(42);
+
+        assertThat(config.graphQlMultipartDocumentCache(properties).getMaxEntries()).isEqualTo(42);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void customizerInstallsDocumentCacheWhenConfigured() {
+        final GraphQlDocumentCache documentCache = new GraphQlDocumentCache();
+        final GraphQlSource.SchemaResourceBuilder sourceBuilder = mock(GraphQlSource.SchemaResourceBuilder.class);
+        final GraphQL.Builder graphQlBuilder = mock(GraphQL.Builder.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<GraphQlDocumentCache>>getArgument(0).accept(documentCache);
+            return null;
+        }).when(documentCaches).ifAvailable(any());
+        doAnswer(invocation -> {
+            invocation.<Consumer<GraphQL.Builder>>getArgument(0).accept(graphQlBuilder);
+            return sourceBuilder;
+        }).when(sourceBuilder).configureGraphQl(any());
+
+        when(documentProviders.orderedStream()).thenReturn(Stream.of(documentCache));
+
+        config.graphQlMultipartDocumentCacheCustomizer(documentCaches, documentProviders).customize(sourceBuilder);
+
+        verify(graphQlBuilder).preparsedDocumentProvider(documentCache);
+        assertThat(documentCache.getDelegate()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void customizerDelegatesToExistingDocumentProvider() {
+        final GraphQlDocumentCache documentCache = new GraphQlDocumentCache();
+        final PreparsedDocumentProvider existing = mock(PreparsedDocumentProvider.class);
+        final GraphQlSource.SchemaResourceBuilder sourceBuilder = mock(GraphQlSource.SchemaResourceBuilder.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<GraphQlDocumentCache>>getArgument(0).accept(documentCache);
+            return null;
+        }).when(documentCaches).ifAvailable(any());
+        when(documentProviders.orderedStream()).thenReturn(Stream.of(documentCache, existing));
+
+        config.graphQlMultipartDocumentCacheCustomizer(documentCaches, documentProviders).customize(sourceBuilder);
+
+        assertThat(documentCache.getDelegate()).isSameAs(existing);
+        verify(sourceBuilder).configureGraphQl(any());
+    }
+}
@@ -2,6 +2,7 @@ package com.yellowmoonsoftware.graphql.multipart.decoder;
 
 import com.yellowmoonsoftware.graphql.multipart.MockFilePart;
 import com.yellowmoonsoftware.graphql.multipart.MockFormFieldPart;
+import com.yellowmoonsoftware.graphql.multipart.util.MapListGraphTraverser;
 import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,7 +40,7 @@ class AbstractGraphQlMultipartDecoderTest {
 
     @SuppressWarnings("unchecked")
     @Test
-    void decodeInvokesDecodePartForPresentParts() {
+    void decodeInvokesDecodeValueForPresentParts() {
         final MockFormFieldPart operationsPart = new MockFormFieldPart("operations", "{}");
         final MockFormFieldPart mapPart = new MockFormFieldPart("map", "{}");
         final MockFilePart filePart = new MockFilePart("avatar.png", "0", "data");
@@ -64,14 +65,14 @@ class AbstractGraphQlMultipartDecoderTest {
 
         doAnswer(invocation -> {
             final ParameterizedTypeReference<?> typeRef = invocation.getArgument(1);
-            if (GraphQlMultipartPartKey.OPERATIONS.getTypeRef().equals(typeRef)) {
+            if (GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef().equals(typeRef)) {
                 return Mono.just(operations);
             }
-            if (GraphQlMultipartPartKey.MAP.getTypeRef().equals(typeRef)) {
+            if (GraphQlMultipartPartKey.MAP.getValueTypeRef().equals(typeRef)) {
                 return Mono.just(pathMap);
             }
             return Mono.empty();
-        }).when(decoder).decodePart(any(Part.class), any(ParameterizedTypeReference.class));
+        }).when(decoder).decodeValue(any(Part.class), any(ParameterizedTypeReference.class));
 
         final Mono<GraphQlRequest> result = decoder.decode(multipart);
 
@@ -88,9 +89,9 @@ class AbstractGraphQlMultipartDecoderTest {
                 .verify();
 
         verify(decoder, times(1))
-                .decodePart(eq(operationsPart), eq(GraphQlMultipartPartKey.OPERATIONS.getTypeRef()));
+                .decodeValue(eq(operationsPart), eq(GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef()));
         verify(decoder, times(1))
-                .decodePart(eq(mapPart), eq(GraphQlMultipartPartKey.MAP.getTypeRef()));
+                .decodeValue(eq(mapPart), eq(GraphQlMultipartPartKey.MAP.getValueTypeRef()));
     }
 
     @SuppressWarnings("unchecked")
@@ -114,11 +115,11 @@ class AbstractGraphQlMultipartDecoderTest {
 
         doAnswer(invocation -> {
             final ParameterizedTypeReference<?> typeRef = invocation.getArgument(1);
-            if (GraphQlMultipartPartKey.OPERATIONS.getTypeRef().equals(typeRef)) {
+            if (GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef().equals(typeRef)) {
                 return Mono.just(operations);
             }
             return Mono.empty();
-        }).when(decoder).decodePart(any(Part.class), any(ParameterizedTypeReference.class));
+        }).when(decoder).decodeValue(any(Part.class), any(ParameterizedTypeReference.class));
 
         final Mono<GraphQlRequest> result = decoder.decode(multipart);
 
@@ -132,8 +133,59 @@ class AbstractGraphQlMultipartDecoderTest {
                 .verify();
 
         verify(decoder, times(1))
-                .decodePart(eq(operationsPart), eq(GraphQlMultipartPartKey.OPERATIONS.getTypeRef()));
+                .decodeValue(eq(operationsPart), eq(GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef()));
         verify(decoder, never())
-                .decodePart(any(), eq(GraphQlMultipartPartKey.MAP.getTypeRef()));
+                .decodeValue(any(), eq(GraphQlMultipartPartKey.MAP.getValueTypeRef()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void decodeUsesConfiguredTraverserFactory() {
+        final MockFormFieldPart operationsPart = new MockFormFieldPart("operations", "{}");
+        final MockFormFieldPart mapPart = new MockFormFieldPart("map", "{}");
+        final MockFilePart filePart = new MockFilePart("avatar.png", "0", "data");
+
+        final MultiValueMap<String, Part> multipart = new MultiValueMapAdapter<>(Map.of(
+                "operations", List.of(operationsPart),
+                "map", List.of(mapPart),
+                "0", List.of(filePart)
+        ));
+
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put("avatar", null);
+        final Map<String, Object> operations = new HashMap<>();
+        operations.put("query", "mutation upload");
+        operations.put("variables", variables);
+
+        doAnswer(invocation -> GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef().equals(invocation.getArgument(1))
+                ? Mono.just(operations)
+                : Mono.just(Map.of("0", Set.of(ObjectGraphPath.from("variables.avatar")))))
+                .when(decoder).decodeValue(any(Part.class), any(ParameterizedTypeReference.class));
+
+        decoder.setTraverserFactory(MapListGraphTraverser::wrap);
+
+        StepVerifier.create(decoder.decode(multipart))
+                .assertNext(request -> assertThat(request.getVariables()).containsEntry("avatar", filePart))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedDecodePartDelegatesToDecodeValue() {
+        final MockFormFieldPart operationsPart = new MockFormFieldPart("operations", "{}");
+        final Map<String, Object> operations = Map.of("query", "mutation upload");
+        final AbstractGraphQlMultipartDecoder valueDecoder = new AbstractGraphQlMultipartDecoder() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected <T> Mono<T> decodeValue(final Part part, final ParameterizedTypeReference<T> typeRef) {
+                return Mono.just((T) operations);
+            }
+        };
+
+        StepVerifier.create(valueDecoder.decodePart(operationsPart, GraphQlMultipartPartKey.OPERATIONS.getTypeRef()))
+                .expectNext(operations)
+                .expectComplete()
+                .verify();
     }
 }
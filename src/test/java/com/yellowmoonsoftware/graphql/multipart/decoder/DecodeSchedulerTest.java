@@ -0,0 +1,139 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartAdmissionRejectedException;
+import com.yellowmoonsoftware.graphql.multipart.metrics.GraphQlMultipartMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DecodeSchedulerTest {
+    private static final String DECODE_THREAD = "graphql-multipart-decode-";
+
+    @Test
+    void testRunsSmallWorkInline() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            final String caller = Thread.currentThread().getName();
+
+            StepVerifier.create(scheduler.schedule(1024, 10, currentThread()))
+                    .expectNext(caller)
+                    .verifyComplete();
+            assertThat(scheduler.getOffloadedCount()).isZero();
+        }
+    }
+
+    @Test
+    void testOffloadsWorkAboveEitherThreshold() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            scheduler.setByteThreshold(DataSize.ofKilobytes(1));
+            scheduler.setEntryThreshold(10);
+
+            StepVerifier.create(scheduler.schedule(1025, 0, currentThread()))
+                    .assertNext(thread -> assertThat(thread).startsWith(DECODE_THREAD))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            StepVerifier.create(scheduler.schedule(0, 11, currentThread()))
+                    .assertNext(thread -> assertThat(thread).startsWith(DECODE_THREAD))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testNegativeThresholdsNeverOffload() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            scheduler.setByteThreshold(DataSize.ofBytes(-1));
+            scheduler.setEntryThreshold(-1);
+
+            assertThat(scheduler.shouldOffload(Long.MAX_VALUE, Long.MAX_VALUE)).isFalse();
+        }
+    }
+
+    @Test
+    void testDoesNotRescheduleWorkOnDecodeThreads() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            scheduler.setByteThreshold(DataSize.ofBytes(0));
+
+            final Mono<String> nested = scheduler.schedule(1, 0, Mono.defer(() -> scheduler.schedule(1, 0, currentThread())));
+
+            StepVerifier.create(nested)
+                    .assertNext(thread -> assertThat(thread).startsWith(DECODE_THREAD))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRejectsWorkWhenQueueIsFull() throws Exception {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            scheduler.setByteThreshold(DataSize.ofBytes(0));
+            final CountDownLatch running = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            scheduler.schedule(1, 0, Mono.fromRunnable(() -> {
+                running.countDown();
+                await(release);
+            })).subscribe();
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            scheduler.schedule(1, 0, Mono.empty()).subscribe();
+
+            assertThat(scheduler.getActiveCount()).isEqualTo(1);
+            assertThat(scheduler.getQueueSize()).isEqualTo(1);
+            StepVerifier.create(scheduler.schedule(1, 0, Mono.just("rejected")))
+                    .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartAdmissionRejectedException.class,
+                            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)))
+                    .verify(Duration.ofSeconds(5));
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testPublishesStateToMetrics() {
+        final AtomicReference<IntSupplier> queued = new AtomicReference<>();
+        final AtomicReference<LongSupplier> offloaded = new AtomicReference<>();
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 1)) {
+            scheduler.setMetrics(new GraphQlMultipartMetrics() {
+                @Override
+                public void bindDecodeScheduler(final IntSupplier activeThreads, final IntSupplier queuedTasks, final LongSupplier offloadedTasks) {
+                    queued.set(queuedTasks);
+                    offloaded.set(offloadedTasks);
+                }
+            });
+            scheduler.setEntryThreshold(0);
+            scheduler.schedule(0, 1, Mono.empty()).block(Duration.ofSeconds(5));
+
+            assertThat(queued.get().getAsInt()).isZero();
+            assertThat(offloaded.get().getAsLong()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRejectsInvalidSizes() {
+        assertThatThrownBy(() -> new DecodeScheduler(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DecodeScheduler(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Mono<String> currentThread() {
+        return Mono.fromSupplier(() -> Thread.currentThread().getName());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.yellowmoonsoftware.graphql.multipart.decoder;
 
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
 import com.yellowmoonsoftware.graphql.multipart.MockFilePart;
 import com.yellowmoonsoftware.graphql.multipart.MockFormFieldPart;
 import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.http.codec.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -35,6 +42,16 @@ class DecodingUtilsTest {
         assertThat(DecodingUtils.isValidPath(path)).isFalse();
     }
 
+    @Test
+    void isValidBatchPathRequiresOperationIndexFollowedByVariables() {
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("0.variables.file"))).isTrue();
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("12.variables.input.files.3"))).isTrue();
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("variables.file"))).isFalse();
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("first.variables.file"))).isFalse();
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("0.query.file"))).isFalse();
+        assertThat(DecodingUtils.isValidBatchPath(ObjectGraphPath.from("0.variables"))).isFalse();
+    }
+
     @Test
     void filterFilePartsReturnsOnlyFileParts() {
         final FilePart filePart = new MockFilePart("avatar.png", "avatar", "image-data");
@@ -49,4 +66,42 @@ class DecodingUtilsTest {
         assertThat(filtered).containsKey("upload");
         assertThat(filtered.get("upload")).isSameAs(filePart);
     }
+
+    @Test
+    void limitBytesPassesContentWithinLimit() {
+        final Flux<DataBuffer> content = Flux.just("abc", "de")
+                .map(v -> DefaultDataBufferFactory.sharedInstance.wrap(v.getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(DecodingUtils.limitBytes(content, Function.identity(), "max-file-size", 5))
+                .expectNextCount(2)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void limitBytesFailsOnceLimitIsExceeded() {
+        final Flux<DataBuffer> content = Flux.just("abc", "def", "ghi")
+                .map(v -> DefaultDataBufferFactory.sharedInstance.wrap(v.getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(DecodingUtils.limitBytes(content, Function.identity(), "max-file-size", 5))
+                .expectNextCount(1)
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(GraphQlMultipartLimitExceededException.class, ex -> {
+                            assertThat(ex.getLimit()).isEqualTo("max-file-size");
+                            assertThat(ex.getMaximum()).isEqualTo(5);
+                            assertThat(ex.getStatusCode().value()).isEqualTo(413);
+                        }))
+                .verify();
+    }
+
+    @Test
+    void limitBytesIgnoresNegativeLimit() {
+        final Flux<DataBuffer> content = Flux.just("abc", "def")
+                .map(v -> DefaultDataBufferFactory.sharedInstance.wrap(v.getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(DecodingUtils.limitBytes(content, Function.identity(), "max-file-size", -1))
+                .expectNextCount(2)
+                .expectComplete()
+                .verify();
+    }
 }
@@ -0,0 +1,107 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartRequest;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadSink;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GraphQlMultipartDecoderTest {
+    /**
+     * Decoder of aggregated parts only, binding the part named `0` to `variables.file`.
+     */
+    private final GraphQlMultipartDecoder aggregatedDecoder = multipartData -> Mono.just(GraphQlMultipartRequest.build(Map.of(
+            "query", "mutation($file: Upload!) { upload(file: $file) }",
+            "variables", Map.of("file", multipartData.getFirst("0")))));
+
+    @Test
+    void testStreamingDecodeFallsBackToBufferedParts() {
+        StepVerifier.create(aggregatedDecoder.decode(events())
+                        .flatMap(request -> DataBufferUtils.join(((FilePart) request.getVariables().get("file")).content()))
+                        .map(GraphQlMultipartDecoderTest::text))
+                .expectNext("content")
+                .verifyComplete();
+    }
+
+    @Test
+    void testStoredDecodeFallsBackToStoredParts() {
+        try (SpillingUploadStorage storage = new SpillingUploadStorage()) {
+            StepVerifier.create(aggregatedDecoder.decodeBatch(events(), storage))
+                    .assertNext(batch -> {
+                        assertThat(batch.requests()).singleElement().satisfies(request ->
+                                assertThat(batch.uploads()).containsExactly((FilePart) request.getVariables().get("file")));
+                        assertThat(DataBufferUtils.join(((FilePart) batch.uploads().get(0)).content()).map(GraphQlMultipartDecoderTest::text).block())
+                                .isEqualTo("content");
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void testSinkDecodeFallsBackToWrittenReferences() {
+        final UploadSink sink = mock(UploadSink.class);
+        final UploadReference reference = new UploadReference("0", "a.txt", MediaType.TEXT_PLAIN, 7, URI.create("file:///a.txt"));
+        when(sink.write(anyString(), anyString(), any(), any())).thenAnswer(invocation -> invocation.<Flux<DataBuffer>>getArgument(3)
+                .doOnNext(DataBufferUtils::release)
+                .then(Mono.just(reference)));
+
+        StepVerifier.create(aggregatedDecoder.decodeBatch(events(), sink))
+                .assertNext(batch -> {
+                    assertThat(batch.requests()).singleElement()
+                            .satisfies(request -> assertThat(request.getVariables()).containsEntry("file", reference));
+                    assertThat(batch.uploads()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testSinkDecodeDeletesWrittenObjectsWhenDecodingFails() {
+        final UploadSink sink = mock(UploadSink.class);
+        final UploadReference reference = new UploadReference("0", "a.txt", MediaType.TEXT_PLAIN, 7, URI.create("file:///a.txt"));
+        when(sink.write(anyString(), anyString(), any(), any())).thenAnswer(invocation -> invocation.<Flux<DataBuffer>>getArgument(3)
+                .doOnNext(DataBufferUtils::release)
+                .then(Mono.just(reference)));
+        when(sink.delete(reference)).thenReturn(Mono.empty());
+        final GraphQlMultipartDecoder failingDecoder = multipartData -> Mono.error(new IllegalStateException("boom"));
+
+        StepVerifier.create(failingDecoder.decodeBatch(events(), sink))
+                .verifyError(IllegalStateException.class);
+        verify(sink).delete(reference);
+    }
+
+    private static Flux<PartEvent> events() {
+        return Flux.concat(
+                FormPartEvent.create("operations", "{}"),
+                FormPartEvent.create("map", "{}"),
+                FilePartEvent.create("0", "a.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("content".getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    private static String text(final DataBuffer buffer) {
+        final String text = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return text;
+    }
+}
@@ -1,19 +1,65 @@
 package com.yellowmoonsoftware.graphql.multipart.decoder;
 
 import com.yellowmoonsoftware.graphql.multipart.GqlTestData;
+import com.yellowmoonsoftware.graphql.multipart.MockFilePart;
 import com.yellowmoonsoftware.graphql.multipart.MockFormFieldPart;
 import com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartBatch;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartRequest;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import com.yellowmoonsoftware.graphql.multipart.digest.DigestedContent;
+import com.yellowmoonsoftware.graphql.multipart.encoding.PartContentDecoder;
+import com.yellowmoonsoftware.graphql.multipart.sink.FileSystemUploadSink;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
+import com.yellowmoonsoftware.graphql.multipart.storage.StoredFilePart;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.MultiValueMapAdapter;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,9 +77,9 @@ class GraphQlMultipartJsonDecoderTest {
     @SuppressWarnings("unchecked")
     @Test
     void testDecodesOperations() {
-        final Mono<Map<String, Object>> actual = mpGqlJsonDecoder.decodePart(
+        final Mono<Map<String, Object>> actual = mpGqlJsonDecoder.decodeValue(
                 new MockFormFieldPart(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
-                GraphQlMultipartPartKey.OPERATIONS.getTypeRef());
+                GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef());
 
         final Map<String, Object> expectedOperations = new JsonMapper().readValue(
                 GqlTestData.getTestOperationsJson(), new TypeReference<>() { });
@@ -54,9 +100,9 @@ class GraphQlMultipartJsonDecoderTest {
 
     @Test
     void testDecodesMap() {
-        final Mono<Map<String, Set<ObjectGraphPath>>> actual = mpGqlJsonDecoder.decodePart(
+        final Mono<Map<String, Set<ObjectGraphPath>>> actual = mpGqlJsonDecoder.decodeValue(
                 new MockFormFieldPart(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson()),
-                GraphQlMultipartPartKey.MAP.getTypeRef());
+                GraphQlMultipartPartKey.MAP.getValueTypeRef());
 
         final Map<String, Set<ObjectGraphPath>> expectedMap = new JsonMapper().readValue(
                 GqlTestData.getTestFileMapJson(), new TypeReference<>() { });
@@ -69,4 +115,673 @@ class GraphQlMultipartJsonDecoderTest {
                 .expectComplete()
                 .verify();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDecodesOperationsWithNonJacksonDecoder() {
+        final Decoder<Object> genericDecoder = Mockito.mock(Decoder.class);
+        Mockito.when(genericDecoder.decodeToMono(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(Mono.just(Map.of("query", "{ ping }")));
+
+        StepVerifier.create(new GraphQlMultipartJsonDecoder(genericDecoder).decodeValue(
+                        new MockFormFieldPart(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), "{\"query\":\"{ ping }\"}"),
+                        GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef()))
+                .expectNext(Map.of("query", "{ ping }"))
+                .verifyComplete();
+        Mockito.verify(genericDecoder).decodeToMono(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.eq(MediaType.APPLICATION_JSON), ArgumentMatchers.isNull());
+    }
+
+    private static Flux<PartEvent> streamedRequest(final String... fileContents) {
+        Flux<PartEvent> events = Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson()));
+        for (int i = 0; i < fileContents.length; i++) {
+            events = events.concatWith(FilePartEvent.create(String.valueOf(i), "file" + i + ".txt", MediaType.TEXT_PLAIN,
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(fileContents[i].getBytes(StandardCharsets.UTF_8)))));
+        }
+        return events;
+    }
+
+    private static Mono<String> readContent(final FilePart part) {
+        return DataBufferUtils.join(part.content())
+                .map(buffer -> {
+                    final String value = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return value;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<FilePart> boundFiles(final GraphQlRequest request) {
+        return (List<FilePart>) request.getVariables().get("files");
+    }
+
+    @Test
+    void testStreamingDecodeBindsUploadHandlesInRequestOrder() {
+        final Mono<List<String>> contents = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                .flatMapMany(request -> {
+                    assertThat(request.getVariables()).containsEntry("foo", "bar");
+                    assertThat(boundFiles(request)).allSatisfy(f -> assertThat(f).isInstanceOf(GraphQlStreamedFilePart.class));
+                    return Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent);
+                })
+                .collectList();
+
+        StepVerifier.create(contents)
+                .expectNext(List.of("first", "second"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeReleasedUploadsUnblockLaterParts() {
+        final Mono<String> second = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                .cast(GraphQlMultipartRequest.class)
+                .flatMap(request -> {
+                    final List<FilePart> files = boundFiles(request);
+                    return files.get(0).delete().then(readContent(files.get(1)));
+                });
+
+        StepVerifier.create(second)
+                .expectNext("second")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeRejectsFileMappedToSeveralPaths() {
+        final Flux<PartEvent> events = Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), "{ \"0\": [\"variables.files.0\", \"variables.files.1\"] }"),
+                FilePartEvent.create("0", "file0.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("first".getBytes(StandardCharsets.UTF_8)))));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(events))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class, error -> {
+                    assertThat(error.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(error.getReason()).contains("mapped to 2 paths");
+                }))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeFailsHandlesForMissingFileParts() {
+        final Mono<String> missing = mpGqlJsonDecoder.decode(streamedRequest("first"))
+                .flatMap(request -> readContent(boundFiles(request).get(0))
+                        .then(readContent(boundFiles(request).get(1))));
+
+        StepVerifier.create(missing)
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeWithoutMapEmitsOperationsOnly() {
+        final Flux<PartEvent> events = FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson())
+                .cast(PartEvent.class)
+                .flux();
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(events))
+                .assertNext(request -> assertThat(boundFiles(request)).containsExactly(null, null))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testDecodeBatchBindsFilesPerOperationIndex() {
+        final MockFilePart first = new MockFilePart("first.txt", "0", "first");
+        final MockFilePart second = new MockFilePart("second.txt", "1", "second");
+        final MultiValueMap<String, Part> multipart = new MultiValueMapAdapter<>(Map.of(
+                "operations", List.of(new MockFormFieldPart("operations", GqlTestData.getTestBatchOperationsJson())),
+                "map", List.of(new MockFormFieldPart("map", GqlTestData.getTestBatchFileMapJson())),
+                "0", List.of(first),
+                "1", List.of(second)));
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(multipart))
+                .assertNext(batch -> {
+                    assertThat(batch.batched()).isTrue();
+                    assertThat(batch.requests()).hasSize(2);
+                    assertThat(boundFiles(batch.requests().get(0))).containsExactly(first, second);
+                    assertThat(boundFiles(batch.requests().get(1))).containsExactly(null, first);
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testDecodeRejectsBatchedOperations() {
+        final MultiValueMap<String, Part> multipart = new MultiValueMapAdapter<>(Map.of(
+                "operations", List.of(new MockFormFieldPart("operations", GqlTestData.getTestBatchOperationsJson()))));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(multipart))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+    }
+
+    @Test
+    void testDecodeBatchRejectsNonObjectOperations() {
+        final MultiValueMap<String, Part> multipart = new MultiValueMapAdapter<>(Map.of(
+                "operations", List.of(new MockFormFieldPart("operations", "[1, 2]"))));
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(multipart))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+    }
+
+    @Test
+    void testStreamingDecodeBatchBindsUploadHandlesPerOperationIndex() {
+        final Flux<PartEvent> events = Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestBatchOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), "{ \"0\": [\"0.variables.files.0\"], \"1\": [\"1.variables.files.1\"] }"),
+                FilePartEvent.create("0", "file0.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("first".getBytes(StandardCharsets.UTF_8)))),
+                FilePartEvent.create("1", "file1.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("second".getBytes(StandardCharsets.UTF_8)))));
+
+        final Mono<List<String>> contents = mpGqlJsonDecoder.decodeBatch(events)
+                .flatMapMany(batch -> {
+                    assertThat(batch.batched()).isTrue();
+                    assertThat(batch.uploads()).hasSize(2);
+                    assertThat(boundFiles(batch.requests().get(0)).get(1)).isNull();
+                    assertThat(boundFiles(batch.requests().get(1)).get(0)).isNull();
+                    return Flux.just(boundFiles(batch.requests().get(0)).get(0), boundFiles(batch.requests().get(1)).get(1))
+                            .concatMap(GraphQlMultipartJsonDecoderTest::readContent);
+                })
+                .collectList();
+
+        StepVerifier.create(contents)
+                .expectNext(List.of("first", "second"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static MultiValueMap<String, Part> aggregatedRequest(final String operations, final String map, final Part... files) {
+        final MultiValueMap<String, Part> multipart = new LinkedMultiValueMap<>();
+        multipart.add("operations", new MockFormFieldPart("operations", operations));
+        multipart.add("map", new MockFormFieldPart("map", map));
+        for (final Part file : files) {
+            multipart.add(file.name(), file);
+        }
+        return multipart;
+    }
+
+    private static void assertLimitExceeded(final Throwable error, final String limit) {
+        assertThat(error).isInstanceOfSatisfying(GraphQlMultipartLimitExceededException.class,
+                e -> assertThat(e.getLimit()).isEqualTo(limit));
+    }
+
+    @Test
+    void testDecodeRejectsTooManyFiles() {
+        mpGqlJsonDecoder.getLimits().setMaxFiles(1);
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson(),
+                        new MockFilePart("a.txt", "0", "a"), new MockFilePart("b.txt", "1", "b"))))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILES))
+                .verify();
+    }
+
+    @Test
+    void testDecodeRejectsMapExceedingEntryPathAndDepthLimits() {
+        final GraphQlMultipartLimits entries = new GraphQlMultipartLimits();
+        entries.setMaxMapEntries(1);
+        final GraphQlMultipartLimits paths = new GraphQlMultipartLimits();
+        paths.setMaxPathsPerFile(1);
+        final GraphQlMultipartLimits depth = new GraphQlMultipartLimits();
+        depth.setMaxPathDepth(2);
+
+        final String map = """
+                { "0": ["variables.files.0", "variables.files.1"], "1": ["variables.files.1"] }
+                """;
+        for (final var expected : Map.of(entries, GraphQlMultipartLimits.MAX_MAP_ENTRIES,
+                paths, GraphQlMultipartLimits.MAX_PATHS_PER_FILE,
+                depth, GraphQlMultipartLimits.MAX_PATH_DEPTH).entrySet()) {
+            mpGqlJsonDecoder.setLimits(expected.getKey());
+            StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), map)))
+                    .expectErrorSatisfies(e -> assertLimitExceeded(e, expected.getValue()))
+                    .verify();
+        }
+    }
+
+    @Test
+    void testDecodeRejectsOversizedOperations() {
+        mpGqlJsonDecoder.getLimits().setMaxOperationsSize(DataSize.ofBytes(16));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), "{}")))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_OPERATIONS_SIZE))
+                .verify();
+        StepVerifier.create(mpGqlJsonDecoder.decode(streamedRequest()))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_OPERATIONS_SIZE))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeFailsUploadExceedingFileSize() {
+        mpGqlJsonDecoder.getLimits().setMaxFileSize(DataSize.ofBytes(3));
+
+        final Mono<String> content = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                .flatMap(request -> readContent(boundFiles(request).get(0)));
+
+        StepVerifier.create(content)
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILE_SIZE))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testDecodeFailsAggregatedUploadExceedingFileSize() {
+        mpGqlJsonDecoder.getLimits().setMaxFileSize(DataSize.ofBytes(5));
+
+        final Mono<List<String>> contents = mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(),
+                        GqlTestData.getTestFileMapJson(), new MockFilePart("file0.txt", "0", "first"), new MockFilePart("file1.txt", "1", "second")))
+                .flatMapMany(request -> Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent))
+                .collectList();
+
+        StepVerifier.create(contents)
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILE_SIZE))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeRejectsTooManyFilesAndOversizedRequests() {
+        mpGqlJsonDecoder.getLimits().setMaxFiles(1);
+        final Mono<String> second = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                .flatMap(request -> boundFiles(request).get(0).delete().then(readContent(boundFiles(request).get(1))));
+
+        StepVerifier.create(second)
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILES))
+                .verify(Duration.ofSeconds(5));
+
+        mpGqlJsonDecoder.setLimits(new GraphQlMultipartLimits());
+        mpGqlJsonDecoder.getLimits().setMaxRequestSize(DataSize.ofBytes(64));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(streamedRequest("first")))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_REQUEST_SIZE))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStoredDecodeBindsReplayableStoredUploads() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(5));
+
+        final GraphQlMultipartBatch batch = mpGqlJsonDecoder.decodeBatch(streamedRequest("first", "second", "unmapped"), storage)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batch).isNotNull();
+        final List<FilePart> files = boundFiles(batch.requests().get(0));
+        assertThat(batch.requests().get(0).getVariables()).containsEntry("foo", "bar");
+        assertThat(files).allSatisfy(f -> assertThat(f).isInstanceOf(StoredFilePart.class));
+        assertThat(((StoredFilePart) files.get(0)).isInMemory()).isTrue();
+        assertThat(((StoredFilePart) files.get(1)).isInMemory()).isFalse();
+        assertThat(Flux.fromIterable(files).concatMap(GraphQlMultipartJsonDecoderTest::readContent).collectList().block())
+                .containsExactly("first", "second");
+        assertThat(readContent(files.get(1)).block()).isEqualTo("second");
+        assertThat(batch.uploads()).hasSize(3).containsAll(files);
+        assertThat(storage.getDiskUsage()).isEqualTo(14);
+
+        Flux.fromIterable(batch.uploads()).flatMap(Part::delete).blockLast();
+
+        assertThat(storage.getDiskUsage()).isZero();
+        storage.close();
+    }
+
+    @Test
+    void testStoredDecodeDeletesStoredUploadsOnFailure() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(0));
+        mpGqlJsonDecoder.getLimits().setMaxFiles(1);
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(streamedRequest("first", "second"), storage))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILES))
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(Mono.delay(Duration.ofMillis(50)).then(Mono.fromSupplier(storage::getDiskUsage)))
+                .expectNext(0L)
+                .verifyComplete();
+        storage.close();
+    }
+
+    @Test
+    void testSinkDecodeBindsReferencesAndReleasesOnlyUnboundUploads(@TempDir final Path directory) throws Exception {
+        final FileSystemUploadSink sink = new FileSystemUploadSink(directory);
+
+        final GraphQlMultipartBatch batch = mpGqlJsonDecoder.decodeBatch(streamedRequest("first", "second", "unmapped"), sink)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batch).isNotNull();
+        assertThat(batch.requests().get(0).getVariables()).containsEntry("foo", "bar");
+        @SuppressWarnings("unchecked")
+        final List<UploadReference> references = (List<UploadReference>) batch.requests().get(0).getVariables().get("files");
+        assertThat(references).extracting(UploadReference::filename).containsExactly("file0.txt", "file1.txt");
+        assertThat(references).extracting(UploadReference::contentLength).containsExactly(5L, 6L);
+        assertThat(Path.of(references.get(0).location())).hasContent("first");
+        assertThat(Path.of(references.get(1).location())).hasContent("second");
+        assertThat(batch.uploads()).singleElement().extracting(Part::name).isEqualTo("2");
+
+        Flux.fromIterable(batch.uploads()).flatMap(Part::delete).blockLast();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactlyInAnyOrder(Path.of(references.get(0).location()), Path.of(references.get(1).location()));
+        }
+    }
+
+    @Test
+    void testSinkDecodeDeletesWrittenUploadsOnFailure(@TempDir final Path directory) throws Exception {
+        mpGqlJsonDecoder.getLimits().setMaxFiles(1);
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(streamedRequest("first", "second"), new FileSystemUploadSink(directory)))
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILES))
+                .verify(Duration.ofSeconds(5));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testStreamingDecodeComputesDigestsOnceContentIsConsumed() {
+        mpGqlJsonDecoder.setDigestAlgorithms(Set.of(ContentDigestAlgorithm.SHA_256));
+
+        final Mono<List<String>> digests = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                .flatMapMany(request -> Flux.fromIterable(boundFiles(request))
+                        .concatMap(file -> {
+                            assertThat(((DigestedContent) file).digests()).isEqualTo(ContentDigests.NONE);
+                            return readContent(file).then(Mono.fromSupplier(() -> ((DigestedContent) file).digests()));
+                        }))
+                .map(digest -> digest.hex(ContentDigestAlgorithm.SHA_256))
+                .collectList();
+
+        StepVerifier.create(digests)
+                .expectNext(List.of("a7937b64b8caa58f03721bb6bacf5c78cb235febe0e70b1b84cd99541461a08e",
+                        "16367aacb67a4a017c8da8ab95682ccb390863780f7114dda0a0e0c55644c7c4"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStoredDecodeAttachesVerifiedDigests() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        mpGqlJsonDecoder.setDigestAlgorithms(Set.of(ContentDigestAlgorithm.MD5));
+
+        final GraphQlMultipartBatch batch = mpGqlJsonDecoder.decodeBatch(streamedRequestWithMd5("first", "iwTV43ddKY54RV78XKQE1Q=="), storage)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batch).isNotNull();
+        assertThat(((StoredFilePart) boundFiles(batch.requests().get(0)).get(0)).digests().base64(ContentDigestAlgorithm.MD5))
+                .isEqualTo("iwTV43ddKY54RV78XKQE1Q==");
+        Flux.fromIterable(batch.uploads()).flatMap(Part::delete).blockLast();
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(streamedRequestWithMd5("tampered", "iwTV43ddKY54RV78XKQE1Q=="), storage))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.DIGEST_MISMATCH)))
+                .verify(Duration.ofSeconds(5));
+
+        mpGqlJsonDecoder.setVerifyDigests(false);
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(streamedRequestWithMd5("tampered", "iwTV43ddKY54RV78XKQE1Q=="), storage)
+                        .flatMap(unverified -> Flux.fromIterable(unverified.uploads()).flatMap(Part::delete).then()))
+                .verifyComplete();
+        storage.close();
+    }
+
+    @Test
+    void testSinkDecodeAttachesDigestsToReferences(@TempDir final Path directory) {
+        mpGqlJsonDecoder.setDigestAlgorithms(Set.of(ContentDigestAlgorithm.SHA_256, ContentDigestAlgorithm.CRC32C));
+
+        final GraphQlMultipartBatch batch = mpGqlJsonDecoder.decodeBatch(streamedRequest("first"), new FileSystemUploadSink(directory))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batch).isNotNull();
+        @SuppressWarnings("unchecked")
+        final List<UploadReference> references = (List<UploadReference>) batch.requests().get(0).getVariables().get("files");
+        assertThat(references.get(0).digests().algorithms())
+                .containsExactlyInAnyOrder(ContentDigestAlgorithm.SHA_256, ContentDigestAlgorithm.CRC32C);
+        assertThat(references.get(0).digests().hex(ContentDigestAlgorithm.SHA_256))
+                .isEqualTo("a7937b64b8caa58f03721bb6bacf5c78cb235febe0e70b1b84cd99541461a08e");
+    }
+
+    @Test
+    void testStreamingDecodeRejectsInvalidUploadPathBeforeFileParts() {
+        mpGqlJsonDecoder.setUploadPathValidator(new SchemaUploadPathValidator(GqlTestData.getTestSchema()));
+        final Flux<PartEvent> events = Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson(true, false)),
+                Flux.<PartEvent>error(new IllegalStateException("file parts must not be read")));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(events))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class, ex -> {
+                    assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST);
+                    assertThat(ex.getReason()).contains("variables.badVar");
+                }))
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                        .flatMapMany(request -> Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent))
+                        .collectList())
+                .expectNext(List.of("first", "second"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testSinkDecodeRejectsInvalidUploadPathBeforeWritingFiles(@TempDir final Path directory) {
+        final FileSystemUploadSink sink = Mockito.spy(new FileSystemUploadSink(directory));
+        mpGqlJsonDecoder.setUploadPathValidator((operation, fileKey, path) -> {
+            if (!path.get(0).equals("files")) {
+                throw GraphQlMultipartException.invalidRequest("Unexpected variable " + path.get(0) + ".");
+            }
+        });
+        final Flux<PartEvent> events = Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson(true, false)),
+                FilePartEvent.create("0", "file0.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("first".getBytes(StandardCharsets.UTF_8)))));
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(events, sink))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getReason()).isEqualTo("Unexpected variable badVar.")))
+                .verify(Duration.ofSeconds(5));
+
+        Mockito.verify(sink, Mockito.never()).write(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testDecodeRejectsPathsOutsideVariablesWhenValidating() {
+        mpGqlJsonDecoder.setUploadPathValidator((operation, fileKey, path) -> { });
+
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(aggregatedRequest(GqlTestData.getTestOperationsJson(), "{ \"0\": [\"extensions.file\"] }")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(GraphQlMultipartException.class))
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(mpGqlJsonDecoder.decodeBatch(aggregatedRequest(GqlTestData.getTestBatchOperationsJson(), "{ \"0\": [\"2.variables.file\"] }")))
+                .expectErrorSatisfies(e -> assertThat(e).hasMessageContaining("missing operation 2"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testDecodeOffloadsLargePartsToDecodeScheduler() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(2, 8)) {
+            scheduler.setByteThreshold(DataSize.ofBytes(0));
+            mpGqlJsonDecoder.setDecodeScheduler(scheduler);
+
+            StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson()))
+                            .map(request -> Thread.currentThread().getName()))
+                    .assertNext(thread -> assertThat(thread).startsWith("graphql-multipart-decode-"))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isEqualTo(2);
+
+            final Mono<List<String>> contents = mpGqlJsonDecoder.decode(streamedRequest("first", "second"))
+                    .flatMapMany(request -> Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent))
+                    .collectList();
+            StepVerifier.create(contents)
+                    .expectNext(List.of("first", "second"))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isGreaterThan(2);
+        }
+    }
+
+    @Test
+    void testDecodeMeasuresPartsInUtf8Bytes() {
+        final String operations = "{ \"query\": \"{ ping }\", \"variables\": { \"name\": \"\u00e4\u00f6\u00fc\u00e4\u00f6\u00fc\" } }";
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 8)) {
+            scheduler.setByteThreshold(DataSize.ofBytes(operations.length()));
+            mpGqlJsonDecoder.setDecodeScheduler(scheduler);
+
+            StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(operations, "{}")))
+                    .expectNextCount(1)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testDecodeOffloadsFileInjectionOfLargeMaps() {
+        try (DecodeScheduler scheduler = new DecodeScheduler(1, 8)) {
+            scheduler.setEntryThreshold(1);
+            mpGqlJsonDecoder.setDecodeScheduler(scheduler);
+
+            StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson()))
+                            .map(request -> Thread.currentThread().getName()))
+                    .assertNext(thread -> assertThat(thread).startsWith("graphql-multipart-decode-"))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            StepVerifier.create(mpGqlJsonDecoder.decode(aggregatedRequest(GqlTestData.getTestOperationsJson(), "{ \"0\": [\"variables.files.0\"] }"))
+                            .map(request -> Thread.currentThread().getName()))
+                    .assertNext(thread -> assertThat(thread).doesNotStartWith("graphql-multipart-decode-"))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(scheduler.getOffloadedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testStreamingDecodeDecodesGzipPartsAndDigestsBytesAsSent() throws Exception {
+        mpGqlJsonDecoder.setContentDecoder(new PartContentDecoder());
+        mpGqlJsonDecoder.setDigestAlgorithms(Set.of(ContentDigestAlgorithm.MD5));
+        final byte[] compressed = gzip("first");
+        final String md5 = Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(compressed));
+
+        final Mono<List<String>> contents = mpGqlJsonDecoder.decode(encodedRequest(compressed, md5))
+                .flatMapMany(request -> {
+                    assertThat(request.getVariables()).containsEntry("foo", "bar");
+                    assertThat(boundFiles(request).get(0).headers().containsHeader(HttpHeaders.CONTENT_ENCODING)).isFalse();
+                    return Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent);
+                })
+                .collectList();
+
+        StepVerifier.create(contents)
+                .expectNext(List.of("first", "second"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStreamingDecodeLimitsDecodedFileSize() {
+        mpGqlJsonDecoder.setContentDecoder(new PartContentDecoder());
+        mpGqlJsonDecoder.getLimits().setMaxFileSize(DataSize.ofBytes(4));
+
+        final Mono<String> first = mpGqlJsonDecoder.decode(encodedRequest(gzip("first"), null))
+                .flatMap(request -> readContent(boundFiles(request).get(0)));
+
+        StepVerifier.create(first)
+                .expectErrorSatisfies(e -> assertLimitExceeded(e, GraphQlMultipartLimits.MAX_FILE_SIZE))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStoredDecodeKeepsEncodedUploadsAndDecodesThemWhenRead() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(0));
+        final PartContentDecoder contentDecoder = new PartContentDecoder();
+        contentDecoder.setKeepEncoded(true);
+        mpGqlJsonDecoder.setContentDecoder(contentDecoder);
+        final byte[] compressed = gzip("first".repeat(1000));
+
+        final GraphQlMultipartBatch batch = mpGqlJsonDecoder.decodeBatch(encodedRequest(compressed, null), storage)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batch).isNotNull();
+        final StoredFilePart stored = (StoredFilePart) boundFiles(batch.requests().get(0)).get(0);
+        assertThat(stored.isEncoded()).isTrue();
+        assertThat(stored.getContentLength()).isEqualTo(compressed.length);
+        assertThat(batch.requests().get(0).getVariables()).containsEntry("foo", "bar");
+        assertThat(storage.getDiskUsage())
+                .isEqualTo(gzip(GqlTestData.getTestOperationsJson()).length + compressed.length + "second".length());
+        assertThat(readContent(stored).block()).isEqualTo("first".repeat(1000));
+        assertThat(readContent(stored).block()).isEqualTo("first".repeat(1000));
+
+        Flux.fromIterable(batch.uploads()).flatMap(Part::delete).blockLast();
+        storage.close();
+    }
+
+    @Test
+    void testDecodeDecodesEncodedAggregatedParts() {
+        mpGqlJsonDecoder.setContentDecoder(new PartContentDecoder());
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        final MultiValueMap<String, Part> multipart = aggregatedRequest(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson(),
+                new MockFilePart("file0.txt", "0", headers, DefaultDataBufferFactory.sharedInstance.wrap(gzip("first"))),
+                new MockFilePart("file1.txt", "1", "second"));
+
+        final Mono<List<String>> contents = mpGqlJsonDecoder.decode(multipart)
+                .flatMapMany(request -> Flux.fromIterable(boundFiles(request)).concatMap(GraphQlMultipartJsonDecoderTest::readContent))
+                .collectList();
+
+        StepVerifier.create(contents)
+                .expectNext(List.of("first", "second"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testDecodeRejectsUnsupportedContentEncoding() {
+        mpGqlJsonDecoder.setContentDecoder(new PartContentDecoder());
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "br");
+        final MultiValueMap<String, Part> multipart = aggregatedRequest(GqlTestData.getTestOperationsJson(), GqlTestData.getTestFileMapJson());
+        multipart.set("map", new MockFilePart("map.json", "map", headers,
+                DefaultDataBufferFactory.sharedInstance.wrap(GqlTestData.getTestFileMapJson().getBytes(StandardCharsets.UTF_8))));
+
+        StepVerifier.create(mpGqlJsonDecoder.decode(multipart))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.UNSUPPORTED_ENCODING)))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static Flux<PartEvent> encodedRequest(final byte[] compressedFile, final String contentMd5) {
+        return Flux.concat(
+                FilePartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), "operations.json.gz", MediaType.APPLICATION_JSON,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(gzip(GqlTestData.getTestOperationsJson()))),
+                        headers -> headers.set(HttpHeaders.CONTENT_ENCODING, "gzip")),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson()),
+                FilePartEvent.create("0", "file0.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(compressedFile)),
+                        headers -> {
+                            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                            if (contentMd5 != null) {
+                                headers.set(ContentDigests.CONTENT_MD5, contentMd5);
+                            }
+                        }),
+                FilePartEvent.create("1", "file1.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("second".getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    private static byte[] gzip(final String content) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Flux<PartEvent> streamedRequestWithMd5(final String content, final String contentMd5) {
+        return Flux.concat(
+                FormPartEvent.create(GraphQlMultipartPartKey.OPERATIONS.getKeyName(), GqlTestData.getTestOperationsJson()),
+                FormPartEvent.create(GraphQlMultipartPartKey.MAP.getKeyName(), GqlTestData.getTestFileMapJson()),
+                FilePartEvent.create("0", "file0.txt", MediaType.TEXT_PLAIN,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8))),
+                        headers -> headers.set(ContentDigests.CONTENT_MD5, contentMd5)));
+    }
 }
@@ -12,9 +12,18 @@ class GraphQlMultipartPartKeyTest {
         assertThat(GraphQlMultipartPartKey.MAP.getKeyName())
                 .isEqualTo("map");
 
+        assertThat(GraphQlMultipartPartKey.OPERATIONS.getValueTypeRef().getType())
+                .hasToString("class java.lang.Object");
+        assertThat(GraphQlMultipartPartKey.MAP.getValueTypeRef().getType())
+                .hasToString("java.util.Map<java.lang.String, java.util.Set<com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath>>");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void enumExposesLegacyMapTypes() {
         assertThat(GraphQlMultipartPartKey.OPERATIONS.getTypeRef().getType())
                 .hasToString("java.util.Map<java.lang.String, java.lang.Object>");
         assertThat(GraphQlMultipartPartKey.MAP.getTypeRef().getType())
-                .hasToString("java.util.Map<java.lang.String, java.util.Set<com.yellowmoonsoftware.graphql.multipart.util.ObjectGraphPath>>");
+                .isEqualTo(GraphQlMultipartPartKey.MAP.getValueTypeRef().getType());
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphQlStreamedFilePartTest {
+
+    private static Flux<PartEvent> fileEvents(final String name, final String filename, final String... chunks) {
+        return FilePartEvent.create(name, filename, MediaType.TEXT_PLAIN,
+                Flux.fromArray(chunks).map(c -> DefaultDataBufferFactory.sharedInstance.wrap(c.getBytes(StandardCharsets.UTF_8))))
+                .cast(PartEvent.class);
+    }
+
+    private static Mono<String> readContent(final GraphQlStreamedFilePart part) {
+        return DataBufferUtils.join(part.content())
+                .map(buffer -> {
+                    final String value = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return value;
+                });
+    }
+
+    @Test
+    void contentIsFedOnceEventsAreAttached() {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final Flux<PartEvent> events = fileEvents("0", "a.txt", "hello ", "world").cache();
+
+        final Mono<String> content = readContent(part);
+        assertThat(part.filename()).isEmpty();
+
+        final Mono<Void> consumed = events.next().flatMap(first -> part.attach(first, first.headers(), events.map(PartEvent::content)));
+
+        StepVerifier.create(Mono.zip(content, consumed.thenReturn(true)))
+                .assertNext(t -> assertThat(t.getT1()).isEqualTo("hello world"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(part.filename()).isEqualTo("a.txt");
+        assertThat(part.headers().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+        assertThat(part.name()).isEqualTo("0");
+    }
+
+    @Test
+    void contentCanOnlyBeConsumedOnce() {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final Flux<PartEvent> events = fileEvents("0", "a.txt", "data").cache();
+        events.next().flatMap(first -> part.attach(first, first.headers(), events.map(PartEvent::content))).subscribe();
+
+        StepVerifier.create(readContent(part))
+                .expectNext("data")
+                .verifyComplete();
+        StepVerifier.create(part.content())
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteDiscardsUnconsumedContentAndCompletesAttachment() {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final Flux<PartEvent> events = fileEvents("0", "a.txt", "data").cache();
+
+        final Mono<Void> consumed = events.next().flatMap(first -> part.attach(first, first.headers(), events.map(PartEvent::content)));
+
+        StepVerifier.create(Mono.when(consumed, part.delete()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(part.content())
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void failSurfacesErrorToSubscribersAndDeleteSwallowsIt() {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final GraphQlStreamedFilePart other = new GraphQlStreamedFilePart("1");
+
+        part.fail(new IllegalStateException("missing"));
+        other.fail(new IllegalStateException("missing"));
+
+        StepVerifier.create(part.content())
+                .expectErrorMessage("missing")
+                .verify();
+        StepVerifier.create(other.delete())
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void attachmentFailsWhenAttachedEventsFail() {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final Flux<PartEvent> events = fileEvents("0", "a.txt", "hello").cache();
+        final Flux<PartEvent> failing = events.concatWith(Mono.error(new IllegalStateException("boom")));
+
+        final Mono<Void> consumed = events.next().flatMap(first -> part.attach(first, first.headers(), failing.map(PartEvent::content)));
+        part.delete().subscribe();
+
+        StepVerifier.create(consumed)
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void transferToWritesContent() throws Exception {
+        final GraphQlStreamedFilePart part = new GraphQlStreamedFilePart("0");
+        final Flux<PartEvent> events = fileEvents("0", "a.txt", "file ", "data").cache();
+        events.next().flatMap(first -> part.attach(first, first.headers(), events.map(PartEvent::content))).subscribe();
+        final Path dest = Files.createTempFile("streamed", ".txt");
+
+        try {
+            StepVerifier.create(part.transferTo(dest))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+            assertThat(Files.readString(dest)).isEqualTo("file data");
+        } finally {
+            Files.deleteIfExists(dest);
+        }
+    }
+}
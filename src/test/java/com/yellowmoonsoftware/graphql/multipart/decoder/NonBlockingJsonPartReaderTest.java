@@ -0,0 +1,117 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GqlTestData;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NonBlockingJsonPartReaderTest {
+    final JsonMapper mapper = new JsonMapper();
+
+    final JavaType objectType = mapper.constructType(Object.class);
+
+    @Test
+    void testReadsValueSplitAtEveryByte() {
+        final String json = GqlTestData.getTestOperationsJson();
+        final Object expected = mapper.readValue(json, Object.class);
+
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks(json, 1), objectType, -1))
+                .assertNext(actual -> assertThat(actual).isEqualTo(expected))
+                .verifyComplete();
+    }
+
+    @Test
+    void testReadsRootArrayAndScalars() {
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("[{\"a\":1},{\"b\":[2,3]}]", 3), objectType, -1))
+                .assertNext(actual -> assertThat(actual).isEqualTo(List.of(Map.of("a", 1), Map.of("b", List.of(2, 3)))))
+                .verifyComplete();
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks(" 12345 ", 2), objectType, -1))
+                .expectNext(12345)
+                .verifyComplete();
+    }
+
+    @Test
+    void testReadsIntoRequestedType() {
+        final JavaType type = mapper.getTypeFactory().constructMapType(Map.class, String.class, Long.class);
+
+        StepVerifier.create(NonBlockingJsonPartReader.<Map<String, Long>>read(mapper, chunks("{\"a\":1,\"b\":2}", 4), type, -1))
+                .assertNext(actual -> assertThat(actual).isEqualTo(Map.of("a", 1L, "b", 2L)))
+                .verifyComplete();
+    }
+
+    @Test
+    void testEmptyContentCompletesEmpty() {
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, Flux.empty(), objectType, -1))
+                .verifyComplete();
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("   ", 1), objectType, -1))
+                .verifyComplete();
+    }
+
+    @Test
+    void testRejectsMalformedTruncatedAndTrailingContent() {
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("{\"a\":}", 2), objectType, -1))
+                .expectError(DecodingException.class)
+                .verify();
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("{\"a\":[1,2", 2), objectType, -1))
+                .expectError(DecodingException.class)
+                .verify();
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("{\"a\":1} {\"b\":2}", 5), objectType, -1))
+                .expectError(DecodingException.class)
+                .verify();
+    }
+
+    @Test
+    void testEnforcesMaxInMemorySize() {
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, chunks("{\"a\":\"0123456789\"}", 4), objectType, 8))
+                .expectError(DataBufferLimitException.class)
+                .verify();
+    }
+
+    @Test
+    void testReleasesEveryBuffer() {
+        final NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        final List<NettyDataBuffer> buffers = new ArrayList<>();
+        final Flux<DataBuffer> content = Flux.fromIterable(split("{\"a\":[1,2,3],\"b\":\"text\"}", 3))
+                .map(bytes -> factory.wrap(Unpooled.wrappedBuffer(bytes)))
+                .doOnNext(buffers::add)
+                .cast(DataBuffer.class);
+
+        StepVerifier.create(NonBlockingJsonPartReader.read(mapper, content, objectType, -1))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(buffers).isNotEmpty()
+                .allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+    }
+
+    private static Flux<DataBuffer> chunks(final String json, final int chunkSize) {
+        return Flux.fromIterable(split(json, chunkSize)).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    private static List<byte[]> split(final String json, final int chunkSize) {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            chunks.add(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + chunkSize)));
+        }
+        return chunks;
+    }
+}
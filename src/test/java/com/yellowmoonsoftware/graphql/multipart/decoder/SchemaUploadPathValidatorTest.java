@@ -0,0 +1,77 @@
+package com.yellowmoonsoftware.graphql.multipart.decoder;
+
+import com.yellowmoonsoftware.graphql.multipart.GqlTestData;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchemaUploadPathValidatorTest {
+    private static final String MULTIPLE_UPLOAD = "mutation($files: [Upload!]!) { multipleUpload(files: $files) }";
+    private static final String CREATE_POST = "mutation($post: Post!, $title: String) { createPost(post: $post) }";
+
+    private final SchemaUploadPathValidator validator = new SchemaUploadPathValidator(GqlTestData.getTestSchema(), 2);
+
+    @Test
+    void testAcceptsPathsToUploadPositions() {
+        assertThatCode(() -> {
+            validator.validate(operation(MULTIPLE_UPLOAD, null), "0", List.of("files", "1"));
+            validator.validate(operation(CREATE_POST, null), "0", List.of("post", "cover"));
+            validator.validate(operation(CREATE_POST, null), "1", List.of("post", "attachments", "0", "file"));
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testRejectsPathsThatCanNotReceiveAnUpload() {
+        assertRejected(operation(MULTIPLE_UPLOAD, null), List.of("badVar"), "variable $badVar is not defined");
+        assertRejected(operation(MULTIPLE_UPLOAD, null), List.of("files"), "expected Upload but found [Upload!]!");
+        assertRejected(operation(MULTIPLE_UPLOAD, null), List.of("files", "first"), "'first' is not an index");
+        assertRejected(operation(CREATE_POST, null), List.of("title"), "expected Upload but found String");
+        assertRejected(operation(CREATE_POST, null), List.of("post", "body"), "input type Post has no field 'body'");
+        assertRejected(operation(CREATE_POST, null), List.of("post", "cover", "0"), "type Upload has no field '0'");
+    }
+
+    @Test
+    void testSelectsOperationByName() {
+        final String document = "mutation A($files: [Upload!]!) { multipleUpload(files: $files) } "
+                + "mutation B($post: Post!) { createPost(post: $post) }";
+
+        assertThatCode(() -> validator.validate(operation(document, "B"), "0", List.of("post", "cover"))).doesNotThrowAnyException();
+        assertRejected(operation(document, "A"), List.of("post", "cover"), "variable $post is not defined");
+    }
+
+    @Test
+    void testLeavesUnresolvableOperationsToGraphQlValidation() {
+        final String ambiguous = "mutation A($files: [Upload!]!) { multipleUpload(files: $files) } mutation B { ping }";
+
+        assertThatCode(() -> {
+            validator.validate(Map.of(), "0", List.of("badVar"));
+            validator.validate(operation("mutation($files: [Upload!]! {", null), "0", List.of("badVar"));
+            validator.validate(operation(ambiguous, null), "0", List.of("badVar"));
+            validator.validate(operation(MULTIPLE_UPLOAD, "Missing"), "0", List.of("badVar"));
+            validator.validate(operation("mutation($file: Unknown) { ping }", null), "0", List.of("file", "x"));
+        }).doesNotThrowAnyException();
+    }
+
+    private void assertRejected(final Map<String, Object> operation, final List<String> path, final String reason) {
+        assertThatThrownBy(() -> validator.validate(operation, "0", path))
+                .isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST))
+                .hasMessageContaining(reason);
+    }
+
+    private static Map<String, Object> operation(final String query, final String operationName) {
+        final Map<String, Object> operation = new HashMap<>();
+        operation.put("query", query);
+        if (operationName != null) {
+            operation.put("operationName", operationName);
+        }
+        return operation;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yellowmoonsoftware.graphql.multipart.digest;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentDigestsTest {
+    private static final String SHA_256_HEX = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+    private static final String SHA_256_BASE64 = "uU0nuZNNPgilLlLX2n2r+sSE7+N6U4DukIj3rOLvzek=";
+    private static final String MD5_BASE64 = "XrY7u+Ae7tCTyyK7j1rNww==";
+
+    @Test
+    void testComputesDigestsAcrossBuffersWithoutConsumingThem() {
+        final ContentDigester digester = new ContentDigester(EnumSet.allOf(ContentDigestAlgorithm.class));
+        final DataBuffer hello = buffer("hello ");
+        final DataBuffer world = buffer("world");
+
+        digester.update(hello);
+        digester.update(world);
+        final ContentDigests digests = digester.finish();
+
+        assertThat(hello.readableByteCount()).isEqualTo(6);
+        assertThat(world.readableByteCount()).isEqualTo(5);
+        assertThat(digests.algorithms()).containsExactly(ContentDigestAlgorithm.values());
+        assertThat(digests.hex(ContentDigestAlgorithm.SHA_256)).isEqualTo(SHA_256_HEX);
+        assertThat(digests.base64(ContentDigestAlgorithm.MD5)).isEqualTo(MD5_BASE64);
+        assertThat(digests.hex(ContentDigestAlgorithm.CRC32C)).isEqualTo("c99465aa");
+        assertThat(digests).isEqualTo(digest(EnumSet.allOf(ContentDigestAlgorithm.class), "hello world"));
+    }
+
+    @Test
+    void testEmptyDigesterComputesNothing() {
+        final ContentDigests digests = digest(Set.of(), "hello world");
+
+        assertThat(digests.isEmpty()).isTrue();
+        assertThat(digests).isEqualTo(ContentDigests.NONE);
+        assertThat(digests.get(ContentDigestAlgorithm.SHA_256)).isNull();
+    }
+
+    @Test
+    void testVerifiesDeclaredDigests() {
+        final ContentDigests digests = digest(EnumSet.of(ContentDigestAlgorithm.SHA_256, ContentDigestAlgorithm.MD5), "hello world");
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(ContentDigests.CONTENT_MD5, MD5_BASE64);
+        headers.set("Repr-Digest", "sha-256=:" + SHA_256_BASE64 + ":, sha-512=:AAAA:");
+        headers.set("Digest", "SHA-256=" + SHA_256_BASE64);
+        headers.set("Content-Digest", "crc32c=:AAAAAA==:");
+
+        assertThatCode(() -> digests.verify("0", headers)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testRejectsMismatchingOrMalformedDigests() {
+        final ContentDigests digests = digest(EnumSet.of(ContentDigestAlgorithm.MD5), "hello world");
+        final HttpHeaders mismatch = new HttpHeaders();
+        mismatch.set(ContentDigests.CONTENT_MD5, "AAAAAAAAAAAAAAAAAAAAAA==");
+        final HttpHeaders malformed = new HttpHeaders();
+        malformed.set("Repr-Digest", "md5=:not base64!:");
+
+        assertThatThrownBy(() -> digests.verify("0", mismatch))
+                .isInstanceOfSatisfying(GraphQlMultipartException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getErrorCode()).isEqualTo(GraphQlMultipartException.DIGEST_MISMATCH);
+                });
+        assertThatThrownBy(() -> digests.verify("0", malformed))
+                .isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST));
+    }
+
+    @Test
+    void testParsesDeclaredDigests() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("Repr-Digest", "sha-256=:" + SHA_256_BASE64 + ":;param=1, unknown=:AAAA:");
+        headers.set("Digest", "MD5=" + MD5_BASE64);
+        final HttpHeaders conflicting = new HttpHeaders();
+        conflicting.set(ContentDigests.CONTENT_MD5, MD5_BASE64);
+        conflicting.set("Digest", "md5=AAAAAAAAAAAAAAAAAAAAAA==");
+
+        final ContentDigests declared = ContentDigests.declared("0", headers);
+
+        assertThat(declared.algorithms()).containsExactly(ContentDigestAlgorithm.SHA_256, ContentDigestAlgorithm.MD5);
+        assertThat(declared.hex(ContentDigestAlgorithm.SHA_256)).isEqualTo(SHA_256_HEX);
+        assertThat(ContentDigests.declared("0", HttpHeaders.EMPTY)).isEqualTo(ContentDigests.NONE);
+        assertThatThrownBy(() -> ContentDigests.declared("0", conflicting))
+                .isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST));
+    }
+
+    @Test
+    void testResolvesAlgorithmsByHeaderToken() {
+        assertThat(ContentDigestAlgorithm.fromToken("SHA-256")).isEqualTo(ContentDigestAlgorithm.SHA_256);
+        assertThat(ContentDigestAlgorithm.fromToken(" crc32c")).isEqualTo(ContentDigestAlgorithm.CRC32C);
+        assertThat(ContentDigestAlgorithm.fromToken("sha-512")).isNull();
+    }
+
+    private static ContentDigests digest(final Set<ContentDigestAlgorithm> algorithms, final String content) {
+        final ContentDigester digester = new ContentDigester(algorithms);
+        digester.update(buffer(content));
+        return digester.finish();
+    }
+
+    private static DataBuffer buffer(final String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+package com.yellowmoonsoftware.graphql.multipart.document;
+
+import com.yellowmoonsoftware.graphql.multipart.GqlTestData;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.language.Document;
+import graphql.parser.InvalidSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GraphQlDocumentCacheTest {
+
+    @Test
+    void testServesValidatedDocumentsFromCache() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache();
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+
+        final ExecutionResult first = graphQl.execute("{ ping }");
+        final ExecutionResult second = graphQl.execute("{ ping }");
+
+        assertThat(first.getErrors()).isEmpty();
+        assertThat(second.getErrors()).isEmpty();
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.parse("{ ping }")).isNotNull();
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void testDoesNotCacheInvalidDocuments() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache();
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+
+        assertThat(graphQl.execute("{ unknown }").getErrors()).isNotEmpty();
+        assertThat(graphQl.execute("{ unknown }").getErrors()).isNotEmpty();
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.getHits()).isZero();
+    }
+
+    @Test
+    void testInvalidAndParsedDocumentsDoNotEvictValidatedDocuments() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache(1);
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+        graphQl.execute("{ ping }");
+
+        assertThat(graphQl.execute("{ unknown }").getErrors()).isNotEmpty();
+        assertThat(graphQl.execute("{ ping").getErrors()).isNotEmpty();
+        cache.parse("query Named { ping }");
+
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void testSharesParsedDocumentsWithExecution() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache();
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+
+        final Document parsed = cache.parse("{ ping }");
+
+        assertThat(cache.parse("{ ping }")).isSameAs(parsed);
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThatThrownBy(() -> cache.parse("{ ping")).isInstanceOf(InvalidSyntaxException.class);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedDocuments() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache(1);
+
+        final Document first = cache.parse("{ ping }");
+        cache.parse("query Named { ping }");
+
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.parse("{ ping }")).isNotSameAs(first);
+        assertThat(cache.getHits()).isZero();
+        assertThatThrownBy(() -> new GraphQlDocumentCache(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDelegatesUncachedDocumentsToProvider() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache();
+        final AtomicInteger delegated = new AtomicInteger();
+        cache.setDelegate((executionInput, parseAndValidate) -> {
+            delegated.incrementAndGet();
+            return CompletableFuture.completedFuture(parseAndValidate.apply(executionInput));
+        });
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+
+        assertThat(delegated).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testDoesNotStoreDocumentsWithoutEntries() {
+        final GraphQlDocumentCache cache = new GraphQlDocumentCache(0);
+        final GraphQL graphQl = GraphQL.newGraphQL(GqlTestData.getTestSchema()).preparsedDocumentProvider(cache).build();
+
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+        assertThat(graphQl.execute("{ ping }").getErrors()).isEmpty();
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+}
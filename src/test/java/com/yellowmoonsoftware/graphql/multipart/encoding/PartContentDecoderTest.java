@@ -0,0 +1,218 @@
+package com.yellowmoonsoftware.graphql.multipart.encoding;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimits;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartContentDecoderTest {
+    private static final String TEXT = "id,name,amount\n".repeat(2000);
+
+    private final PartContentDecoder decoder = new PartContentDecoder();
+
+    @Test
+    void testDecodesGzipSplitAcrossSingleByteBuffers() {
+        assertThat(decode("gzip", split(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), 1), -1)).isEqualTo(TEXT);
+    }
+
+    @Test
+    void testDecodesGzipWithOptionalHeaderFieldsAndSeveralMembers() {
+        final byte[] member = gzip("second".getBytes(StandardCharsets.UTF_8));
+        final byte[] withName = new byte[member.length + 6];
+        System.arraycopy(member, 0, withName, 0, 10);
+        withName[3] = 8;
+        System.arraycopy("a.csv\0".getBytes(StandardCharsets.ISO_8859_1), 0, withName, 10, 6);
+        System.arraycopy(member, 10, withName, 16, member.length - 10);
+
+        assertThat(decode("x-gzip", split(concat(gzip("first ".getBytes(StandardCharsets.UTF_8)), withName), 7), -1))
+                .isEqualTo("first second");
+    }
+
+    @Test
+    void testDecodesZlibAndRawDeflate() {
+        final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decode("deflate", split(deflate(bytes, false), 100), -1)).isEqualTo(TEXT);
+        assertThat(decode("DEFLATE", split(deflate(bytes, true), 100), -1)).isEqualTo(TEXT);
+    }
+
+    @Test
+    void testDecodesIntoBoundedBuffers() {
+        decoder.setBufferSize(DataSize.ofBytes(1024));
+
+        final List<Integer> sizes = decoder.decode("0", headers("gzip"), split(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), 8192), -1)
+                .map(buffer -> {
+                    final int size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return size;
+                })
+                .collectList()
+                .block();
+
+        assertThat(sizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(1024));
+        assertThat(sizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(TEXT.length());
+    }
+
+    @Test
+    void testPassesIdentityContentThrough() {
+        final Flux<DataBuffer> content = split(TEXT.getBytes(StandardCharsets.UTF_8), 100);
+
+        assertThat(decoder.isEncoded(headers("identity"))).isFalse();
+        assertThat(decoder.isEncoded(new HttpHeaders())).isFalse();
+        assertThat(decoder.decode("0", headers("identity"), content, 1)).isSameAs(content);
+    }
+
+    @Test
+    void testRejectsContentExceedingDecompressionRatio() {
+        decoder.setRatioThreshold(DataSize.ofKilobytes(64));
+        final byte[] bomb = gzip(new byte[8 * 1024 * 1024]);
+        final List<DataBuffer> emitted = new ArrayList<>();
+
+        StepVerifier.create(decoder.decode("0", headers("gzip"), split(bomb, 1024), 100))
+                .thenConsumeWhile(emitted::add)
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartLimitExceededException.class,
+                        limit -> assertThat(limit.getLimit()).isEqualTo(GraphQlMultipartLimits.MAX_DECOMPRESSION_RATIO)))
+                .verify();
+        assertThat(emitted.stream().mapToLong(DataBuffer::readableByteCount).sum()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    void testUnlimitedLimitsDisableDecompressionRatio() {
+        decoder.setRatioThreshold(DataSize.ofKilobytes(64));
+        final byte[] bomb = gzip(new byte[1024 * 1024]);
+
+        StepVerifier.create(decoder.decode("0", headers("gzip"), split(bomb, 1024), new GraphQlMultipartLimits().getMaxDecompressionRatio()))
+                .thenConsumeWhile(buffer -> true, DataBufferUtils::release)
+                .expectError(GraphQlMultipartLimitExceededException.class)
+                .verify();
+        assertThat(decode("gzip", split(bomb, 1024), GraphQlMultipartLimits.unlimited().getMaxDecompressionRatio())).hasSize(1024 * 1024);
+    }
+
+    @Test
+    void testAcceptsSmallHighlyCompressedContentBelowRatioThreshold() {
+        assertThat(decode("gzip", split(gzip(new byte[64 * 1024]), 1024), 10)).hasSize(64 * 1024);
+    }
+
+    @Test
+    void testRejectsUnsupportedAndStackedEncodings() {
+        StepVerifier.create(decoder.decode("0", headers("br"), split(new byte[] {1}, 1), -1))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class, error -> {
+                    assertThat(error.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+                    assertThat(error.getErrorCode()).isEqualTo(GraphQlMultipartException.UNSUPPORTED_ENCODING);
+                }))
+                .verify();
+        StepVerifier.create(decoder.decode("0", headers("deflate, gzip"), split(new byte[] {1}, 1), -1))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+    }
+
+    @Test
+    void testRejectsMalformedTruncatedAndCorruptedContent() {
+        final byte[] gzip = gzip(TEXT.getBytes(StandardCharsets.UTF_8));
+        final byte[] corrupted = gzip.clone();
+        corrupted[corrupted.length - 5] ^= 1;
+
+        assertInvalid("gzip", TEXT.getBytes(StandardCharsets.UTF_8));
+        assertInvalid("gzip", Arrays.copyOf(gzip, gzip.length - 4));
+        assertInvalid("gzip", corrupted);
+        assertInvalid("deflate", concat(deflate(TEXT.getBytes(StandardCharsets.UTF_8), false), new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void testReleasesReceivedBuffersWhenCancelled() {
+        final NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        final List<NettyDataBuffer> received = new ArrayList<>();
+        final Flux<DataBuffer> content = split(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), 256)
+                .map(buffer -> {
+                    final NettyDataBuffer netty = factory.wrap(Unpooled.wrappedBuffer(buffer.asByteBuffer()));
+                    received.add(netty);
+                    return netty;
+                });
+
+        StepVerifier.create(decoder.decode("0", headers("gzip"), content, -1).take(1))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(received).isNotEmpty().allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+    }
+
+    private void assertInvalid(final String encoding, final byte[] content) {
+        StepVerifier.create(decoder.decode("0", headers(encoding), split(content, 64), -1))
+                .thenConsumeWhile(buffer -> true)
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        error -> assertThat(error.getErrorCode()).isEqualTo(GraphQlMultipartException.INVALID_REQUEST)))
+                .verify();
+    }
+
+    private String decode(final String encoding, final Flux<DataBuffer> content, final long maxRatio) {
+        return DataBufferUtils.join(decoder.decode("0", headers(encoding), content, maxRatio))
+                .map(buffer -> {
+                    final String value = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return value;
+                })
+                .block();
+    }
+
+    private static HttpHeaders headers(final String encoding) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+        return headers;
+    }
+
+    private static Flux<DataBuffer> split(final byte[] bytes, final int size) {
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(bytes, i * size, Math.min(bytes.length, (i + 1) * size))));
+    }
+
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] bytes, final boolean raw) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflate.write(bytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(final byte[] first, final byte[] second) {
+        final byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,136 @@
+package com.yellowmoonsoftware.graphql.multipart.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicrometerGraphQlMultipartMetricsTest {
+
+    MeterRegistry meterRegistry;
+
+    List<Observation.Context> stoppedObservations;
+
+    MicrometerGraphQlMultipartMetrics metrics;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        stoppedObservations = new ArrayList<>();
+        final ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(final Observation.Context context) {
+                stoppedObservations.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(final Observation.Context context) {
+                return true;
+            }
+        });
+        metrics = new MicrometerGraphQlMultipartMetrics(meterRegistry, observationRegistry);
+    }
+
+    private long timerCount(final GraphQlMultipartStage stage, final String outcome) {
+        return meterRegistry.get(MicrometerGraphQlMultipartMetrics.STAGE_TIMER)
+                .tag("stage", stage.getTagValue())
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    @Test
+    void observeMonoRecordsTimerAndNestsObservations() {
+        final Mono<String> nested = metrics.observe(GraphQlMultipartStage.EXECUTION, Mono.just("result"));
+
+        StepVerifier.create(metrics.observe(GraphQlMultipartStage.REQUEST, nested))
+                .expectNext("result")
+                .expectComplete()
+                .verify();
+
+        assertThat(timerCount(GraphQlMultipartStage.REQUEST, "success")).isEqualTo(1);
+        assertThat(timerCount(GraphQlMultipartStage.EXECUTION, "success")).isEqualTo(1);
+        assertThat(stoppedObservations)
+                .extracting(Observation.Context::getContextualName)
+                .containsExactly("graphql multipart execution", "graphql multipart request");
+        assertThat(stoppedObservations.get(0).getParentObservation())
+                .extracting(parent -> parent.getContextView().getContextualName())
+                .isEqualTo("graphql multipart request");
+    }
+
+    @Test
+    void observeMonoRecordsErrorsAndCancellations() {
+        StepVerifier.create(metrics.observe(GraphQlMultipartStage.MAP_DECODE, Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(metrics.observe(GraphQlMultipartStage.OPERATIONS_DECODE, Mono.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(timerCount(GraphQlMultipartStage.MAP_DECODE, "error")).isEqualTo(1);
+        assertThat(timerCount(GraphQlMultipartStage.OPERATIONS_DECODE, "cancelled")).isEqualTo(1);
+        assertThat(stoppedObservations.get(0).getError()).hasMessage("boom");
+    }
+
+    @Test
+    void observeSupplierRecordsTimerAndPropagatesErrors() {
+        assertThat(metrics.observe(GraphQlMultipartStage.FILE_INJECTION, () -> 3)).isEqualTo(3);
+        assertThatThrownBy(() -> metrics.observe(GraphQlMultipartStage.FILE_INJECTION, () -> {
+            throw new IllegalArgumentException("bad path");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(timerCount(GraphQlMultipartStage.FILE_INJECTION, "success")).isEqualTo(1);
+        assertThat(timerCount(GraphQlMultipartStage.FILE_INJECTION, "error")).isEqualTo(1);
+        assertThat(stoppedObservations)
+                .extracting(context -> context.getLowCardinalityKeyValue("stage").getValue())
+                .containsExactly("file.injection", "file.injection");
+    }
+
+    @Test
+    void recordsDistributionSummaries() {
+        metrics.recordRequestSize(2048);
+        metrics.recordFileCount(2);
+        metrics.recordFileSize(1000);
+        metrics.recordFileSize(24);
+
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.REQUEST_SIZE).summary().totalAmount()).isEqualTo(2048);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.FILE_COUNT).summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.FILE_SIZE).summary().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.FILE_SIZE).summary().max()).isEqualTo(1000);
+    }
+
+    @Test
+    void publishesAdmissionState() {
+        metrics.bindAdmission(() -> 3, () -> 2, () -> 4096L);
+        metrics.recordAdmissionRejected("queue-full");
+        metrics.recordAdmissionRejected("queue-full");
+        metrics.recordAdmissionRejected("queue-timeout");
+
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.ADMISSION_QUEUE).gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.ADMISSION_REQUESTS).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.ADMISSION_BYTES).gauge().value()).isEqualTo(4096);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.ADMISSION_REJECTED).tag("reason", "queue-full").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.ADMISSION_REJECTED).tag("reason", "queue-timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void publishesDecodeSchedulerState() {
+        metrics.bindDecodeScheduler(() -> 2, () -> 5, () -> 12L);
+
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.DECODE_ACTIVE).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.DECODE_QUEUE).gauge().value()).isEqualTo(5);
+        assertThat(meterRegistry.get(MicrometerGraphQlMultipartMetrics.DECODE_OFFLOADED).functionCounter().count()).isEqualTo(12);
+    }
+}
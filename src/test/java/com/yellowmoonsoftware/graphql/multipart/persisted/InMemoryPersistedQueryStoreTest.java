@@ -0,0 +1,53 @@
+package com.yellowmoonsoftware.graphql.multipart.persisted;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryPersistedQueryStoreTest {
+
+    @Test
+    void testResolvesRegisteredDocuments() {
+        final InMemoryPersistedQueryStore store = new InMemoryPersistedQueryStore();
+        final String hash = PersistedQueryStore.hash("{ ping }");
+
+        StepVerifier.create(store.get(hash)).verifyComplete();
+        StepVerifier.create(store.put(hash, "{ ping }")).verifyComplete();
+        StepVerifier.create(store.get(hash)).expectNext("{ ping }").verifyComplete();
+        assertThat(store.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testForgetsLeastRecentlyUsedDocuments() {
+        final InMemoryPersistedQueryStore store = new InMemoryPersistedQueryStore(2);
+
+        store.put("a", "{ a }").block();
+        store.put("b", "{ b }").block();
+        store.get("a").block();
+        store.put("c", "{ c }").block();
+
+        StepVerifier.create(store.get("b")).verifyComplete();
+        StepVerifier.create(store.get("a")).expectNext("{ a }").verifyComplete();
+        assertThat(store.getSize()).isEqualTo(2);
+        assertThatThrownBy(() -> new InMemoryPersistedQueryStore(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testLookupsOfUnknownHashesKeepRegisteredDocuments() {
+        final InMemoryPersistedQueryStore store = new InMemoryPersistedQueryStore(1);
+
+        store.put("a", "{ a }").block();
+        StepVerifier.create(store.get("b")).verifyComplete();
+
+        StepVerifier.create(store.get("a")).expectNext("{ a }").verifyComplete();
+        assertThat(store.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testHashesDocumentsAsLowercaseSha256Hex() {
+        assertThat(PersistedQueryStore.hash("hello world"))
+                .isEqualTo("b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9");
+    }
+}
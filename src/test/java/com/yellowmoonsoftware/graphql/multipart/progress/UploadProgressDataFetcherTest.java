@@ -0,0 +1,54 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadProgressDataFetcherTest {
+    private static final String SCHEMA = """
+            type Query { ping: String }
+            type Subscription { uploadProgress(id: ID!): UploadProgress }
+            enum UploadProgressState { RECEIVING PROCESSING COMPLETED FAILED }
+            type UploadProgress { id: ID! state: UploadProgressState! receivedBytes: Float! files: [UploadFileProgress!]! }
+            type UploadFileProgress { name: String! filename: String bytes: Float! complete: Boolean! }
+            """;
+
+    @Test
+    void testPublishesProgressThroughSubscription() {
+        final UploadProgressRegistry registry = new UploadProgressRegistry();
+        registry.setInterval(Duration.ofMillis(10));
+        final GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA),
+                RuntimeWiring.newRuntimeWiring()
+                        .type("Subscription", type -> type.dataFetcher(UploadProgressDataFetcher.FIELD, new UploadProgressDataFetcher(registry)))
+                        .build());
+        final String id = registry.issue();
+        final UploadProgressTracker tracker = registry.start(id, 3);
+        tracker.received(3);
+        tracker.bodyComplete();
+        tracker.track(Mono.empty()).block();
+
+        final ExecutionResult result = GraphQL.newGraphQL(schema).build()
+                .execute("subscription { uploadProgress(id: \"" + id + "\") { id state receivedBytes files { name } } }");
+        final Publisher<ExecutionResult> events = result.getData();
+
+        StepVerifier.create(Flux.from(events).map(ExecutionResult::<Map<String, Object>>getData))
+                .assertNext(data -> assertThat(data).isEqualTo(Map.of("uploadProgress",
+                        Map.of("id", id, "state", "COMPLETED", "receivedBytes", 3.0, "files", List.of()))))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+}
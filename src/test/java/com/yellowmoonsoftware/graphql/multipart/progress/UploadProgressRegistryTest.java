@@ -0,0 +1,166 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadProgressRegistryTest {
+    private final UploadProgressRegistry registry = new UploadProgressRegistry();
+
+    @Test
+    void testPublishesReceivedBytesEverySample() {
+        registry.setSampleSize(DataSize.ofBytes(100));
+        final String id = registry.issue();
+        final UploadProgressTracker tracker = registry.start(id, 250);
+
+        tracker.received(60);
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.RECEIVING);
+            assertThat(progress.contentLength()).isEqualTo(250);
+            assertThat(progress.receivedBytes()).isZero();
+        });
+        tracker.received(60);
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> assertThat(progress.receivedBytes()).isEqualTo(120));
+        tracker.received(130);
+        tracker.bodyComplete();
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.PROCESSING);
+            assertThat(progress.receivedBytes()).isEqualTo(250);
+        });
+    }
+
+    @Test
+    void testCountsBytesOfEachFile() {
+        registry.setSampleSize(DataSize.ofBytes(4));
+        final String id = registry.issue();
+        final UploadProgressTracker tracker = registry.start(id, -1);
+
+        Flux.<PartEvent>concat(FormPartEvent.create("operations", "{}"),
+                        FilePartEvent.create("0", "a.txt", MediaType.TEXT_PLAIN, Flux.just(buffer("abc"), buffer("defgh"))),
+                        FilePartEvent.create("1", "b.txt", MediaType.TEXT_PLAIN, Flux.just(buffer("xy"))))
+                .doOnNext(tracker::partEvent)
+                .blockLast();
+
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> assertThat(progress.files()).containsExactly(
+                new UploadProgress.FileProgress("0", "a.txt", 8, true),
+                new UploadProgress.FileProgress("1", "b.txt", 2, true)));
+    }
+
+    @Test
+    void testTracksOutcomeOfProcessing() {
+        final String completedId = registry.issue();
+        final String failedId = registry.issue();
+        final UploadProgressTracker completed = registry.start(completedId, -1);
+        final UploadProgressTracker failed = registry.start(failedId, -1);
+
+        completed.track(Mono.just("response")).block();
+        StepVerifier.create(failed.track(Mono.error(new IllegalStateException("boom")))).verifyError(IllegalStateException.class);
+
+        assertThat(registry.get(completedId)).hasValueSatisfying(progress -> assertThat(progress.isDone()).isTrue())
+                .map(UploadProgress::state).hasValue(UploadProgress.State.COMPLETED);
+        assertThat(registry.get(failedId)).map(UploadProgress::state).hasValue(UploadProgress.State.FAILED);
+    }
+
+    @Test
+    void testKeepsOutcomeWhenBodyIsDrainedAfterProcessing() {
+        final String id = registry.issue();
+        final UploadProgressTracker tracker = registry.start(id, -1);
+
+        tracker.track(Mono.just("response")).block();
+        tracker.received(10);
+        tracker.bodyComplete();
+
+        assertThat(registry.get(id)).hasValueSatisfying(progress -> {
+            assertThat(progress.state()).isEqualTo(UploadProgress.State.COMPLETED);
+            assertThat(progress.receivedBytes()).isEqualTo(10);
+        });
+    }
+
+    @Test
+    void testTracksOnlyIssuedIdsOnce() {
+        final String id = registry.issue();
+
+        assertThat(id).isNotEqualTo(registry.issue());
+        assertThat(registry.start("chosen-by-client", -1)).isNull();
+        assertThat(registry.start(null, -1)).isNull();
+        assertThat(registry.start(id, -1)).isNotNull();
+        assertThat(registry.start(id, -1)).isNull();
+        assertThat(registry.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testIssuesNoIdsBeyondCapacity() {
+        registry.setMaxEntries(2);
+
+        assertThat(registry.start(registry.issue(), -1)).isNotNull();
+        assertThat(registry.issue()).isNotNull();
+        assertThat(registry.issue()).isNull();
+    }
+
+    @Test
+    void testExpiresUnusedIds() {
+        registry.setRetention(Duration.ZERO);
+        final String id = registry.issue();
+        LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+        registry.issue();
+
+        assertThat(registry.start(id, -1)).isNull();
+    }
+
+    @Test
+    void testWatchEmitsChangesUntilDone() {
+        registry.setSampleSize(DataSize.ofBytes(1));
+        registry.setInterval(Duration.ofMillis(10));
+
+        final String id = registry.issue();
+        final AtomicReference<UploadProgressTracker> tracker = new AtomicReference<>();
+
+        StepVerifier.withVirtualTime(() -> registry.watch(id))
+                .expectSubscription()
+                .then(() -> tracker.set(registry.start(id, 10)))
+                .thenAwait(Duration.ofMillis(10))
+                .assertNext(progress -> assertThat(progress.receivedBytes()).isZero())
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> tracker.get().track(Mono.empty()).subscribe())
+                .thenAwait(Duration.ofMillis(10))
+                .assertNext(progress -> assertThat(progress.state()).isEqualTo(UploadProgress.State.COMPLETED))
+                .verifyComplete();
+    }
+
+    @Test
+    void testWatchOfUnknownIdEndsAfterRetention() {
+        registry.setRetention(Duration.ofSeconds(30));
+
+        StepVerifier.withVirtualTime(() -> registry.watch("never-started"))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(30))
+                .verifyComplete();
+    }
+
+    @Test
+    void testSnapshotsAreEqualWhileNothingChanges() {
+        final UploadProgressTracker tracker = registry.start(registry.issue(), -1);
+
+        assertThat(tracker.snapshot()).isEqualTo(tracker.snapshot());
+        assertThat(tracker.snapshot().files()).isEqualTo(List.of());
+    }
+
+    private static DataBuffer buffer(final String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes());
+    }
+}
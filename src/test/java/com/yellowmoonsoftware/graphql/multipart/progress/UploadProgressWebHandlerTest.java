@@ -0,0 +1,78 @@
+package com.yellowmoonsoftware.graphql.multipart.progress;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadProgressWebHandlerTest {
+    private final UploadProgressRegistry registry = new UploadProgressRegistry();
+
+    @Test
+    void testIssuesProgressIds() {
+        final String id = client().post().uri("/graphql/progress")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches(HttpHeaders.LOCATION, ".*/graphql/progress/[0-9a-f-]{36}")
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getFirst(UploadProgressRegistry.PROGRESS_ID);
+
+        assertThat(registry.start(id, -1)).isNotNull();
+    }
+
+    @Test
+    void testRejectsIdsBeyondCapacity() {
+        registry.setMaxEntries(0);
+
+        client().post().uri("/graphql/progress")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void testStreamsProgressAsServerSentEvents() {
+        registry.setInterval(Duration.ofMillis(10));
+        final String id = registry.issue();
+        final UploadProgressTracker tracker = registry.start(id, 42);
+        tracker.received(42);
+        tracker.track(Mono.empty()).block();
+
+        StepVerifier.create(client()
+                        .get().uri("/graphql/progress/{id}", id).accept(MediaType.TEXT_EVENT_STREAM)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                        .returnResult(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() { })
+                        .getResponseBody())
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(UploadProgressWebHandler.EVENT);
+                    assertThat(event.data()).containsEntry("id", id)
+                            .containsEntry("state", "COMPLETED")
+                            .containsEntry("contentLength", 42)
+                            .containsEntry("receivedBytes", 42);
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private WebTestClient client() {
+        final UploadProgressWebHandler handler = new UploadProgressWebHandler(registry);
+        return WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .POST("/graphql/progress", handler::handleIssueRequest)
+                        .GET("/graphql/progress/{id}", handler::handleProgressRequest)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.yellowmoonsoftware.graphql.multipart.resumable;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumableUploadStoreTest {
+    @TempDir
+    Path directory;
+
+    private ResumableUploadStore store;
+
+    @AfterEach
+    void closeStore() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void testAssemblesChunksIntoClaimableUpload() throws Exception {
+        store = new ResumableUploadStore(directory);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+
+        final ResumableUploadStatus started = store.append(null, 0, 11, "notes.txt", headers, chunks("hel", "lo ")).block();
+        assertThat(started).isNotNull();
+        final String uploadId = started.uploadId();
+        assertThat(started).isEqualTo(new ResumableUploadStatus(uploadId, 6, 11));
+        assertThatThrownBy(() -> store.claim(uploadId)).isInstanceOf(IllegalStateException.class);
+        StepVerifier.create(store.append(uploadId, 6, -1, "ignored.bin", HttpHeaders.EMPTY, chunks("world")))
+                .assertNext(status -> assertThat(status.isComplete()).isTrue())
+                .verifyComplete();
+
+        final FilePart part = store.claim(uploadId);
+
+        assertThat(part.filename()).isEqualTo("notes.txt");
+        assertThat(part.headers().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+        assertThat(DataBufferUtils.join(part.content()).map(buffer -> buffer.toString(StandardCharsets.UTF_8)).block())
+                .isEqualTo("hello world");
+        assertThatThrownBy(() -> store.claim(uploadId)).isInstanceOf(IllegalArgumentException.class);
+        StepVerifier.create(store.append(uploadId, 11, -1, "a.bin", HttpHeaders.EMPTY, chunks("!")))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+        StepVerifier.create(part.delete()).verifyComplete();
+        assertThat(store.status(uploadId)).isEmpty();
+        assertThatThrownBy(() -> store.claim(uploadId)).isInstanceOf(IllegalArgumentException.class);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testIssuesUploadIdsAndRejectsUnknownIds() {
+        store = new ResumableUploadStore(directory);
+
+        final String first = store.append(null, 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+        final String second = store.append(null, 0, -1, "b.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+
+        assertThat(first).isNotEqualTo(second);
+        StepVerifier.create(store.append("chosen-by-client", 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST)))
+                .verify();
+        StepVerifier.create(store.append(null, 3, -1, "a.bin", HttpHeaders.EMPTY, chunks("3")))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+        assertThat(store.status("chosen-by-client")).isEmpty();
+    }
+
+    @Test
+    void testRejectsChunkAtWrongOffset() {
+        store = new ResumableUploadStore(directory);
+        final String uploadId = store.append(null, 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0123")).block().uploadId();
+
+        StepVerifier.create(store.append(uploadId, 2, -1, "a.bin", HttpHeaders.EMPTY, chunks("23")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(ResumableUploadConflictException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(ex.getOffset()).isEqualTo(4);
+                    assertThat(ex.getHeaders().getFirst(ResumableUploadStore.UPLOAD_OFFSET)).isEqualTo("4");
+                }))
+                .verify();
+    }
+
+    @Test
+    void testKeepsBytesOfInterruptedChunk() {
+        store = new ResumableUploadStore(directory);
+        final String uploadId = store.append(null, 0, 8, "a.bin", HttpHeaders.EMPTY, Flux.empty()).block().uploadId();
+
+        StepVerifier.create(store.append(uploadId, 0, 8, "a.bin", HttpHeaders.EMPTY,
+                        chunks("0123").concatWith(Mono.error(new IllegalStateException("connection reset")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(store.status(uploadId)).contains(new ResumableUploadStatus(uploadId, 4, 8));
+        StepVerifier.create(store.append(uploadId, 4, 8, "a.bin", HttpHeaders.EMPTY, chunks("4567")))
+                .assertNext(status -> assertThat(status.isComplete()).isTrue())
+                .verifyComplete();
+        assertThat(DataBufferUtils.join(store.claim(uploadId).content()).map(buffer -> buffer.toString(StandardCharsets.UTF_8)).block())
+                .isEqualTo("01234567");
+    }
+
+    @Test
+    void testClaimsZeroLengthUpload() {
+        store = new ResumableUploadStore(directory);
+        final String uploadId = store.append(null, 0, 0, "empty.txt", HttpHeaders.EMPTY, Flux.empty()).block().uploadId();
+
+        final FilePart part = store.claim(uploadId);
+
+        assertThat(part.filename()).isEqualTo("empty.txt");
+        StepVerifier.create(part.content()).verifyComplete();
+    }
+
+    @Test
+    void testUnclaimedUploadCanBeClaimedAgain() {
+        store = new ResumableUploadStore(directory);
+        final String uploadId = store.append(null, 0, 5, "a.txt", HttpHeaders.EMPTY, chunks("hello")).block().uploadId();
+        store.claim(uploadId);
+
+        store.unclaim(uploadId);
+
+        assertThat(store.status(uploadId)).contains(new ResumableUploadStatus(uploadId, 5, 5));
+        assertThat(DataBufferUtils.join(store.claim(uploadId).content()).map(buffer -> buffer.toString(StandardCharsets.UTF_8)).block())
+                .isEqualTo("hello");
+    }
+
+    @Test
+    void testRejectsContentBeyondDeclaredOrMaximumLength() {
+        store = new ResumableUploadStore(directory);
+        store.setMaxLength(DataSize.ofBytes(6));
+
+        StepVerifier.create(store.append(null, 0, 3, "a.bin", HttpHeaders.EMPTY, chunks("0123")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST)))
+                .verify();
+        final String declared = store.append(null, 0, 4, "a.bin", HttpHeaders.EMPTY, Flux.empty()).block().uploadId();
+        StepVerifier.create(store.append(declared, 0, 5, "a.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+        StepVerifier.create(store.append(null, 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0123", "4567")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartLimitExceededException.class,
+                        ex -> assertThat(ex.getLimit()).isEqualTo(ResumableUploadStore.MAX_LENGTH)))
+                .verify();
+        StepVerifier.create(store.append(null, 0, 7, "a.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectError(GraphQlMultipartLimitExceededException.class)
+                .verify();
+        StepVerifier.create(store.append("../etc", 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectError(GraphQlMultipartException.class)
+                .verify();
+    }
+
+    @Test
+    void testRejectsUploadsBeyondMaximumStaged() {
+        store = new ResumableUploadStore(directory);
+        store.setMaxUploads(1);
+        final String uploadId = store.append(null, 0, 1, "a.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+
+        StepVerifier.create(store.append(null, 0, -1, "b.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.STORAGE_EXHAUSTED)))
+                .verify();
+
+        StepVerifier.create(store.claim(uploadId).delete()).verifyComplete();
+        StepVerifier.create(store.append(null, 0, -1, "b.bin", HttpHeaders.EMPTY, chunks("0")))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeletesExpiredUploads() throws Exception {
+        store = new ResumableUploadStore(directory);
+        store.setExpiry(Duration.ZERO);
+        final String stale = store.append(null, 0, -1, "a.bin", HttpHeaders.EMPTY, chunks("0123")).block().uploadId();
+
+        Thread.sleep(5);
+        final String fresh = store.append(null, 0, -1, "b.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+
+        assertThat(store.status(stale)).isEmpty();
+        assertThat(store.status(fresh)).isPresent();
+    }
+
+    @Test
+    void testDeletesExpiredClaims() throws Exception {
+        store = new ResumableUploadStore(directory);
+        store.setExpiry(Duration.ZERO);
+        final String claimed = store.append(null, 0, 1, "a.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+        store.claim(claimed);
+
+        Thread.sleep(5);
+        store.append(null, 0, -1, "b.bin", HttpHeaders.EMPTY, chunks("0")).block();
+
+        assertThat(store.status(claimed)).isEmpty();
+    }
+
+    @Test
+    void testCloseDeletesClaimedUploads() throws Exception {
+        store = new ResumableUploadStore(directory);
+        final String uploadId = store.append(null, 0, 1, "a.bin", HttpHeaders.EMPTY, chunks("0")).block().uploadId();
+        store.claim(uploadId);
+
+        store.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,6 +1,11 @@
 package com.yellowmoonsoftware.graphql.multipart.scalars;
 
 import com.yellowmoonsoftware.graphql.multipart.MockFilePart;
+import com.yellowmoonsoftware.graphql.multipart.Upload;
+import com.yellowmoonsoftware.graphql.multipart.UploadContext;
+import com.yellowmoonsoftware.graphql.multipart.resumable.ResumableUploadStore;
+import com.yellowmoonsoftware.graphql.multipart.sink.UploadReference;
+import com.yellowmoonsoftware.graphql.multipart.storage.SpillingUploadStorage;
 import graphql.GraphQLContext;
 import graphql.execution.CoercedVariables;
 import graphql.language.NullValue;
@@ -8,8 +13,14 @@ import graphql.schema.CoercingParseLiteralException;
 import graphql.schema.CoercingParseValueException;
 import graphql.schema.CoercingSerializeException;
 import org.junit.jupiter.api.Test;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Locale;
 
@@ -23,12 +34,44 @@ class UploadScalarTest {
     private final Locale locale = Locale.US;
 
     @Test
-    void parseValueReturnsFilePart() {
+    void parseValueReturnsUploadWrappingFilePart() {
         final MockFilePart filePart = new MockFilePart("sample.txt", "file", "sample");
 
-        final FilePart parsed = scalar.parseValue(filePart, context, locale);
+        final Upload parsed = (Upload) scalar.parseValue(filePart, context, locale);
 
-        assertThat(parsed).isSameAs(filePart);
+        assertThat(parsed.getPart()).isSameAs(filePart);
+        assertThat(parsed.filename()).isEqualTo("sample.txt");
+    }
+
+    @Test
+    void parseValueBindsUploadToRequestContext() {
+        final MockFilePart filePart = new MockFilePart("sample.txt", "file", "sample");
+        final UploadContext uploadContext = new UploadContext(new SpillingUploadStorage());
+        final GraphQLContext requestContext = GraphQLContext.newContext()
+                .of(UploadContext.KEY, uploadContext)
+                .build();
+
+        final Upload parsed = (Upload) scalar.parseValue(filePart, requestContext, locale);
+
+        StepVerifier.create(parsed.replayable())
+                .assertNext(replayable -> assertThat(replayable.isReplayable()).isTrue())
+                .verifyComplete();
+        StepVerifier.create(uploadContext.release()).verifyComplete();
+    }
+
+    @Test
+    void parseValueKeepsExistingUpload() {
+        final Upload upload = Upload.of(new MockFilePart("sample.txt", "file", "sample"));
+
+        assertThat(scalar.parseValue(upload, context, locale)).isSameAs(upload);
+    }
+
+    @Test
+    void parseValueReturnsUploadReference() {
+        final UploadReference reference = new UploadReference("0", "sample.txt", MediaType.TEXT_PLAIN, 6,
+                URI.create("file:///uploads/sample.txt"));
+
+        assertThat(scalar.parseValue(reference, context, locale)).isSameAs(reference);
     }
 
     @Test
@@ -53,4 +96,50 @@ class UploadScalarTest {
                 .isInstanceOf(CoercingParseLiteralException.class)
                 .hasMessageContaining("input-only");
     }
+
+    @Test
+    void parseValueClaimsCompleteResumableUpload() {
+        try (ResumableUploadStore store = new ResumableUploadStore()) {
+            final UploadScalar resumableScalar = new UploadScalar(store);
+            final String complete = store.append(null, 0, 5, "a.txt", HttpHeaders.EMPTY,
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("hello".getBytes(StandardCharsets.UTF_8)))).block().uploadId();
+            final String partial = store.append(null, 0, 5, "b.txt", HttpHeaders.EMPTY, Flux.empty()).block().uploadId();
+
+            assertThatThrownBy(() -> scalar.parseValue(complete, context, locale))
+                    .isInstanceOf(CoercingParseValueException.class);
+            final Upload parsed = (Upload) resumableScalar.parseValue(complete, context, locale);
+
+            assertThat(parsed.filename()).isEqualTo("a.txt");
+            assertThat(parsed.contentLength()).isEqualTo(5);
+            assertThat(parsed.isReplayable()).isTrue();
+            assertThatThrownBy(() -> resumableScalar.parseValue(complete, context, locale))
+                    .isInstanceOf(CoercingParseValueException.class);
+            assertThatThrownBy(() -> resumableScalar.parseValue(partial, context, locale))
+                    .isInstanceOf(CoercingParseValueException.class)
+                    .hasMessageContaining("not complete");
+            assertThatThrownBy(() -> resumableScalar.parseValue("missing", context, locale))
+                    .isInstanceOf(CoercingParseValueException.class);
+        }
+    }
+
+    @Test
+    void parseValueReturnsClaimedResumableUploadWhenRequestFails() {
+        try (ResumableUploadStore store = new ResumableUploadStore()) {
+            final UploadScalar resumableScalar = new UploadScalar(store);
+            final String uploadId = store.append(null, 0, 5, "a.txt", HttpHeaders.EMPTY,
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("hello".getBytes(StandardCharsets.UTF_8)))).block().uploadId();
+            final UploadContext failed = new UploadContext(new SpillingUploadStorage());
+
+            resumableScalar.parseValue(uploadId, GraphQLContext.newContext().of(UploadContext.KEY, failed).build(), locale);
+            StepVerifier.create(failed.release()).verifyComplete();
+
+            assertThat(store.status(uploadId)).isPresent();
+            final UploadContext succeeded = new UploadContext(new SpillingUploadStorage());
+            resumableScalar.parseValue(uploadId, GraphQLContext.newContext().of(UploadContext.KEY, succeeded).build(), locale);
+            succeeded.succeeded();
+            StepVerifier.create(succeeded.release()).verifyComplete();
+
+            assertThat(store.status(uploadId)).isEmpty();
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigestAlgorithm;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigester;
+import com.yellowmoonsoftware.graphql.multipart.digest.ContentDigests;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+class DeduplicatingUploadSinkTest {
+    private static final String HELLO_SHA_256 = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+    private static final String HELLO_SHA_256_BASE64 = "uU0nuZNNPgilLlLX2n2r+sSE7+N6U4DukIj3rOLvzek=";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSharesObjectOfDuplicateContent() throws Exception {
+        final DeduplicatingUploadSink sink = new DeduplicatingUploadSink(new FileSystemUploadSink(directory));
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_PNG);
+
+        final UploadReference first = sink.write("0", "logo.png", HttpHeaders.EMPTY, chunks("hello ", "world")).block();
+        final UploadReference second = sink.write("1", "copy.png", headers, chunks("hello world")).block();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(second.location()).isEqualTo(first.location());
+        assertThat(second.filename()).isEqualTo("copy.png");
+        assertThat(second.contentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(second.digests().hex(ContentDigestAlgorithm.SHA_256)).isEqualTo(HELLO_SHA_256);
+        assertThat(sink.getHits()).isEqualTo(1);
+        assertThat(files()).containsExactly(Path.of(first.location()));
+
+        StepVerifier.create(sink.delete(first)).verifyComplete();
+        assertThat(Path.of(second.location())).hasContent("hello world");
+        StepVerifier.create(sink.delete(second)).verifyComplete();
+        assertThat(files()).isEmpty();
+        assertThat(sink.getIndexSize()).isZero();
+    }
+
+    @Test
+    void testUsesSuppliedDigests() throws Exception {
+        final DeduplicatingUploadSink sink = new DeduplicatingUploadSink(new FileSystemUploadSink(directory));
+        final ContentDigester digester = new ContentDigester(Set.of(ContentDigestAlgorithm.SHA_256));
+        final Flux<DataBuffer> digested = chunks("hello world").doOnNext(digester::update);
+        final ContentDigests[] digests = {ContentDigests.NONE};
+        final UploadReference first = sink.write("0", "a.txt", HttpHeaders.EMPTY, digested.doOnComplete(() -> digests[0] = digester.finish()),
+                () -> digests[0]).block();
+
+        final UploadReference second = sink.write("1", "b.txt", HttpHeaders.EMPTY, chunks("hello world"), () -> first.digests()).block();
+        final UploadReference undigested = sink.write("2", "c.txt", HttpHeaders.EMPTY, chunks("hello world"), () -> ContentDigests.NONE).block();
+
+        assertThat(first.digests().hex(ContentDigestAlgorithm.SHA_256)).isEqualTo(HELLO_SHA_256);
+        assertThat(second.location()).isEqualTo(first.location());
+        assertThat(undigested.location()).isNotEqualTo(first.location());
+        assertThat(sink.getHits()).isEqualTo(1);
+        assertThat(files()).hasSize(2);
+    }
+
+    @Test
+    void testSkipsWriteOfKnownDeclaredContent() throws Exception {
+        final UploadSink delegate = Mockito.spy(new FileSystemUploadSink(directory));
+        final DeduplicatingUploadSink sink = new DeduplicatingUploadSink(delegate);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("Repr-Digest", "sha-256=:" + HELLO_SHA_256_BASE64 + ":");
+        final UploadReference stored = sink.write("0", "a.txt", HttpHeaders.EMPTY, chunks("hello world")).block();
+
+        final UploadReference shared = sink.write("1", "b.txt", headers, chunks("hello world")).block();
+
+        assertThat(shared).isNotNull();
+        assertThat(shared.location()).isEqualTo(stored.location());
+        Mockito.verify(delegate, Mockito.times(1)).write(any(), any(), any(), any());
+        StepVerifier.create(sink.write("2", "c.txt", headers, chunks("tampered")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.DIGEST_MISMATCH)))
+                .verify();
+
+        StepVerifier.create(sink.delete(stored).then(sink.delete(shared))).verifyComplete();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void testEvictedObjectsAreNoLongerShared() throws Exception {
+        final DeduplicatingUploadSink sink = new DeduplicatingUploadSink(new FileSystemUploadSink(directory), 1);
+
+        final UploadReference first = sink.write("0", "a.txt", HttpHeaders.EMPTY, chunks("hello world")).block();
+        sink.write("1", "b.txt", HttpHeaders.EMPTY, chunks("other")).block();
+        final UploadReference again = sink.write("2", "c.txt", HttpHeaders.EMPTY, chunks("hello world")).block();
+
+        assertThat(sink.getIndexSize()).isEqualTo(1);
+        assertThat(sink.getHits()).isZero();
+        assertThat(again.location()).isNotEqualTo(first.location());
+        StepVerifier.create(sink.delete(first)).verifyComplete();
+        assertThat(Path.of(first.location())).doesNotExist();
+        assertThat(Path.of(again.location())).hasContent("hello world");
+        assertThat(files()).hasSize(2);
+    }
+
+    @Test
+    void testRejectsNegativeIndexSize() {
+        assertThatThrownBy(() -> new DeduplicatingUploadSink(new FileSystemUploadSink(directory), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemUploadSinkTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWritesUploadToOwnFile() throws Exception {
+        final FileSystemUploadSink sink = new FileSystemUploadSink(directory.resolve("uploads"));
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_PNG);
+
+        final UploadReference reference = sink.write("0", "../../etc/avatar.PNG", headers, chunks("hello ", "world")).block();
+
+        assertThat(reference).isNotNull();
+        assertThat(reference.name()).isEqualTo("0");
+        assertThat(reference.filename()).isEqualTo("../../etc/avatar.PNG");
+        assertThat(reference.contentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(reference.contentLength()).isEqualTo(11);
+        final Path file = Path.of(reference.location());
+        assertThat(file).hasParent(directory.resolve("uploads")).hasContent("hello world");
+        assertThat(file.getFileName().toString()).endsWith(".png");
+
+        StepVerifier.create(sink.delete(reference)).verifyComplete();
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void testLowercasesExtensionIndependentlyOfDefaultLocale() {
+        final Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            final UploadReference reference = new FileSystemUploadSink(directory)
+                    .write("0", "SCAN.TIFF", HttpHeaders.EMPTY, chunks("tiff")).block();
+
+            assertThat(reference).isNotNull();
+            assertThat(Path.of(reference.location()).getFileName().toString()).endsWith(".tiff");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testDeletesPartialFileOnError() throws Exception {
+        final FileSystemUploadSink sink = new FileSystemUploadSink(directory);
+
+        StepVerifier.create(sink.write("0", "a.txt", HttpHeaders.EMPTY,
+                        chunks("0123").concatWith(Mono.error(new IllegalStateException("boom")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
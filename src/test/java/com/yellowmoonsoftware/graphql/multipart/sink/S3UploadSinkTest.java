@@ -0,0 +1,202 @@
+package com.yellowmoonsoftware.graphql.multipart.sink;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class S3UploadSinkTest {
+    private final Map<String, String> objects = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, String>> uploads = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile int failingPart = -1;
+    private volatile int untaggedPart = -1;
+    private DisposableServer server;
+    private S3UploadSink sink;
+
+    @BeforeEach
+    void startObjectStore() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(this::handle)
+                .bindNow();
+        sink = new S3UploadSink(WebClient.create(), URI.create("http://localhost:" + server.port()), "bucket",
+                "eu-west-1", "test-key", "test-secret");
+        sink.setKeyPrefix("uploads/");
+    }
+
+    @AfterEach
+    void stopObjectStore() {
+        server.disposeNow();
+    }
+
+    @Test
+    void testWritesSmallUploadWithSinglePut() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+
+        final UploadReference reference = sink.write("0", "notes.TXT", headers, chunks("hello ", "world")).block();
+
+        assertThat(reference).isNotNull();
+        assertThat(reference.name()).isEqualTo("0");
+        assertThat(reference.filename()).isEqualTo("notes.TXT");
+        assertThat(reference.contentType()).isEqualTo(MediaType.TEXT_PLAIN);
+        assertThat(reference.contentLength()).isEqualTo(11);
+        assertThat(reference.location().toString()).startsWith("http://localhost:" + server.port() + "/bucket/uploads/").endsWith(".txt");
+        assertThat(objects).containsEntry(reference.location().getPath(), "hello world");
+        assertThat(contentTypes).containsEntry(reference.location().getPath(), MediaType.TEXT_PLAIN_VALUE);
+        assertThat(requests).singleElement().asString().startsWith("PUT /bucket/uploads/");
+
+        StepVerifier.create(sink.delete(reference)).verifyComplete();
+
+        assertThat(objects).isEmpty();
+    }
+
+    @Test
+    void testWritesEmptyUpload() {
+        final UploadReference reference = sink.write("0", "empty", HttpHeaders.EMPTY, Flux.empty()).block();
+
+        assertThat(reference).isNotNull();
+        assertThat(reference.contentLength()).isZero();
+        assertThat(reference.contentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(objects).containsEntry(reference.location().getPath(), "");
+    }
+
+    @Test
+    void testWritesLargeUploadAsMultipartUpload() {
+        sink.setPartSize(DataSize.ofBytes(4));
+
+        final UploadReference reference = sink.write("0", "big.bin", HttpHeaders.EMPTY, chunks("012", "345", "678", "9")).block();
+
+        assertThat(reference).isNotNull();
+        assertThat(reference.contentLength()).isEqualTo(10);
+        assertThat(objects).containsEntry(reference.location().getPath(), "0123456789");
+        assertThat(requests).extracting(request -> request.substring(0, request.indexOf(' ')))
+                .containsExactly("POST", "PUT", "PUT", "POST");
+        assertThat(requests.get(2)).contains("partNumber=2");
+        assertThat(uploads).isEmpty();
+    }
+
+    @Test
+    void testAbortsMultipartUploadWhenPartFails() {
+        sink.setPartSize(DataSize.ofBytes(4));
+        failingPart = 2;
+
+        StepVerifier.create(sink.write("0", "big.bin", HttpHeaders.EMPTY, chunks("0123", "4567", "89")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+                    assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.SINK_FAILED);
+                }))
+                .verify();
+
+        assertThat(objects).isEmpty();
+        assertThat(uploads).isEmpty();
+        assertThat(requests.get(requests.size() - 1)).startsWith("DELETE ").contains("uploadId=");
+    }
+
+    @Test
+    void testAbortsMultipartUploadWhenPartHasNoETag() {
+        sink.setPartSize(DataSize.ofBytes(4));
+        untaggedPart = 1;
+
+        StepVerifier.create(sink.write("0", "big.bin", HttpHeaders.EMPTY, chunks("0123", "4567", "89")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOfSatisfying(GraphQlMultipartException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+                    assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.SINK_FAILED);
+                }))
+                .verify();
+
+        assertThat(objects).isEmpty();
+        assertThat(uploads).isEmpty();
+        assertThat(requests.get(requests.size() - 1)).startsWith("DELETE ").contains("uploadId=");
+    }
+
+    private Mono<Void> handle(final HttpServerRequest request, final HttpServerResponse response) {
+        requests.add(request.method().name() + " " + request.uri());
+        final String authorization = request.requestHeaders().get(HttpHeaders.AUTHORIZATION, "");
+        if (!authorization.startsWith("AWS4-HMAC-SHA256 Credential=test-key/") || !authorization.contains("/eu-west-1/s3/aws4_request")) {
+            return response.status(HttpResponseStatus.FORBIDDEN).send();
+        }
+        final QueryStringDecoder query = new QueryStringDecoder(request.uri());
+        final String path = query.path();
+        final Map<String, List<String>> params = query.parameters();
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8).defaultIfEmpty("").flatMap(body -> {
+            if (request.method() == HttpMethod.POST && params.containsKey("uploads")) {
+                final String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new TreeMap<>());
+                return response.sendString(Mono.just("<InitiateMultipartUploadResult><UploadId>" + uploadId
+                        + "</UploadId></InitiateMultipartUploadResult>")).then();
+            }
+            if (request.method() == HttpMethod.PUT && params.containsKey("partNumber")) {
+                final int partNumber = Integer.parseInt(params.get("partNumber").get(0));
+                if (partNumber == failingPart) {
+                    return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send();
+                }
+                uploads.get(params.get("uploadId").get(0)).put(partNumber, body);
+                if (partNumber == untaggedPart) {
+                    return response.send();
+                }
+                return response.header(HttpHeaders.ETAG, "\"etag-" + partNumber + "\"").send();
+            }
+            if (request.method() == HttpMethod.POST && params.containsKey("uploadId")) {
+                final Map<Integer, String> parts = uploads.remove(params.get("uploadId").get(0));
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                parts.forEach((partNumber, part) -> {
+                    assertThat(body).contains("<PartNumber>" + partNumber + "</PartNumber><ETag>\"etag-" + partNumber + "\"</ETag>");
+                    content.writeBytes(part.getBytes(StandardCharsets.UTF_8));
+                });
+                objects.put(path, content.toString(StandardCharsets.UTF_8));
+                return response.sendString(Mono.just("<CompleteMultipartUploadResult/>")).then();
+            }
+            if (request.method() == HttpMethod.DELETE && params.containsKey("uploadId")) {
+                uploads.remove(params.get("uploadId").get(0));
+                return response.status(HttpResponseStatus.NO_CONTENT).send();
+            }
+            if (request.method() == HttpMethod.PUT) {
+                objects.put(path, body);
+                contentTypes.put(path, request.requestHeaders().get(HttpHeaders.CONTENT_TYPE, ""));
+                return response.send();
+            }
+            if (request.method() == HttpMethod.DELETE) {
+                objects.remove(path);
+                return response.status(HttpResponseStatus.NO_CONTENT).send();
+            }
+            return response.status(HttpResponseStatus.METHOD_NOT_ALLOWED).send();
+        });
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,210 @@
+package com.yellowmoonsoftware.graphql.multipart.storage;
+
+import com.yellowmoonsoftware.graphql.multipart.GraphQlMultipartException;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillingUploadStorageTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testKeepsSmallUploadInMemoryWithoutCopying() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        final NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        final List<NettyDataBuffer> received = new ArrayList<>();
+        final Flux<DataBuffer> content = Flux.just("hello ", "world")
+                .map(chunk -> factory.wrap(Unpooled.wrappedBuffer(chunk.getBytes(StandardCharsets.UTF_8))))
+                .doOnNext(received::add)
+                .cast(DataBuffer.class);
+
+        final StoredFilePart part = (StoredFilePart) storage.store("0", "a.txt", HttpHeaders.EMPTY, content).block();
+
+        assertThat(part).isNotNull();
+        assertThat(part.isInMemory()).isTrue();
+        assertThat(part.getContentLength()).isEqualTo(11);
+        assertThat(part.filename()).isEqualTo("a.txt");
+        assertThat(read(part)).isEqualTo("hello world");
+        assertThat(read(part)).isEqualTo("hello world");
+        assertThat(received).allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isEqualTo(1));
+
+        StepVerifier.create(part.delete()).verifyComplete();
+
+        assertThat(received).allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+        StepVerifier.create(part.content()).expectError(IllegalStateException.class).verify();
+    }
+
+    @Test
+    void testSpillsLargeUploadToDiskAndDeletesIt() throws Exception {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(8));
+
+        final StoredFilePart part = (StoredFilePart) storage.store("0", "big.txt", HttpHeaders.EMPTY,
+                chunks("0123456", "789abcdef", "ghij")).block();
+
+        assertThat(part).isNotNull();
+        assertThat(part.isInMemory()).isFalse();
+        assertThat(part.getFile()).hasParent(directory).hasContent("0123456789abcdefghij");
+        assertThat(part.getContentLength()).isEqualTo(20);
+        assertThat(storage.getDiskUsage()).isEqualTo(20);
+        assertThat(read(part)).isEqualTo("0123456789abcdefghij");
+        assertThat(read(part)).isEqualTo("0123456789abcdefghij");
+
+        final Path copy = directory.resolve("copy.txt");
+        StepVerifier.create(part.transferTo(copy)).verifyComplete();
+        assertThat(copy).hasContent("0123456789abcdefghij");
+
+        StepVerifier.create(part.delete().then(part.delete())).verifyComplete();
+
+        assertThat(part.getFile()).doesNotExist();
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    @Test
+    void testRejectsUploadExceedingDiskQuota() throws Exception {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(4));
+        storage.setMaxDiskUsage(DataSize.ofBytes(10));
+
+        final FilePart first = storage.store("0", "a.txt", HttpHeaders.EMPTY, chunks("012345")).block();
+
+        StepVerifier.create(storage.store("1", "b.txt", HttpHeaders.EMPTY, chunks("0123", "4567")))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(GraphQlMultipartException.class, ex -> {
+                            assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.INSUFFICIENT_STORAGE);
+                            assertThat(ex.getErrorCode()).isEqualTo(GraphQlMultipartException.STORAGE_EXHAUSTED);
+                        }))
+                .verify();
+
+        assertThat(storage.getDiskUsage()).isEqualTo(6);
+        awaitFiles(1);
+
+        StepVerifier.create(first.delete()).verifyComplete();
+        assertThat(storage.getDiskUsage()).isZero();
+        StepVerifier.create(storage.store("2", "c.txt", HttpHeaders.EMPTY, chunks("0123", "4567")).flatMap(FilePart::delete))
+                .verifyComplete();
+    }
+
+    @Test
+    void testAcceptsEveryConcurrentUploadFittingTheDiskQuota() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(4));
+        storage.setMaxDiskUsage(DataSize.ofBytes(40));
+
+        final List<FilePart> stored = Flux.range(0, 16)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> storage.store(String.valueOf(i), i + ".txt", HttpHeaders.EMPTY, chunks("0123456789"))
+                        .onErrorResume(GraphQlMultipartException.class, e -> Mono.empty()))
+                .sequential()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(stored).hasSize(4);
+        assertThat(storage.getDiskUsage()).isEqualTo(40);
+        Flux.fromIterable(stored).flatMap(FilePart::delete).blockLast();
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    @Test
+    void testDiscardsPartialUploadOnError() throws Exception {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(4));
+
+        StepVerifier.create(storage.store("0", "a.txt", HttpHeaders.EMPTY,
+                        chunks("0123", "4567").concatWith(Mono.error(new IllegalStateException("boom")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        awaitFiles(0);
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    @Test
+    void testDeletesFileCreatedAfterCancel() throws Exception {
+        final SpillingUploadStorage storage = new SpillingUploadStorage(directory);
+        storage.setInMemoryThreshold(DataSize.ofBytes(4));
+
+        // Cancel at increasing delays so some cancels land while the spill file is being created.
+        for (int i = 0; i < 200; i++) {
+            final Disposable upload = storage.store("0", "a.txt", HttpHeaders.EMPTY, chunks("0123", "4567").concatWith(Flux.never()))
+                    .subscribe();
+            LockSupport.parkNanos(i * 5_000L);
+            upload.dispose();
+        }
+
+        awaitFiles(0);
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    @Test
+    void testCloseDeletesPrivateDirectory() {
+        final SpillingUploadStorage storage = new SpillingUploadStorage();
+        storage.setInMemoryThreshold(DataSize.ofBytes(1));
+
+        final StoredFilePart part = (StoredFilePart) storage.store("0", "a.txt", HttpHeaders.EMPTY, chunks("0123")).block();
+        assertThat(part).isNotNull();
+        final Path privateDirectory = part.getFile().getParent();
+
+        storage.close();
+
+        assertThat(part.getFile()).doesNotExist();
+        assertThat(privateDirectory).doesNotExist();
+        assertThat(storage.getDiskUsage()).isZero();
+    }
+
+    private void awaitFiles(final int expected) throws Exception {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (countFiles() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(countFiles()).isEqualTo(expected);
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(final String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String read(final FilePart part) {
+        return DataBufferUtils.join(part.content())
+                .map(buffer -> {
+                    final String value = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return value;
+                })
+                .block();
+    }
+}
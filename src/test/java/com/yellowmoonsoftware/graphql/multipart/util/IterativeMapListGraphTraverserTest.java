@@ -0,0 +1,109 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import com.yellowmoonsoftware.graphql.multipart.util.IterativeMapListGraphTraverser.Result;
+import graphql.com.google.common.collect.Lists;
+import graphql.com.google.common.collect.Maps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IterativeMapListGraphTraverserTest {
+    Map<String, Object> aMap;
+    List<Object> aList;
+    Map<String, Object> baseMap;
+
+    IterativeMapListGraphTraverser traverser;
+
+    @BeforeEach
+    void setup() {
+        aMap = Maps.newLinkedHashMap();
+        aMap.put("baz", "qux");
+        aMap.put("fish", null);
+        baseMap = Maps.newLinkedHashMap();
+        baseMap.put("foo", null);
+        baseMap.put("a-map", aMap);
+        aList = Lists.newArrayList();
+        aList.add("list-item-1");
+        aList.add(null);
+        aList.add(Lists.newArrayList(aMap));
+        baseMap.put("a-list", aList);
+
+        traverser = (IterativeMapListGraphTraverser) IterativeMapListGraphTraverser.wrap(baseMap);
+    }
+
+    @Test
+    void trySetWritesNestedMapAndListValues() {
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-map.baz"), "updated")).isEqualTo(Result.APPLIED);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-list.1"), "new-list-item")).isEqualTo(Result.APPLIED);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-list.2.0.fish"), "caught")).isEqualTo(Result.APPLIED);
+
+        assertThat(aMap).containsEntry("baz", "updated").containsEntry("fish", "caught");
+        assertThat(aList.get(1)).isEqualTo("new-list-item");
+    }
+
+    @Test
+    void trySetReportsFailureCodesWithoutModifyingTheGraph() {
+        assertThat(traverser.trySet(ObjectGraphPath.from(null), "x")).isEqualTo(Result.INVALID_PATH);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-map.missing"), "x")).isEqualTo(Result.MISSING_KEY);
+        assertThat(traverser.trySet(ObjectGraphPath.from("missing.baz"), "x")).isEqualTo(Result.MISSING_KEY);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-list.9"), "x")).isEqualTo(Result.INDEX_OUT_OF_RANGE);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-list.-1"), "x")).isEqualTo(Result.INDEX_OUT_OF_RANGE);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-list.first"), "x")).isEqualTo(Result.INDEX_OUT_OF_RANGE);
+        assertThat(traverser.trySet(ObjectGraphPath.from("a-map.baz.deeper"), "x")).isEqualTo(Result.NOT_A_CONTAINER);
+        assertThat(traverser.trySet(ObjectGraphPath.from("foo.bar"), "x")).isEqualTo(Result.NOT_A_CONTAINER);
+
+        assertThat(aMap).containsOnlyKeys("baz", "fish");
+        assertThat(aList).hasSize(3);
+    }
+
+    @Test
+    void resolveProbesWithoutWriting() {
+        assertThat(traverser.resolve(ObjectGraphPath.from("a-map.fish"))).isEqualTo(Result.APPLIED);
+        assertThat(traverser.resolve(ObjectGraphPath.from("a-map.missing"))).isEqualTo(Result.MISSING_KEY);
+        assertThat(aMap.get("fish")).isNull();
+    }
+
+    @Test
+    void setAndGetWithPathMatchMapListGraphTraverser() {
+        final ObjectGraphTraverser reference = MapListGraphTraverser.wrap(baseMap);
+
+        for (final String path : List.of("a-map.baz", "a-list.0", "a-list.2.0.baz", "a-list.9", "foo", "missing.key", "a-map.baz.x")) {
+            final ObjectGraphPath parsed = ObjectGraphPath.from(path);
+            assertThat(traverser.<Object>get(parsed)).as(path).isEqualTo(reference.get(parsed));
+        }
+
+        assertThat(traverser.set(ObjectGraphPath.from("a-map.baz"), "updated")).isEqualTo("updated");
+        assertThat(traverser.set(ObjectGraphPath.from("a-map.nope"), "updated")).isNull();
+        assertThat(reference.<String>get(ObjectGraphPath.from("a-map.baz"))).isEqualTo("updated");
+    }
+
+    @Test
+    void singleKeyAccessTreatsDotsAsPartOfTheKey() {
+        baseMap.put("dotted.key", null);
+
+        assertThat(traverser.set("dotted.key", "value")).isEqualTo("value");
+        assertThat(traverser.<String>get("dotted.key")).isEqualTo("value");
+        assertThat(traverser.set("absent", "value")).isNull();
+        assertThat(baseMap).doesNotContainKey("absent");
+    }
+
+    @Test
+    void dereferenceReturnsTraverserForContainersAndNullObjectOtherwise() {
+        assertThat(traverser.dereference("a-list").<String>get("0")).isEqualTo("list-item-1");
+        assertThat(traverser.dereference("a-list").<String>get("99")).isNull();
+        assertThat(traverser.dereference("a-map").set("baz", "changed")).isEqualTo("changed");
+        assertThat(traverser.dereference("foo")).isEqualTo(NullObjectGraphTraverser.INSTANCE);
+        assertThat(traverser.dereference(null)).isEqualTo(NullObjectGraphTraverser.INSTANCE);
+        assertThat(aMap.get("baz")).isEqualTo("changed");
+    }
+
+    @Test
+    void wrapOnNonMapOrListValueReturnsNullObject() {
+        assertThat(IterativeMapListGraphTraverser.wrap(null)).isEqualTo(NullObjectGraphTraverser.INSTANCE);
+        assertThat(IterativeMapListGraphTraverser.wrap("a-string")).isEqualTo(NullObjectGraphTraverser.INSTANCE);
+    }
+}
@@ -0,0 +1,64 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObjectGraphPathCacheTest {
+
+    @Test
+    void getReturnsSharedInstancesAndCountsHitsAndMisses() {
+        final ObjectGraphPathCache cache = new ObjectGraphPathCache(8);
+
+        final ObjectGraphPath first = cache.get("variables.files.0");
+        final ObjectGraphPath second = cache.get("variables.files.0");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.pathSegments()).containsExactly("variables", "files");
+        assertThat(first.keyIndex()).isZero();
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void segmentsAreInternedAcrossPaths() {
+        final ObjectGraphPathCache cache = new ObjectGraphPathCache(8);
+
+        final ObjectGraphPath first = cache.get(new String("variables.input.a"));
+        final ObjectGraphPath second = cache.get(new String("variables.input.b"));
+
+        assertThat(second.pathSegments().get(0)).isSameAs(first.pathSegments().get(0));
+        assertThat(second.pathSegments().get(1)).isSameAs(first.pathSegments().get(1));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPathsBeyondCapacity() {
+        final ObjectGraphPathCache cache = new ObjectGraphPathCache(2);
+
+        cache.get("variables.a");
+        cache.get("variables.b");
+        cache.get("variables.a");
+        cache.get("variables.c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.capacity()).isEqualTo(2);
+
+        cache.get("variables.a");
+        assertThat(cache.missCount()).isEqualTo(3);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sharedCacheBacksObjectGraphPathFrom() {
+        final long misses = ObjectGraphPathCache.shared().missCount();
+
+        ObjectGraphPath.from("variables.sharedCacheTest");
+        ObjectGraphPath.from("variables.sharedCacheTest");
+
+        assertThat(ObjectGraphPathCache.shared().missCount()).isEqualTo(misses + 1);
+        assertThat(ObjectGraphPathCache.shared().capacity()).isEqualTo(ObjectGraphPathCache.DEFAULT_CAPACITY);
+    }
+}
@@ -89,4 +89,44 @@ class ObjectGraphPathTest {
 
         assertThat(path.toString()).isEqualTo("$[] INVALID");
     }
+
+    @Test
+    void fromReturnsSharedInstanceForRepeatedPaths() {
+        assertThat(ObjectGraphPath.from("variables.input.file")).isSameAs(ObjectGraphPath.from("variables.input.file"));
+    }
+
+    @Test
+    void parseMatchesRegexSplitSemanticsForEmptySegments() {
+        final ObjectGraphPath trailing = ObjectGraphPath.parse("variables.files.");
+        final ObjectGraphPath leading = ObjectGraphPath.parse(".variables.file");
+        final ObjectGraphPath inner = ObjectGraphPath.parse("variables..file");
+        final ObjectGraphPath separatorsOnly = ObjectGraphPath.parse("...");
+
+        assertThat(trailing.pathSegments()).containsExactly("variables");
+        assertThat(trailing.key()).isEqualTo("files");
+        assertThat(leading.pathSegments()).containsExactly("", "variables");
+        assertThat(leading.key()).isEqualTo("file");
+        assertThat(inner.pathSegments()).containsExactly("variables", "");
+        assertThat(inner.key()).isEqualTo("file");
+        assertThat(separatorsOnly.isValid()).isFalse();
+    }
+
+    @Test
+    void segmentsAreClassifiedAsListIndices() {
+        final ObjectGraphPath path = ObjectGraphPath.parse("variables.files.12.+3.-1.x9.99999999999.0");
+
+        assertThat(path.segmentIndex(0)).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+        assertThat(path.segmentIndex(1)).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+        assertThat(path.segmentIndex(2)).isEqualTo(12);
+        assertThat(path.segmentIndex(3)).isEqualTo(3);
+        assertThat(path.segmentIndex(4)).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+        assertThat(path.segmentIndex(5)).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+        assertThat(path.segmentIndex(6)).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+        assertThat(path.keyIndex()).isZero();
+    }
+
+    @Test
+    void keyIndexIsNotAnIndexForInvalidPath() {
+        assertThat(ObjectGraphPath.from(null).keyIndex()).isEqualTo(ObjectGraphPath.NOT_AN_INDEX);
+    }
 }
@@ -0,0 +1,98 @@
+package com.yellowmoonsoftware.graphql.multipart.util;
+
+import graphql.com.google.common.collect.Lists;
+import graphql.com.google.common.collect.Maps;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ObjectGraphPathTrieTest {
+
+    private static Map<String, Object> operations(final int fileCount) {
+        final Map<String, Object> input = Maps.newHashMap();
+        input.put("files", new ArrayList<>(Arrays.asList(new Object[fileCount])));
+        input.put("avatar", null);
+        final Map<String, Object> variables = Maps.newHashMap();
+        variables.put("input", input);
+        final Map<String, Object> ops = Maps.newHashMap();
+        ops.put("variables", variables);
+        return ops;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyToWritesAllLeaves() {
+        final Map<String, Object> ops = operations(3);
+        final ObjectGraphPathTrie<String> trie = new ObjectGraphPathTrie<String>()
+                .put(ObjectGraphPath.from("variables.input.files.0"), "f0")
+                .put(ObjectGraphPath.from("variables.input.files.2"), "f2")
+                .put(ObjectGraphPath.from("variables.input.avatar"), "avatar");
+
+        trie.applyTo(IterativeMapListGraphTraverser.wrap(ops));
+
+        final Map<String, Object> input = (Map<String, Object>) ((Map<String, Object>) ops.get("variables")).get("input");
+        assertThat(trie.size()).isEqualTo(3);
+        assertThat((List<Object>) input.get("files")).containsExactly("f0", null, "f2");
+        assertThat(input).containsEntry("avatar", "avatar");
+    }
+
+    @Test
+    void applyToDereferencesSharedPrefixesOnce() {
+        final Map<String, Object> ops = operations(100);
+        final ObjectGraphPathTrie<String> trie = new ObjectGraphPathTrie<>();
+        for (int i = 0; i < 100; i++) {
+            trie.put(ObjectGraphPath.from("variables.input.files." + i), "f" + i);
+        }
+        final ObjectGraphTraverser root = spy(MapListGraphTraverser.wrap(ops));
+
+        trie.applyTo(root);
+
+        verify(root, times(1)).dereference(anyString());
+        assertThat(root.<List<Object>>get(ObjectGraphPath.from("variables.input.files"))).doesNotContainNull().hasSize(100);
+    }
+
+    @Test
+    void invalidAndUnresolvablePathsAreSkipped() {
+        final Map<String, Object> ops = operations(1);
+        final ObjectGraphPathTrie<String> trie = new ObjectGraphPathTrie<String>()
+                .put(ObjectGraphPath.from(null), "ignored")
+                .put(ObjectGraphPath.from("variables.missing.file"), "missing")
+                .put(ObjectGraphPath.from("variables.input.files.5"), "out-of-range");
+
+        assertThat(trie.size()).isEqualTo(2);
+        trie.applyTo(IterativeMapListGraphTraverser.wrap(ops));
+
+        assertThat(ops).isEqualTo(operations(1));
+    }
+
+    @Test
+    void laterValueForSamePathReplacesEarlierOne() {
+        final List<Object> files = Lists.newArrayList((Object) null);
+        final ObjectGraphPathTrie<String> trie = new ObjectGraphPathTrie<String>()
+                .put(ObjectGraphPath.from("0"), "first")
+                .put(ObjectGraphPath.from("0"), "second");
+
+        trie.applyTo(IterativeMapListGraphTraverser.wrap(files));
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(files).containsExactly("second");
+    }
+
+    @Test
+    void emptyTrieAppliesNothing() {
+        final ObjectGraphPathTrie<String> trie = new ObjectGraphPathTrie<>();
+
+        assertThat(trie.isEmpty()).isTrue();
+        trie.applyTo(NullObjectGraphTraverser.INSTANCE);
+        assertThat(trie.size()).isZero();
+    }
+}